@@ -0,0 +1,97 @@
+package bench;
+
+import IA.Coup;
+import IA.EvaluationIncrementale;
+import IA.IADifficile;
+import Modele.MoteurJeu;
+import Modele.PlateauBinaire;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static Utile.Constante.*;
+
+/**
+ * Coût d'une feuille de la recherche : chaque coup de chaque position d'une phase du corpus est joué, la position
+ * obtenue est évaluée (score et fin de partie), puis le coup est annulé. L'heuristique complète est comparée à
+ * l'évaluation incrémentale.
+ * <p>
+ * Sur une machine à un cœur (JDK 17, 3 × 10 itérations, µs par balayage) : complète 69,9 ± 8,2 / 71,3 ± 5,3 /
+ * 65,9 ± 4,6, incrémentale 73,1 ± 5,0 / 50,3 ± 4,1 / 41,0 ± 3,1 en ouverture / milieu / fin de partie. Le gain
+ * n'apparaît qu'une fois les bâtiments nombreux ; en ouverture les deux sont dans la marge d'erreur.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+@State(Scope.Benchmark)
+public class BenchEvaluation {
+    @Param({Corpus.OUVERTURE, Corpus.MILIEU, Corpus.FIN})
+    public String phase;
+
+    private PlateauBinaire[] plateaux;
+    private int[] joueurs;
+    private int[][] coups;
+    private int[] nb_coups;
+    private IADifficile ia;
+    private EvaluationIncrementale evaluation;
+
+    @Setup
+    public void preparer() {
+        List<Corpus.Position> positions = Corpus.positions(phase);
+        plateaux = new PlateauBinaire[positions.size()];
+        joueurs = new int[positions.size()];
+        coups = new int[positions.size()][NOMBRE_COUPS_MAX];
+        nb_coups = new int[positions.size()];
+        for (int i = 0; i < plateaux.length; i++) {
+            plateaux[i] = positions.get(i).versBinaire();
+            joueurs[i] = positions.get(i).joueur;
+            nb_coups[i] = plateaux[i].genererCoups(joueurs[i], coups[i], 0);
+        }
+        ia = new IADifficile(new MoteurJeu(), 0, 1);
+        evaluation = IADifficile.nouvelleEvaluation(1);
+    }
+
+    @Benchmark
+    public int complete() {
+        int somme = 0;
+        for (int i = 0; i < plateaux.length; i++) {
+            PlateauBinaire plateau = plateaux[i];
+            for (int k = 0; k < nb_coups[i]; k++) {
+                int coup = coups[i][k];
+                int b = Coup.getBatisseur(coup), d = Coup.getDeplacement(coup), c = Coup.getConstruction(coup);
+                plateau.deplacer(b, d);
+                plateau.construire(c);
+                boolean finie = plateau.estBloque(JOUEUR1) || plateau.estBloque(JOUEUR2) || plateau.aGagne(JOUEUR1) || plateau.aGagne(JOUEUR2);
+                somme += ia.evaluer(plateau, joueurs[i]) + (finie ? 1 : 0);
+                plateau.deconstruire(c);
+                plateau.deplacer(d, b);
+            }
+        }
+        return somme;
+    }
+
+    @Benchmark
+    public int incrementale() {
+        int somme = 0;
+        for (int i = 0; i < plateaux.length; i++) {
+            PlateauBinaire plateau = plateaux[i];
+            evaluation.initialiser(plateau);
+            for (int k = 0; k < nb_coups[i]; k++) {
+                int coup = coups[i][k];
+                int b = Coup.getBatisseur(coup), d = Coup.getDeplacement(coup), c = Coup.getConstruction(coup);
+                plateau.deplacer(b, d);
+                plateau.construire(c);
+                evaluation.jouer(plateau, b, d, c);
+                somme += evaluation.getScore(joueurs[i]) + (evaluation.estFinie() ? 1 : 0);
+                evaluation.annuler();
+                plateau.deconstruire(c);
+                plateau.deplacer(d, b);
+            }
+        }
+        return somme;
+    }
+}
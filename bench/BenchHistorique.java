@@ -0,0 +1,39 @@
+package bench;
+
+import Historique.Sauvegarde;
+import Modele.Jeu;
+import Utile.ConfigurationPartie;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chargement des parties sauvegardées du corpus par {@link Jeu#charger(Sauvegarde)}, qui joue leurs cases
+ * directement sur le moteur.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BenchHistorique {
+    private List<Sauvegarde> sauvegardes;
+
+    @Setup
+    public void preparer() {
+        sauvegardes = Corpus.sauvegardes();
+    }
+
+    @Benchmark
+    public Jeu charger() {
+        Jeu jeu = null;
+        for (Sauvegarde sauvegarde : sauvegardes) {
+            jeu = new Jeu(() -> { }, new ConfigurationPartie(0, 0));
+            jeu.charger(sauvegarde);
+        }
+        return jeu;
+    }
+}
@@ -0,0 +1,81 @@
+package bench;
+
+import IA.IADifficile;
+import Modele.MoteurJeu;
+import Modele.PlateauBinaire;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Recherche de l'IA difficile à profondeur fixe sur chaque position d'une phase du corpus, table de transposition
+ * vidée à chaque position, sans livre d'ouvertures ni solveur de fin de partie. Le compteur {@code noeuds} donne le
+ * nombre de nœuds par seconde ; le paramètre {@code tri} mesure le gain du tri des coups, et le paramètre
+ * {@code fils} l'accélération de la recherche parallèle (rapport des débits sur un fil et sur plusieurs).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BenchIADifficile {
+    @Param({Corpus.OUVERTURE, Corpus.MILIEU, Corpus.FIN})
+    public String phase;
+
+    @Param({"3"})
+    public int profondeur;
+
+    @Param({"true", "false"})
+    public boolean tri;
+
+    @Param({"1", "4"})
+    public int fils;
+
+    private List<Corpus.Position> positions;
+    private PlateauBinaire[] plateaux;
+    private IADifficile ia;
+
+    /**
+     * Nœuds explorés, rapportés en nœuds par seconde par JMH.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Compteurs {
+        public long noeuds;
+
+        @Setup(Level.Iteration)
+        public void razCompteurs() {
+            noeuds = 0;
+        }
+    }
+
+    @Setup
+    public void preparer() {
+        positions = Corpus.positions(phase);
+        plateaux = new PlateauBinaire[positions.size()];
+        for (int i = 0; i < plateaux.length; i++) plateaux[i] = positions.get(i).versBinaire();
+        ia = new IADifficile(new MoteurJeu(), Long.MAX_VALUE, profondeur, fils);
+        ia.setTriCoups(tri);
+        // Seule la recherche est mesurée : ni livre d'ouvertures ni résolution des fins de partie.
+        ia.setLivre(null);
+        ia.setSeuilFinale(0);
+    }
+
+    @TearDown
+    public void terminer() {
+        ia.fermer();
+    }
+
+    @Benchmark
+    public void recherche(Compteurs compteurs, Blackhole trou) {
+        for (int i = 0; i < plateaux.length; i++) {
+            ia.viderTable();
+            trou.consume(ia.chercherCoup(plateaux[i], positions.get(i).joueur));
+            compteurs.noeuds += ia.getNoeuds();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package bench;
+
+import Reseau.Message;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.io.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sérialisation Java d'un {@link Message} de coup, tel qu'envoyé entre client et serveur.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BenchMessage {
+    private Message message;
+    private byte[] octets;
+
+    @Setup
+    public void preparer() throws IOException {
+        message = new Message(Message.MOVE, new Point(2, 3));
+        octets = serialiser(message);
+    }
+
+    private static byte[] serialiser(Message message) throws IOException {
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+        try (ObjectOutputStream flux = new ObjectOutputStream(sortie)) {
+            flux.writeObject(message);
+        }
+        return sortie.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] serialisation() throws IOException {
+        return serialiser(message);
+    }
+
+    @Benchmark
+    public Object deserialisation() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream flux = new ObjectInputStream(new ByteArrayInputStream(octets))) {
+            return flux.readObject();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package bench;
+
+import Modele.Plateau;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.awt.*;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mesures sur le plateau : copie, cases accessibles et constructions possibles des batisseurs du joueur en cours,
+ * sur chaque phase du corpus.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BenchPlateau {
+    @Param({Corpus.OUVERTURE, Corpus.MILIEU, Corpus.FIN})
+    public String phase;
+
+    private List<Corpus.Position> positions;
+
+    @Setup
+    public void preparer() {
+        positions = Corpus.positions(phase);
+    }
+
+    @Benchmark
+    public void copie(Blackhole trou) {
+        for (Corpus.Position position : positions) {
+            trou.consume(new Plateau(position.plateau));
+        }
+    }
+
+    @Benchmark
+    public void casesAccessibles(Blackhole trou) {
+        for (Corpus.Position position : positions) {
+            for (Point batisseur : position.getBatisseurs()) {
+                trou.consume(position.plateau.getCasesAccessibles(batisseur));
+            }
+        }
+    }
+
+    @Benchmark
+    public void constructionsPossibles(Blackhole trou) {
+        for (Corpus.Position position : positions) {
+            for (Point batisseur : position.getBatisseurs()) {
+                trou.consume(position.plateau.getConstructionsPossible(batisseur));
+            }
+        }
+    }
+}
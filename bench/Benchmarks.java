@@ -0,0 +1,29 @@
+package bench;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Lance les mesures de performance et exporte les résultats en JSON, pour comparer deux versions du jeu.
+ * <p>
+ * Usage : {@code Benchmarks [fichier.json] [expression des mesures]}, par défaut toutes les mesures dans
+ * {@code bench_resultats.json}. La compilation avec JMH et le lancement depuis la racine du dépôt sont décrits dans le
+ * README.
+ */
+public class Benchmarks {
+    public static void main(String[] args) throws RunnerException {
+        String fichier = args.length > 0 ? args[0] : "bench_resultats.json";
+        String mesures = args.length > 1 ? args[1] : "Bench.*";
+
+        Options options = new OptionsBuilder()
+                .include(mesures)
+                .jvmArgsAppend("-Djava.awt.headless=true")
+                .resultFormat(ResultFormatType.JSON)
+                .result(fichier)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,125 @@
+package bench;
+
+import Historique.Sauvegarde;
+import IA.IA;
+import IA.IAFacile;
+import IA.IANormale;
+import Modele.MoteurJeu;
+import Modele.Plateau;
+import Modele.PlateauBinaire;
+import Utile.ConfigurationPartie;
+
+import java.awt.*;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static Utile.Constante.*;
+
+/**
+ * Corpus fixe de positions pour les mesures de performance : des parties IANormale contre IAFacile aux graines
+ * fixées sont jouées sur le {@link MoteurJeu}, et l'on retient pour chacune une position d'ouverture (premier tour
+ * après le placement), de milieu de partie et de fin de partie (deux tours avant la fin).
+ * Les mêmes graines donnent toujours le même corpus.
+ */
+public class Corpus {
+    public static final String OUVERTURE = "ouverture";
+    public static final String MILIEU = "milieu";
+    public static final String FIN = "fin";
+
+    private static final int NB_PARTIES = 16;
+    private static final long GRAINE = 2022;
+
+    /**
+     * Position d'un joueur au début de son tour.
+     */
+    public static class Position {
+        public final Plateau plateau;
+        public final ArrayList<Point> batisseurs_j1;
+        public final ArrayList<Point> batisseurs_j2;
+        public final int joueur;
+
+        Position(MoteurJeu moteur) {
+            plateau = new Plateau(moteur.getPlateau());
+            batisseurs_j1 = new ArrayList<>(moteur.getBatisseurs(JOUEUR1));
+            batisseurs_j2 = new ArrayList<>(moteur.getBatisseurs(JOUEUR2));
+            joueur = moteur.getJoueurEnCours();
+        }
+
+        public ArrayList<Point> getBatisseurs() {
+            return joueur == JOUEUR1 ? batisseurs_j1 : batisseurs_j2;
+        }
+
+        public PlateauBinaire versBinaire() {
+            return new PlateauBinaire(plateau, batisseurs_j1, batisseurs_j2);
+        }
+    }
+
+    private static final List<Position> OUVERTURES = new ArrayList<>();
+    private static final List<Position> MILIEUX = new ArrayList<>();
+    private static final List<Position> FINS = new ArrayList<>();
+    private static final List<Sauvegarde> PARTIES = new ArrayList<>();
+
+    static {
+        for (int i = 0; i < NB_PARTIES; i++) {
+            jouerPartie(i);
+        }
+    }
+
+    private Corpus() { /* Non utilisé car utilisation des attributs statiques */ }
+
+    /**
+     * Joue une partie et retient ses positions de début de tour ainsi que ses cases, encodées comme dans une
+     * sauvegarde.
+     */
+    private static void jouerPartie(int index) {
+        MoteurJeu moteur = new MoteurJeu(index % 2);
+        IA joueur1 = new IANormale(moteur, JOUEUR1);
+        IA joueur2 = new IAFacile(moteur, JOUEUR2);
+        joueur1.setGraine(GRAINE + 2L * index);
+        joueur2.setGraine(GRAINE + 2L * index + 1);
+
+        List<Position> tours = new ArrayList<>();
+        ByteArrayOutputStream cases = new ByteArrayOutputStream();
+        while (!moteur.estJeufini()) {
+            if (moteur.getSituation() == SELECTION) tours.add(new Position(moteur));
+            Point position = (moteur.getJoueurEnCours() == JOUEUR1 ? joueur1 : joueur2).joue();
+            Point batisseur = moteur.getBatisseurEnCours();
+            switch (moteur.jouer(position)) {
+                case PLACEMENT -> cases.write(Sauvegarde.encoder(position, Sauvegarde.TYPE_PLACEMENT));
+                case DEPLACEMENT -> {
+                    cases.write(Sauvegarde.encoder(batisseur, Sauvegarde.TYPE_DEPART));
+                    cases.write(Sauvegarde.encoder(position, Sauvegarde.TYPE_ARRIVEE));
+                }
+                case CONSTRUCTION -> cases.write(Sauvegarde.encoder(position, Sauvegarde.TYPE_CONSTRUCTION));
+                default -> { /* La sélection du batisseur fait partie de son déplacement */ }
+            }
+        }
+        if (tours.size() < 3) return;
+        OUVERTURES.add(tours.get(0));
+        MILIEUX.add(tours.get(tours.size() / 2));
+        FINS.add(tours.get(tours.size() - 3));
+        if (index % 2 == 0) PARTIES.add(new Sauvegarde(new ConfigurationPartie(0, 0), cases.toByteArray(), 0));
+    }
+
+    /**
+     * @param phase {@link #OUVERTURE}, {@link #MILIEU} ou {@link #FIN}
+     * @return les positions de la phase de jeu demandée
+     */
+    public static List<Position> positions(String phase) {
+        return switch (phase) {
+            case OUVERTURE -> OUVERTURES;
+            case MILIEU -> MILIEUX;
+            case FIN -> FINS;
+            default -> throw new IllegalArgumentException("Phase inconnue : " + phase);
+        };
+    }
+
+    /**
+     * @return les parties du corpus commencées par le joueur 1, sans coup annulé, chargeables par
+     * {@link Historique.Historique#charger(Sauvegarde)}
+     */
+    public static List<Sauvegarde> sauvegardes() {
+        return PARTIES;
+    }
+}
@@ -0,0 +1,392 @@
+package Historique;
+
+import Modele.MoteurJeu;
+import Utile.ConfigurationPartie;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.function.IntPredicate;
+
+import static Utile.Constante.*;
+
+/**
+ * Catalogue des sauvegardes, pour les lister sans ouvrir chaque fichier : un fichier d'index projeté en mémoire, avec
+ * une entrée de taille fixe par partie, ajoutée à chaque sauvegarde.
+ * <p>
+ * Le fichier commence par un en-tête de 24 octets (signature, version, nombre d'entrées, un entier réservé et la date
+ * du dossier des sauvegardes lors de la dernière synchronisation), suivi des entrées de 96 octets : date de la
+ * sauvegarde en millisecondes, hash de la position finale, nombre de cases jouées, hash du nom du fichier, modes d'IA
+ * des deux joueurs, gagnant, puis nom du fichier dans le dossier. Une entrée est écrite avant que le nombre d'entrées
+ * ne la compte, donc un arrêt pendant un ajout ne laisse pas d'entrée incomplète.
+ * <p>
+ * Les fichiers peuvent être ajoutés ou supprimés hors du jeu : quand la date du dossier a changé, le catalogue est
+ * synchronisé avec son contenu ({@link #synchroniser(File)}).
+ * <p>
+ * Les accesseurs lisent directement la projection : filtrer et trier les entrées ne crée aucun objet par partie.
+ */
+public class Catalogue {
+    private static final int SIGNATURE = 0x4341544C; // "CATL"
+    private static final int VERSION = 2;
+    private static final int TAILLE_ENTETE = 24;
+    private static final int DATE_DOSSIER = 16;
+    private static final int TAILLE_ENTREE = 96;
+    private static final int TAILLE_NOM = TAILLE_ENTREE - 28;
+    private static final int CAPACITE_INITIALE = 1024;
+    /**
+     * Bits de l'indice dans une clé de tri : une projection de moins de 2 Go compte moins de 2^25 entrées.
+     */
+    private static final int BITS_INDICE = 25;
+    private static final long MAX_CLE = (1L << 63 - BITS_INDICE) - 1;
+
+    private static final int DATE = 0;
+    private static final int HASH = 8;
+    private static final int LONGUEUR = 16;
+    private static final int CLE_NOM = 20;
+    private static final int MODE1 = 24;
+    private static final int MODE2 = 25;
+    private static final int GAGNANT = 26;
+    private static final int NOM = 27;
+
+    /**
+     * Tri par date de sauvegarde.
+     */
+    public static final int TRI_DATE = 0;
+    /**
+     * Tri par nombre de cases jouées.
+     */
+    public static final int TRI_LONGUEUR = 1;
+
+    private static Catalogue catalogue;
+    private static File dossier_catalogue;
+
+    private final FileChannel canal;
+    private MappedByteBuffer donnees;
+    private int nb_parties;
+
+    private Catalogue(FileChannel canal) throws IOException {
+        this.canal = canal;
+        if (canal.size() == 0) {
+            projeter(CAPACITE_INITIALE);
+            donnees.putInt(0, SIGNATURE);
+            donnees.putInt(4, VERSION);
+            donnees.putInt(8, 0);
+        } else {
+            if (canal.size() < TAILLE_ENTETE) throw new IOException("Catalogue invalide");
+            projeter((int) ((canal.size() - TAILLE_ENTETE) / TAILLE_ENTREE));
+            if (donnees.getInt(0) != SIGNATURE) throw new IOException("Catalogue invalide");
+            if (donnees.getInt(4) != VERSION) throw new IOException("Version de catalogue inconnue");
+        }
+        nb_parties = donnees.getInt(8);
+        if (nb_parties < 0 || nb_parties > capacite()) throw new IOException("Catalogue tronqué");
+    }
+
+    /**
+     * Ouvre le catalogue du fichier, créé vide s'il n'existe pas.
+     *
+     * @throws IOException si le fichier n'est pas un catalogue, ou d'une autre version
+     */
+    public static Catalogue ouvrir(File fichier) throws IOException {
+        FileChannel canal = FileChannel.open(fichier.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            return new Catalogue(canal);
+        } catch (IOException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return le catalogue {@link Utile.Constante#FICHIER_CATALOGUE} du dossier des sauvegardes, ouvert au premier
+     * appel et synchronisé avec le dossier ; il est reconstruit depuis les sauvegardes s'il est absent ou illisible
+     * @throws IOException si le catalogue ne peut pas être créé
+     * @see Sauvegarde#getDossier()
+     */
+    public static synchronized Catalogue getCatalogue() throws IOException {
+        File dossier = Sauvegarde.getDossier();
+        if (catalogue != null && !dossier.equals(dossier_catalogue)) {
+            catalogue.fermer();
+            catalogue = null;
+        }
+        if (catalogue == null) {
+            File fichier = new File(dossier, FICHIER_CATALOGUE);
+            try {
+                if (fichier.exists()) catalogue = ouvrir(fichier);
+            } catch (IOException e) {
+                System.err.println("Catalogue illisible, il est reconstruit");
+            }
+            if (catalogue == null) catalogue = reconstruire(fichier, dossier);
+            dossier_catalogue = dossier;
+        }
+        catalogue.synchroniser(dossier);
+        return catalogue;
+    }
+
+    /**
+     * Ferme le catalogue ouvert par {@link #getCatalogue()}, rouvert au prochain appel.
+     */
+    public static synchronized void fermerCatalogue() throws IOException {
+        if (catalogue == null) return;
+        catalogue.fermer();
+        catalogue = null;
+        dossier_catalogue = null;
+    }
+
+    /**
+     * Écrit une sauvegarde dans le dossier des sauvegardes et l'ajoute au catalogue. Le catalogue est synchronisé avant
+     * l'écriture, puis daté du dossier après l'ajout : la sauvegarde ne le fait pas relire. Une erreur du catalogue
+     * n'est qu'affichée : la sauvegarde reste dans son fichier.
+     *
+     * @param fichier fichier de {@link Sauvegarde#getDossier()}
+     * @throws IOException si la sauvegarde ne peut pas être écrite
+     */
+    public static void enregistrer(File fichier, Sauvegarde sauvegarde) throws IOException {
+        synchronized (Catalogue.class) {
+            Catalogue c = null;
+            try {
+                c = getCatalogue();
+            } catch (IOException e) {
+                System.err.println("Le catalogue des sauvegardes n'a pas pu être ouvert");
+                e.printStackTrace();
+            }
+            sauvegarde.ecrire(fichier);
+            if (c == null) return;
+            try {
+                c.ajouter(fichier, sauvegarde);
+                c.donnees.putLong(DATE_DOSSIER, dossier_catalogue.lastModified());
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("La sauvegarde " + fichier.getName() + " n'a pas pu être ajoutée au catalogue");
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Recrée un catalogue en lisant toutes les sauvegardes d'un dossier ; celles qui sont illisibles sont ignorées.
+     *
+     * @param fichier fichier du catalogue, remplacé
+     * @param dossier dossier des sauvegardes
+     */
+    public static Catalogue reconstruire(File fichier, File dossier) throws IOException {
+        if (fichier.exists() && !fichier.delete()) throw new IOException("Catalogue " + fichier + " impossible à remplacer");
+        File parent = fichier.getAbsoluteFile().getParentFile();
+        if (!parent.isDirectory() && !parent.mkdirs()) throw new IOException("Dossier " + parent + " impossible à créer");
+        Catalogue c = ouvrir(fichier);
+        c.synchroniser(dossier);
+        return c;
+    }
+
+    /**
+     * Met le catalogue à jour si le dossier des sauvegardes a changé depuis la dernière synchronisation : les entrées
+     * des fichiers supprimés sont retirées et les sauvegardes absentes du catalogue y sont ajoutées, celles qui sont
+     * illisibles étant ignorées.
+     *
+     * @return vrai si le dossier a été relu
+     */
+    public boolean synchroniser(File dossier) throws IOException {
+        // Date lue avant le contenu : un fichier ajouté pendant la lecture sera vu à la synchronisation suivante.
+        long date = dossier.lastModified();
+        if (date != 0 && date == donnees.getLong(DATE_DOSSIER)) return false;
+        File[] sauvegardes = dossier.listFiles((d, nom) -> nom.endsWith(".sav"));
+        if (sauvegardes == null) sauvegardes = new File[0];
+        HashSet<String> noms = new HashSet<>();
+        for (File sauvegarde : sauvegardes) noms.add(sauvegarde.getName());
+
+        // Une entrée en double, laissée par un arrêt pendant une suppression, est retirée comme celle d'un fichier
+        // supprimé.
+        HashSet<String> catalogues = new HashSet<>();
+        for (int i = nb_parties - 1; i >= 0; i--) {
+            String nom = getNom(i);
+            if (!noms.contains(nom) || !catalogues.add(nom)) supprimer(i);
+        }
+
+        // Sans tri : l'ordre des entrées n'importe pas, lister() trie sur leurs dates.
+        for (File sauvegarde : sauvegardes) {
+            if (catalogues.contains(sauvegarde.getName())) continue;
+            try {
+                // Les noms d'un dossier sont uniques : l'entrée est ajoutée sans chercher le nom dans le catalogue.
+                ecrire(nb_parties, sauvegarde, Sauvegarde.lire(sauvegarde));
+            } catch (IOException | IllegalArgumentException e) {
+                System.err.println("Sauvegarde " + sauvegarde.getName() + " ignorée par le catalogue");
+            }
+        }
+        donnees.putLong(DATE_DOSSIER, date);
+        return true;
+    }
+
+    /**
+     * Retire une entrée en la remplaçant par la dernière.
+     */
+    private void supprimer(int i) {
+        int derniere = TAILLE_ENTETE + (nb_parties - 1) * TAILLE_ENTREE;
+        if (i != nb_parties - 1) {
+            byte[] entree = new byte[TAILLE_ENTREE];
+            donnees.get(derniere, entree);
+            donnees.put(position(i), entree);
+        }
+        nb_parties--;
+        donnees.putInt(8, nb_parties);
+    }
+
+    /**
+     * Ajoute la partie d'un fichier de sauvegarde au catalogue, ou remplace son entrée si le fichier y est déjà.
+     * La position finale est celle obtenue en jouant toutes ses cases, y compris celles annulées.
+     *
+     * @param fichier    fichier où la partie vient d'être écrite, dont la date est celle de l'entrée
+     * @param sauvegarde partie écrite
+     * @throws IOException si le nom du fichier est trop long ou si le catalogue ne peut pas être agrandi
+     */
+    public void ajouter(File fichier, Sauvegarde sauvegarde) throws IOException {
+        int i = indice(fichier.getName());
+        ecrire(i < 0 ? nb_parties : i, fichier, sauvegarde);
+    }
+
+    /**
+     * Écrit l'entrée d'indice donné, ou une nouvelle entrée pour l'indice nb_parties.
+     */
+    private void ecrire(int i, File fichier, Sauvegarde sauvegarde) throws IOException {
+        byte[] nom = fichier.getName().getBytes(StandardCharsets.UTF_8);
+        if (nom.length > TAILLE_NOM - 1) throw new IOException("Nom de sauvegarde trop long : " + fichier.getName());
+
+        ConfigurationPartie config = sauvegarde.getConfiguration();
+        MoteurJeu moteur;
+        try {
+            moteur = sauvegarde.rejouer();
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(e.getMessage() + " dans " + fichier.getName());
+        }
+
+        if (i == capacite()) projeter(Math.max(CAPACITE_INITIALE, 2 * capacite()));
+        int debut = TAILLE_ENTETE + i * TAILLE_ENTREE;
+        donnees.putLong(debut + DATE, fichier.lastModified());
+        donnees.putLong(debut + HASH, moteur.getPlateau().getHash());
+        donnees.putInt(debut + LONGUEUR, sauvegarde.getNbCases());
+        donnees.putInt(debut + CLE_NOM, fichier.getName().hashCode());
+        donnees.put(debut + MODE1, (byte) config.getIaMode1());
+        donnees.put(debut + MODE2, (byte) config.getIaMode2());
+        donnees.put(debut + GAGNANT, (byte) moteur.getGagnant());
+        donnees.put(debut + NOM, (byte) nom.length);
+        donnees.put(debut + NOM + 1, nom);
+        if (i == nb_parties) {
+            nb_parties++;
+            donnees.putInt(8, nb_parties);
+        }
+    }
+
+    /**
+     * @return l'indice de l'entrée du fichier, -1 s'il n'est pas dans le catalogue
+     */
+    public int indice(String nom) {
+        int cle = nom.hashCode();
+        for (int i = nb_parties - 1; i >= 0; i--) {
+            if (donnees.getInt(TAILLE_ENTETE + i * TAILLE_ENTREE + CLE_NOM) == cle && getNom(i).equals(nom)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Liste les entrées acceptées par un filtre, triées.
+     *
+     * @param filtre      indices des entrées à garder, null pour toutes
+     * @param tri         TRI_DATE ou TRI_LONGUEUR
+     * @param decroissant vrai pour commencer par la plus récente ou la plus longue
+     * @return les indices des entrées, à égalité dans l'ordre du catalogue
+     */
+    public int[] lister(IntPredicate filtre, int tri, boolean decroissant) {
+        // Clé de tri au-dessus des BITS_INDICE bits de poids faible, qui portent l'indice : un tri de long suffit. La
+        // date en secondes y tient sur 38 bits, bien au-delà de 2038.
+        long[] cles = new long[nb_parties];
+        int n = 0;
+        for (int i = 0; i < nb_parties; i++) {
+            if (filtre != null && !filtre.test(i)) continue;
+            long cle = tri == TRI_DATE ? Math.max(0, getDate(i) / 1000) : getLongueur(i);
+            if (decroissant) cle = MAX_CLE - Math.min(cle, MAX_CLE);
+            cles[n++] = cle << BITS_INDICE | i;
+        }
+        Arrays.sort(cles, 0, n);
+        int[] indices = new int[n];
+        for (int i = 0; i < n; i++) indices[i] = (int) (cles[i] & (1L << BITS_INDICE) - 1);
+        return indices;
+    }
+
+    public int getNbParties() {
+        return nb_parties;
+    }
+
+    /**
+     * @return la date de la sauvegarde, en millisecondes depuis le 1er janvier 1970
+     */
+    public long getDate(int i) {
+        return donnees.getLong(position(i) + DATE);
+    }
+
+    /**
+     * @return le hash de Zobrist du plateau à la fin de la partie
+     */
+    public long getHash(int i) {
+        return donnees.getLong(position(i) + HASH);
+    }
+
+    /**
+     * @return le nombre de cases jouées dans la partie
+     */
+    public int getLongueur(int i) {
+        return donnees.getInt(position(i) + LONGUEUR);
+    }
+
+    public int getIaMode1(int i) {
+        return donnees.get(position(i) + MODE1);
+    }
+
+    public int getIaMode2(int i) {
+        return donnees.get(position(i) + MODE2);
+    }
+
+    /**
+     * @return le numéro du joueur gagnant, 0 si la partie n'est pas finie
+     */
+    public int getGagnant(int i) {
+        return donnees.get(position(i) + GAGNANT);
+    }
+
+    /**
+     * @return le nom du fichier de la sauvegarde dans le dossier des sauvegardes
+     */
+    public String getNom(int i) {
+        int debut = position(i) + NOM;
+        byte[] nom = new byte[donnees.get(debut)];
+        donnees.get(debut + 1, nom);
+        return new String(nom, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Écrit les entrées sur le disque et ferme le catalogue.
+     */
+    public void fermer() throws IOException {
+        donnees.force();
+        canal.close();
+    }
+
+    private int position(int i) {
+        if (i < 0 || i >= nb_parties) throw new IndexOutOfBoundsException("Entrée " + i + " absente du catalogue");
+        return TAILLE_ENTETE + i * TAILLE_ENTREE;
+    }
+
+    private int capacite() {
+        return (donnees.capacity() - TAILLE_ENTETE) / TAILLE_ENTREE;
+    }
+
+    /**
+     * Projette en mémoire l'en-tête et la place pour un nombre d'entrées, en agrandissant le fichier si besoin.
+     */
+    private void projeter(int capacite) throws IOException {
+        donnees = canal.map(FileChannel.MapMode.READ_WRITE, 0, TAILLE_ENTETE + (long) capacite * TAILLE_ENTREE);
+    }
+}
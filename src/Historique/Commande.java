@@ -24,6 +24,14 @@ public abstract class Commande {
 
     protected abstract void action(Jeu jeu, int type);
 
+    /**
+     * Écrit les cases de la commande, encodées par {@link Sauvegarde#encoder}.
+     * @param cases tableau où écrire
+     * @param debut indice de la première case écrite
+     * @return le nombre de cases écrites
+     */
+    protected abstract int ecrire(byte[] cases, int debut);
+
     /**
      * Exécution de la commande.
      * @param jeu objet sur lequel exécuter la commande
@@ -42,10 +42,19 @@ public class CoupConstruire extends Commande {
         jeu.setSituation(situation);
         jeu.changerJoueur();
         jeu.setBatisseurEnCours(batisseur_en_cours);
+        // La construction a pu bloquer l'adversaire : la partie finit ou reprend avec elle.
+        if (type == REDO) jeu.checkPerdu();
+        else if (jeu.estJeufini()) jeu.setJeuFini(false);
         jeu.MAJObservateur();
         jeu.iaEssayeJouer();
     }
 
+    @Override
+    protected int ecrire(byte[] cases, int debut) {
+        cases[debut] = Sauvegarde.encoder(position, Sauvegarde.TYPE_CONSTRUCTION);
+        return 1;
+    }
+
     @Override
     public String toString() {
         return position.x + " " + position.y;
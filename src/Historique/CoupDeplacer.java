@@ -76,6 +76,17 @@ public class CoupDeplacer extends Commande {
         }
     }
 
+    @Override
+    protected int ecrire(byte[] cases, int debut) {
+        if (positions[1] == null) {
+            cases[debut] = Sauvegarde.encoder(positions[0], Sauvegarde.TYPE_PLACEMENT);
+            return 1;
+        }
+        cases[debut] = Sauvegarde.encoder(positions[1], Sauvegarde.TYPE_DEPART);
+        cases[debut + 1] = Sauvegarde.encoder(positions[0], Sauvegarde.TYPE_ARRIVEE);
+        return 2;
+    }
+
     @Override
     public String toString() {
         String str = "";
@@ -1,13 +1,14 @@
 package Historique;
 
+import Modele.Instantane;
 import Modele.Jeu;
+import Modele.Joueur;
+import Modele.MoteurJeu;
 import Utile.ConfigurationPartie;
 
 import java.awt.*;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileWriter;
-import java.text.SimpleDateFormat;
+import java.nio.file.NoSuchFileException;
 import java.util.*;
 
 import static Utile.Constante.*;
@@ -16,10 +17,22 @@ import static Utile.Constante.*;
  * Classe composé de 2 piles de commande, l'une servant à stocker les commandes effectuées,
  * l'autre à stocker les commandes annulées.
  * Elle permet aussi de sauvegarder une partie ainsi que d'en charger une.
+ * Un instantané de la partie est gardé toutes les {@link Utile.Constante#PERIODE_INSTANTANES} commandes, pour se
+ * rendre à n'importe quelle position sans rejouer la partie depuis le début.
  */
 public class Historique {
+    /**
+     * Action du moteur attendue pour chaque type de case d'une sauvegarde.
+     */
+    private static final int[] ACTIONS = {PLACEMENT, SELECTION, DEPLACEMENT, CONSTRUCTION};
+
     private Stack<Commande> passe;
     private Stack<Commande> futur;
+    /**
+     * Instantané i : état de la partie après (i + 1) * PERIODE_INSTANTANES commandes.
+     */
+    private final ArrayList<Instantane> instantanes;
+    private Journal journal;
     private Jeu jeu;
 
     /**
@@ -29,6 +42,7 @@ public class Historique {
     public Historique(Jeu jeu) {
         passe = new Stack<>();
         futur = new Stack<>();
+        instantanes = new ArrayList<>();
         this.jeu = jeu;
     }
 
@@ -39,8 +53,47 @@ public class Historique {
      */
     public void stocker(Commande cmd) {
         if (cmd == null) return;
+        // Les instantanés pris après la position actuelle appartiennent aux commandes effacées.
+        while (instantanes.size() > passe.size() / PERIODE_INSTANTANES) instantanes.remove(instantanes.size() - 1);
         passe.push(cmd);
         futur = new Stack<>();
+        memoriser();
+        if (journal != null) journal.ecrire(passe.size() - 1, cmd);
+    }
+
+    /**
+     * Écrit désormais les commandes stockées dans un journal, qui est d'abord rempli avec la partie actuelle.
+     * @param journal nouveau journal, null pour ne plus en écrire ; l'ancien n'est pas fermé
+     */
+    public void setJournal(Journal journal) {
+        this.journal = journal;
+        journaliserPartie();
+    }
+
+    public Journal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Recommence le journal avec la configuration et les commandes effectuées de la partie.
+     */
+    private void journaliserPartie() {
+        if (journal == null) return;
+        journal.recommencer(jeu.getConfigurationPartie());
+        for (int i = 0; i < passe.size(); i++) {
+            journal.ecrire(i, passe.get(i));
+        }
+    }
+
+    /**
+     * Prend un instantané de la partie si la dernière commande effectuée en termine une période et qu'il n'a pas
+     * déjà été pris.
+     */
+    private void memoriser() {
+        int n = passe.size();
+        if (n % PERIODE_INSTANTANES == 0 && instantanes.size() == n / PERIODE_INSTANTANES - 1) {
+            instantanes.add(jeu.getMoteur().capturer());
+        }
     }
 
     public boolean peutAnnuler() {
@@ -67,37 +120,70 @@ public class Historique {
         Commande cmd = futur.pop();
         cmd.execute(jeu);
         passe.push(cmd);
+        memoriser();
+    }
+
+    /**
+     * @return le nombre de commandes de la partie, effectuées ou annulées
+     */
+    public int getNbCommandes() {
+        return passe.size() + futur.size();
     }
 
     /**
-     * Sauvegarde l'avancement du jeu dans un fichier *.sav.
+     * @return le nombre de commandes effectuées, c'est-à-dire la position actuelle dans la partie
+     */
+    public int getPosition() {
+        return passe.size();
+    }
+
+    /**
+     * Se rend à la position qui suit les "position" premières commandes de la partie, en avant ou en arrière : la
+     * partie est remise dans l'état du dernier instantané qui la précède, puis au plus PERIODE_INSTANTANES - 1
+     * commandes sont exécutées. La position est celle obtenue en refaisant les commandes depuis le début : annuler
+     * un déplacement, au contraire, laisse son batisseur sélectionné. Comme pour un chargement, les observateurs et
+     * les IA ne sont prévenus qu'à la fin.
+     * @param position de 0 (avant la première commande) à {@link #getNbCommandes()}
+     */
+    public void allerA(int position) {
+        if (position < 0 || position > getNbCommandes()) {
+            throw new IndexOutOfBoundsException("Position " + position + " hors de la partie (" + getNbCommandes() + " commandes)");
+        }
+        int i = Math.min(position / PERIODE_INSTANTANES, instantanes.size());
+        int depart = i * PERIODE_INSTANTANES;
+        while (passe.size() > depart) futur.push(passe.pop());
+        while (passe.size() < depart) passe.push(futur.pop());
+
+        jeu.setChargement(true);
+        try {
+            if (i == 0) {
+                jeu.getMoteur().RAZ();
+            } else {
+                jeu.getMoteur().restaurer(instantanes.get(i - 1));
+            }
+            while (passe.size() < position) refaire();
+        } finally {
+            jeu.setChargement(false);
+        }
+    }
+
+    /**
+     * Sauvegarde l'avancement du jeu dans un fichier *.sav, au format binaire de {@link Sauvegarde}, et l'ajoute au
+     * {@link Catalogue}.
      * @return le nom du fichier créé
      */
     public String sauvegarder() {
         try {
-            String passeStr = passe.toString();
-            passeStr = passeStr.substring(1, passeStr.length() - 1);
-
-            ArrayList<Commande> futurArray = new ArrayList<>(futur);
-            Collections.reverse(futurArray);
-            String futurStr = futurArray.toString();
-            futurStr = futurStr.substring(1, futurStr.length() - 1);
-
-            int ia1_mode = jeu.getConfigurationPartie().getIaMode1();
-            int ia2_mode = jeu.getConfigurationPartie().getIaMode2();
-            int index_start = jeu.getConfigurationPartie().getIndexJoueurCommence();
-            boolean j1_blue = jeu.getConfigurationPartie().isJoueur1Bleu();
-
-            SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss");
-            String prefix = "p_vs_p";
-            if (ia1_mode > 0) {
-                prefix = ia2_mode > 0 ? "ia_vs_ia" : "p_vs_ia";
-            }
-            String nom_fichier = prefix + "_" + formatter.format(new Date()) + ".sav";
-            FileWriter fichier = new FileWriter(SAVES_PATH + nom_fichier);
-            fichier.write(ia1_mode + " " + ia2_mode + " " + index_start + " " + j1_blue + "\n");
-            fichier.write(passeStr + ", " + futurStr + "\n" + futur.size());
-            fichier.close();
+            byte[] cases = new byte[2 * (passe.size() + futur.size())];
+            int nb_cases = 0;
+            for (Commande cmd : passe) nb_cases += cmd.ecrire(cases, nb_cases);
+            for (int i = futur.size() - 1; i >= 0; i--) nb_cases += futur.get(i).ecrire(cases, nb_cases);
+
+            ConfigurationPartie config = jeu.getConfigurationPartie();
+            String nom_fichier = Sauvegarde.nomFichier(config) + ".sav";
+            File fichier = Sauvegarde.fichier(nom_fichier);
+            Sauvegarde sauvegarde = new Sauvegarde(config, Arrays.copyOf(cases, nb_cases), futur.size());
+            Catalogue.enregistrer(fichier, sauvegarde);
             return nom_fichier;
         } catch (Exception e) {
             e.printStackTrace();
@@ -106,44 +192,58 @@ public class Historique {
     }
 
     /**
-     * Chargement d'une partie à partir d'un fichier.
-     * @param lecteur
+     * Reconstruit une partie sauvegardée sur le jeu, déjà configuré : ses cases sont jouées directement par le
+     * moteur, qui remet à jour le plateau et les batisseurs, et leurs commandes sont empilées, puis les dernières
+     * sont annulées. Rien n'est joué par {@link Jeu#jouer(Point)} : ni son, ni envoi en réseau, et les observateurs
+     * comme les IA ne sont prévenus qu'une fois, à la fin.
+     * @param sauvegarde partie à charger
+     * @throws IllegalArgumentException si une case ne peut pas être jouée, ou pas comme l'indique son type
      */
-    public void charger(Scanner lecteur) {
-        String[] points = lecteur.nextLine().split(", ");
+    public void charger(Sauvegarde sauvegarde) {
+        MoteurJeu moteur = jeu.getMoteur();
+        passe = new Stack<>();
+        futur = new Stack<>();
+        instantanes.clear();
+        jeu.setChargement(true);
+        try {
+            for (int i = 0; i < sauvegarde.getNbCases(); i++) {
+                Point position = sauvegarde.getCase(i);
+                Joueur joueur = jeu.getJoueurEnCours();
+                Point batisseur = moteur.getBatisseurEnCours();
+                int action = ACTIONS[sauvegarde.getType(i)];
+                if (moteur.jouer(position) != action) {
+                    throw new IllegalArgumentException("Case " + i + " injouable : " + position.x + " " + position.y);
+                }
+                switch (action) {
+                    case PLACEMENT -> passe.push(new CoupDeplacer(joueur, null, position));
+                    case DEPLACEMENT -> passe.push(new CoupDeplacer(joueur, batisseur, position));
+                    case CONSTRUCTION -> passe.push(new CoupConstruire(joueur, position, batisseur));
+                    default -> { /* La sélection du batisseur à déplacer n'est pas une commande */ }
+                }
+                memoriser();
+            }
 
-        for (String point : points) {
-            String[] coord = point.split(" ");
-            jeu.jouer(new Point(Integer.parseInt(coord[0]), Integer.parseInt(coord[1])));
+            int nbAnnuler = sauvegarde.getNbAnnuler();
+            for (int i = 0; i < nbAnnuler; i++) annuler();
+            journaliserPartie();
+        } finally {
+            jeu.setChargement(false);
         }
-
-        int nbAnnuler = Integer.parseInt(lecteur.nextLine());
-        for (int i = 0; i < nbAnnuler; i++) annuler();
-
-        lecteur.close();
     }
 
+    /**
+     * Chargement d'une partie à partir d'un fichier binaire ou texte.
+     * @param filename nom du fichier dans le dossier des sauvegardes
+     */
     public void charger(String filename) {
         try {
-            File fichier = new File(SAVES_PATH + filename);
-            Scanner lecteur = new Scanner(fichier);
-
-            String[] param = lecteur.nextLine().split(" ");
-            int ia1_mode = Integer.parseInt(param[0]);
-            int ia2_mode = Integer.parseInt(param[1]);
-            int index_start = Integer.parseInt(param[2]);
-            boolean j1_blue = Boolean.parseBoolean(param[3]);
-
-            ConfigurationPartie config = new ConfigurationPartie(ia1_mode, ia2_mode);
-            config.setIndexJoueurCommence(index_start);
-            config.setJoueur1Bleu(j1_blue);
-
-            jeu.setConfigurationPartie(config);
+            Sauvegarde sauvegarde = Sauvegarde.lire(Sauvegarde.fichier(filename));
+            jeu.setConfigurationPartie(sauvegarde.getConfiguration());
             jeu.RAZ();
 
-            charger(lecteur);
+            charger(sauvegarde);
 
-        } catch (FileNotFoundException ex) {
+        } catch (NoSuchFileException ex) {
             System.err.println("Le fichier " + filename + " n'existe pas");
             ex.printStackTrace();
         } catch (Exception ex) {
@@ -0,0 +1,302 @@
+package Historique;
+
+import Utile.ConfigurationPartie;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import static Utile.Constante.*;
+
+/**
+ * Journal de la partie en cours, pour la reprendre si le programme s'arrête brutalement : chaque commande stockée
+ * par l'{@link Historique} est ajoutée à la fin du fichier, sans jamais réécrire ce qui précède.
+ * <p>
+ * Le fichier commence par un en-tête (signature, version et configuration de la partie, comme dans une
+ * {@link Sauvegarde}), suivi d'enregistrements de 8 octets : la position de la commande dans la partie, ses cases
+ * encodées comme dans une sauvegarde (la seconde à -1 pour une commande d'une seule case) et un code de contrôle de
+ * 16 bits. Une commande remplace celle qui était à sa position et les suivantes, annulées avant elle. À la lecture,
+ * un enregistrement incomplet ou dont le code est faux, en cours d'écriture lors de l'arrêt, termine le journal.
+ * <p>
+ * Les écritures ne bloquent jamais le fil de Swing : elles passent par une file bornée, vidée par lots par un fil
+ * d'écriture dédié qui synchronise ensuite le fichier sur le disque selon la politique choisie. Si la file est
+ * pleine, le journal s'arrête en gardant les commandes déjà écrites.
+ */
+public class Journal {
+    /**
+     * Le système écrit le fichier sur le disque quand il le décide.
+     */
+    public static final int SYNCHRONISATION_AUCUNE = 0;
+    /**
+     * Le fichier est synchronisé après chaque lot d'écritures.
+     */
+    public static final int SYNCHRONISATION_LOT = 1;
+    /**
+     * Le fichier est synchronisé au plus tard un délai donné après une écriture.
+     */
+    public static final int SYNCHRONISATION_PERIODIQUE = 2;
+
+    public static final String EXTENSION = ".jrn";
+
+    private static final int SIGNATURE = 0x4A524E4C; // "JRNL"
+    private static final int VERSION = 1;
+    private static final int TAILLE_ENREGISTREMENT = 8;
+    private static final int TAILLE_FILE = 1024;
+    /**
+     * Message réveillant le fil d'écriture pour qu'il se termine.
+     */
+    private static final byte[] FIN = new byte[0];
+
+    private final File fichier;
+    private final int synchronisation;
+    private final long delai;
+    /**
+     * Enregistrements à écrire ; un message plus long est un en-tête, qui recommence le fichier.
+     */
+    private final ArrayBlockingQueue<byte[]> file;
+    private final Thread ecrivain;
+    private volatile boolean ferme;
+    private volatile boolean supprimer;
+    private volatile boolean arrete;
+
+    /**
+     * Crée un journal et son fil d'écriture. Rien n'y est écrit avant le premier appel à
+     * {@link #recommencer(ConfigurationPartie)}.
+     *
+     * @param fichier         fichier du journal, remplacé s'il existe
+     * @param synchronisation SYNCHRONISATION_AUCUNE, SYNCHRONISATION_LOT ou SYNCHRONISATION_PERIODIQUE
+     * @param delai           délai maximal en millisecondes entre deux synchronisations périodiques
+     */
+    public Journal(File fichier, int synchronisation, long delai) {
+        this.fichier = fichier;
+        this.synchronisation = synchronisation;
+        this.delai = TimeUnit.MILLISECONDS.toNanos(delai);
+        file = new ArrayBlockingQueue<>(TAILLE_FILE);
+        ecrivain = new Thread(this::ecrire, "Journal " + fichier.getName());
+        ecrivain.setDaemon(true);
+        ecrivain.start();
+    }
+
+    /**
+     * Crée un journal au nom unique dans le dossier des journaux, synchronisé selon
+     * {@link Utile.Constante#JOURNAL_SYNCHRONISATION}.
+     */
+    public static Journal creer(ConfigurationPartie config) throws IOException {
+        File dossier = getDossier();
+        if (!dossier.isDirectory() && !dossier.mkdirs()) throw new IOException("Dossier " + dossier + " impossible à créer");
+        File fichier = File.createTempFile(Sauvegarde.nomFichier(config) + "_", EXTENSION, dossier);
+        return new Journal(fichier, JOURNAL_SYNCHRONISATION, JOURNAL_DELAI_SYNCHRONISATION);
+    }
+
+    /**
+     * @return le dossier {@link Utile.Constante#DOSSIER_JOURNAUX} du dossier des sauvegardes
+     */
+    public static File getDossier() {
+        return new File(Sauvegarde.getDossier(), DOSSIER_JOURNAUX);
+    }
+
+    /**
+     * @return les journaux restés dans le dossier des journaux, ceux des parties interrompues, du plus ancien au plus
+     * récent
+     */
+    public static File[] getJournaux() {
+        File[] journaux = getDossier().listFiles((dossier, nom) -> nom.endsWith(EXTENSION));
+        if (journaux == null) return new File[0];
+        Arrays.sort(journaux, Comparator.comparingLong(File::lastModified));
+        return journaux;
+    }
+
+    /**
+     * Vide le journal et y écrit la configuration d'une partie, dont les commandes suivront.
+     */
+    public void recommencer(ConfigurationPartie config) {
+        ByteBuffer entete = ByteBuffer.allocate(5 + Sauvegarde.tailleConfiguration(config));
+        entete.putInt(SIGNATURE);
+        entete.put((byte) VERSION);
+        Sauvegarde.ecrireConfiguration(entete, config);
+        envoyer(entete.array());
+    }
+
+    /**
+     * Ajoute une commande au journal.
+     *
+     * @param position nombre de commandes effectuées avant elle
+     */
+    void ecrire(int position, Commande cmd) {
+        byte[] cases = {-1, -1};
+        cmd.ecrire(cases, 0);
+        ByteBuffer enregistrement = ByteBuffer.allocate(TAILLE_ENREGISTREMENT);
+        enregistrement.putInt(position).put(cases);
+        enregistrement.putShort(controle(enregistrement.array()));
+        envoyer(enregistrement.array());
+    }
+
+    /**
+     * Termine le journal une fois ses écritures en attente faites, sans attendre.
+     *
+     * @param supprimer vrai pour supprimer ensuite le fichier, la partie n'ayant plus à être reprise
+     */
+    public void fermer(boolean supprimer) {
+        this.supprimer = supprimer;
+        ferme = true;
+        // File pleine : le fil d'écriture est réveillé et verra la fermeture après son lot.
+        file.offer(FIN);
+    }
+
+    /**
+     * Attend la fin du fil d'écriture, après {@link #fermer(boolean)}.
+     */
+    public void attendre() throws InterruptedException {
+        ecrivain.join();
+    }
+
+    /**
+     * @return vrai si des commandes n'ont pas pu être écrites, la file étant pleine ou le fichier inaccessible
+     */
+    public boolean estArrete() {
+        return arrete;
+    }
+
+    public File getFichier() {
+        return fichier;
+    }
+
+    private void envoyer(byte[] message) {
+        if (ferme || arrete) return;
+        if (!file.offer(message)) {
+            arrete = true;
+            System.err.println("Journal " + fichier + " saturé : les commandes suivantes ne seront pas écrites");
+        }
+    }
+
+    /**
+     * Boucle du fil d'écriture : écrit par lots les messages de la file jusqu'à la fermeture du journal.
+     */
+    private void ecrire() {
+        ArrayList<byte[]> lot = new ArrayList<>();
+        ByteBuffer tampon = ByteBuffer.allocate(TAILLE_FILE * TAILLE_ENREGISTREMENT);
+        long derniere_synchronisation = System.nanoTime();
+        boolean a_synchroniser = false;
+        try (FileChannel canal = FileChannel.open(fichier.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (!ferme || !file.isEmpty()) {
+                byte[] message;
+                if (a_synchroniser && synchronisation == SYNCHRONISATION_PERIODIQUE) {
+                    long attente = delai - (System.nanoTime() - derniere_synchronisation);
+                    message = file.poll(Math.max(0, attente), TimeUnit.NANOSECONDS);
+                } else {
+                    message = file.take();
+                }
+                if (message != null) {
+                    lot.add(message);
+                    file.drainTo(lot, TAILLE_FILE - 1);
+                }
+                for (byte[] m : lot) {
+                    if (m.length == TAILLE_ENREGISTREMENT) {
+                        tampon.put(m);
+                    } else if (m.length > 0) {
+                        vider(canal, tampon);
+                        canal.truncate(0);
+                        tampon.put(m);
+                        vider(canal, tampon);
+                        a_synchroniser = true;
+                    }
+                }
+                lot.clear();
+                a_synchroniser |= vider(canal, tampon);
+
+                long maintenant = System.nanoTime();
+                boolean echeance = synchronisation == SYNCHRONISATION_LOT || ferme
+                        || maintenant - derniere_synchronisation >= delai;
+                if (a_synchroniser && echeance) {
+                    if (synchronisation != SYNCHRONISATION_AUCUNE) canal.force(false);
+                    derniere_synchronisation = maintenant;
+                    a_synchroniser = false;
+                }
+            }
+        } catch (IOException e) {
+            arrete = true;
+            e.printStackTrace();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (supprimer) {
+            try {
+                Files.deleteIfExists(fichier.toPath());
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Écrit le contenu du tampon à la fin du fichier.
+     *
+     * @return vrai si quelque chose a été écrit
+     */
+    private static boolean vider(FileChannel canal, ByteBuffer tampon) throws IOException {
+        tampon.flip();
+        boolean ecrit = tampon.hasRemaining();
+        while (tampon.hasRemaining()) {
+            canal.write(tampon);
+        }
+        tampon.clear();
+        return ecrit;
+    }
+
+    /**
+     * @return les 16 bits de poids faible du CRC32 des 6 premiers octets de l'enregistrement
+     */
+    private static short controle(byte[] enregistrement) {
+        CRC32 crc = new CRC32();
+        crc.update(enregistrement, 0, TAILLE_ENREGISTREMENT - 2);
+        return (short) crc.getValue();
+    }
+
+    /**
+     * Lit la partie d'un journal, jusqu'au premier enregistrement incomplet ou invalide. Toutes ses commandes sont
+     * effectuées : celles annulées sans avoir été remplacées ne sont pas dans le journal.
+     *
+     * @throws IOException si le fichier est absent ou si son en-tête est invalide
+     */
+    public static Sauvegarde lire(File fichier) throws IOException {
+        ByteBuffer donnees = Sauvegarde.lireFichier(fichier);
+        if (donnees.remaining() < 5 || donnees.getInt() != SIGNATURE) throw new IOException("Journal invalide : " + fichier);
+        if (donnees.get() != VERSION) throw new IOException("Version de journal inconnue : " + fichier);
+        ConfigurationPartie config = Sauvegarde.lireConfiguration(donnees);
+
+        // Nombre de cases de chaque commande, et cases à la suite.
+        ArrayList<Integer> tailles = new ArrayList<>();
+        byte[] cases = new byte[2 * (donnees.remaining() / TAILLE_ENREGISTREMENT)];
+        int nb_cases = 0;
+        byte[] enregistrement = new byte[TAILLE_ENREGISTREMENT];
+        while (donnees.remaining() >= TAILLE_ENREGISTREMENT) {
+            donnees.get(enregistrement);
+            ByteBuffer e = ByteBuffer.wrap(enregistrement);
+            int position = e.getInt();
+            byte[] c = {e.get(), e.get()};
+            if (e.getShort() != controle(enregistrement) || position < 0 || position > tailles.size()) break;
+
+            while (tailles.size() > position) nb_cases -= tailles.remove(tailles.size() - 1);
+            int taille = c[1] == -1 ? 1 : 2;
+            boolean valide = true;
+            for (int i = 0; i < taille; i++) {
+                valide &= (c[i] & 0xFF) >>> 5 == Sauvegarde.typeAttendu(nb_cases + i);
+            }
+            if (!valide) break;
+            System.arraycopy(c, 0, cases, nb_cases, taille);
+            nb_cases += taille;
+            tailles.add(taille);
+        }
+        return new Sauvegarde(config, Arrays.copyOf(cases, nb_cases), 0);
+    }
+}
@@ -0,0 +1,319 @@
+package Historique;
+
+import IA.Niveau;
+import Modele.MoteurJeu;
+import Utile.ConfigurationPartie;
+
+import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.zip.CRC32;
+
+import static Utile.Constante.*;
+
+/**
+ * Contenu d'un fichier de sauvegarde : la configuration de la partie, les cases jouées par les commandes effectuées
+ * puis annulées, et le nombre de commandes annulées.
+ * <p>
+ * Chaque case tient dans un octet : son indice {@code x * 5 + y} sur les 5 bits de poids faible et son type
+ * (placement, départ ou arrivée d'un déplacement, construction) sur les 3 bits de poids fort. Le fichier binaire est
+ * un en-tête de 9 octets (signature, version, modes des IA, joueur qui commence, couleur du joueur 1), le niveau de
+ * chaque IA (temps, profondeur, positions, bruit : 24 octets), le nombre de cases et de commandes annulées, les cases,
+ * puis le CRC32 de tout ce qui précède.
+ * <p>
+ * Les anciennes sauvegardes texte, reconnues à l'absence de signature, restent lisibles : le type de chaque case y
+ * est déduit de son rang, les placements venant en premier puis les tours déplacement-construction.
+ */
+public class Sauvegarde {
+    private static final int SIGNATURE = 0x53414E54; // "SANT"
+    private static final int VERSION = 1;
+    private static final int TAILLE_ENTETE = 9;
+    private static final int TAILLE_NIVEAU = 24;
+    /**
+     * Taille maximale d'un fichier lu : une partie ne compte jamais autant de coups.
+     */
+    private static final int TAILLE_MAX = 1 << 24;
+
+    public static final int TYPE_PLACEMENT = 0;
+    public static final int TYPE_DEPART = 1;
+    public static final int TYPE_ARRIVEE = 2;
+    public static final int TYPE_CONSTRUCTION = 3;
+
+    private static File dossier = new File(SAVES_PATH);
+
+    private final ConfigurationPartie config;
+    private final byte[] cases;
+    private final int nbAnnuler;
+
+    /**
+     * @param config    configuration de la partie
+     * @param cases     cases jouées, encodées par {@link #encoder(Point, int)}
+     * @param nbAnnuler nombre de commandes annulées, à la fin de la liste
+     */
+    public Sauvegarde(ConfigurationPartie config, byte[] cases, int nbAnnuler) {
+        this.config = config;
+        this.cases = cases;
+        this.nbAnnuler = nbAnnuler;
+    }
+
+    /**
+     * @param type TYPE_PLACEMENT, TYPE_DEPART, TYPE_ARRIVEE ou TYPE_CONSTRUCTION
+     * @return l'octet de la case
+     */
+    public static byte encoder(Point p, int type) {
+        return (byte) (type << 5 | p.x * PLATEAU_COLONNES + p.y);
+    }
+
+    /**
+     * Type attendu de la i-ème case d'une partie : les placements des batisseurs, puis le départ et l'arrivée d'un
+     * déplacement suivis d'une construction à chaque tour.
+     */
+    public static int typeAttendu(int i) {
+        int nb_placements = NOMBRE_BATISSEUR_JOUEUR * 2;
+        if (i < nb_placements) return TYPE_PLACEMENT;
+        return TYPE_DEPART + (i - nb_placements) % 3;
+    }
+
+    /**
+     * @return le dossier des sauvegardes, de leur catalogue et des journaux, {@link Utile.Constante#SAVES_PATH} s'il
+     * n'a pas été changé
+     */
+    public static synchronized File getDossier() {
+        return dossier;
+    }
+
+    /**
+     * Change le dossier des sauvegardes, par exemple pour que des tests n'écrivent pas dans celui du jeu.
+     */
+    public static synchronized void setDossier(File dossier) {
+        Sauvegarde.dossier = dossier;
+    }
+
+    /**
+     * @return le fichier d'une sauvegarde du dossier des sauvegardes
+     */
+    public static File fichier(String nom) {
+        return new File(getDossier(), nom);
+    }
+
+    public ConfigurationPartie getConfiguration() {
+        return config;
+    }
+
+    public int getNbCases() {
+        return cases.length;
+    }
+
+    public Point getCase(int i) {
+        int c = cases[i] & 0x1F;
+        return new Point(c / PLATEAU_COLONNES, c % PLATEAU_COLONNES);
+    }
+
+    /**
+     * Rejoue la partie sur un moteur, sans interface ni IA.
+     *
+     * @return le moteur après la dernière case
+     * @throws IllegalArgumentException si une case n'est pas jouable
+     */
+    public MoteurJeu rejouer() {
+        MoteurJeu moteur = new MoteurJeu(config.getIndexJoueurCommence());
+        for (int i = 0; i < cases.length; i++) {
+            if (moteur.jouer(getCase(i)) == AUCUNE_ACTION) throw new IllegalArgumentException("Case " + i + " injouable");
+        }
+        return moteur;
+    }
+
+    public int getType(int i) {
+        return (cases[i] & 0xFF) >>> 5;
+    }
+
+    public int getNbAnnuler() {
+        return nbAnnuler;
+    }
+
+    /**
+     * Lit une sauvegarde binaire ou texte.
+     *
+     * @throws IOException si le fichier est absent, tronqué, corrompu ou mal formé
+     */
+    public static Sauvegarde lire(File fichier) throws IOException {
+        ByteBuffer donnees = lireFichier(fichier);
+        if (donnees.remaining() >= 4 && donnees.getInt(0) == SIGNATURE) return lireBinaire(donnees);
+        try {
+            return lireTexte(StandardCharsets.UTF_8.decode(donnees).toString());
+        } catch (RuntimeException e) {
+            throw new IOException("Sauvegarde texte mal formée : " + fichier, e);
+        }
+    }
+
+    /**
+     * @return tout le contenu du fichier, prêt à être lu
+     */
+    static ByteBuffer lireFichier(File fichier) throws IOException {
+        ByteBuffer donnees;
+        try (FileChannel canal = FileChannel.open(fichier.toPath(), StandardOpenOption.READ)) {
+            if (canal.size() > TAILLE_MAX) throw new IOException("Fichier trop grand : " + fichier);
+            donnees = ByteBuffer.allocate((int) canal.size());
+            while (donnees.hasRemaining()) {
+                if (canal.read(donnees) < 0) throw new IOException("Fichier tronqué : " + fichier);
+            }
+        }
+        return donnees.flip();
+    }
+
+    private static Sauvegarde lireBinaire(ByteBuffer donnees) throws IOException {
+        if (donnees.remaining() < TAILLE_ENTETE + 12) throw new IOException("Sauvegarde tronquée");
+        CRC32 crc = new CRC32();
+        crc.update(donnees.array(), 0, donnees.limit() - 4);
+        if ((int) crc.getValue() != donnees.getInt(donnees.limit() - 4)) throw new IOException("Sauvegarde corrompue");
+
+        donnees.getInt();
+        if (donnees.get() != VERSION) throw new IOException("Version de sauvegarde inconnue");
+        ConfigurationPartie config = lireConfiguration(donnees);
+
+        if (donnees.remaining() < 12) throw new IOException("Sauvegarde tronquée");
+        int nb_cases = donnees.getInt();
+        int nb_annuler = donnees.getInt();
+        if (nb_cases < 0 || nb_annuler < 0 || nb_annuler > nb_cases || donnees.remaining() != nb_cases + 4) {
+            throw new IOException("Sauvegarde tronquée");
+        }
+        byte[] cases = new byte[nb_cases];
+        donnees.get(cases);
+        for (int i = 0; i < nb_cases; i++) {
+            if ((cases[i] & 0x1F) >= PLATEAU_LIGNES * PLATEAU_COLONNES || (cases[i] & 0xFF) >>> 5 != typeAttendu(i)) {
+                throw new IOException("Case de sauvegarde invalide : " + i);
+            }
+        }
+        return new Sauvegarde(config, cases, nb_annuler);
+    }
+
+    /**
+     * Lit la configuration écrite par {@link #ecrireConfiguration(ByteBuffer, ConfigurationPartie)}.
+     *
+     * @throws IOException si elle est tronquée ou invalide
+     */
+    static ConfigurationPartie lireConfiguration(ByteBuffer donnees) throws IOException {
+        try {
+            int ia1_mode = donnees.get();
+            int ia2_mode = donnees.get();
+            ConfigurationPartie config = new ConfigurationPartie(ia1_mode, ia2_mode);
+            config.setIndexJoueurCommence(donnees.get());
+            config.setJoueur1Bleu(donnees.get() != 0);
+            if (ia1_mode > 0) config.setNiveau1(lireNiveau(donnees));
+            if (ia2_mode > 0) config.setNiveau2(lireNiveau(donnees));
+            return config;
+        } catch (IllegalArgumentException | BufferUnderflowException e) {
+            throw new IOException("Configuration de partie invalide", e);
+        }
+    }
+
+    /**
+     * Écrit les modes des IA, le joueur qui commence, la couleur du joueur 1 (un octet chacun) puis le niveau de
+     * chaque IA.
+     */
+    static void ecrireConfiguration(ByteBuffer donnees, ConfigurationPartie config) {
+        donnees.put((byte) config.getIaMode1());
+        donnees.put((byte) config.getIaMode2());
+        donnees.put((byte) config.getIndexJoueurCommence());
+        donnees.put((byte) (config.isJoueur1Bleu() ? 1 : 0));
+        if (config.getIaMode1() > 0) ecrireNiveau(donnees, config.getNiveau1());
+        if (config.getIaMode2() > 0) ecrireNiveau(donnees, config.getNiveau2());
+    }
+
+    /**
+     * @return le nombre d'octets écrits par {@link #ecrireConfiguration(ByteBuffer, ConfigurationPartie)}
+     */
+    static int tailleConfiguration(ConfigurationPartie config) {
+        return 4 + (config.getIaMode1() > 0 ? TAILLE_NIVEAU : 0) + (config.getIaMode2() > 0 ? TAILLE_NIVEAU : 0);
+    }
+
+    /**
+     * @return le nom, sans extension, d'un fichier de la partie créé maintenant : le type de partie et la date
+     */
+    public static String nomFichier(ConfigurationPartie config) {
+        SimpleDateFormat formatter = new SimpleDateFormat("yyyy-MM-dd_HH-mm-ss");
+        String prefix = "p_vs_p";
+        if (config.getIaMode1() > 0) {
+            prefix = config.getIaMode2() > 0 ? "ia_vs_ia" : "p_vs_ia";
+        }
+        return prefix + "_" + formatter.format(new Date());
+    }
+
+    private static Niveau lireNiveau(ByteBuffer donnees) {
+        return new Niveau(donnees.getLong(), donnees.getInt(), donnees.getLong(), donnees.getInt());
+    }
+
+    /**
+     * Lit l'ancien format texte. La première ligne donne les modes des IA, le joueur qui commence, la couleur du
+     * joueur 1, puis le niveau de chaque IA ({@link Niveau#toString()}) s'il a été écrit ; la deuxième les cases
+     * séparées par des virgules, la troisième le nombre de commandes annulées.
+     */
+    private static Sauvegarde lireTexte(String texte) {
+        String[] lignes = texte.split("\n");
+        String[] param = lignes[0].trim().split(" ");
+        int ia1_mode = Integer.parseInt(param[0]);
+        int ia2_mode = Integer.parseInt(param[1]);
+        int index_start = Integer.parseInt(param[2]);
+        boolean j1_blue = Boolean.parseBoolean(param[3]);
+
+        ConfigurationPartie config = new ConfigurationPartie(ia1_mode, ia2_mode);
+        config.setIndexJoueurCommence(index_start);
+        config.setJoueur1Bleu(j1_blue);
+        // Les sauvegardes antérieures aux niveaux n'ont que les modes : chacun garde son niveau par défaut.
+        int suivant = 4;
+        if (ia1_mode > 0 && param.length > suivant) config.setNiveau1(Niveau.lire(param[suivant++]));
+        if (ia2_mode > 0 && param.length > suivant) config.setNiveau2(Niveau.lire(param[suivant]));
+
+        String[] points = lignes[1].split(", ");
+        byte[] cases = new byte[points.length];
+        int nb_cases = 0;
+        for (String point : points) {
+            // Une partie sans commande effectuée commence par un séparateur.
+            if (point.isBlank()) continue;
+            String[] coord = point.trim().split(" ");
+            Point p = new Point(Integer.parseInt(coord[0]), Integer.parseInt(coord[1]));
+            cases[nb_cases] = encoder(p, typeAttendu(nb_cases));
+            nb_cases++;
+        }
+        return new Sauvegarde(config, Arrays.copyOf(cases, nb_cases), Integer.parseInt(lignes[2].trim()));
+    }
+
+    /**
+     * Écrit la sauvegarde au format binaire.
+     */
+    public void ecrire(File fichier) throws IOException {
+        ByteBuffer donnees = ByteBuffer.allocate(5 + tailleConfiguration(config) + 8 + cases.length + 4);
+        donnees.putInt(SIGNATURE);
+        donnees.put((byte) VERSION);
+        ecrireConfiguration(donnees, config);
+        donnees.putInt(cases.length);
+        donnees.putInt(nbAnnuler);
+        donnees.put(cases);
+        CRC32 crc = new CRC32();
+        crc.update(donnees.array(), 0, donnees.position());
+        donnees.putInt((int) crc.getValue());
+        donnees.flip();
+
+        try (FileChannel canal = FileChannel.open(fichier.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (donnees.hasRemaining()) {
+                canal.write(donnees);
+            }
+        }
+    }
+
+    private static void ecrireNiveau(ByteBuffer donnees, Niveau niveau) {
+        donnees.putLong(niveau.getTempsReflexion());
+        donnees.putInt(niveau.getProfondeur());
+        donnees.putLong(niveau.getNoeuds());
+        donnees.putInt(niveau.getBruit());
+    }
+}
@@ -0,0 +1,322 @@
+package IA;
+
+import Modele.MoteurJeu;
+import Modele.PlateauBinaire;
+
+import java.util.SplittableRandom;
+
+import static Utile.Constante.*;
+
+/**
+ * Arbre de recherche Monte-Carlo (UCT) d'un fil d'exécution de {@link IAMonteCarlo}.
+ * <p>
+ * Les nœuds sont rangés dans des tableaux d'entiers alloués une fois pour toutes : les enfants d'un nœud occupent
+ * des indices consécutifs, réservés tous ensemble lors de son développement. Un nœud est développé à sa deuxième
+ * visite ; lorsque le pool est plein, les parties simulées partent simplement des feuilles. Au développement, seuls
+ * les coups gagnants sont gardés s'il y en a, et sinon les coups qui ne laissent pas l'adversaire monter sur un toit,
+ * s'il y en a : l'arbre ne perd pas de visites sur des coups dont l'issue est déjà connue.
+ * <p>
+ * La valeur d'un nœud est comptée du point de vue du joueur qui a joué le coup menant à ce nœud : une victoire
+ * vaut 1, une partie inachevée 1/2.
+ */
+public class ArbreMonteCarlo {
+    /**
+     * Constante d'exploration de la formule UCT.
+     */
+    private static final double EXPLORATION = Math.sqrt(2) / 2;
+    private static final int NON_DEVELOPPE = -1;
+    /**
+     * Nombre de tirages d'un coup aléatoire, dans une partie simulée guidée, pour en trouver un qui monte sans
+     * laisser l'adversaire gagner.
+     */
+    private static final int ESSAIS_SIMULATION = 4;
+    /**
+     * Chaque tour construit un étage : une partie ne peut pas durer plus longtemps.
+     */
+    private static final int LONGUEUR_MAX = PLATEAU_LIGNES * PLATEAU_COLONNES * 4 + 2;
+
+    private final int[] coup;
+    private final int[] premier_enfant;
+    private final int[] nb_enfants;
+    private final int[] visites;
+    private final float[] victoires;
+    private int taille;
+    private int racine;
+
+    private final PlateauBinaire position_racine;
+    private int joueur_racine;
+    private final PlateauBinaire plateau;
+    private final int[] chemin;
+    private final int[] coups;
+    private final int[] candidats;
+    private final boolean simulation_guidee;
+    private SplittableRandom random;
+    private int visites_reutilisees;
+
+    /**
+     * @param capacite         nombre maximal de nœuds
+     * @param simulationGuidee vrai pour des parties simulées qui gagnent et contrent quand elles le peuvent, évitent
+     *                         de laisser gagner l'adversaire et préfèrent monter ; faux pour des parties entièrement
+     *                         aléatoires
+     * @param graine           graine des choix aléatoires
+     */
+    public ArbreMonteCarlo(int capacite, boolean simulationGuidee, long graine) {
+        coup = new int[capacite];
+        premier_enfant = new int[capacite];
+        nb_enfants = new int[capacite];
+        visites = new int[capacite];
+        victoires = new float[capacite];
+        position_racine = new PlateauBinaire();
+        plateau = new PlateauBinaire();
+        chemin = new int[LONGUEUR_MAX];
+        coups = new int[NOMBRE_COUPS_MAX];
+        candidats = new int[NOMBRE_COUPS_MAX];
+        simulation_guidee = simulationGuidee;
+        random = new SplittableRandom(graine);
+    }
+
+    public void setGraine(long graine) {
+        random = new SplittableRandom(graine);
+    }
+
+    /**
+     * Place la racine sur la position à jouer. Si elle suit de deux coups la racine précédente (notre coup puis
+     * celui de l'adversaire), le sous-arbre correspondant est conservé, tant que le pool est plein à moins des
+     * trois quarts ; sinon l'arbre repart de zéro.
+     */
+    public void nouvelleRacine(PlateauBinaire position, int joueur) {
+        int reutilisee = taille > 0 && taille < coup.length / 4 * 3 ? chercherPetitEnfant(position, joueur) : -1;
+        if (reutilisee == -1) {
+            taille = 0;
+            racine = nouveauxNoeuds(1);
+            coup[racine] = -1;
+        } else {
+            racine = reutilisee;
+        }
+        visites_reutilisees = visites[racine];
+        position_racine.copier(position);
+        joueur_racine = joueur;
+    }
+
+    private int chercherPetitEnfant(PlateauBinaire position, int joueur) {
+        if (joueur != joueur_racine || nb_enfants[racine] <= 0) return -1;
+        plateau.copier(position_racine);
+        for (int e = premier_enfant[racine]; e < premier_enfant[racine] + nb_enfants[racine]; e++) {
+            if (nb_enfants[e] <= 0) continue;
+            jouer(plateau, coup[e]);
+            for (int p = premier_enfant[e]; p < premier_enfant[e] + nb_enfants[e]; p++) {
+                jouer(plateau, coup[p]);
+                boolean trouve = plateau.getHash() == position.getHash() && plateau.equals(position);
+                annuler(plateau, coup[p]);
+                if (trouve) return p;
+            }
+            annuler(plateau, coup[e]);
+        }
+        return -1;
+    }
+
+    /**
+     * Réserve des nœuds consécutifs non développés.
+     *
+     * @return l'indice du premier, -1 si le pool est plein
+     */
+    private int nouveauxNoeuds(int nombre) {
+        if (taille + nombre > coup.length) return -1;
+        int premier = taille;
+        for (int i = premier; i < premier + nombre; i++) {
+            nb_enfants[i] = NON_DEVELOPPE;
+            visites[i] = 0;
+            victoires[i] = 0;
+        }
+        taille += nombre;
+        return premier;
+    }
+
+    /**
+     * Développe un nœud : réserve un enfant par coup du joueur retenu (une seule construction par montée gagnante).
+     * Un nœud sans enfant est une fin de partie gagnée par le joueur qui vient de jouer.
+     *
+     * @return faux si le pool est plein
+     */
+    private boolean developper(int noeud, int joueur) {
+        int autre = MoteurJeu.getAutreJoueur(joueur);
+        int nb_coups = 0;
+        if (!plateau.aGagne(autre)) {
+            int nb_generes = plateau.genererCoups(joueur, coups, 0);
+            boolean gagnant = plateau.casesGagnantes(joueur) != 0;
+            for (int k = 0; k < nb_generes; k++) {
+                int c = coups[k];
+                boolean montee = plateau.getHauteur(Coup.getDeplacement(c)) == TOIT;
+                if (gagnant ? !montee : laisseVictoire(c, autre)) continue;
+                if (montee && nb_coups > 0 && (coups[nb_coups - 1] & 0x3FF) == (c & 0x3FF)) continue;
+                coups[nb_coups++] = c;
+            }
+            if (nb_coups == 0) {
+                // Tous les coups perdent : ils sont tous gardés.
+                nb_coups = plateau.genererCoups(joueur, coups, 0);
+            }
+        }
+        int premier = nouveauxNoeuds(nb_coups);
+        if (premier == -1) return false;
+        for (int k = 0; k < nb_coups; k++) {
+            coup[premier + k] = coups[k];
+        }
+        premier_enfant[noeud] = premier;
+        nb_enfants[noeud] = nb_coups;
+        return true;
+    }
+
+    /**
+     * Une itération : descente par UCT, développement, partie simulée depuis la feuille atteinte et remontée du
+     * résultat.
+     */
+    public void iterer() {
+        plateau.copier(position_racine);
+        int joueur = joueur_racine;
+        int noeud = racine;
+        int longueur = 0;
+        chemin[longueur++] = noeud;
+
+        if (nb_enfants[racine] == NON_DEVELOPPE) {
+            developper(racine, joueur);
+        }
+        while (nb_enfants[noeud] > 0) {
+            noeud = selectionner(noeud);
+            jouer(plateau, coup[noeud]);
+            joueur = MoteurJeu.getAutreJoueur(joueur);
+            chemin[longueur++] = noeud;
+            if (nb_enfants[noeud] == NON_DEVELOPPE) {
+                if (visites[noeud] == 0 || !developper(noeud, joueur)) break;
+            }
+        }
+
+        int gagnant;
+        if (nb_enfants[noeud] == 0) {
+            gagnant = MoteurJeu.getAutreJoueur(joueur);
+        } else {
+            gagnant = simuler(joueur);
+        }
+
+        // Le nœud de profondeur i a été atteint par un coup du joueur de la racine si i est impair.
+        int autre = MoteurJeu.getAutreJoueur(joueur_racine);
+        for (int i = 0; i < longueur; i++) {
+            int n = chemin[i];
+            visites[n]++;
+            int joueur_coup = (i & 1) == 1 ? joueur_racine : autre;
+            if (gagnant == joueur_coup) {
+                victoires[n] += 1;
+            } else if (gagnant == 0) {
+                victoires[n] += 0.5f;
+            }
+        }
+    }
+
+    /**
+     * @return l'enfant de meilleure valeur UCT, un enfant jamais visité en priorité
+     */
+    private int selectionner(int noeud) {
+        int premier = premier_enfant[noeud];
+        int fin = premier + nb_enfants[noeud];
+        double log_parent = Math.log(visites[noeud]);
+        int meilleur = premier;
+        double meilleure_valeur = Double.NEGATIVE_INFINITY;
+        for (int e = premier; e < fin; e++) {
+            int v = visites[e];
+            if (v == 0) return e;
+            double valeur = victoires[e] / v + EXPLORATION * Math.sqrt(log_parent / v);
+            if (valeur > meilleure_valeur) {
+                meilleure_valeur = valeur;
+                meilleur = e;
+            }
+        }
+        return meilleur;
+    }
+
+    /**
+     * Termine la partie sur le plateau de travail, le joueur en paramètre devant jouer.
+     *
+     * @return le gagnant, 0 si la partie n'est pas finie
+     */
+    private int simuler(int joueur) {
+        for (int tour = 0; tour < LONGUEUR_MAX; tour++) {
+            int autre = MoteurJeu.getAutreJoueur(joueur);
+            if (plateau.aGagne(autre)) return autre;
+            if (simulation_guidee && plateau.casesGagnantes(joueur) != 0) return joueur;
+            int nb_coups = plateau.genererCoups(joueur, coups, 0);
+            if (nb_coups == 0) return autre;
+            int choisi = coups[random.nextInt(nb_coups)];
+
+            if (simulation_guidee) {
+                int menaces = plateau.casesGagnantes(autre);
+                if (menaces != 0) {
+                    int nb_candidats = 0;
+                    for (int k = 0; k < nb_coups; k++) {
+                        if (((1 << Coup.getConstruction(coups[k])) & menaces) != 0) candidats[nb_candidats++] = coups[k];
+                    }
+                    if (nb_candidats > 0) choisi = candidats[random.nextInt(nb_candidats)];
+                } else {
+                    for (int essai = 0; essai < ESSAIS_SIMULATION; essai++) {
+                        int c = coups[random.nextInt(nb_coups)];
+                        if (laisseVictoire(c, autre)) continue;
+                        choisi = c;
+                        if (plateau.getHauteur(Coup.getDeplacement(c)) > plateau.getHauteur(Coup.getBatisseur(c))) break;
+                    }
+                }
+            }
+            jouer(plateau, choisi);
+            joueur = autre;
+        }
+        return 0;
+    }
+
+    /**
+     * @return vrai si, après ce coup, l'adversaire peut monter sur un toit
+     */
+    private boolean laisseVictoire(int coup, int adversaire) {
+        if (plateau.getHauteur(Coup.getDeplacement(coup)) == TOIT) return false;
+        jouer(plateau, coup);
+        boolean perdu = plateau.casesGagnantes(adversaire) != 0;
+        annuler(plateau, coup);
+        return perdu;
+    }
+
+    private static void jouer(PlateauBinaire plateau, int coup) {
+        plateau.deplacer(Coup.getBatisseur(coup), Coup.getDeplacement(coup));
+        if (plateau.getHauteur(Coup.getDeplacement(coup)) != TOIT) plateau.construire(Coup.getConstruction(coup));
+    }
+
+    private static void annuler(PlateauBinaire plateau, int coup) {
+        if (plateau.getHauteur(Coup.getDeplacement(coup)) != TOIT) plateau.deconstruire(Coup.getConstruction(coup));
+        plateau.deplacer(Coup.getDeplacement(coup), Coup.getBatisseur(coup));
+    }
+
+    /**
+     * @return le nombre d'enfants de la racine, -1 si elle n'est pas développée
+     */
+    public int getNbCoups() {
+        return nb_enfants[racine];
+    }
+
+    public int getCoup(int i) {
+        return coup[premier_enfant[racine] + i];
+    }
+
+    public int getVisites(int i) {
+        return visites[premier_enfant[racine] + i];
+    }
+
+    public float getVictoires(int i) {
+        return victoires[premier_enfant[racine] + i];
+    }
+
+    /**
+     * @return les visites de la racine héritées de la recherche précédente
+     */
+    public int getVisitesReutilisees() {
+        return visites_reutilisees;
+    }
+
+    public int getTaille() {
+        return taille;
+    }
+}
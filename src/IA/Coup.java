@@ -1,5 +1,7 @@
 package IA;
 
+import Modele.Voisinage;
+
 import java.awt.*;
 
 public class Coup {
@@ -13,7 +15,45 @@ public class Coup {
             this.construction = construction;
         }
 
+        /**
+         * Instantie un coup depuis sa forme encodée.
+         *
+         * @param code coup encodé par {@link #encoder(int, int, int)}
+         */
+        public Coup(int code) {
+            this(Voisinage.point(getBatisseur(code)), Voisinage.point(getDeplacement(code)), Voisinage.point(getConstruction(code)));
+        }
+
+        /**
+         * Encode un coup dans un entier : 5 bits par indice de case (batisseur, déplacement puis construction).
+         *
+         * @param batisseur    indice de la case du batisseur
+         * @param deplacement  indice de la case d'arrivée
+         * @param construction indice de la case construite
+         * @return le coup encodé
+         */
+        public static int encoder(int batisseur, int deplacement, int construction) {
+            return batisseur | (deplacement << 5) | (construction << 10);
+        }
+
+        public static int getBatisseur(int code) {
+            return code & 31;
+        }
 
+        public static int getDeplacement(int code) {
+            return (code >> 5) & 31;
+        }
+
+        public static int getConstruction(int code) {
+            return (code >> 10) & 31;
+        }
+
+        /**
+         * @return le coup encodé par {@link #encoder(int, int, int)}
+         */
+        public int encoder() {
+            return encoder(Voisinage.index(batisseur), Voisinage.index(deplacement), Voisinage.index(construction));
+        }
 
         @Override
         public String toString() {
@@ -0,0 +1,139 @@
+package IA;
+
+import Modele.PlateauBinaire;
+import Modele.Voisinage;
+
+import static Modele.Voisinage.*;
+import static Utile.Constante.*;
+
+/**
+ * Heuristique de {@link IADifficile} tenue à jour coup par coup pendant la recherche.
+ * <p>
+ * Chaque terme de l'heuristique est une somme sur les batisseurs, et la part d'un batisseur ne dépend que de sa case
+ * et de ses (au plus 8) voisines. Après un coup, seuls les batisseurs dont le voisinage contient la case de départ,
+ * la case d'arrivée ou la case construite sont réévalués ; annuler le coup reprend simplement les valeurs
+ * précédentes. Le score est exactement celui de l'heuristique complète.
+ */
+public class EvaluationIncrementale {
+    private static final int NB_BATISSEURS = NOMBRE_BATISSEUR_JOUEUR * 2;
+    private static final int[] JOUEURS = {JOUEUR1, JOUEUR1, JOUEUR2, JOUEUR2};
+    private static final int CENTRE = Voisinage.index(CASE_CENTRALE);
+
+    private final int poidsDifferenceDesHauteurs;
+    private final int poidsMobiliteVerticale;
+    private final int poidsCaseCentrale;
+    private final int poidsMenaceNiveau2;
+
+    /**
+     * Part de chaque batisseur dans le score (joueur 1 : 0 et 1, joueur 2 : 2 et 3).
+     */
+    private final int[] termes;
+
+    /**
+     * Bits 0 à 3 : batisseur sans déplacement possible ; bits 4 à 7 : batisseur sur un toit.
+     */
+    private int fin;
+
+    private final int[][] pile;
+    private int sommet;
+
+    /**
+     * @param profondeurMax nombre maximal de coups joués sans être annulés
+     */
+    public EvaluationIncrementale(int profondeurMax, int poidsDifferenceDesHauteurs, int poidsMobiliteVerticale, int poidsCaseCentrale, int poidsMenaceNiveau2) {
+        this.poidsDifferenceDesHauteurs = poidsDifferenceDesHauteurs;
+        this.poidsMobiliteVerticale = poidsMobiliteVerticale;
+        this.poidsCaseCentrale = poidsCaseCentrale;
+        this.poidsMenaceNiveau2 = poidsMenaceNiveau2;
+        termes = new int[NB_BATISSEURS];
+        pile = new int[profondeurMax][NB_BATISSEURS + 1];
+    }
+
+    /**
+     * Évalue entièrement le plateau, dont les quatre batisseurs doivent être placés, et vide la pile des coups.
+     */
+    public void initialiser(PlateauBinaire plateau) {
+        sommet = 0;
+        fin = 0;
+        for (int i = 0; i < NB_BATISSEURS; i++) {
+            evaluerBatisseur(plateau, i);
+        }
+    }
+
+    /**
+     * Met à jour le score après un coup déjà joué sur le plateau.
+     *
+     * @param depart       case de départ du batisseur
+     * @param arrivee      case d'arrivée du batisseur
+     * @param construction case construite, -1 s'il n'y a pas eu de construction
+     */
+    public void jouer(PlateauBinaire plateau, int depart, int arrivee, int construction) {
+        int[] sauvegarde = pile[sommet++];
+        System.arraycopy(termes, 0, sauvegarde, 0, NB_BATISSEURS);
+        sauvegarde[NB_BATISSEURS] = fin;
+
+        int modifiees = (1 << depart) | (1 << arrivee) | (construction == -1 ? 0 : 1 << construction);
+        for (int i = 0; i < NB_BATISSEURS; i++) {
+            int position = plateau.getPosition(JOUEURS[i], i % NOMBRE_BATISSEUR_JOUEUR);
+            if (((MASQUES[position] | (1 << position)) & modifiees) != 0) {
+                evaluerBatisseur(plateau, i);
+            }
+        }
+    }
+
+    /**
+     * Revient au score d'avant le dernier coup joué.
+     */
+    public void annuler() {
+        int[] sauvegarde = pile[--sommet];
+        System.arraycopy(sauvegarde, 0, termes, 0, NB_BATISSEURS);
+        fin = sauvegarde[NB_BATISSEURS];
+    }
+
+    /**
+     * Calcule la part du batisseur d'indice i : les mêmes termes que l'heuristique complète de {@link IADifficile},
+     * pour ce seul batisseur.
+     */
+    private void evaluerBatisseur(PlateauBinaire plateau, int i) {
+        int position = plateau.getPosition(JOUEURS[i], i % NOMBRE_BATISSEUR_JOUEUR);
+        int hauteur = plateau.getHauteur(position);
+        int accessibles = plateau.casesAccessibles(position);
+
+        int terme = switch (hauteur) {
+            case TOIT -> poidsDifferenceDesHauteurs * 1000;
+            case ETAGE -> poidsDifferenceDesHauteurs * 60;
+            case RDC -> poidsDifferenceDesHauteurs * 40;
+            default -> 0;
+        };
+        if (hauteur < TOIT) {
+            terme += poidsMobiliteVerticale * 5 * Integer.bitCount(accessibles & plateau.getNiveau(hauteur + 1));
+        }
+        if (position == CENTRE) {
+            terme += poidsCaseCentrale * 10;
+        }
+        if (hauteur == ETAGE) {
+            terme += poidsMenaceNiveau2 * 500 * Integer.bitCount(accessibles & plateau.getNiveau(TOIT));
+        }
+        termes[i] = terme;
+
+        int bloque = 1 << i;
+        int sur_toit = 1 << (NB_BATISSEURS + i);
+        fin = (fin & ~(bloque | sur_toit)) | (accessibles == 0 ? bloque : 0) | (hauteur == TOIT ? sur_toit : 0);
+    }
+
+    /**
+     * @param joueur_maximise joueur du point de vue duquel le plateau est évalué
+     * @return la valeur de l'heuristique
+     */
+    public int getScore(int joueur_maximise) {
+        int score = termes[0] + termes[1] - termes[2] - termes[3];
+        return joueur_maximise == JOUEUR1 ? score : -score;
+    }
+
+    /**
+     * @return vrai si un joueur est sur un toit ou ne peut plus se déplacer
+     */
+    public boolean estFinie() {
+        return (fin & 0b0011) == 0b0011 || (fin & 0b1100) == 0b1100 || (fin >> NB_BATISSEURS) != 0;
+    }
+}
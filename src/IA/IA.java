@@ -4,4 +4,12 @@ import java.awt.*;
 
 public interface IA {
     Point joue();
+
+    /**
+     * Fixe la graine des choix aléatoires de l'IA, pour rejouer une partie à l'identique.
+     *
+     * @param graine graine du générateur aléatoire
+     */
+    default void setGraine(long graine) {
+    }
 }
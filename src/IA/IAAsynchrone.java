@@ -0,0 +1,59 @@
+package IA;
+
+import Modele.PlateauBinaire;
+
+import java.util.function.Supplier;
+
+/**
+ * IA dont la recherche d'un tour complet peut être menée hors du fil de l'interface graphique,
+ * sur une copie du plateau.
+ *
+ * @see Modele.JoueurIA
+ */
+public interface IAAsynchrone extends IA {
+    /**
+     * Cherche le prochain tour complet (batisseur, déplacement, construction) sans accéder au jeu.
+     *
+     * @param plateau copie du plateau de la partie
+     * @param joueur  joueur qui doit jouer
+     * @return le meilleur coup trouvé, null si le joueur ne peut pas jouer
+     */
+    Coup chercherCoup(PlateauBinaire plateau, int joueur);
+
+    /**
+     * Prépare la recherche d'un tour complet, à exécuter hors du fil de l'interface graphique : un {@link #arreter()}
+     * demandé après cet appel l'arrête, même si elle n'a pas encore commencé.
+     *
+     * @param plateau copie du plateau de la partie
+     * @param joueur  joueur qui doit jouer
+     * @return la recherche, qui renvoie le coup comme {@link #chercherCoup(PlateauBinaire, int)}, null si elle a été
+     * arrêtée avant d'en trouver un
+     */
+    default Supplier<Coup> preparerRecherche(PlateauBinaire plateau, int joueur) {
+        return () -> chercherCoup(plateau, joueur);
+    }
+
+    /**
+     * Demande à la recherche en cours de s'arrêter au plus vite avec le meilleur coup déjà trouvé.
+     */
+    void arreter();
+
+    /**
+     * Fournit le tour à jouer lors de la prochaine sélection, à la place d'une recherche.
+     *
+     * @param coup tour calculé par {@link #chercherCoup(PlateauBinaire, int)}, null pour l'oublier
+     */
+    void setCoupPrepare(Coup coup);
+
+    /**
+     * Prépare une réflexion pendant le tour de l'adversaire, à exécuter hors du fil de l'interface graphique
+     * jusqu'à {@link #arreter()}. Elle ne sert qu'à accélérer la recherche suivante.
+     *
+     * @param plateau    plateau de la partie, copié
+     * @param adversaire joueur qui doit jouer
+     * @return la réflexion à exécuter, null si l'IA ne réfléchit pas pendant le tour de l'adversaire
+     */
+    default Runnable preparerReflexion(PlateauBinaire plateau, int adversaire) {
+        return null;
+    }
+}
@@ -1,197 +1,1069 @@
 package IA;
 
-import Modele.Jeu;
+import Modele.MoteurJeu;
 import Modele.Plateau;
+import Modele.PlateauBinaire;
+import Modele.Voisinage;
+import Modele.Zobrist;
 
 import java.awt.*;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.Supplier;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static Utile.Constante.*;
 
 /**
- * Classe IA Difficile utilisant une heuristique et l'algorithme minimax pour trouver le meilleur coup à faire.
+ * Classe IA Difficile utilisant une heuristique et l'algorithme alpha-beta pour trouver le meilleur coup à faire.
+ * La recherche est menée par approfondissement itératif : chaque profondeur terminée avant la fin du temps de
+ * réflexion fournit un meilleur coup, la profondeur suivante commençant par ce coup.
+ * Une table de transposition, conservée d'un coup à l'autre, évite de réexplorer les positions déjà vues.
+ * Les coups de chaque nœud sont triés (montées gagnantes, contres, coup de la table, coups killer, historique)
+ * pour que les coupures alpha-beta arrivent le plus tôt possible.
+ * <p>
+ * Avec la réflexion anticipée, l'IA continue de chercher pendant le tour de l'adversaire : elle prévoit sa réponse
+ * et cherche son propre coup dans la position obtenue. Si la prévision est juste, le temps déjà passé est décompté
+ * de la recherche suivante ; sinon la table de transposition remplie pendant la réflexion profite à la recherche.
+ * <p>
+ * Les positions du début de partie présentes dans le {@link LivreOuvertures} sont jouées sans recherche. Quand il
+ * reste peu de cases libres, la fin de partie est d'abord résolue exactement par le {@link SolveurFinale}, dans la
+ * moitié du temps de réflexion.
  */
-public class IADifficile implements IA {
+public class IADifficile implements IAAsynchrone {
 
-    private final Jeu jeu;
+    /**
+     * Notes de tri des coups, par priorité décroissante. Les coups calmes sont ensuite notés par l'historique,
+     * plafonné sous la note des coups killer.
+     */
+    private static final int NOTE_VICTOIRE = 1 << 30;
+    private static final int NOTE_CONTRE = 1 << 29;
+    private static final int NOTE_TABLE = 1 << 28;
+    private static final int NOTE_KILLER = 1 << 27;
+    private static final int NB_KILLERS = 2;
+
+    private final MoteurJeu jeu;
     private final Plateau plateau;
     private final Random random;
     private Coup meilleur_coup;
+    private Coup coup_prepare;
 
-    public IADifficile(Jeu _jeu) {
+    private final long limite;
+    private final int profondeurMax;
+    /**
+     * Nombre maximal de positions explorées par coup, Long.MAX_VALUE sans limite.
+     */
+    private final long limite_noeuds;
+    /**
+     * Amplitude du bruit ajouté à l'évaluation des positions non finies, tiré d'une fonction de la position et de
+     * "graine_bruit" : le même pendant toute la partie, il reste cohérent avec la table de transposition.
+     */
+    private final int bruit;
+    private long graine_bruit;
+    private final int nbFils;
+    private final int[] coups_racine;
+    private final int[] ordre_racine;
+    private final PlateauBinaire racine;
+    private final TableTransposition table;
+    private final Placement placement;
+    private LivreOuvertures livre;
+    /**
+     * Poids de la stratégie 1 de l'heuristique, utilisée par la recherche.
+     */
+    private Poids poids;
+    /**
+     * Créé à la première fin de partie à résoudre : les niveaux bruités n'en ont jamais besoin.
+     */
+    private volatile SolveurFinale solveur;
+    private int seuil_finale;
+    private int resultat_finale;
+    private final Recherche principale;
+    /**
+     * Contextes d'exploration de la recherche principale et des fils du pool, en cours d'utilisation ou libres.
+     */
+    private final List<Recherche> recherches;
+    /**
+     * Contextes rendus par les fils du pool qui se sont arrêtés, repris par les nouveaux fils : il n'y en a jamais
+     * plus que de fils ayant travaillé en même temps.
+     */
+    private final ArrayDeque<Recherche> recherches_libres;
+    private final AtomicLong meilleur_partage;
+    private ForkJoinPool pool;
+    private long debut;
+    private long duree;
+    private long noeuds;
+    private long limite_en_cours;
+    private long limite_noeuds_en_cours;
+    private volatile boolean interrompu;
+    private volatile int profondeur_atteinte;
+    private int valeur;
+    private boolean tri_coups;
+
+    /**
+     * Nombre d'appels à {@link #arreter()} : une recherche relève sa valeur quand elle est préparée et s'arrête dès
+     * qu'elle change, même si l'arrêt a été demandé avant son début.
+     */
+    private final AtomicInteger arrets;
+
+    private boolean reflexion_anticipee;
+    /**
+     * Résultat de la dernière réflexion anticipée : position prévue, meilleur coup et profondeur atteinte, temps
+     * passé, et si l'arbre a été exploré jusqu'au bout.
+     */
+    private final PlateauBinaire position_reflexion;
+    private volatile Coup coup_adverse_prevu;
+    private int joueur_reflexion;
+    private int coup_reflexion;
+    private int profondeur_reflexion;
+    private long duree_reflexion;
+    private boolean reflexion_complete;
+
+    public IADifficile(MoteurJeu _jeu) {
+        this(_jeu, Niveau.DIFFICILE);
+    }
+
+    public IADifficile(MoteurJeu _jeu, long tempsReflexion, int profondeurMax) {
+        this(_jeu, tempsReflexion, profondeurMax, 1);
+    }
+
+    public IADifficile(MoteurJeu _jeu, long tempsReflexion, int profondeurMax, int nbFils) {
+        this(_jeu, tempsReflexion, profondeurMax, 0, 0, nbFils);
+    }
+
+    /**
+     * @param niveau limites de la recherche et bruit de l'évaluation
+     */
+    public IADifficile(MoteurJeu _jeu, Niveau niveau) {
+        this(_jeu, niveau.getTempsReflexion(), niveau.getProfondeur(), niveau.getNoeuds(), niveau.getBruit(), IA_NOMBRE_FILS);
+    }
+
+    /**
+     * @param _jeu           moteur de la partie sur laquelle l'IA joue
+     * @param tempsReflexion temps de réflexion maximal par coup en millisecondes
+     * @param profondeurMax  profondeur maximale de l'approfondissement itératif
+     * @param noeuds         nombre maximal de positions explorées par coup, 0 sans limite
+     * @param bruit          amplitude du bruit ajouté à l'évaluation, 0 sans bruit ; avec du bruit, le livre
+     *                       d'ouvertures et le solveur de fin de partie ne sont pas consultés
+     * @param nbFils         nombre de fils d'exécution explorant les coups de la racine en parallèle
+     * @see Niveau
+     */
+    public IADifficile(MoteurJeu _jeu, long tempsReflexion, int profondeurMax, long noeuds, int bruit, int nbFils) {
         jeu = _jeu;
         plateau = jeu.getPlateau();
         random = new Random();
+        this.limite = tempsReflexion > Long.MAX_VALUE / 1_000_000L ? Long.MAX_VALUE : tempsReflexion * 1_000_000L;
+        this.profondeurMax = profondeurMax;
+        this.limite_noeuds = noeuds == 0 ? Long.MAX_VALUE : noeuds;
+        this.bruit = bruit;
+        graine_bruit = random.nextLong();
+        this.nbFils = Math.max(1, nbFils);
+        tri_coups = true;
+        coups_racine = new int[NOMBRE_COUPS_MAX];
+        ordre_racine = new int[NOMBRE_COUPS_MAX];
+        racine = new PlateauBinaire();
+        position_reflexion = new PlateauBinaire();
+        coup_reflexion = -1;
+        table = new TableTransposition(tailleTable(profondeurMax, limite_noeuds));
+        meilleur_partage = new AtomicLong();
+        arrets = new AtomicInteger();
+        recherches = new CopyOnWriteArrayList<>();
+        poids = Poids.getPoids();
+        recherches_libres = new ArrayDeque<>();
+        principale = new Recherche();
+        placement = Placement.getTable();
+        livre = bruit == 0 ? LivreOuvertures.getLivre() : null;
+        seuil_finale = bruit == 0 ? IA_SEUIL_FINALE : 0;
+        resultat_finale = SolveurFinale.NON_RESOLU;
+    }
+
+    /**
+     * Cherche le meilleur coup du joueur par approfondissement itératif jusqu'à la profondeur maximale, à la fin du
+     * temps de réflexion ou lorsque l'arbre a été entièrement exploré. La profondeur 1 est toujours terminée.
+     * À profondeur égale, le coup trouvé est celui de {@link #minimax(PlateauBinaire, int, int, int, int)},
+     * quel que soit le nombre de fils d'exécution.
+     * <p>
+     * Si la position est celle prévue par la dernière réflexion anticipée, le temps de réflexion restant est réduit
+     * d'autant, et le coup de la réflexion est renvoyé tout de suite s'il n'en reste plus. Une position du livre
+     * d'ouvertures est jouée sans recherche, une fin de partie résolue par {@link SolveurFinale} aussi.
+     *
+     * @param plateau plateau à analyser, non modifié
+     * @param joueur  joueur qui doit jouer
+     * @return le meilleur coup, null si le joueur ne peut pas jouer
+     */
+    @Override
+    public Coup chercherCoup(PlateauBinaire plateau, int joueur) {
+        return chercherCoup(plateau, joueur, arrets.get());
+    }
+
+    @Override
+    public Supplier<Coup> preparerRecherche(PlateauBinaire plateau, int joueur) {
+        int arret = arrets.get();
+        return () -> chercherCoup(plateau, joueur, arret);
+    }
+
+    /**
+     * @param arret valeur de "arrets" à la préparation de la recherche
+     */
+    private Coup chercherCoup(PlateauBinaire plateau, int joueur, int arret) {
+        boolean prevue = coup_reflexion != -1 && joueur == joueur_reflexion && plateau.equals(position_reflexion);
+        int coup_prevu = coup_reflexion;
+        coup_reflexion = -1;
+        Coup coup_livre = chercherLivre(plateau, joueur);
+        if (coup_livre != null) {
+            return coup_livre;
+        }
+        if (!prevue) {
+            if (arrets.get() != arret) return null;
+            long debut_finale = System.nanoTime();
+            Coup coup_finale = resoudreFinale(plateau, joueur);
+            if (coup_finale != null) {
+                return coup_finale;
+            }
+            // Le temps et les positions d'une résolution inaboutie sont décomptés de la recherche.
+            return chercher(plateau, joueur, limite - (System.nanoTime() - debut_finale), limite_noeuds - noeuds, arret);
+        }
+        if (reflexion_complete || duree_reflexion >= limite) {
+            noeuds = 0;
+            duree = 0;
+            profondeur_atteinte = profondeur_reflexion;
+            return new Coup(coup_prevu);
+        }
+        Coup coup = chercher(plateau, joueur, limite - duree_reflexion, limite_noeuds, arret);
+        if (profondeur_atteinte < profondeur_reflexion) {
+            profondeur_atteinte = profondeur_reflexion;
+            return new Coup(coup_prevu);
+        }
+        return coup;
+    }
+
+    /**
+     * @return le coup du livre d'ouvertures pour la position, null si elle n'y est pas
+     */
+    private Coup chercherLivre(PlateauBinaire plateau, int joueur) {
+        if (livre == null) return null;
+        int indice = livre.chercher(plateau, joueur);
+        if (indice == -1) return null;
+        int nb_coups = plateau.genererCoups(joueur, coups_racine, 0);
+        // Un coup illégal trahit une collision de clés : la position est cherchée normalement.
+        int coup = coupValide(livre.getCoup(indice, plateau), coups_racine, nb_coups);
+        if (coup == -1) return null;
+        noeuds = 0;
+        duree = 0;
+        profondeur_atteinte = livre.getProfondeur(indice);
+        valeur = livre.getValeur(indice);
+        return new Coup(coup);
+    }
+
+    /**
+     * Résout la fin de partie si elle compte au plus {@link #setSeuilFinale(int) seuil} cases libres, dans la
+     * moitié du temps de réflexion et du nombre de positions. Les positions explorées sont comptées dans "noeuds".
+     *
+     * @return le coup de la résolution, null si la position n'est pas une fin de partie ou n'a pas été résolue à
+     * temps
+     */
+    private Coup resoudreFinale(PlateauBinaire plateau, int joueur) {
+        resultat_finale = SolveurFinale.NON_RESOLU;
+        noeuds = 0;
+        if (SolveurFinale.casesLibres(plateau) > seuil_finale || estFinie(plateau)) return null;
+        if (solveur == null) solveur = new SolveurFinale(IA_TAILLE_TABLE_FINALE);
+        long debut_finale = System.nanoTime();
+        int resultat = solveur.resoudre(plateau, joueur, limite / 2, limite_noeuds / 2);
+        noeuds = solveur.getNoeuds();
+        if (resultat == SolveurFinale.NON_RESOLU) return null;
+        resultat_finale = resultat;
+        duree = System.nanoTime() - debut_finale;
+        profondeur_atteinte = SolveurFinale.getDistance(resultat);
+        valeur = resultat;
+        return new Coup(solveur.getMeilleurCoup());
+    }
+
+    /**
+     * Recherche par approfondissement itératif.
+     *
+     * @param limite_recherche temps de réflexion en nanosecondes
+     * @param limite_noeuds    nombre maximal de positions explorées
+     * @param arret            valeur de "arrets" à la préparation de la recherche, qui ne démarre pas si elle a
+     *                         déjà été arrêtée
+     * @return le meilleur coup de la dernière profondeur terminée, null s'il n'y en a pas
+     */
+    private Coup chercher(PlateauBinaire plateau, int joueur, long limite_recherche, long limite_noeuds, int arret) {
+        debut = System.nanoTime();
+        limite_en_cours = limite_recherche;
+        limite_noeuds_en_cours = limite_noeuds;
+        profondeur_atteinte = 0;
+        interrompu = false;
+        // Lu après la remise à zéro de "interrompu" : un arrêt demandé juste avant n'est pas perdu.
+        if (arrets.get() != arret) {
+            return null;
+        }
+        for (Recherche recherche : recherches) {
+            recherche.nouvelleRecherche();
+        }
+
+        int meilleur = -1;
+        if (peutJouer(plateau, joueur)) {
+            racine.copier(plateau);
+            table.nouvelleRecherche();
+            int nb_coups = plateau.genererCoups(joueur, coups_racine, 0);
+            // Le coup mémorisé lors d'une recherche précédente (tour précédent) est exploré en premier.
+            int premier = coupValide(TableTransposition.getCoup(table.chercher(plateau.getHash() ^ Zobrist.trait(joueur))), coups_racine, nb_coups);
+
+            for (int profondeur = 1; profondeur <= profondeurMax; profondeur++) {
+                for (Recherche recherche : recherches) {
+                    recherche.horizon_atteint = false;
+                }
+                int coup = rechercheRacine(joueur, profondeur, nb_coups, premier);
+                if (interrompu) {
+                    break;
+                }
+                meilleur = coup;
+                premier = coup;
+                valeur = getScore(meilleur_partage.get());
+                profondeur_atteinte = profondeur;
+                if (recherches.stream().noneMatch(r -> r.horizon_atteint)) {
+                    break; // Toutes les feuilles sont des fins de partie, chercher plus loin ne changera rien.
+                }
+            }
+        }
+
+        noeuds = noeudsExplores();
+        duree = System.nanoTime() - debut;
+        return meilleur == -1 ? null : new Coup(meilleur);
+    }
+
+    /**
+     * Explore les coups de la racine à une profondeur donnée, en commençant par le meilleur coup de l'itération
+     * précédente, puis dans l'ordre du tri des coups. Avec plusieurs fils, ce premier coup est exploré seul pour
+     * obtenir une borne, puis les autres sont répartis sur le pool de fils, chacun sur sa propre copie du plateau.
+     *
+     * @return le meilleur coup encodé, -1 si l'exploration a été interrompue
+     */
+    private int rechercheRacine(int joueur, int profondeur, int nb_coups, int premier) {
+        int nb_ordre = 0;
+        int rang_premier = rang(premier, nb_coups);
+        if (rang_premier < nb_coups) {
+            ordre_racine[nb_ordre++] = rang_premier;
+        }
+        int menaces = tri_coups ? menaces(racine, MoteurJeu.getAutreJoueur(joueur)) : 0;
+        int[] notes = principale.notes[0];
+        int debut = nb_ordre;
+        for (int k = 0; k < nb_coups; k++) {
+            // Sur un toit, seule la première construction est explorée (la partie est finie).
+            boolean doublon = racine.getHauteur(Coup.getDeplacement(coups_racine[k])) == TOIT && k > 0 && memeDeplacement(coups_racine[k - 1], coups_racine[k]);
+            if (k != rang_premier && !doublon) {
+                notes[nb_ordre] = tri_coups ? principale.noter(racine, joueur, coups_racine[k], menaces, 0) : 0;
+                ordre_racine[nb_ordre++] = k;
+            }
+        }
+        for (int i = debut; i < nb_ordre; i++) {
+            choisir(ordre_racine, notes, i, nb_ordre);
+        }
+
+        meilleur_partage.set(Long.MIN_VALUE);
+        explorerRacine(principale, joueur, profondeur, ordre_racine[0]);
+
+        if (nbFils == 1) {
+            for (int i = 1; i < nb_ordre && !interrompu; i++) {
+                explorerRacine(principale, joueur, profondeur, ordre_racine[i]);
+            }
+        } else {
+            List<Callable<Void>> taches = new ArrayList<>(nb_ordre);
+            for (int i = 1; i < nb_ordre; i++) {
+                int rang = ordre_racine[i];
+                taches.add(() -> {
+                    explorerRacine(rechercheCourante(), joueur, profondeur, rang);
+                    return null;
+                });
+            }
+            getPool().invokeAll(taches);
+        }
+
+        long meilleur = meilleur_partage.get();
+        return interrompu || meilleur == Long.MIN_VALUE ? -1 : coups_racine[getRang(meilleur)];
+    }
+
+    /**
+     * Explore un coup de la racine et met à jour le meilleur couple (score, rang) partagé.
+     * En cas d'égalité, le coup retenu est le premier dans l'ordre de génération, comme pour minimax : un coup généré
+     * avant le meilleur coup actuel est donc cherché avec une borne abaissée de 1, pour que son score soit exact
+     * s'il égale le meilleur. Le résultat ne dépend ainsi pas de l'ordre dans lequel les fils terminent.
+     */
+    private void explorerRacine(Recherche recherche, int joueur, int profondeur, int rang) {
+        int coup = coups_racine[rang];
+        int batisseur = Coup.getBatisseur(coup);
+        int deplacement = Coup.getDeplacement(coup);
+        PlateauBinaire plateau = recherche.plateau;
+
+        plateau.copier(racine);
+        plateau.deplacer(batisseur, deplacement);
+        if (plateau.getHauteur(deplacement) != TOIT) {
+            plateau.construire(Coup.getConstruction(coup));
+        }
+        recherche.evaluation.initialiser(plateau);
+
+        long partage = meilleur_partage.get();
+        int borne = Integer.MIN_VALUE;
+        if (partage != Long.MIN_VALUE) {
+            borne = rang < getRang(partage) ? getScore(partage) - 1 : getScore(partage);
+        }
+        int score = recherche.alphabeta(plateau, joueur, MoteurJeu.getAutreJoueur(joueur), 1, profondeur, borne, Integer.MAX_VALUE);
+
+        if (!interrompu && score > borne) {
+            meilleur_partage.accumulateAndGet(encoderScore(score, rang), Math::max);
+        }
+    }
+
+    /**
+     * Encode un couple (score, rang) dans un long dont l'ordre est celui des meilleurs coups :
+     * le plus grand score, puis le plus petit rang.
+     */
+    private static long encoderScore(int score, int rang) {
+        return ((long) score << 32) | (Integer.MAX_VALUE - rang);
+    }
+
+    private static int getScore(long score_rang) {
+        return (int) (score_rang >> 32);
+    }
+
+    /**
+     * Nombre d'entrées de la table de transposition : une recherche peu profonde ou limitée en positions n'en
+     * remplit qu'une petite partie, compter 64 coups par demi-coup et une entrée par position suffit.
+     */
+    private static int tailleTable(int profondeurMax, long noeuds) {
+        long taille = IA_TAILLE_TABLE;
+        if (profondeurMax < 4) taille = Math.min(taille, 1L << 6 * profondeurMax);
+        taille = Math.min(taille, noeuds);
+        return (int) Math.max(taille, 1 << 10);
+    }
+
+    private static int getRang(long score_rang) {
+        return Integer.MAX_VALUE - (int) score_rang;
+    }
+
+    /**
+     * Interrompt la recherche ou la réflexion anticipée en cours : le coup de la dernière profondeur terminée est
+     * renvoyé.
+     */
+    @Override
+    public void arreter() {
+        arrets.incrementAndGet();
+        interrompu = true;
+        SolveurFinale s = solveur;
+        if (s != null) s.arreter();
+    }
+
+    /**
+     * Active ou désactive la réflexion pendant le tour de l'adversaire, désactivée par défaut.
+     */
+    public void setReflexionAnticipee(boolean active) {
+        reflexion_anticipee = active;
+    }
+
+    @Override
+    public Runnable preparerReflexion(PlateauBinaire plateau, int adversaire) {
+        // Une limite de positions plafonne le calcul de chaque coup : réfléchir en plus pendant le tour adverse
+        // la contournerait.
+        if (!reflexion_anticipee || limite_noeuds != Long.MAX_VALUE) return null;
+        int arret = arrets.get();
+        PlateauBinaire copie = new PlateauBinaire(plateau);
+        return () -> reflechir(copie, adversaire, arret);
+    }
+
+    /**
+     * Réflexion anticipée : prévoit le coup de l'adversaire, le joue sur le plateau puis cherche la réponse sans
+     * limite de temps, jusqu'à l'arrêt ou la fin de l'exploration. Le coup prévu est celui mémorisé dans la table
+     * par la recherche précédente, à défaut celui d'une recherche pour l'adversaire.
+     */
+    private void reflechir(PlateauBinaire plateau, int adversaire, int arret) {
+        if (estFinie(plateau)) return;
+        int[] coups = new int[NOMBRE_COUPS_MAX];
+        int nb_coups = plateau.genererCoups(adversaire, coups, 0);
+        int prevu = coupValide(TableTransposition.getCoup(table.chercher(plateau.getHash() ^ Zobrist.trait(adversaire))), coups, nb_coups);
+        if (prevu == -1) {
+            Coup coup = chercher(plateau, adversaire, limite, limite_noeuds, arret);
+            if (coup == null) return;
+            prevu = coup.encoder();
+        }
+        coup_adverse_prevu = new Coup(prevu);
+        plateau.deplacer(Coup.getBatisseur(prevu), Coup.getDeplacement(prevu));
+        if (plateau.getHauteur(Coup.getDeplacement(prevu)) == TOIT) return;
+        plateau.construire(Coup.getConstruction(prevu));
+
+        int joueur = MoteurJeu.getAutreJoueur(adversaire);
+        Coup coup = chercher(plateau, joueur, Long.MAX_VALUE, Long.MAX_VALUE, arret);
+        if (coup == null) return;
+        position_reflexion.copier(plateau);
+        joueur_reflexion = joueur;
+        coup_reflexion = coup.encoder();
+        profondeur_reflexion = profondeur_atteinte;
+        duree_reflexion = duree;
+        reflexion_complete = !interrompu;
+    }
+
+    @Override
+    public void setCoupPrepare(Coup coup) {
+        coup_prepare = coup;
+    }
+
+    /**
+     * Oublie les positions mémorisées lors des recherches précédentes, comme au début d'une partie.
+     */
+    public void viderTable() {
+        table.vider();
+    }
+
+    @Override
+    public void setGraine(long graine) {
+        random.setSeed(graine);
+        if (bruit != 0) {
+            // Les valeurs de la table ont été calculées avec l'ancien bruit.
+            graine_bruit = random.nextLong();
+            viderTable();
+        }
+    }
+
+    private synchronized ForkJoinPool getPool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(nbFils, Fil::new, null, false);
+        }
+        return pool;
+    }
+
+    /**
+     * @return le contexte d'exploration du fil en cours : celui d'un fil du pool, ou le contexte principal pour le
+     * fil qui a lancé la recherche et qui, en attendant la fin des tâches, peut en exécuter
+     */
+    private Recherche rechercheCourante() {
+        Thread fil = Thread.currentThread();
+        return fil instanceof Fil ? ((Fil) fil).recherche : principale;
+    }
+
+    /**
+     * Arrête les fils d'exécution de la recherche parallèle.
+     */
+    public synchronized void fermer() {
+        if (pool != null) {
+            pool.shutdownNow();
+            pool = null;
+        }
+    }
+
+    private int rang(int coup, int nb_coups) {
+        for (int k = 0; k < nb_coups; k++) {
+            if (coups_racine[k] == coup) return k;
+        }
+        return nb_coups;
+    }
+
+    /**
+     * @return le coup s'il fait partie des coups générés, -1 sinon (collision de clés dans la table)
+     */
+    private static int coupValide(int coup, int[] coups, int nb_coups) {
+        if (coup == -1) return -1;
+        for (int k = 0; k < nb_coups; k++) {
+            if (coups[k] == coup) return coup;
+        }
+        return -1;
+    }
+
+    private static boolean memeDeplacement(int coup1, int coup2) {
+        return Coup.getBatisseur(coup1) == Coup.getBatisseur(coup2) && Coup.getDeplacement(coup1) == Coup.getDeplacement(coup2);
+    }
+
+    /**
+     * Active ou désactive le tri des coups. Sans tri, les coups sont explorés dans l'ordre de génération, le coup de
+     * la table de transposition en premier : comparer {@link #getNoeuds()} dans les deux cas mesure le gain du tri.
+     * Le coup trouvé est le même.
+     */
+    public void setTriCoups(boolean tri) {
+        tri_coups = tri;
+    }
+
+    /**
+     * Fixe le nombre de cases libres (sans coupole ni batisseur) à partir duquel la fin de partie est résolue
+     * exactement ; 0 pour ne jamais la résoudre.
+     */
+    public void setSeuilFinale(int seuil) {
+        seuil_finale = seuil;
+    }
+
+    /**
+     * Remplace les poids de l'heuristique, lus par défaut dans {@link Utile.Constante#FICHIER_POIDS}. La table de
+     * transposition est vidée : ses valeurs ont été calculées avec les anciens poids.
+     */
+    public void setPoids(Poids poids) {
+        this.poids = poids;
+        for (Recherche recherche : recherches) {
+            recherche.evaluation = poids.nouvelleEvaluation(profondeurMax);
+        }
+        viderTable();
+    }
+
+    public Poids getPoids() {
+        return poids;
+    }
+
+    /**
+     * Remplace le livre d'ouvertures consulté avant chaque recherche ; null pour toujours chercher.
+     */
+    public void setLivre(LivreOuvertures livre) {
+        this.livre = livre;
+    }
+
+    /**
+     * Cases de niveau 3 sur lesquelles un batisseur adverse au niveau 2 peut monter au prochain tour :
+     * y construire une coupole contre sa victoire.
+     */
+    private static int menaces(PlateauBinaire plateau, int adversaire) {
+        int menaces = 0;
+        for (int i = 0; i < NOMBRE_BATISSEUR_JOUEUR; i++) {
+            int position = plateau.getPosition(adversaire, i);
+            if (plateau.getHauteur(position) == ETAGE) {
+                menaces |= Voisinage.MASQUES[position];
+            }
+        }
+        return menaces & plateau.getNiveau(TOIT);
+    }
+
+    /**
+     * Amène en position "debut" le coup de meilleure note parmi ceux de "debut" à "fin" (exclu), en décalant les
+     * coups intermédiaires : à note égale, l'ordre de génération est conservé.
+     */
+    private static void choisir(int[] coups, int[] notes, int debut, int fin) {
+        int meilleur = debut;
+        for (int k = debut + 1; k < fin; k++) {
+            if (notes[k] > notes[meilleur]) meilleur = k;
+        }
+        if (meilleur != debut) {
+            int coup = coups[meilleur];
+            int note = notes[meilleur];
+            System.arraycopy(coups, debut, coups, debut + 1, meilleur - debut);
+            System.arraycopy(notes, debut, notes, debut + 1, meilleur - debut);
+            coups[debut] = coup;
+            notes[debut] = note;
+        }
+    }
+
+    /**
+     * @return le nombre de positions explorées par tous les fils depuis le début de la recherche
+     */
+    private long noeudsExplores() {
+        long total = 0;
+        for (Recherche recherche : recherches) {
+            total += recherche.noeuds;
+        }
+        return total;
+    }
+
+    /**
+     * Bruit de l'évaluation d'une position : un entier entre -bruit et +bruit tiré de sa clé, opposé pour l'autre
+     * joueur comme l'heuristique.
+     */
+    private int bruiter(long cle, int joueur_maximise) {
+        long h = (cle ^ graine_bruit) * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 32;
+        int tirage = (int) Math.floorMod(h, 2L * bruit + 1) - bruit;
+        return joueur_maximise == JOUEUR1 ? tirage : -tirage;
     }
 
+    /**
+     * @return vrai si aucun batisseur n'est sur un toit et que le joueur peut se déplacer : un adversaire bloqué ne
+     * perd qu'à son tour, le joueur doit donc encore jouer
+     */
+    private static boolean peutJouer(PlateauBinaire plateau, int joueur) {
+        return !plateau.estBloque(joueur) && !plateau.aGagne(JOUEUR1) && !plateau.aGagne(JOUEUR2);
+    }
+
+    private static boolean estFinie(PlateauBinaire plateau) {
+        return plateau.estBloque(JOUEUR1) || plateau.estBloque(JOUEUR2) || plateau.aGagne(JOUEUR1) || plateau.aGagne(JOUEUR2);
+    }
+
+    /**
+     * Fil du pool de la recherche parallèle, qui prend un contexte d'exploration à son démarrage et le rend à son
+     * arrêt : le pool arrête les fils inactifs et en crée de nouveaux sans que les contextes ne s'accumulent.
+     */
+    private class Fil extends ForkJoinWorkerThread {
+        private Recherche recherche;
+
+        private Fil(ForkJoinPool pool) {
+            super(pool);
+        }
+
+        @Override
+        protected void onStart() {
+            super.onStart();
+            synchronized (recherches_libres) {
+                recherche = recherches_libres.poll();
+            }
+            if (recherche == null) recherche = new Recherche();
+        }
+
+        @Override
+        protected void onTermination(Throwable exception) {
+            synchronized (recherches_libres) {
+                recherches_libres.push(recherche);
+            }
+            super.onTermination(exception);
+        }
+    }
+
+    /**
+     * Contexte d'exploration propre à un fil d'exécution : copie du plateau, coups générés à chaque profondeur et
+     * leurs notes de tri, coups killer, historique et statistiques. La table de transposition et l'arrêt de la
+     * recherche sont partagés.
+     */
+    private class Recherche {
+        private final PlateauBinaire plateau;
+        private EvaluationIncrementale evaluation;
+        private final int[][] coups;
+        private final int[][] notes;
+        /**
+         * Derniers coups calmes ayant provoqué une coupure, par profondeur.
+         */
+        private final int[][] killers;
+        /**
+         * Somme des carrés des profondeurs restantes des coupures provoquées par chaque coup calme, indexée par
+         * le coup encodé (15 bits) et le joueur.
+         */
+        private final int[] historique;
+        private long noeuds;
+        private boolean horizon_atteint;
+
+        private Recherche() {
+            plateau = new PlateauBinaire();
+            evaluation = poids.nouvelleEvaluation(profondeurMax);
+            coups = new int[profondeurMax + 1][NOMBRE_COUPS_MAX];
+            notes = new int[profondeurMax + 1][NOMBRE_COUPS_MAX];
+            killers = new int[profondeurMax + 1][NB_KILLERS];
+            historique = new int[2 << 15];
+            recherches.add(this);
+        }
+
+        /**
+         * Remet à zéro les statistiques et les coups killer, et divise l'historique par deux pour qu'il suive la
+         * partie.
+         */
+        private void nouvelleRecherche() {
+            noeuds = 0;
+            for (int[] k : killers) {
+                Arrays.fill(k, -1);
+            }
+            for (int i = 0; i < historique.length; i++) {
+                historique[i] >>= 1;
+            }
+        }
+
+        private int indexHistorique(int joueur, int coup) {
+            return joueur == JOUEUR1 ? coup : coup | (1 << 15);
+        }
+
+        /**
+         * Note un coup pour le tri : montée gagnante, contre d'une montée adverse, coup killer de la profondeur, puis
+         * historique. Le coup de la table est placé entre les contres et les coups killer par l'appelant.
+         *
+         * @param menaces cases à couvrir d'une coupure pour contrer l'adversaire, voir {@link #menaces(PlateauBinaire, int)}
+         */
+        private int noter(PlateauBinaire plateau, int joueur, int coup, int menaces, int profondeur) {
+            if (plateau.getHauteur(Coup.getDeplacement(coup)) == TOIT) return NOTE_VICTOIRE;
+            if ((menaces & (1 << Coup.getConstruction(coup))) != 0) return NOTE_CONTRE;
+            int[] k = killers[profondeur];
+            if (coup == k[0]) return NOTE_KILLER + 1;
+            if (coup == k[1]) return NOTE_KILLER;
+            return Math.min(historique[indexHistorique(joueur, coup)], NOTE_KILLER - 1);
+        }
+
+        /**
+         * Mémorise un coup calme ayant provoqué une coupure.
+         */
+        private void enregistrerCoupure(int joueur, int coup, int profondeur, int restante) {
+            int[] k = killers[profondeur];
+            if (coup != k[0]) {
+                k[1] = k[0];
+                k[0] = coup;
+            }
+            int i = indexHistorique(joueur, coup);
+            historique[i] = Math.min(historique[i] + restante * restante, NOTE_KILLER);
+        }
+
+        /**
+         * Alpha-beta sur le même arbre et avec les mêmes valeurs que minimax : le résultat est exact lorsqu'il est
+         * strictement compris entre alpha et beta, sinon c'est une borne.
+         * <p>
+         * La valeur d'une position ne dépend que de la position, du joueur qui doit jouer et de la profondeur restante.
+         * Elle est mémorisée dans la table du point de vue du joueur qui doit jouer (l'heuristique est antisymétrique)
+         * et n'est réutilisée qu'à profondeur restante égale, pour rester identique à minimax. Le coup mémorisé sert
+         * au tri des coups quelle que soit sa profondeur ; le tri ne change que l'ordre d'exploration, pas la valeur.
+         * <p>
+         * L'heuristique et la fin de partie sont lues dans l'évaluation incrémentale, tenue à jour à chaque coup.
+         *
+         * @return valeur de la position pour joueur_maximise
+         */
+        private int alphabeta(PlateauBinaire plateau, int joueur_maximise, int joueur_en_cours, int profondeur_en_cours, int profondeur_max, int alpha, int beta) {
+            if ((++noeuds & 1023) == 0 && profondeur_atteinte > 0
+                    && (System.nanoTime() - debut > limite_en_cours || noeudsExplores() >= limite_noeuds_en_cours)) {
+                interrompu = true;
+            }
+            if (interrompu) {
+                return 0;
+            }
+
+            boolean jeu_fini = evaluation.estFinie();
+            if (profondeur_en_cours == profondeur_max || jeu_fini) {
+                horizon_atteint |= !jeu_fini;
+                int multi = jeu_fini ? (profondeur_max - profondeur_en_cours + 1) : 1;
+                int score = multi * evaluation.getScore(joueur_maximise);
+                return jeu_fini || bruit == 0 ? score : score + bruiter(plateau.getHash(), joueur_maximise);
+            }
+
+            boolean est_joueur_maximise = joueur_en_cours == joueur_maximise;
+            int autre_joueur = MoteurJeu.getAutreJoueur(joueur_en_cours);
+            int restante = profondeur_max - profondeur_en_cours;
+            long cle = plateau.getHash() ^ Zobrist.trait(joueur_en_cours);
+
+            long entree = table.chercher(cle);
+            if (entree != 0 && TableTransposition.getProfondeur(entree) == restante) {
+                int score = TableTransposition.getScore(entree);
+                int borne = TableTransposition.getBorne(entree);
+                if (!est_joueur_maximise) {
+                    score = -score;
+                    borne = borne == TableTransposition.EXACTE ? borne : (borne == TableTransposition.INFERIEURE ? TableTransposition.SUPERIEURE : TableTransposition.INFERIEURE);
+                }
+                if (borne == TableTransposition.EXACTE || (borne == TableTransposition.INFERIEURE && score >= beta) || (borne == TableTransposition.SUPERIEURE && score <= alpha)) {
+                    horizon_atteint = true; // Le sous-arbre n'est pas parcouru, il peut contenir des feuilles coupées.
+                    return score;
+                }
+            }
+
+            int[] coups_noeud = coups[profondeur_en_cours];
+            int[] notes_noeud = notes[profondeur_en_cours];
+            int nb_generes = plateau.genererCoups(joueur_en_cours, coups_noeud, 0);
+            int coup_table = TableTransposition.getCoup(entree);
+            int menaces = tri_coups ? menaces(plateau, autre_joueur) : 0;
+            int nb_coups = 0;
+            for (int k = 0; k < nb_generes; k++) {
+                int coup = coups_noeud[k];
+                // Sur un toit, seule la première construction est explorée (la partie est finie).
+                if (nb_coups > 0 && plateau.getHauteur(Coup.getDeplacement(coup)) == TOIT && memeDeplacement(coups_noeud[nb_coups - 1], coup)) continue;
+                int note = tri_coups ? noter(plateau, joueur_en_cours, coup, menaces, profondeur_en_cours) : 0;
+                coups_noeud[nb_coups] = coup;
+                notes_noeud[nb_coups++] = coup == coup_table ? Math.max(note, NOTE_TABLE) : note;
+            }
+
+            int alpha_initial = alpha;
+            int beta_initial = beta;
+            int meilleur_score = est_joueur_maximise ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+            int meilleur = -1;
 
+            for (int k = 0; k < nb_coups && alpha < beta; k++) {
+                choisir(coups_noeud, notes_noeud, k, nb_coups);
+                int coup = coups_noeud[k];
+                int batisseur = Coup.getBatisseur(coup);
+                int deplacement = Coup.getDeplacement(coup);
+                int construction = Coup.getConstruction(coup);
+                boolean est_sur_toit = plateau.getHauteur(deplacement) == TOIT;
+
+                plateau.deplacer(batisseur, deplacement);
+                if (!est_sur_toit) {
+                    plateau.construire(construction);
+                }
+                evaluation.jouer(plateau, batisseur, deplacement, est_sur_toit ? -1 : construction);
+
+                int score = alphabeta(plateau, joueur_maximise, autre_joueur, profondeur_en_cours + 1, profondeur_max, alpha, beta);
+
+                evaluation.annuler();
+                if (!est_sur_toit) {
+                    plateau.deconstruire(construction);
+                }
+                plateau.deplacer(deplacement, batisseur);
+
+                if (est_joueur_maximise ? score > meilleur_score : score < meilleur_score) {
+                    meilleur_score = score;
+                    meilleur = coup;
+                }
+                if (est_joueur_maximise) {
+                    alpha = Math.max(alpha, score);
+                } else {
+                    beta = Math.min(beta, score);
+                }
+                if (alpha >= beta && tri_coups && notes_noeud[k] < NOTE_CONTRE) {
+                    enregistrerCoupure(joueur_en_cours, coup, profondeur_en_cours, restante);
+                }
+            }
+
+            if (!interrompu) {
+                int borne = meilleur_score <= alpha_initial ? TableTransposition.SUPERIEURE :
+                        (meilleur_score >= beta_initial ? TableTransposition.INFERIEURE : TableTransposition.EXACTE);
+                int score = meilleur_score;
+                if (!est_joueur_maximise) {
+                    score = -score;
+                    borne = borne == TableTransposition.EXACTE ? borne : (borne == TableTransposition.INFERIEURE ? TableTransposition.SUPERIEURE : TableTransposition.INFERIEURE);
+                }
+                table.stocker(cle, score, borne, restante, meilleur);
+            }
+            return meilleur_score;
+        }
+    }
 
     /**
      * Fonction minimax qui implémente l'algorithme du même nom pour trouver le meilleur coup depuis l'heuristique.
+     * L'exploration se fait sur un plateau binaire modifié puis restauré à chaque coup, sans allocation.
      *
      * @param plateau             copie du plateau à analyser
+     * @param joueur_maximise     joueur pour lequel le meilleur coup est cherché
+     * @param joueur_en_cours     joueur dont c'est le tour dans l'exploration
      * @param profondeur_en_cours profondeur de coup à analyser
-     * @param batisseurs_j1       tableau des batisseurs du joueur
-     * @param batisseurs_j2       tableau des batisseurs du joueur
+     * @param profondeur_max      profondeur à laquelle l'heuristique est évaluée
      * @return meilleure valeur de l'heuristique
      */
-    public float minimax(Plateau plateau, int joueur_maximise, int joueur_en_cours, int profondeur_en_cours, ArrayList<Point> batisseurs_j1, ArrayList<Point> batisseurs_j2) {
+    public int minimax(PlateauBinaire plateau, int joueur_maximise, int joueur_en_cours, int profondeur_en_cours, int profondeur_max) {
 
-        float score_actuel;
-        float meilleur_score;
-        int autre_joueur = Jeu.getAutreJoueur(joueur_en_cours);
-        ArrayList<Point> batisseurs_en_cours = joueur_en_cours == JOUEUR1 ? batisseurs_j1 : batisseurs_j2;
+        int score_actuel;
+        int meilleur_score;
+        int autre_joueur = MoteurJeu.getAutreJoueur(joueur_en_cours);
 
-        boolean est_sur_toit;
-        boolean impossibleDeJouer_j1 = plateau.getCasesAccessibles(batisseurs_j1.get(0)).isEmpty() && plateau.getCasesAccessibles(batisseurs_j1.get(1)).isEmpty();
-        boolean impossibleDeJouer_j2 = plateau.getCasesAccessibles(batisseurs_j2.get(0)).isEmpty() && plateau.getCasesAccessibles(batisseurs_j2.get(1)).isEmpty();
-        boolean aGagne_j1 = (plateau.getTypeBatiments(batisseurs_j1.get(0)) == TOIT) || (plateau.getTypeBatiments(batisseurs_j1.get(1)) == TOIT);
-        boolean aGagne_j2 = (plateau.getTypeBatiments(batisseurs_j2.get(0)) == TOIT) || (plateau.getTypeBatiments(batisseurs_j2.get(1)) == TOIT);
-        boolean jeu_fini = impossibleDeJouer_j1 || impossibleDeJouer_j2 || aGagne_j1 || aGagne_j2;
+        boolean jeu_fini = plateau.estBloque(JOUEUR1) || plateau.estBloque(JOUEUR2) || plateau.aGagne(JOUEUR1) || plateau.aGagne(JOUEUR2);
         boolean est_joueur_maximise = joueur_en_cours == joueur_maximise;
 
-        meilleur_score = est_joueur_maximise ? -10000000000000.f : 10000000000000.f;
+        meilleur_score = est_joueur_maximise ? Integer.MIN_VALUE : Integer.MAX_VALUE;
 
-        int profondeur_max = 3;
         int multi = jeu_fini ? (profondeur_max - profondeur_en_cours + 1) : 1;
 
         if (profondeur_en_cours == profondeur_max || jeu_fini) {
-            return multi * calculerHeuristique(plateau, joueur_maximise, 1, batisseurs_j1, batisseurs_j2);
+            return multi * calculerHeuristique(plateau, joueur_maximise, 1);
         }
 
-        for (Point batisseur : batisseurs_en_cours) {
-            for (Point deplacement : plateau.getCasesAccessibles(batisseur)) {
+        for (int i = 0; i < NOMBRE_BATISSEUR_JOUEUR; i++) {
+            int batisseur = plateau.getPosition(joueur_en_cours, i);
+            int deplacements = plateau.casesAccessibles(batisseur);
+
+            while (deplacements != 0) {
+                int deplacement = Integer.numberOfTrailingZeros(deplacements);
+                deplacements &= deplacements - 1;
 
-                plateau.enleverJoueur(batisseur);
-                plateau.ajouterJoueur(deplacement, joueur_en_cours);
+                plateau.deplacer(batisseur, deplacement);
 
-                for (Point construction : plateau.getConstructionsPossible(deplacement)) {
+                // Monter sur un toit termine la partie : toutes les constructions mènent à la même position.
+                boolean est_sur_toit = plateau.getHauteur(deplacement) == TOIT;
+                int constructions = plateau.constructionsPossibles(deplacement);
 
-                    est_sur_toit = plateau.getTypeBatiments(deplacement) == TOIT;
+                while (constructions != 0) {
+                    int construction = Integer.numberOfTrailingZeros(constructions);
+                    constructions = est_sur_toit ? 0 : constructions & (constructions - 1);
 
                     if (!est_sur_toit) {
-                        plateau.ameliorerBatiment(construction);
+                        plateau.construire(construction);
                     }
 
-                    batisseurs_en_cours.set(batisseurs_en_cours.indexOf(batisseur), deplacement);
-
-                    score_actuel = minimax(plateau, joueur_maximise, autre_joueur, profondeur_en_cours + 1, batisseurs_j1, batisseurs_j2);
-
-                    batisseurs_en_cours.set(batisseurs_en_cours.indexOf(deplacement), batisseur);
+                    score_actuel = minimax(plateau, joueur_maximise, autre_joueur, profondeur_en_cours + 1, profondeur_max);
 
                     if (!est_sur_toit) {
-                        plateau.degraderBatiment(construction);
+                        plateau.deconstruire(construction);
                     }
 
                     if ((est_joueur_maximise && score_actuel > meilleur_score) || (!est_joueur_maximise && score_actuel < meilleur_score)) {
                         meilleur_score = score_actuel;
                         if (profondeur_en_cours == 0) {
-                            meilleur_coup = new Coup(batisseur, deplacement, construction);
+                            meilleur_coup = new Coup(Voisinage.point(batisseur), Voisinage.point(deplacement), Voisinage.point(construction));
                         }
                     }
                 }
-                plateau.enleverJoueur(deplacement);
-                plateau.ajouterJoueur(batisseur, joueur_en_cours);
+                plateau.deplacer(deplacement, batisseur);
             }
         }
         return meilleur_score;
     }
 
-    private float calculerHeuristiqueDifferenceDesHauteurs(Plateau plateau, ArrayList<Point> batisseurs) {
-        float heuristique_joueur = 0;
-
-        for (Point batisseur : batisseurs) {
-            switch (plateau.getTypeBatiments(batisseur)) {
-                case TOIT:
-                    heuristique_joueur += 1000;
-                    break;
-                case ETAGE:
-                    heuristique_joueur += 60;
-                    break;
-                case RDC:
-                    heuristique_joueur += 40;
-                    break;
-                default:
-                    break;
-            }
-        }
+    private int calculerHeuristiqueDifferenceDesHauteurs(PlateauBinaire plateau, int joueur) {
+        int batisseurs = plateau.getBatisseurs(joueur);
 
-        return heuristique_joueur;
+        return 1000 * Integer.bitCount(batisseurs & plateau.getNiveau(TOIT)) +
+                60 * Integer.bitCount(batisseurs & plateau.getNiveau(ETAGE)) +
+                40 * Integer.bitCount(batisseurs & plateau.getNiveau(RDC));
     }
 
+    /**
+     * Compte les cases accessibles plus hautes que chaque batisseur. Une case accessible est au plus d'un étage
+     * au-dessus du batisseur, seules les cases d'exactement un étage de plus sont donc comptées.
+     */
+    private int calculerHeuristiqueMobiliteVerticale(PlateauBinaire plateau, int joueur) {
+        int heuristique_joueur = 0;
 
-    private float calculerHeuristiqueMobiliteVerticale(Plateau plateau, ArrayList<Point> batisseurs) {
-        float heuristique_joueur = 0;
-        int etage_batisseur;
-        int etage_case_accessible;
-
-        for (Point batisseur : batisseurs) {
-            for (Point case_accessible : plateau.getCasesAccessibles(batisseur)) {
-
-                etage_batisseur = plateau.getTypeBatiments(batisseur);
-                etage_case_accessible = plateau.getTypeBatiments(case_accessible);
-
-                if (etage_case_accessible > etage_batisseur) {
-                    if (plateau.deplacementPossible(case_accessible, batisseur)) {
-                        heuristique_joueur += 5;
-                    } else {
-                        heuristique_joueur -= ((etage_case_accessible - etage_batisseur) * 5);
-                    }
-                }
+        for (int i = 0; i < NOMBRE_BATISSEUR_JOUEUR; i++) {
+            int batisseur = plateau.getPosition(joueur, i);
+            int etage_batisseur = plateau.getHauteur(batisseur);
+            if (etage_batisseur < TOIT) {
+                heuristique_joueur += 5 * Integer.bitCount(plateau.casesAccessibles(batisseur) & plateau.getNiveau(etage_batisseur + 1));
             }
         }
         return heuristique_joueur;
     }
 
-    private float calculerHeuristiqueCaseCentrale(ArrayList<Point> batisseurs) {
-        for (Point batisseur : batisseurs) {
-            if (batisseur == CASE_CENTRALE) {
-                return 10;
-            }
-        }
-        return 0;
+    private int calculerHeuristiqueCaseCentrale(PlateauBinaire plateau, int joueur) {
+        return (plateau.getBatisseurs(joueur) & (1 << Voisinage.index(CASE_CENTRALE))) != 0 ? 10 : 0;
     }
 
-    private float calculerHeuristiqueMenaceNiveau2(Plateau plateau, ArrayList<Point> batisseurs) {
-        float heuristique_joueur = 0;
+    private int calculerHeuristiqueMenaceNiveau2(PlateauBinaire plateau, int joueur) {
+        int heuristique_joueur = 0;
 
-        for (Point batisseur : batisseurs) {
-            if (plateau.getTypeBatiments(batisseur) == ETAGE) {
-                for (Point case_voisine : plateau.getCasesAccessibles(batisseur)) {
-                    if (plateau.getTypeBatiments(case_voisine) == TOIT) {
-                        heuristique_joueur += 500;
-                    }
-                }
+        for (int i = 0; i < NOMBRE_BATISSEUR_JOUEUR; i++) {
+            int batisseur = plateau.getPosition(joueur, i);
+            if (plateau.getHauteur(batisseur) == ETAGE) {
+                heuristique_joueur += 500 * Integer.bitCount(plateau.casesAccessibles(batisseur) & plateau.getNiveau(TOIT));
             }
         }
         return heuristique_joueur;
     }
 
-    private float calculerHeuristique(Plateau plateau, int joueur_maximise, int strategie, ArrayList<Point> batisseurs_j1, ArrayList<Point> batisseurs_j2) {
+    /**
+     * Évalue entièrement un plateau avec l'heuristique de la recherche.
+     *
+     * @param plateau         plateau dont les quatre batisseurs sont placés
+     * @param joueur_maximise joueur du point de vue duquel le plateau est évalué
+     * @return la valeur de l'heuristique
+     */
+    public int evaluer(PlateauBinaire plateau, int joueur_maximise) {
+        return calculerHeuristique(plateau, joueur_maximise, 1);
+    }
+
+    /**
+     * @param profondeurMax nombre maximal de coups joués sans être annulés
+     * @return une évaluation incrémentale égale à {@link #evaluer(PlateauBinaire, int)} avec les poids par défaut
+     */
+    public static EvaluationIncrementale nouvelleEvaluation(int profondeurMax) {
+        return Poids.getPoids().nouvelleEvaluation(profondeurMax);
+    }
+
+    private int calculerHeuristique(PlateauBinaire plateau, int joueur_maximise, int strategie) {
 
         int poidsDifferenceDesHauteurs = 0;
         int poidsMobiliteVerticale = 0;
         int poidsCaseCentrale = 0;
         int poidsMenaceNiveau2 = 0;
 
-        ArrayList<Point> batisseurs_maximise = joueur_maximise == JOUEUR1 ? batisseurs_j1 : batisseurs_j2;
-        ArrayList<Point> batisseurs_autre_joueur = joueur_maximise != JOUEUR1 ? batisseurs_j1 : batisseurs_j2;
+        int autre_joueur = MoteurJeu.getAutreJoueur(joueur_maximise);
 
         // Pour tester d'autre stratégies, rajouter un case avec des poids différents.
         switch (strategie) {
             case 1:
-                poidsDifferenceDesHauteurs = 10;
-                poidsMobiliteVerticale = 10;
-                poidsCaseCentrale = 15;
-                poidsMenaceNiveau2 = 10;
+                poidsDifferenceDesHauteurs = poids.get(Poids.DIFFERENCE_HAUTEURS);
+                poidsMobiliteVerticale = poids.get(Poids.MOBILITE_VERTICALE);
+                poidsCaseCentrale = poids.get(Poids.CASE_CENTRALE);
+                poidsMenaceNiveau2 = poids.get(Poids.MENACE_NIVEAU_2);
                 break;
         }
 
-        float diff_hauteur = poidsDifferenceDesHauteurs * (calculerHeuristiqueDifferenceDesHauteurs(plateau, batisseurs_maximise) - calculerHeuristiqueDifferenceDesHauteurs(plateau, batisseurs_autre_joueur));
-        float mobilite_verticale = poidsMobiliteVerticale * (calculerHeuristiqueMobiliteVerticale(plateau, batisseurs_maximise) - calculerHeuristiqueMobiliteVerticale(plateau, batisseurs_autre_joueur));
-        float case_centrale = +poidsCaseCentrale * (calculerHeuristiqueCaseCentrale(batisseurs_maximise) - calculerHeuristiqueCaseCentrale(batisseurs_autre_joueur));
-        float menace = poidsMenaceNiveau2 * (calculerHeuristiqueMenaceNiveau2(plateau, batisseurs_maximise) - calculerHeuristiqueMenaceNiveau2(plateau, batisseurs_autre_joueur));
+        int diff_hauteur = poidsDifferenceDesHauteurs * (calculerHeuristiqueDifferenceDesHauteurs(plateau, joueur_maximise) - calculerHeuristiqueDifferenceDesHauteurs(plateau, autre_joueur));
+        int mobilite_verticale = poidsMobiliteVerticale * (calculerHeuristiqueMobiliteVerticale(plateau, joueur_maximise) - calculerHeuristiqueMobiliteVerticale(plateau, autre_joueur));
+        int case_centrale = poidsCaseCentrale * (calculerHeuristiqueCaseCentrale(plateau, joueur_maximise) - calculerHeuristiqueCaseCentrale(plateau, autre_joueur));
+        int menace = poidsMenaceNiveau2 * (calculerHeuristiqueMenaceNiveau2(plateau, joueur_maximise) - calculerHeuristiqueMenaceNiveau2(plateau, autre_joueur));
 
         return diff_hauteur + mobilite_verticale + case_centrale + menace;
     }
@@ -203,8 +1075,13 @@ public class IADifficile implements IA {
             case PLACEMENT:
                 return jouePlacement();
             case SELECTION:
-                minimax(new Plateau(plateau), jeu.getJoueurEnCours().getNum_joueur(), jeu.getJoueurEnCours().getNum_joueur(), 0, new ArrayList<>(jeu.getBatisseursJoueur(JOUEUR1)), new ArrayList<>(jeu.getBatisseursJoueur(JOUEUR2)));
-                return meilleur_coup.getBatisseur();
+                if (coup_prepare == null) {
+                    coup_prepare = chercherCoup(new PlateauBinaire(plateau, jeu.getBatisseurs(JOUEUR1), jeu.getBatisseurs(JOUEUR2)), jeu.getJoueurEnCours());
+                }
+                meilleur_coup = coup_prepare;
+                coup_prepare = null;
+                // Aucun coup si le joueur est bloqué ou si la recherche a été arrêtée.
+                return meilleur_coup == null ? null : meilleur_coup.getBatisseur();
             case DEPLACEMENT:
                 return meilleur_coup.getDeplacement();
             case CONSTRUCTION:
@@ -216,16 +1093,63 @@ public class IADifficile implements IA {
     }
 
 
+    // GETTER
+
+    /**
+     * @return le nombre de positions explorées lors de la dernière recherche
+     */
+    public long getNoeuds() {
+        return noeuds;
+    }
+
+    /**
+     * @return la durée de la dernière recherche en nanosecondes
+     */
+    public long getDuree() {
+        return duree;
+    }
+
+    /**
+     * @return la dernière profondeur entièrement explorée lors de la dernière recherche
+     */
+    public int getProfondeurAtteinte() {
+        return profondeur_atteinte;
+    }
+
+    /**
+     * @return le coup de l'adversaire prévu par la dernière réflexion anticipée, null s'il n'y en a pas eu
+     */
+    public Coup getCoupAdversePrevu() {
+        return coup_adverse_prevu;
+    }
+
+    /**
+     * @return la valeur, pour le joueur qui devait jouer, du meilleur coup de la dernière recherche à la dernière
+     * profondeur terminée, ou sa valeur exacte si le {@link SolveurFinale} l'a résolue
+     */
+    public int getValeur() {
+        return valeur;
+    }
+
+    /**
+     * @return la valeur exacte de la position de la dernière recherche si le {@link SolveurFinale} l'a résolue
+     * (victoire, défaite et distance), {@link SolveurFinale#NON_RESOLU} sinon
+     */
+    public int getFinale() {
+        return resultat_finale;
+    }
+
+    public Coup getMeilleurCoup() {
+        return meilleur_coup;
+    }
+
+    /**
+     * Place un batisseur sur la case choisie par la table de placement.
+     *
+     * @see Placement#choisir(PlateauBinaire, int, Random, int)
+     */
     private Point jouePlacement() {
-        int colonnes = jeu.getPlateau().getColonnes();
-        int lignes = jeu.getPlateau().getLignes();
-        Point case_alea;
-        do {
-            case_alea = new Point(
-                    random.nextInt(colonnes),
-                    random.nextInt(lignes)
-            );
-        } while (!jeu.getPlateau().estLibre(case_alea));
-        return case_alea;
+        PlateauBinaire binaire = new PlateauBinaire(plateau, jeu.getBatisseurs(JOUEUR1), jeu.getBatisseurs(JOUEUR2));
+        return Voisinage.point(placement.choisir(binaire, jeu.getJoueurEnCours(), random, bruit));
     }
 }
@@ -1,7 +1,6 @@
 package IA;
 
-import Modele.Jeu;
-import Modele.Joueur;
+import Modele.MoteurJeu;
 
 import java.awt.*;
 import java.util.ArrayList;
@@ -11,19 +10,26 @@ import static Utile.Constante.*;
 
 /**
  * Classe IA Facile qui fait des coups aléatoires.
+ * La partie joue désormais les {@link Niveau niveaux} de {@link IADifficile} ; cette IA sert de référence à
+ * {@link Outils.Tournoi} pour vérifier le niveau 1.
  */
 public class IAFacile implements IA {
-    protected final Jeu j;
+    protected final MoteurJeu j;
     private final Random random;
     private final int joueur;
 
-    public IAFacile(Jeu j, int joueur) {
+    public IAFacile(MoteurJeu j, int joueur) {
         this.j = j;
         this.joueur = joueur;
         random = new Random();
         random.setSeed(System.currentTimeMillis());
     }
 
+    @Override
+    public void setGraine(long graine) {
+        random.setSeed(graine);
+    }
+
     /**
      * L'IA joue un coup aléatoire selon la situation du jeu.
      *
@@ -71,10 +77,10 @@ public class IAFacile implements IA {
      */
     protected Point joueSelection() {
         int index_batisseur = random.nextInt(2);
-        if (j.getPlateau().getCasesAccessibles(j.getBatisseursJoueur(joueur).get(index_batisseur)).isEmpty()) {
+        if (j.getPlateau().getCasesAccessibles(j.getBatisseurs(joueur).get(index_batisseur)).isEmpty()) {
             index_batisseur = (index_batisseur + 1) % 2;
         }
-        return j.getBatisseursJoueur(joueur).get(index_batisseur);
+        return j.getBatisseurs(joueur).get(index_batisseur);
     }
 
     /**
@@ -0,0 +1,217 @@
+package IA;
+
+import Modele.MoteurJeu;
+import Modele.Plateau;
+import Modele.PlateauBinaire;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
+import static Utile.Constante.*;
+
+/**
+ * Classe IA Monte-Carlo : recherche arborescente UCT dont les feuilles sont évaluées par des parties simulées
+ * jusqu'au bout sur un {@link PlateauBinaire}, aléatoires ou guidées.
+ * <p>
+ * La recherche s'arrête à la fin du temps de réflexion ou après le nombre de parties simulées demandé. Avec
+ * plusieurs fils d'exécution, chaque fil fait grandir son propre arbre depuis la racine (parallélisation à la
+ * racine) et le coup joué est le plus visité, toutes les recherches confondues. Les arbres sont conservés d'un
+ * tour à l'autre lorsque la nouvelle position y figure.
+ */
+public class IAMonteCarlo implements IAAsynchrone {
+    private final MoteurJeu jeu;
+    private final Plateau plateau;
+    private final int joueur;
+    private final Random random;
+    private Coup meilleur_coup;
+    private Coup coup_prepare;
+
+    private final long limite;
+    private final long simulationsMax;
+    private final ArbreMonteCarlo[] arbres;
+    private ForkJoinPool pool;
+    private volatile boolean interrompu;
+    private long simulations;
+    private long duree;
+
+    public IAMonteCarlo(MoteurJeu _jeu, int joueur) {
+        this(_jeu, joueur, IA_TEMPS_REFLEXION, Long.MAX_VALUE, IA_NOMBRE_FILS, true);
+    }
+
+    /**
+     * @param _jeu             moteur de la partie sur laquelle l'IA joue
+     * @param joueur           numéro du joueur de l'IA
+     * @param tempsReflexion   temps de réflexion maximal par coup en millisecondes
+     * @param simulationsMax   nombre maximal de parties simulées par coup, tous fils confondus
+     * @param nbFils           nombre de fils d'exécution, chacun avec son arbre
+     * @param simulationGuidee vrai pour des parties simulées qui gagnent et contrent quand elles le peuvent
+     */
+    public IAMonteCarlo(MoteurJeu _jeu, int joueur, long tempsReflexion, long simulationsMax, int nbFils, boolean simulationGuidee) {
+        jeu = _jeu;
+        plateau = jeu.getPlateau();
+        this.joueur = joueur;
+        random = new Random();
+        this.limite = tempsReflexion > Long.MAX_VALUE / 1_000_000L ? Long.MAX_VALUE : tempsReflexion * 1_000_000L;
+        this.simulationsMax = simulationsMax;
+        arbres = new ArbreMonteCarlo[Math.max(1, nbFils)];
+        for (int i = 0; i < arbres.length; i++) {
+            arbres[i] = new ArbreMonteCarlo(IA_MCTS_TAILLE_ARBRE, simulationGuidee, random.nextLong());
+        }
+    }
+
+    /**
+     * Fait grandir les arbres depuis la position donnée puis choisit le coup le plus visité (le premier généré en
+     * cas d'égalité).
+     *
+     * @param plateau plateau à analyser, non modifié
+     * @param joueur  joueur qui doit jouer
+     * @return le meilleur coup, null si le joueur ne peut pas jouer
+     */
+    @Override
+    public Coup chercherCoup(PlateauBinaire plateau, int joueur) {
+        long debut = System.nanoTime();
+        interrompu = false;
+        for (ArbreMonteCarlo arbre : arbres) {
+            arbre.nouvelleRacine(plateau, joueur);
+        }
+
+        long[] iterations = new long[arbres.length];
+        if (arbres.length == 1) {
+            iterations[0] = developper(arbres[0], simulationsMax, debut);
+        } else {
+            List<Callable<Void>> taches = new ArrayList<>(arbres.length);
+            for (int i = 0; i < arbres.length; i++) {
+                int fil = i;
+                long part = simulationsMax / arbres.length + (fil < simulationsMax % arbres.length ? 1 : 0);
+                taches.add(() -> {
+                    iterations[fil] = developper(arbres[fil], part, debut);
+                    return null;
+                });
+            }
+            getPool().invokeAll(taches);
+        }
+        simulations = 0;
+        for (long n : iterations) simulations += n;
+
+        int meilleur = -1;
+        long meilleures_visites = -1;
+        ArbreMonteCarlo premier = arbres[0];
+        for (int i = 0; i < premier.getNbCoups(); i++) {
+            long visites = 0;
+            for (ArbreMonteCarlo arbre : arbres) visites += arbre.getVisites(i);
+            if (visites > meilleures_visites) {
+                meilleures_visites = visites;
+                meilleur = premier.getCoup(i);
+            }
+        }
+        duree = System.nanoTime() - debut;
+        return meilleur == -1 ? null : new Coup(meilleur);
+    }
+
+    /**
+     * Itère sur un arbre jusqu'au nombre d'itérations, à la fin du temps ou à l'arrêt. Une itération au moins est
+     * faite pour que la racine soit développée.
+     *
+     * @return le nombre d'itérations faites
+     */
+    private long developper(ArbreMonteCarlo arbre, long iterations, long debut) {
+        long n = 0;
+        do {
+            arbre.iterer();
+            n++;
+        } while (n < iterations && !interrompu && ((n & 15) != 0 || System.nanoTime() - debut < limite));
+        return n;
+    }
+
+    @Override
+    public void arreter() {
+        interrompu = true;
+    }
+
+    @Override
+    public void setCoupPrepare(Coup coup) {
+        coup_prepare = coup;
+    }
+
+    @Override
+    public void setGraine(long graine) {
+        random.setSeed(graine);
+        for (ArbreMonteCarlo arbre : arbres) {
+            arbre.setGraine(random.nextLong());
+        }
+    }
+
+    private synchronized ForkJoinPool getPool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(arbres.length);
+        }
+        return pool;
+    }
+
+    /**
+     * Arrête les fils d'exécution de la recherche parallèle.
+     */
+    public synchronized void fermer() {
+        if (pool != null) {
+            pool.shutdownNow();
+            pool = null;
+        }
+    }
+
+    @Override
+    public Point joue() {
+        switch (jeu.getSituation()) {
+            case PLACEMENT:
+                return jouePlacement();
+            case SELECTION:
+                if (coup_prepare == null) {
+                    coup_prepare = chercherCoup(new PlateauBinaire(plateau, jeu.getBatisseurs(JOUEUR1), jeu.getBatisseurs(JOUEUR2)), joueur);
+                }
+                meilleur_coup = coup_prepare;
+                coup_prepare = null;
+                return meilleur_coup.getBatisseur();
+            case DEPLACEMENT:
+                return meilleur_coup.getDeplacement();
+            case CONSTRUCTION:
+                return meilleur_coup.getConstruction();
+            default:
+                break;
+        }
+        return null;
+    }
+
+    private Point jouePlacement() {
+        Point case_alea;
+        do {
+            case_alea = new Point(random.nextInt(plateau.getColonnes()), random.nextInt(plateau.getLignes()));
+        } while (!plateau.estLibre(case_alea));
+        return case_alea;
+    }
+
+    /**
+     * @return le nombre de parties simulées lors de la dernière recherche, tous fils confondus
+     */
+    public long getSimulations() {
+        return simulations;
+    }
+
+    /**
+     * @return la durée de la dernière recherche en nanosecondes
+     */
+    public long getDuree() {
+        return duree;
+    }
+
+    /**
+     * @return les visites de la racine héritées de la recherche précédente, tous fils confondus
+     */
+    public long getVisitesReutilisees() {
+        long visites = 0;
+        for (ArbreMonteCarlo arbre : arbres) visites += arbre.getVisitesReutilisees();
+        return visites;
+    }
+}
@@ -1,6 +1,6 @@
 package IA;
 
-import Modele.Jeu;
+import Modele.MoteurJeu;
 
 import java.awt.*;
 import java.util.ArrayList;
@@ -10,12 +10,13 @@ import static Utile.Constante.*;
 /**
  * Classe IA Normale qui étend l'IA facile en faisant des coups aléatoires mais qui essaye de faire les coups gagnant
  * et d'empêcher l'adversaire de gaganer.
+ * Sert de référence à {@link Outils.Tournoi} pour vérifier le {@link Niveau} 2.
  */
 public class IANormale extends IAFacile {
     private Coup meilleur_coup;
     private boolean coup_random;
 
-    public IANormale(Jeu j, int joueur) {
+    public IANormale(MoteurJeu j, int joueur) {
         super(j,joueur);
         coup_random = false;
     }
@@ -59,7 +60,7 @@ public class IANormale extends IAFacile {
     protected Point joueDeplacement() {
         if(coup_random)
         {
-            return super.joueConstruction();
+            return super.joueDeplacement();
         }
         else{
             return meilleur_coup.getDeplacement();
@@ -107,7 +108,7 @@ public class IANormale extends IAFacile {
      */
     public boolean contre() {
 
-        int adversaire = Jeu.getAutreJoueur(j.getJoueurEnCours().getNum_joueur());
+        int adversaire = MoteurJeu.getAutreJoueur(j.getJoueurEnCours());
 
         ArrayList<Point> mesBatisseurs;
         ArrayList<Point> casesAccessibles;
@@ -0,0 +1,218 @@
+package IA;
+
+import Modele.PlateauBinaire;
+import Modele.Symetries;
+import Modele.Zobrist;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static Utile.Constante.*;
+
+/**
+ * Livre d'ouvertures de l'IA difficile : meilleur coup de positions du début de partie, calculé hors ligne par une
+ * recherche profonde ({@link Outils.GenerateurLivre}).
+ * <p>
+ * Chaque position est ramenée à sa forme canonique par les 8 symétries de la grille ({@link Symetries#canonique}) :
+ * une entrée sert pour toutes les positions symétriques, le coup étant stocké dans le repère de la forme canonique.
+ * Le fichier est projeté en mémoire et lu sans être chargé : un en-tête de 32 octets (signature, version, nombre
+ * d'entrées, un entier réservé et les {@link Poids} de l'heuristique de la recherche), puis les entrées de 16 octets
+ * triées par clé (clé de Zobrist canonique avec le trait, coup, valeur, profondeur de la recherche), où la recherche
+ * se fait par dichotomie. Un livre calculé avec d'autres poids que ceux de l'heuristique n'est pas utilisé.
+ */
+public class LivreOuvertures {
+    private static final int SIGNATURE = 0x4C495652; // "LIVR"
+    private static final int VERSION = 2;
+    private static final int TAILLE_ENTETE = 32;
+    private static final int POIDS = 16;
+    private static final int TAILLE_ENTREE = 16;
+
+    private static LivreOuvertures livre;
+    private static boolean livre_lu;
+
+    private final ByteBuffer donnees;
+    private final int nb_positions;
+
+    /**
+     * Entrée du livre, dans le repère de la forme canonique de la position.
+     */
+    public static class Entree {
+        final long cle;
+        final int coup;
+        final short valeur;
+        final short profondeur;
+
+        /**
+         * @param plateau    position, le coup étant donné dans son propre repère
+         * @param joueur     joueur qui doit jouer
+         * @param coup       coup encodé à jouer
+         * @param valeur     valeur de la position pour le joueur
+         * @param profondeur profondeur de la recherche qui a donné le coup
+         */
+        public Entree(PlateauBinaire plateau, int joueur, int coup, int valeur, int profondeur) {
+            int s = Symetries.canonique(plateau);
+            this.cle = cle(plateau, s, joueur);
+            this.coup = Symetries.appliquerCoup(s, coup);
+            this.valeur = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, valeur));
+            this.profondeur = (short) profondeur;
+        }
+
+        public long getCle() {
+            return cle;
+        }
+    }
+
+    private LivreOuvertures(ByteBuffer donnees) throws IOException {
+        if (donnees.capacity() < TAILLE_ENTETE || donnees.getInt(0) != SIGNATURE) {
+            throw new IOException("Fichier de livre d'ouvertures invalide");
+        }
+        if (donnees.getInt(4) != VERSION) throw new IOException("Version de livre d'ouvertures inconnue");
+        nb_positions = donnees.getInt(8);
+        if (nb_positions < 0 || donnees.capacity() < TAILLE_ENTETE + (long) nb_positions * TAILLE_ENTREE) {
+            throw new IOException("Livre d'ouvertures tronqué");
+        }
+        this.donnees = donnees;
+    }
+
+    /**
+     * @return le livre lu au premier appel dans {@link Utile.Constante#FICHIER_LIVRE}, null s'il est absent,
+     * illisible ou calculé avec d'autres poids que ceux de l'heuristique
+     */
+    public static synchronized LivreOuvertures getLivre() {
+        if (!livre_lu) {
+            livre_lu = true;
+            try {
+                livre = ouvrir(new File(FICHIER_LIVRE));
+                if (!livre.getPoids().equals(Poids.getPoids())) {
+                    System.err.println("Le livre d'ouvertures a été calculé avec d'autres poids (" + livre.getPoids()
+                            + "), il est ignoré");
+                    livre = null;
+                }
+            } catch (IOException e) {
+                livre = null;
+            }
+        }
+        return livre;
+    }
+
+    /**
+     * Projette un livre écrit par {@link #ecrire(File, Poids, List)} en mémoire, en lecture seule.
+     *
+     * @throws IOException si le fichier est absent, d'une autre version ou tronqué
+     */
+    public static LivreOuvertures ouvrir(File fichier) throws IOException {
+        try (FileChannel canal = FileChannel.open(fichier.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer donnees = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            return new LivreOuvertures(donnees);
+        }
+    }
+
+    /**
+     * @return la clé de la position dans le livre, commune à toutes les positions symétriques
+     */
+    public static long cle(PlateauBinaire plateau, int joueur) {
+        return cle(plateau, Symetries.canonique(plateau), joueur);
+    }
+
+    private static long cle(PlateauBinaire plateau, int s, int joueur) {
+        return Symetries.hash(plateau, s) ^ Zobrist.trait(joueur);
+    }
+
+    /**
+     * @return l'indice de l'entrée de la clé, -1 si elle est absente
+     */
+    private int indice(long cle) {
+        int bas = 0;
+        int haut = nb_positions - 1;
+        while (bas <= haut) {
+            int milieu = (bas + haut) >>> 1;
+            long c = donnees.getLong(TAILLE_ENTETE + milieu * TAILLE_ENTREE);
+            if (c < cle) {
+                bas = milieu + 1;
+            } else if (c > cle) {
+                haut = milieu - 1;
+            } else {
+                return milieu;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Cherche la position dans le livre.
+     *
+     * @param plateau position, non modifiée
+     * @param joueur  joueur qui doit jouer
+     * @return l'indice de l'entrée, -1 si la position n'est pas dans le livre
+     */
+    public int chercher(PlateauBinaire plateau, int joueur) {
+        if (nb_positions == 0) return -1;
+        return indice(cle(plateau, joueur));
+    }
+
+    /**
+     * @param indice  indice renvoyé par {@link #chercher(PlateauBinaire, int)}
+     * @param plateau position cherchée
+     * @return le coup de l'entrée, ramené dans le repère de la position
+     */
+    public int getCoup(int indice, PlateauBinaire plateau) {
+        return Symetries.inverserCoup(Symetries.canonique(plateau), donnees.getInt(TAILLE_ENTETE + indice * TAILLE_ENTREE + 8));
+    }
+
+    /**
+     * @return la valeur de la position de l'entrée pour le joueur qui doit jouer
+     */
+    public int getValeur(int indice) {
+        return donnees.getShort(TAILLE_ENTETE + indice * TAILLE_ENTREE + 12);
+    }
+
+    public int getProfondeur(int indice) {
+        return donnees.getShort(TAILLE_ENTETE + indice * TAILLE_ENTREE + 14);
+    }
+
+    public int getNbPositions() {
+        return nb_positions;
+    }
+
+    /**
+     * @return les poids de l'heuristique avec lesquels les positions ont été cherchées
+     */
+    public Poids getPoids() {
+        return new Poids(donnees.getInt(POIDS), donnees.getInt(POIDS + 4), donnees.getInt(POIDS + 8),
+                donnees.getInt(POIDS + 12));
+    }
+
+    /**
+     * Écrit un livre : l'en-tête puis les entrées par clé croissante. Pour deux entrées de même clé, seule la
+     * première est gardée.
+     *
+     * @param poids poids de l'heuristique de la recherche qui a donné les coups
+     */
+    public static void ecrire(File fichier, Poids poids, List<Entree> entrees) throws IOException {
+        Entree[] triees = entrees.toArray(new Entree[0]);
+        Arrays.sort(triees, Comparator.comparingLong(Entree::getCle));
+        int nb = 0;
+        for (int i = 0; i < triees.length; i++) {
+            if (nb == 0 || triees[i].cle != triees[nb - 1].cle) triees[nb++] = triees[i];
+        }
+        try (DataOutputStream sortie = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fichier)))) {
+            sortie.writeInt(SIGNATURE);
+            sortie.writeInt(VERSION);
+            sortie.writeInt(nb);
+            sortie.writeInt(0);
+            poids.ecrire(sortie);
+            for (int i = 0; i < nb; i++) {
+                sortie.writeLong(triees[i].cle);
+                sortie.writeInt(triees[i].coup);
+                sortie.writeShort(triees[i].valeur);
+                sortie.writeShort(triees[i].profondeur);
+            }
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package IA;
+
+import java.util.Objects;
+
+import static Utile.Constante.*;
+
+/**
+ * Niveau de difficulté de l'IA : les limites de la recherche de {@link IADifficile} et le bruit ajouté à son
+ * évaluation.
+ * <p>
+ * La recherche s'arrête au premier atteint du temps de réflexion, du nombre de positions explorées et de la
+ * profondeur ; la profondeur 1 est toujours terminée. Le bruit est un entier tiré entre -bruit et +bruit pour
+ * chaque position évaluée à l'horizon (les fins de partie restent exactes) : plus il est grand devant
+ * l'heuristique, plus les coups sont choisis au hasard, une victoire ou une défaite à portée de la recherche
+ * restant vue. Un niveau bruité ne consulte ni le livre d'ouvertures ni le solveur de fin de partie, qui joueraient
+ * sans bruit.
+ * <p>
+ * Les niveaux vont de 1 à {@link #NIVEAU_MAX} ; les modes 1 à 3 de {@link Utile.ConfigurationPartie} (facile,
+ * normale, difficile) en sont trois.
+ */
+public class Niveau {
+    public static final int NIVEAU_MAX = 10;
+
+    /**
+     * Profondeur, nombre de positions (0 sans limite) et bruit de chaque niveau, du plus faible au plus fort.
+     */
+    private static final long[][] NIVEAUX = {
+            {1, 0, 15_000},
+            {2, 0, 100_000},
+            {2, 0, 10_000},
+            {2, 0, 3000},
+            {3, 0, 1000},
+            {4, 0, 500},
+            {6, 200_000, 200},
+            {IA_PROFONDEUR_MAX, 500_000, 50},
+            {IA_PROFONDEUR_MAX, 1_500_000, 0},
+            {IA_PROFONDEUR_MAX, 0, 0},
+    };
+
+    public static final Niveau FACILE = getNiveau(1);
+    public static final Niveau NORMALE = getNiveau(2);
+    public static final Niveau DIFFICILE = getNiveau(NIVEAU_MAX);
+
+    private final long tempsReflexion;
+    private final int profondeur;
+    private final long noeuds;
+    private final int bruit;
+
+    /**
+     * @param tempsReflexion temps de réflexion maximal par coup en millisecondes
+     * @param profondeur     profondeur maximale de l'approfondissement itératif
+     * @param noeuds         nombre maximal de positions explorées par coup, 0 sans limite
+     * @param bruit          amplitude du bruit ajouté à l'évaluation, 0 sans bruit
+     */
+    public Niveau(long tempsReflexion, int profondeur, long noeuds, int bruit) {
+        if (tempsReflexion <= 0 || profondeur < 1 || noeuds < 0 || bruit < 0) {
+            throw new IllegalArgumentException("Niveau invalide : " + tempsReflexion + ":" + profondeur + ":" + noeuds + ":" + bruit);
+        }
+        this.tempsReflexion = tempsReflexion;
+        this.profondeur = profondeur;
+        this.noeuds = noeuds;
+        this.bruit = bruit;
+    }
+
+    /**
+     * @param niveau de 1 (le plus faible) à {@link #NIVEAU_MAX}
+     */
+    public static Niveau getNiveau(int niveau) {
+        if (niveau < 1 || niveau > NIVEAU_MAX) throw new IllegalArgumentException("Niveau inconnu : " + niveau);
+        long[] n = NIVEAUX[niveau - 1];
+        return new Niveau(IA_TEMPS_REFLEXION, (int) n[0], n[1], (int) n[2]);
+    }
+
+    /**
+     * Niveau d'un mode d'IA de {@link Utile.ConfigurationPartie}, tel qu'il est écrit dans les anciennes sauvegardes.
+     *
+     * @param iaMode {@link Utile.Constante#IA_FACILE}, {@link Utile.Constante#IA_NORMAL} ou
+     *               {@link Utile.Constante#IA_DIFFICILE} ; 0 pour un joueur humain
+     * @return le niveau du mode, null pour un joueur humain
+     */
+    public static Niveau depuisMode(int iaMode) {
+        return switch (iaMode) {
+            case 0 -> null;
+            case IA_FACILE -> FACILE;
+            case IA_NORMAL -> NORMALE;
+            case IA_DIFFICILE -> DIFFICILE;
+            default -> throw new IllegalArgumentException("Mode d'IA inconnu : " + iaMode);
+        };
+    }
+
+    /**
+     * Lit un niveau écrit par {@link #toString()}.
+     *
+     * @param description {@code temps_ms:profondeur:noeuds:bruit}
+     * @throws IllegalArgumentException si la description est mal formée
+     */
+    public static Niveau lire(String description) {
+        String[] param = description.split(":");
+        if (param.length != 4) throw new IllegalArgumentException("Niveau mal formé : " + description);
+        return new Niveau(Long.parseLong(param[0]), Integer.parseInt(param[1]), Long.parseLong(param[2]), Integer.parseInt(param[3]));
+    }
+
+    public long getTempsReflexion() {
+        return tempsReflexion;
+    }
+
+    public int getProfondeur() {
+        return profondeur;
+    }
+
+    /**
+     * @return le nombre maximal de positions explorées par coup, 0 sans limite
+     */
+    public long getNoeuds() {
+        return noeuds;
+    }
+
+    public int getBruit() {
+        return bruit;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof Niveau)) return false;
+
+        Niveau n = (Niveau) o;
+
+        return tempsReflexion == n.tempsReflexion && profondeur == n.profondeur && noeuds == n.noeuds && bruit == n.bruit;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(tempsReflexion, profondeur, noeuds, bruit);
+    }
+
+    /**
+     * @return {@code temps_ms:profondeur:noeuds:bruit}
+     */
+    @Override
+    public String toString() {
+        return tempsReflexion + ":" + profondeur + ":" + noeuds + ":" + bruit;
+    }
+}
@@ -0,0 +1,280 @@
+package IA;
+
+import Modele.MoteurJeu;
+import Modele.PlateauBinaire;
+import Modele.Symetries;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.Random;
+
+import static Modele.Voisinage.NB_CASES;
+import static Utile.Constante.*;
+
+/**
+ * Placement des batisseurs de l'IA difficile.
+ * <p>
+ * La phase de placement se joue sur une grille vide : le premier joueur pose ses deux batisseurs, puis le second,
+ * puis le premier joue. Chacun des placements complets est noté une fois pour toutes par une recherche de
+ * {@link IADifficile} à profondeur fixe, du point de vue du premier joueur. Les placements se déduisant l'un de
+ * l'autre par une symétrie de la grille ont la même note : seul le représentant de chaque classe (celui de plus
+ * petite clé) est noté et stocké. Le premier joueur choisit ensuite la paire qui maximise la note minimale que lui
+ * laisse le second, et le second la paire qui minimise la note.
+ * <p>
+ * La table est lue dans {@link Utile.Constante#FICHIER_PLACEMENT}, écrit par {@link Outils.GenerateurPlacement}.
+ * Si le fichier manque, ou s'il a été calculé avec d'autres {@link Poids} que ceux de l'heuristique, les placements
+ * sont notés par la seule heuristique, sans recherche.
+ */
+public class Placement {
+    private static final int NB_CLES = NB_CASES * NB_CASES * NB_CASES * NB_CASES;
+    private static final short ABSENTE = Short.MIN_VALUE;
+    private static final int VERSION = 2;
+
+    private static Placement table;
+
+    /**
+     * Note de chaque placement canonique, indexée par sa clé.
+     */
+    private final short[] notes;
+    /**
+     * Note garantie au premier joueur par chaque paire (a, b), indexée par a * 25 + b avec a < b.
+     */
+    private final int[] garanties;
+    private final int profondeur;
+    private final Poids poids;
+
+    private Placement(short[] notes, int profondeur, Poids poids) {
+        this.notes = notes;
+        this.profondeur = profondeur;
+        this.poids = poids;
+        garanties = new int[NB_CASES * NB_CASES];
+        for (int a = 0; a < NB_CASES; a++) {
+            for (int b = a + 1; b < NB_CASES; b++) {
+                int garantie = Integer.MAX_VALUE;
+                for (int c = 0; c < NB_CASES; c++) {
+                    for (int d = c + 1; d < NB_CASES; d++) {
+                        if (c != a && c != b && d != a && d != b) garantie = Math.min(garantie, getNote(a, b, c, d));
+                    }
+                }
+                garanties[a * NB_CASES + b] = garantie;
+            }
+        }
+    }
+
+    /**
+     * @return la table de placement, lue au premier appel
+     */
+    public static synchronized Placement getTable() {
+        if (table == null) {
+            try {
+                table = lire(new File(FICHIER_PLACEMENT));
+                if (!table.poids.equals(Poids.getPoids())) {
+                    System.err.println("La table de placement a été calculée avec d'autres poids (" + table.poids
+                            + "), elle est ignorée");
+                    table = calculerHeuristique();
+                }
+            } catch (IOException e) {
+                table = calculerHeuristique();
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Clé d'un placement : (a, b) pour le premier joueur et (c, d) pour le second, chaque paire triée.
+     */
+    private static int cle(int a, int b, int c, int d) {
+        return ((Math.min(a, b) * NB_CASES + Math.max(a, b)) * NB_CASES + Math.min(c, d)) * NB_CASES + Math.max(c, d);
+    }
+
+    /**
+     * @return la plus petite clé parmi les images du placement par les 8 symétries de la grille
+     */
+    public static int canonique(int a, int b, int c, int d) {
+        int minimum = Integer.MAX_VALUE;
+        for (int[] s : Symetries.PERMUTATIONS) {
+            minimum = Math.min(minimum, cle(s[a], s[b], s[c], s[d]));
+        }
+        return minimum;
+    }
+
+    /**
+     * @return la note du placement pour le premier joueur, qui doit jouer
+     */
+    public int getNote(int a, int b, int c, int d) {
+        return notes[canonique(a, b, c, d)];
+    }
+
+    /**
+     * @return la note que la paire (a, b) garantit au premier joueur, quelle que soit la réponse du second
+     */
+    public int getGarantie(int a, int b) {
+        return garanties[Math.min(a, b) * NB_CASES + Math.max(a, b)];
+    }
+
+    public int getProfondeur() {
+        return profondeur;
+    }
+
+    /**
+     * @return les poids de l'heuristique avec lesquels les placements ont été notés
+     */
+    public Poids getPoids() {
+        return poids;
+    }
+
+    /**
+     * Choisit la case du prochain batisseur du joueur.
+     *
+     * @param plateau plateau en phase de placement
+     * @param joueur  joueur qui place un batisseur
+     * @param random  départage les cases de même note
+     * @return l'indice de la case choisie
+     */
+    public int choisir(PlateauBinaire plateau, int joueur, Random random) {
+        return choisir(plateau, joueur, random, 0);
+    }
+
+    /**
+     * Choisit la case du prochain batisseur du joueur, chaque note étant d'abord bruitée.
+     *
+     * @param bruit amplitude du bruit ajouté à la note de chaque paire, comme à l'évaluation de la recherche
+     * @see Niveau
+     */
+    public int choisir(PlateauBinaire plateau, int joueur, Random random, int bruit) {
+        int autre = MoteurJeu.getAutreJoueur(joueur);
+        int mien = plateau.getPosition(joueur, 0);
+        int a = plateau.getPosition(autre, 0);
+        int b = plateau.getPosition(autre, 1);
+        boolean premier = a == -1;
+
+        int meilleure = premier ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+        int[] cases = new int[NB_CASES * NB_CASES];
+        int nb_cases = 0;
+        for (int c = 0; c < NB_CASES; c++) {
+            for (int d = c + 1; d < NB_CASES; d++) {
+                if (mien != -1 && c != mien && d != mien) continue;
+                if (!premier && (c == a || c == b || d == a || d == b)) continue;
+                int note = premier ? garanties[c * NB_CASES + d] : getNote(a, b, c, d);
+                if (bruit != 0) note += random.nextInt(2 * bruit + 1) - bruit;
+                if (premier ? note > meilleure : note < meilleure) {
+                    meilleure = note;
+                    nb_cases = 0;
+                }
+                if (note == meilleure) cases[nb_cases++] = c == mien ? d : c;
+            }
+        }
+        return cases[random.nextInt(nb_cases)];
+    }
+
+    /**
+     * Note chaque placement canonique par une recherche alpha-beta à profondeur fixe.
+     *
+     * @param profondeur profondeur de la recherche
+     * @return la table calculée
+     */
+    public static Placement calculer(int profondeur) {
+        IADifficile ia = new IADifficile(new MoteurJeu(), Long.MAX_VALUE, profondeur);
+        ia.setLivre(null);
+        short[] notes = nouvellesNotes();
+        for (int cle = 0; cle < NB_CLES; cle++) {
+            if (notes[cle] == ABSENTE) continue;
+            ia.chercherCoup(plateau(cle), JOUEUR1);
+            notes[cle] = (short) Math.max(Short.MIN_VALUE + 1, Math.min(Short.MAX_VALUE, ia.getValeur()));
+        }
+        return new Placement(notes, profondeur, ia.getPoids());
+    }
+
+    /**
+     * Note chaque placement canonique par l'heuristique de {@link IADifficile}, sans recherche.
+     */
+    private static Placement calculerHeuristique() {
+        EvaluationIncrementale evaluation = IADifficile.nouvelleEvaluation(1);
+        short[] notes = nouvellesNotes();
+        for (int cle = 0; cle < NB_CLES; cle++) {
+            if (notes[cle] == ABSENTE) continue;
+            evaluation.initialiser(plateau(cle));
+            notes[cle] = (short) evaluation.getScore(JOUEUR1);
+        }
+        return new Placement(notes, 0, Poids.getPoids());
+    }
+
+    /**
+     * @return un tableau de notes à 0 pour les clés des placements canoniques, ABSENTE pour les autres
+     */
+    private static short[] nouvellesNotes() {
+        short[] notes = new short[NB_CLES];
+        Arrays.fill(notes, ABSENTE);
+        for (int a = 0; a < NB_CASES; a++) {
+            for (int b = a + 1; b < NB_CASES; b++) {
+                for (int c = 0; c < NB_CASES; c++) {
+                    for (int d = c + 1; d < NB_CASES; d++) {
+                        if (c == a || c == b || d == a || d == b) continue;
+                        notes[canonique(a, b, c, d)] = 0;
+                    }
+                }
+            }
+        }
+        return notes;
+    }
+
+    private static PlateauBinaire plateau(int cle) {
+        PlateauBinaire plateau = new PlateauBinaire();
+        plateau.ajouterBatisseur(JOUEUR1, cle / (NB_CASES * NB_CASES * NB_CASES));
+        plateau.ajouterBatisseur(JOUEUR1, cle / (NB_CASES * NB_CASES) % NB_CASES);
+        plateau.ajouterBatisseur(JOUEUR2, cle / NB_CASES % NB_CASES);
+        plateau.ajouterBatisseur(JOUEUR2, cle % NB_CASES);
+        return plateau;
+    }
+
+    /**
+     * @return le nombre de placements canoniques
+     */
+    public int getNbPlacements() {
+        int n = 0;
+        for (short note : notes) {
+            if (note != ABSENTE) n++;
+        }
+        return n;
+    }
+
+    /**
+     * Écrit la table : version, profondeur, poids de l'heuristique, nombre de placements, puis chaque placement
+     * canonique (clé, note) par clé croissante.
+     */
+    public void ecrire(File fichier) throws IOException {
+        try (DataOutputStream sortie = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(fichier)))) {
+            sortie.writeInt(VERSION);
+            sortie.writeInt(profondeur);
+            poids.ecrire(sortie);
+            sortie.writeInt(getNbPlacements());
+            for (int cle = 0; cle < NB_CLES; cle++) {
+                if (notes[cle] == ABSENTE) continue;
+                sortie.writeInt(cle);
+                sortie.writeShort(notes[cle]);
+            }
+        }
+    }
+
+    /**
+     * Lit une table écrite par {@link #ecrire(File)}.
+     *
+     * @throws IOException si le fichier est absent, d'une autre version ou tronqué
+     */
+    public static Placement lire(File fichier) throws IOException {
+        try (DataInputStream entree = new DataInputStream(new BufferedInputStream(new FileInputStream(fichier)))) {
+            if (entree.readInt() != VERSION) throw new IOException("Version de table de placement inconnue");
+            int profondeur = entree.readInt();
+            Poids poids = Poids.lire(entree);
+            int nb_placements = entree.readInt();
+            short[] notes = new short[NB_CLES];
+            Arrays.fill(notes, ABSENTE);
+            for (int i = 0; i < nb_placements; i++) {
+                int cle = entree.readInt();
+                if (cle < 0 || cle >= NB_CLES) throw new IOException("Clé de placement invalide : " + cle);
+                notes[cle] = entree.readShort();
+            }
+            return new Placement(notes, profondeur, poids);
+        }
+    }
+}
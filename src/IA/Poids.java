@@ -0,0 +1,161 @@
+package IA;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.Properties;
+
+import static Utile.Constante.FICHIER_POIDS;
+
+/**
+ * Poids des termes de l'heuristique de {@link IADifficile} : différence des hauteurs, mobilité verticale, case
+ * centrale et menace depuis le niveau 2.
+ * <p>
+ * Les poids utilisés par défaut sont lus dans {@link Utile.Constante#FICHIER_POIDS}, écrit par
+ * {@link Outils.AccordeurPoids} ; si le fichier manque, ce sont les poids choisis à la main.
+ */
+public class Poids {
+    public static final int NB_POIDS = 4;
+    public static final int DIFFERENCE_HAUTEURS = 0;
+    public static final int MOBILITE_VERTICALE = 1;
+    public static final int CASE_CENTRALE = 2;
+    public static final int MENACE_NIVEAU_2 = 3;
+
+    /**
+     * Nom de chaque poids dans le fichier.
+     */
+    private static final String[] NOMS = {"difference_hauteurs", "mobilite_verticale", "case_centrale", "menace_niveau_2"};
+
+    /**
+     * Poids choisis à la main.
+     */
+    public static final Poids DEFAUT = new Poids(10, 10, 15, 10);
+
+    private static Poids charges;
+
+    private final int[] valeurs;
+
+    public Poids(int differenceHauteurs, int mobiliteVerticale, int caseCentrale, int menaceNiveau2) {
+        valeurs = new int[]{differenceHauteurs, mobiliteVerticale, caseCentrale, menaceNiveau2};
+    }
+
+    private Poids(int[] valeurs) {
+        this.valeurs = valeurs;
+    }
+
+    /**
+     * @return les poids lus au premier appel, ceux par défaut si le fichier est absent ou illisible
+     */
+    public static synchronized Poids getPoids() {
+        if (charges == null) {
+            try {
+                charges = lire(new File(FICHIER_POIDS));
+            } catch (IOException e) {
+                charges = DEFAUT;
+            }
+        }
+        return charges;
+    }
+
+    /**
+     * @param i indice du poids, de DIFFERENCE_HAUTEURS à MENACE_NIVEAU_2
+     */
+    public int get(int i) {
+        return valeurs[i];
+    }
+
+    /**
+     * @return une copie des poids dont le poids d'indice i vaut "valeur"
+     */
+    public Poids avec(int i, int valeur) {
+        int[] copie = valeurs.clone();
+        copie[i] = valeur;
+        return new Poids(copie);
+    }
+
+    /**
+     * @param profondeurMax nombre maximal de coups joués sans être annulés
+     * @return une évaluation incrémentale avec ces poids
+     */
+    public EvaluationIncrementale nouvelleEvaluation(int profondeurMax) {
+        return new EvaluationIncrementale(profondeurMax, valeurs[DIFFERENCE_HAUTEURS], valeurs[MOBILITE_VERTICALE],
+                valeurs[CASE_CENTRALE], valeurs[MENACE_NIVEAU_2]);
+    }
+
+    /**
+     * Lit des poids écrits par {@link #ecrire(File, String)}.
+     *
+     * @throws IOException si le fichier est absent, ou si un poids manque ou n'est pas un entier
+     */
+    public static Poids lire(File fichier) throws IOException {
+        Properties proprietes = new Properties();
+        try (Reader entree = new BufferedReader(new FileReader(fichier))) {
+            proprietes.load(entree);
+        }
+        int[] valeurs = new int[NB_POIDS];
+        for (int i = 0; i < NB_POIDS; i++) {
+            String valeur = proprietes.getProperty(NOMS[i]);
+            if (valeur == null) throw new IOException("Poids manquant : " + NOMS[i]);
+            try {
+                valeurs[i] = Integer.parseInt(valeur.trim());
+            } catch (NumberFormatException e) {
+                throw new IOException("Poids invalide : " + NOMS[i] + " = " + valeur);
+            }
+        }
+        return new Poids(valeurs);
+    }
+
+    /**
+     * Écrit les poids, un par ligne sous la forme {@code nom=valeur}.
+     *
+     * @param commentaire écrit en tête du fichier
+     */
+    public void ecrire(File fichier, String commentaire) throws IOException {
+        try (PrintWriter sortie = new PrintWriter(new BufferedWriter(new FileWriter(fichier)))) {
+            for (String ligne : commentaire.split("\n")) {
+                sortie.println("# " + ligne);
+            }
+            for (int i = 0; i < NB_POIDS; i++) {
+                sortie.println(NOMS[i] + "=" + valeurs[i]);
+            }
+        }
+    }
+
+    /**
+     * Écrit les poids dans l'en-tête d'une table calculée avec eux.
+     */
+    public void ecrire(DataOutput sortie) throws IOException {
+        for (int valeur : valeurs) {
+            sortie.writeInt(valeur);
+        }
+    }
+
+    /**
+     * Lit des poids écrits par {@link #ecrire(DataOutput)}.
+     */
+    public static Poids lire(DataInput entree) throws IOException {
+        int[] valeurs = new int[NB_POIDS];
+        for (int i = 0; i < NB_POIDS; i++) {
+            valeurs[i] = entree.readInt();
+        }
+        return new Poids(valeurs);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Poids && Arrays.equals(valeurs, ((Poids) o).valeurs);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(valeurs);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder texte = new StringBuilder();
+        for (int i = 0; i < NB_POIDS; i++) {
+            texte.append(i == 0 ? "" : ", ").append(NOMS[i]).append('=').append(valeurs[i]);
+        }
+        return texte.toString();
+    }
+}
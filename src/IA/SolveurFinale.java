@@ -0,0 +1,304 @@
+package IA;
+
+import Modele.MoteurJeu;
+import Modele.PlateauBinaire;
+import Modele.Symetries;
+import Modele.Zobrist;
+
+import static Modele.Voisinage.NB_CASES;
+import static Utile.Constante.*;
+
+/**
+ * Résolution exacte des fins de partie par alpha-beta.
+ * <p>
+ * Chaque tour construit un étage, sauf la montée gagnante : une partie s'achève donc toujours, au plus tard quand
+ * toutes les cases libres sont couvertes d'une coupole. Quand il en reste peu, l'arbre complet est assez petit pour
+ * être exploré jusqu'aux feuilles, et la valeur d'une position est exacte : victoire ou défaite, avec le nombre de
+ * demi-coups restants. Le gagnant choisit la victoire la plus courte, le perdant la défaite la plus longue.
+ * <p>
+ * L'horizon est repoussé d'un demi-coup à chaque itération, une position non terminée à l'horizon valant 0 : les
+ * victoires courtes sont prouvées sans explorer les longues parties, et la résolution s'arrête dès que la valeur
+ * de la racine est une victoire ou une défaite.
+ * <p>
+ * Les positions résolues (valeur exacte ou borne) sont gardées dans une table de transposition propre au solveur,
+ * conservée d'une résolution à l'autre. Une victoire ou une défaite prouvée vaut quel que soit l'horizon ; une
+ * valeur nulle ne vaut que jusqu'à l'horizon de sa recherche. Chaque position résolue est aussi rangée sous sa forme
+ * canonique ({@link Symetries}), cherchée avant de résoudre : une fin de partie déjà résolue n'est pas reprise,
+ * même tournée ou retournée. Dans la recherche elle-même, les positions symétriques l'une de l'autre sont trop rares
+ * pour payer la mise à jour des clés des 8 images à chaque coup.
+ */
+public class SolveurFinale {
+    /**
+     * Valeur d'une victoire immédiate ; une victoire en d demi-coups vaut VICTOIRE - d, une défaite en d demi-coups
+     * -(VICTOIRE - d).
+     */
+    public static final int VICTOIRE = 1 << 20;
+
+    /**
+     * Résultat d'une résolution interrompue.
+     */
+    public static final int NON_RESOLU = Integer.MIN_VALUE;
+
+    /**
+     * Longueur maximale d'une partie : chaque case reçoit au plus 4 étages.
+     */
+    private static final int LONGUEUR_MAX = NB_CASES * 4 + 2;
+
+    private final TableTransposition table;
+    private final int[][] coups;
+    private final int[] notes;
+    private final PlateauBinaire plateau;
+    private long noeuds;
+    private long debut;
+    private long limite;
+    private long limite_noeuds;
+    private volatile boolean interrompu;
+    private int meilleur_coup;
+    private int resultat;
+
+    /**
+     * @param tailleTable nombre d'entrées de la table des positions résolues
+     */
+    public SolveurFinale(int tailleTable) {
+        table = new TableTransposition(tailleTable);
+        coups = new int[LONGUEUR_MAX][NOMBRE_COUPS_MAX];
+        notes = new int[NOMBRE_COUPS_MAX];
+        plateau = new PlateauBinaire();
+        meilleur_coup = -1;
+        resultat = NON_RESOLU;
+    }
+
+    /**
+     * @return le nombre de cases sans coupole ni batisseur
+     */
+    public static int casesLibres(PlateauBinaire plateau) {
+        return NB_CASES - Integer.bitCount(plateau.getNiveau(COUPOLE) | plateau.getOccupees());
+    }
+
+    /**
+     * Résout la position.
+     *
+     * @param position position à résoudre, non modifiée
+     * @param joueur   joueur qui doit jouer
+     * @param limite   temps maximal en nanosecondes
+     * @return la valeur exacte de la position pour le joueur, NON_RESOLU si le temps est écoulé ou si la
+     * résolution a été arrêtée
+     */
+    public int resoudre(PlateauBinaire position, int joueur, long limite) {
+        return resoudre(position, joueur, limite, Long.MAX_VALUE);
+    }
+
+    /**
+     * Résout la position en explorant au plus "limiteNoeuds" positions.
+     *
+     * @return la valeur exacte de la position pour le joueur, NON_RESOLU si le temps est écoulé, si la limite de
+     * positions est atteinte ou si la résolution a été arrêtée
+     */
+    public int resoudre(PlateauBinaire position, int joueur, long limite, long limiteNoeuds) {
+        debut = System.nanoTime();
+        this.limite = limite;
+        limite_noeuds = limiteNoeuds;
+        noeuds = 0;
+        interrompu = false;
+        meilleur_coup = -1;
+        table.nouvelleRecherche();
+        plateau.copier(position);
+
+        // La clé de la forme canonique est celle d'une position comme une autre : l'entrée y est dans son repère.
+        int symetrie = Symetries.canonique(plateau);
+        long cle_canonique = Symetries.hash(plateau, symetrie) ^ Zobrist.trait(joueur);
+        long entree = table.chercher(cle_canonique);
+        if (entree != 0 && TableTransposition.getBorne(entree) == TableTransposition.EXACTE
+                && TableTransposition.getScore(entree) != 0 && TableTransposition.getCoup(entree) != -1) {
+            meilleur_coup = Symetries.inverserCoup(symetrie, TableTransposition.getCoup(entree));
+            resultat = TableTransposition.getScore(entree);
+            return resultat;
+        }
+
+        int valeur = 0;
+        for (int horizon = 1; horizon < LONGUEUR_MAX && valeur == 0 && !interrompu; horizon++) {
+            valeur = alphabeta(joueur, 0, horizon, -VICTOIRE, VICTOIRE);
+        }
+        resultat = interrompu || valeur == 0 ? NON_RESOLU : valeur;
+        if (resultat == NON_RESOLU) {
+            meilleur_coup = -1;
+        } else if (meilleur_coup != -1) {
+            table.stocker(cle_canonique, resultat, TableTransposition.EXACTE, 63, Symetries.appliquerCoup(symetrie, meilleur_coup));
+        }
+        return resultat;
+    }
+
+    /**
+     * Alpha-beta jusqu'à la fin de la partie ou jusqu'à l'horizon. Les valeurs sont comptées depuis la racine (une
+     * victoire au demi-coup p vaut VICTOIRE - p) et ramenées à la position dans la table.
+     *
+     * @return la valeur de la position, 0 si l'issue n'est pas connue avant l'horizon
+     */
+    private int alphabeta(int joueur, int ply, int horizon, int alpha, int beta) {
+        noeuds++;
+        if ((noeuds & 1023) == 0 && (System.nanoTime() - debut >= limite || noeuds >= limite_noeuds)) interrompu = true;
+        if (interrompu) return 0;
+
+        int autre = MoteurJeu.getAutreJoueur(joueur);
+        int[] liste = coups[ply];
+        int nb_coups = plateau.genererCoups(joueur, liste, 0);
+        if (nb_coups == 0) return -(VICTOIRE - ply);
+        if (plateau.casesGagnantes(joueur) != 0) {
+            if (ply == 0) meilleur_coup = montee(liste, nb_coups);
+            return VICTOIRE - ply - 1;
+        }
+        if (ply >= horizon) return 0;
+
+        // Ni l'un ni l'autre ne peut faire mieux que la victoire la plus rapide encore possible.
+        alpha = Math.max(alpha, -(VICTOIRE - ply - 2));
+        beta = Math.min(beta, VICTOIRE - ply - 3);
+        if (alpha >= beta && ply > 0) return alpha;
+
+        long cle = plateau.getHash() ^ Zobrist.trait(joueur);
+        long entree = table.chercher(cle);
+        int coup_table = -1;
+        if (entree != 0) {
+            coup_table = TableTransposition.getCoup(entree);
+            int score = versRacine(TableTransposition.getScore(entree), ply);
+            int borne = TableTransposition.getBorne(entree);
+            boolean prouvee = TableTransposition.getProfondeur(entree) >= horizon - ply
+                    || (score > 0 && borne != TableTransposition.SUPERIEURE)
+                    || (score < 0 && borne != TableTransposition.INFERIEURE);
+            if (ply > 0 && prouvee && (borne == TableTransposition.EXACTE
+                    || (borne == TableTransposition.INFERIEURE && score >= beta)
+                    || (borne == TableTransposition.SUPERIEURE && score <= alpha))) {
+                return score;
+            }
+        }
+
+        trier(liste, nb_coups, coup_table, plateau.casesGagnantes(autre));
+
+        int alpha_initial = alpha;
+        int meilleur = -VICTOIRE;
+        int coup_meilleur = -1;
+        for (int k = 0; k < nb_coups; k++) {
+            int c = liste[k];
+            plateau.deplacer(Coup.getBatisseur(c), Coup.getDeplacement(c));
+            plateau.construire(Coup.getConstruction(c));
+            int score;
+            if (plateau.casesGagnantes(autre) != 0) {
+                // L'adversaire monte sur un toit au coup suivant.
+                score = -(VICTOIRE - ply - 2);
+            } else {
+                score = -alphabeta(autre, ply + 1, horizon, -beta, -alpha);
+            }
+            plateau.deconstruire(Coup.getConstruction(c));
+            plateau.deplacer(Coup.getDeplacement(c), Coup.getBatisseur(c));
+            if (interrompu) return 0;
+
+            if (score > meilleur) {
+                meilleur = score;
+                coup_meilleur = c;
+                if (ply == 0) meilleur_coup = c;
+            }
+            if (score > alpha) alpha = score;
+            if (alpha >= beta) break;
+        }
+
+        int borne = meilleur >= beta ? TableTransposition.INFERIEURE
+                : meilleur <= alpha_initial ? TableTransposition.SUPERIEURE : TableTransposition.EXACTE;
+        table.stocker(cle, versPosition(meilleur, ply), borne, Math.min(horizon - ply, 63), coup_meilleur);
+        return meilleur;
+    }
+
+    /**
+     * Trie les coups : le coup de la table, puis ceux qui contrent une menace, puis les plus hauts. Les victoires
+     * courtes sont ainsi trouvées tôt, et bornent ensuite la recherche des autres.
+     */
+    private void trier(int[] liste, int nb_coups, int coup_table, int menaces) {
+        for (int k = 0; k < nb_coups; k++) {
+            int c = liste[k];
+            // La hauteur d'arrivée d'abord, la montée ensuite.
+            int note = 5 * plateau.getHauteur(Coup.getDeplacement(c)) - plateau.getHauteur(Coup.getBatisseur(c));
+            if (((1 << Coup.getConstruction(c)) & menaces) != 0) note += 1 << 8;
+            if (c == coup_table) note += 1 << 9;
+            // Tri par insertion, stable : la liste est courte en fin de partie.
+            int i = k;
+            while (i > 0 && notes[i - 1] < note) {
+                liste[i] = liste[i - 1];
+                notes[i] = notes[i - 1];
+                i--;
+            }
+            liste[i] = c;
+            notes[i] = note;
+        }
+    }
+
+    /**
+     * @return un coup de montée sur un toit parmi les coups générés
+     */
+    private int montee(int[] liste, int nb_coups) {
+        for (int k = 0; k < nb_coups; k++) {
+            if (plateau.getHauteur(Coup.getDeplacement(liste[k])) == TOIT) return liste[k];
+        }
+        return -1;
+    }
+
+    /**
+     * Valeur comptée depuis la position (pour la table) à partir d'une valeur comptée depuis la racine.
+     */
+    private static int versPosition(int score, int ply) {
+        return score > 0 ? score + ply : score < 0 ? score - ply : 0;
+    }
+
+    private static int versRacine(int score, int ply) {
+        return score > 0 ? score - ply : score < 0 ? score + ply : 0;
+    }
+
+    /**
+     * Arrête la résolution en cours, qui renvoie NON_RESOLU.
+     */
+    public void arreter() {
+        interrompu = true;
+    }
+
+    /**
+     * Vide la table des positions résolues.
+     */
+    public void viderTable() {
+        table.vider();
+    }
+
+    // LECTURE DU RÉSULTAT
+
+    public static boolean estVictoire(int valeur) {
+        return valeur != NON_RESOLU && valeur > 0;
+    }
+
+    public static boolean estDefaite(int valeur) {
+        return valeur != NON_RESOLU && valeur < 0;
+    }
+
+    /**
+     * @return le nombre de demi-coups avant la fin de la partie, en comptant la montée gagnante
+     */
+    public static int getDistance(int valeur) {
+        return VICTOIRE - Math.abs(valeur);
+    }
+
+    /**
+     * @return le meilleur coup de la dernière résolution, -1 si elle n'a pas abouti
+     */
+    public int getMeilleurCoup() {
+        return meilleur_coup;
+    }
+
+    /**
+     * @return la valeur de la dernière résolution, NON_RESOLU si elle n'a pas abouti
+     */
+    public int getResultat() {
+        return resultat;
+    }
+
+    /**
+     * @return le nombre de positions explorées lors de la dernière résolution
+     */
+    public long getNoeuds() {
+        return noeuds;
+    }
+}
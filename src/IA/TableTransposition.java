@@ -0,0 +1,130 @@
+package IA;
+
+import java.util.Arrays;
+
+/**
+ * Table de transposition de taille fixe mémorisant, pour chaque position déjà explorée, sa valeur (exacte ou borne),
+ * la profondeur restante de l'exploration et le meilleur coup trouvé.
+ * <p>
+ * Les entrées sont rangées dans deux tableaux de longs (clé et données) indexés par les bits de poids faible de la
+ * clé de Zobrist. La clé est stockée combinée aux données par ou exclusif, ce qui permet de détecter une entrée
+ * écrite à moitié par un autre fil d'exécution. Le remplacement privilégie les entrées les plus profondes,
+ * sauf si l'entrée en place date d'une recherche précédente.
+ *
+ * @see Modele.Zobrist
+ */
+public class TableTransposition {
+    /**
+     * La valeur stockée est exacte.
+     */
+    public static final int EXACTE = 1;
+
+    /**
+     * La valeur stockée est une borne inférieure (coupure beta).
+     */
+    public static final int INFERIEURE = 2;
+
+    /**
+     * La valeur stockée est une borne supérieure (aucun coup n'a dépassé alpha).
+     */
+    public static final int SUPERIEURE = 3;
+
+    private final long[] cles;
+    private final long[] donnees;
+    private final int masque;
+    private int age;
+
+    /**
+     * Instantie une table vide.
+     *
+     * @param taille nombre d'entrées, arrondi à la puissance de 2 inférieure
+     */
+    public TableTransposition(int taille) {
+        int entrees = Integer.highestOneBit(Math.max(taille, 1));
+        cles = new long[entrees];
+        donnees = new long[entrees];
+        masque = entrees - 1;
+    }
+
+    /**
+     * Signale le début d'une nouvelle recherche : les entrées des recherches précédentes restent utilisables mais
+     * deviennent remplaçables.
+     */
+    public void nouvelleRecherche() {
+        age = (age + 1) & 0xFF;
+    }
+
+    /**
+     * Vide la table.
+     */
+    public void vider() {
+        Arrays.fill(cles, 0);
+        Arrays.fill(donnees, 0);
+    }
+
+    /**
+     * Cherche l'entrée d'une position.
+     *
+     * @param cle clé de Zobrist de la position (joueur qui doit jouer compris)
+     * @return les données de l'entrée, 0 si la position n'est pas dans la table
+     */
+    public long chercher(long cle) {
+        int i = (int) cle & masque;
+        long d = donnees[i];
+        return (cles[i] ^ d) == cle ? d : 0;
+    }
+
+    /**
+     * Mémorise une position.
+     *
+     * @param cle        clé de Zobrist de la position (joueur qui doit jouer compris)
+     * @param score      valeur de la position pour le joueur qui doit jouer
+     * @param borne      EXACTE, INFERIEURE ou SUPERIEURE
+     * @param profondeur profondeur restante de l'exploration
+     * @param coup       meilleur coup encodé, -1 s'il n'y en a pas
+     */
+    public void stocker(long cle, int score, int borne, int profondeur, int coup) {
+        int i = (int) cle & masque;
+        long ancienne = donnees[i];
+        boolean meme_position = (cles[i] ^ ancienne) == cle;
+        if (ancienne != 0 && !meme_position && getAge(ancienne) == age && getProfondeur(ancienne) > profondeur) {
+            return;
+        }
+        if (coup == -1 && meme_position) {
+            coup = getCoup(ancienne);
+        }
+        long d = (score & 0xFFFFFFFFL) |
+                ((long) (coup & 0x7FFF) << 32) |
+                ((long) (profondeur & 0x3F) << 47) |
+                ((long) borne << 53) |
+                ((long) age << 55);
+        donnees[i] = d;
+        cles[i] = cle ^ d;
+    }
+
+    // DÉCODAGE DES DONNÉES
+
+    public static int getScore(long donnees) {
+        return (int) donnees;
+    }
+
+    /**
+     * @return le coup encodé, -1 s'il n'y en a pas
+     */
+    public static int getCoup(long donnees) {
+        int coup = (int) (donnees >>> 32) & 0x7FFF;
+        return coup == 0x7FFF ? -1 : coup;
+    }
+
+    public static int getProfondeur(long donnees) {
+        return (int) (donnees >>> 47) & 0x3F;
+    }
+
+    public static int getBorne(long donnees) {
+        return (int) (donnees >>> 53) & 0x3;
+    }
+
+    private static int getAge(long donnees) {
+        return (int) (donnees >>> 55) & 0xFF;
+    }
+}
@@ -0,0 +1,44 @@
+package Modele;
+
+/**
+ * État complet d'une partie en quelques octets, pris et restauré par {@link MoteurJeu} : les bâtiments en quatre
+ * masques de 25 bits (cases d'au moins 1, 2, 3 et 4 étages), la case de chaque batisseur dans l'ordre des listes des
+ * joueurs, et l'état du tour.
+ *
+ * @see Historique.Historique#allerA(int)
+ */
+public class Instantane {
+    final int[] etages;
+    /**
+     * Cases des batisseurs du joueur 1 puis du joueur 2, -1 pour un batisseur non posé.
+     */
+    final byte[] batisseurs;
+    final byte situation;
+    final byte nombreBatisseurs;
+    final byte iJoueurs;
+    final byte gagnant;
+    final boolean jeuFini;
+    final int nbTours;
+    /**
+     * Case du batisseur en cours, -1 s'il n'y en a pas.
+     */
+    final byte batisseurEnCours;
+    /**
+     * Départ et arrivée du dernier déplacement, null s'il n'y en a pas.
+     */
+    final byte[] deplacementEnCours;
+
+    Instantane(int[] etages, byte[] batisseurs, int situation, int nombreBatisseurs, int iJoueurs, int gagnant,
+               boolean jeuFini, int nbTours, int batisseurEnCours, byte[] deplacementEnCours) {
+        this.etages = etages;
+        this.batisseurs = batisseurs;
+        this.situation = (byte) situation;
+        this.nombreBatisseurs = (byte) nombreBatisseurs;
+        this.iJoueurs = (byte) iJoueurs;
+        this.gagnant = (byte) gagnant;
+        this.jeuFini = jeuFini;
+        this.nbTours = nbTours;
+        this.batisseurEnCours = (byte) batisseurEnCours;
+        this.deplacementEnCours = deplacementEnCours;
+    }
+}
@@ -9,36 +9,40 @@ import Utile.LecteurSon;
 import Vue.PanelPartie.PanelPlateau.PanelPlateau;
 
 import java.awt.*;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Objects;
-import java.util.Scanner;
 
 import static Utile.Constante.*;
 
 /**
- * Classe permettant de gérer tout le processus d'une partie en éditant les valeurs du plateau.
+ * Classe permettant de gérer tout le processus d'une partie dans l'application : les règles et l'état de la partie
+ * sont confiés au {@link MoteurJeu}, le jeu y ajoute les joueurs, l'historique, le son, le réseau et les observateurs.
  *
+ * @see MoteurJeu
  * @see Plateau
  */
 public class Jeu {
     private final LecteurSon constructionSon;
 
-    private final Plateau plateau;
-    private int situation;
-    private int nombreBatisseurs;
+    private final MoteurJeu moteur;
     private int vitesse_ia;
-    private int nbTours;
-    private int iJoueurs;
     private boolean iaStatut;
-    private boolean jeuFini;
-    private Point batisseurEnCours;
     private final Observateur observateur;
     private final Historique histo;
     private Commande cmd;
-    private Joueur gagnant;
     private final Joueur[] joueurs;
-    private Point[] deplacementEnCours;
+    /**
+     * IA de chaque joueur et leur niveau, gardées d'une partie à l'autre pour ne pas réallouer leurs tables.
+     */
+    private final IADifficile[] ias;
+    private final Niveau[] niveaux_ia;
     private Reseau netUser;
+    private boolean chargement;
+    /**
+     * Vrai si la partie doit être journalisée tant qu'elle n'est pas finie.
+     */
+    private boolean journalisee;
 
     ConfigurationPartie configurationPartie;
 
@@ -49,35 +53,19 @@ public class Jeu {
      */
     public Jeu(Observateur o, ConfigurationPartie config) {
         joueurs = new Joueur[2];
-        plateau = new Plateau();
-        deplacementEnCours = null;
-        jeuFini = false;
+        ias = new IADifficile[2];
+        niveaux_ia = new Niveau[2];
+        moteur = new MoteurJeu(config.getIndexJoueurCommence());
         iaStatut = true;
-        batisseurEnCours = null;
-        gagnant = null;
 
         vitesse_ia = 1;
         configurationPartie = config;
-        situation = PLACEMENT;
-        nombreBatisseurs = 0;
-        nbTours = 0;
         constructionSon = new LecteurSon(SON_CONSTRUCTION);
 
         observateur = o;
         histo = new Historique(this);
 
-        iJoueurs = config.getIndexJoueurCommence();
-
-        if (config.getIaMode2() != 0) {
-            joueurs[0] = new JoueurIA(this, JOUEUR1, setIA(config.getIaMode1(),JOUEUR1), vitesse_ia);
-            joueurs[1] = new JoueurIA(this, JOUEUR2, setIA(config.getIaMode2(),JOUEUR2), vitesse_ia);
-        } else if (config.getIaMode1() != 0) {
-            joueurs[0] = new JoueurHumain(this, JOUEUR1);
-            joueurs[1] = new JoueurIA(this, JOUEUR2, setIA(config.getIaMode1(),JOUEUR2), vitesse_ia);
-        } else {
-            joueurs[0] = new JoueurHumain(this, JOUEUR1);
-            joueurs[1] = new JoueurHumain(this, JOUEUR2);
-        }
+        creerJoueurs();
         iaEssayeJouer();
     }
 
@@ -85,88 +73,80 @@ public class Jeu {
         this(o, new ConfigurationPartie(0, 0));
     }
 
-    private IA setIA(int ia_mode, int joueur) {
-        return switch (ia_mode) {
-            case 1 -> new IAFacile(this,joueur);
-            case 2 -> new IANormale(this,joueur);
-            case 3 -> new IADifficile(this);
-            default -> null;
-        };
-    }
-
     /**
-     * Effectue des actions selon la situation du jeu parmi placement des batisseurs, selection de batisseur, déplacement des batisseurs et construction des bâtiments.
+     * Crée les joueurs humains et IA selon la configuration de la partie.
      */
-    public void jouer(Point position) {
-        cmd = null;
-        situation = plateau.estBatisseur(position, getJoueurEnCours()) && situation == DEPLACEMENT ? SELECTION : situation;
-        switch (situation) {
-            case PLACEMENT -> jouePlacement(position);
-            case SELECTION -> joueSelection(position);
-            case DEPLACEMENT -> joueDeplacement(position);
-            case CONSTRUCTION -> joueConstruction(position);
-            default -> System.err.println("Unknown situation");
+    private void creerJoueurs() {
+        if (configurationPartie.getIaMode2() != 0) {
+            joueurs[0] = new JoueurIA(this, JOUEUR1, setIA(0, configurationPartie.getNiveau1()), vitesse_ia);
+            joueurs[1] = new JoueurIA(this, JOUEUR2, setIA(1, configurationPartie.getNiveau2()), vitesse_ia);
+        } else if (configurationPartie.getIaMode1() != 0) {
+            joueurs[0] = new JoueurHumain(this, JOUEUR1);
+            joueurs[1] = new JoueurIA(this, JOUEUR2, setIA(1, configurationPartie.getNiveau1()), vitesse_ia);
+        } else {
+            joueurs[0] = new JoueurHumain(this, JOUEUR1);
+            joueurs[1] = new JoueurHumain(this, JOUEUR2);
         }
-        histo.stocker(cmd);
     }
 
     /**
-     * Joue le placement d'un batisseur si la case est vide.
+     * Crée l'IA d'un niveau : tous les niveaux sont joués par la même recherche, seules ses limites et le bruit de
+     * son évaluation changent. L'IA de la partie précédente est reprise si son niveau n'a pas changé, sa table
+     * vidée comme au début d'une partie.
+     *
+     * @param i indice du joueur
      */
-    private void jouePlacement(Point position) {
-        if (plateau.estLibre(position)) {
-            cmd = new CoupDeplacer(joueurs[iJoueurs], null, position);
-            plateau.ajouterJoueur(position, joueurs[iJoueurs]);
-            if (netUser != null) netUser.envoieCoup(position);
-            getJoueurEnCours().addBatisseur(position);
-            nombreBatisseurs++;
-            verificationNbBatisseur();
+    private IA setIA(int i, Niveau niveau) {
+        if (ias[i] == null || !niveau.equals(niveaux_ia[i])) {
+            ias[i] = new IADifficile(moteur, niveau);
+            niveaux_ia[i] = niveau;
+        } else {
+            ias[i].viderTable();
         }
+        ias[i].setReflexionAnticipee(configurationPartie.isReflexionAnticipee());
+        return ias[i];
     }
 
     /**
-     * Joue la selection d'un batisseur s'il y en a un, et qu'il appartien au joueur, à la position donnée.
-     */
-    private void joueSelection(Point position) {
-        batisseurEnCours = choisirBatisseur(position);
-        situation = batisseurEnCours == null ? SELECTION : DEPLACEMENT;
-        envoyerCoup(position);
-    }
-
-    /**
-     * Déplace le batisseur en cours à la position donnée si c'est possible.
+     * Effectue des actions selon la situation du jeu parmi placement des batisseurs, selection de batisseur, déplacement des batisseurs et construction des bâtiments.
+     * L'action est jouée par le moteur ; le jeu en garde la commande dans l'historique, l'envoie en réseau et prévient les observateurs.
      */
-    private void joueDeplacement(Point position) {
-        Point prevPos = batisseurEnCours;
-        if (avancer(position, batisseurEnCours)) {
-            ArrayList<Point> batisseurs_en_cours = getJoueurEnCours().getBatisseurs();
-            batisseurs_en_cours.set(batisseurs_en_cours.indexOf(prevPos), position);
-
-            setDeplacementEnCours(prevPos, batisseurEnCours);
-            cmd = new CoupDeplacer(joueurs[iJoueurs], prevPos, batisseurEnCours);
-            situation = CONSTRUCTION;
-            envoyerCoup(position);
+    public void jouer(Point position) {
+        cmd = null;
+        Joueur joueur = getJoueurEnCours();
+        Point batisseur = moteur.getBatisseurEnCours();
+        int nb_tours = moteur.getNbTours();
+        switch (moteur.jouer(position)) {
+            case PLACEMENT -> {
+                cmd = new CoupDeplacer(joueur, null, position);
+                if (netUser != null) netUser.envoieCoup(position);
+            }
+            case SELECTION -> envoyerCoup(position);
+            case DEPLACEMENT -> {
+                cmd = new CoupDeplacer(joueur, batisseur, position);
+                envoyerCoup(position);
+            }
+            case CONSTRUCTION -> {
+                constructionSon.joueSon(false);
+                cmd = new CoupConstruire(joueur, position, batisseur);
+                envoyerCoup(position);
+            }
+            default -> { /* Action impossible, rien n'est joué */ }
         }
-        victoireJoueur();
-    }
-
-    /**
-     * Construit un bâtiment à la position donnée si c'est possible.
-     */
-    private void joueConstruction(Point position) {
-        if (!jeuFini && construire(position, batisseurEnCours)) {
-            constructionSon.joueSon(false);
-            cmd = new CoupConstruire(joueurs[iJoueurs], position, batisseurEnCours);
-            finTour();
-            situation = SELECTION;
-            envoyerCoup(position);
+        if (moteur.getNbTours() != nb_tours) {
+            notifierFinTour();
+        } else if (moteur.estJeufini()) {
+            MAJObservateur();
         }
+        histo.stocker(cmd);
+        suivreJournal();
     }
 
     /**
      * L'IA qui doit jouer joue.
      */
     public void iaEssayeJouer() {
+        if (chargement) return;
         if (getJoueurEnCours().getClass() == JoueurIA.class) {
             ((JoueurIA) getJoueurEnCours()).timerIaSet(iaStatut);
         }
@@ -176,21 +156,7 @@ public class Jeu {
      * Vérifie que le nombre de batisseur posé correspond à certaines valeurs pour changer le joueur et la situation du jeu.
      */
     public void verificationNbBatisseur() {
-        if (nombreBatisseurs % NOMBRE_BATISSEUR_JOUEUR == 0) {
-            finTour();
-        }
-        if (nombreBatisseurs >= (NOMBRE_BATISSEUR_JOUEUR * 2)) {
-            situation = SELECTION;
-        }
-    }
-
-    /**
-     * Choisi le batisseur à la position (l, c).
-     *
-     * @return le batisseur du joueur s'il existe à cette position
-     */
-    private Point choisirBatisseur(Point position) {
-        return plateau.estBatisseur(position, joueurs[iJoueurs]) ? position : null;
+        if (moteur.verificationNbBatisseur()) notifierFinTour();
     }
 
     /**
@@ -199,20 +165,14 @@ public class Jeu {
      * @return vrai s'il on peut atteindre la case
      */
     public boolean estAtteignable(Point position) {
-        return switch (situation) {
-            case DEPLACEMENT -> (batisseurEnCours != null) && plateau.deplacementPossible(position, batisseurEnCours);
-            case CONSTRUCTION -> (batisseurEnCours != null) && plateau.peutConstruire(position, batisseurEnCours);
-            case SELECTION -> plateau.estBatisseur(position, joueurs[iJoueurs]);
-            case PLACEMENT -> nombreBatisseurs < 4;
-            default -> false;
-        };
+        return moteur.estAtteignable(position);
     }
 
     /**
      * Change le joueur en cours (si l'indice du joueur en cours est 1, ça devient 0 et inversement)
      */
     public void changerJoueur() {
-        iJoueurs = (iJoueurs + 1) % joueurs.length;
+        moteur.changerJoueur();
     }
 
     /**
@@ -220,82 +180,49 @@ public class Jeu {
      * @see PanelPlateau#miseAjour()
      */
     public void MAJObservateur() {
-        observateur.miseAjour();
+        if (!chargement) observateur.miseAjour();
     }
 
     /**
-     * Fini le tour pour le joueur en cours.
+     * Suspend les mises à jour des observateurs et les IA pendant le chargement d'une partie ; à la fin du
+     * chargement, les observateurs sont prévenus une seule fois et l'IA qui doit jouer reprend.
+     * @see Historique#charger(Sauvegarde)
      */
-    public void finTour() {
-        nbTours++;
-        changerJoueur();
-        batisseurEnCours = null;
-        MAJObservateur();
-        if (checkPerdu()) {
-            return;
-        }
-        iaEssayeJouer();
+    public void setChargement(boolean chargement) {
+        this.chargement = chargement;
+        if (!chargement) notifierFinTour();
     }
 
     /**
-     * Vérifie que le joueur a perdu lors de ce tour, c'est à dire, qu'il n'ait plus aucun mouvement possible pour ces deux bâtisseurs
+     * Fini le tour pour le joueur en cours.
      */
-    private boolean checkPerdu() {
-        ArrayList<Point> batisseur_joueur = getJoueurEnCours().getBatisseurs();
-        if (batisseur_joueur.size() < 2) return false;
-        if (plateau.getCasesAccessibles(batisseur_joueur.get(0)).isEmpty() &&
-                plateau.getCasesAccessibles(batisseur_joueur.get(1)).isEmpty()
-        ) {
-            gagnant = joueurs[(iJoueurs + 1) % joueurs.length];
-            jeuFini = true;
-            MAJObservateur();
-            return true;
-        }
-        return false;
+    public void finTour() {
+        moteur.finTour();
+        notifierFinTour();
     }
 
     /**
-     * Déplace le batisseur vers les coordonnées l et c si c'est possible.
-     *
-     * @param batisseur position (x;y) d'un batisseur
-     * @return vrai s'il a été possible de se déplacer
+     * Prévient les observateurs d'un changement de tour et fait jouer l'IA suivante si la partie continue.
      */
-    private boolean avancer(Point position, Point batisseur) {
-        if (plateau.deplacementPossible(position, batisseur)) {
-            plateau.enleverJoueur(batisseur); // enlève le batisseurs de la case du point batisseurs
-            plateau.ajouterJoueur(position, joueurs[iJoueurs]); // ajoute un batisseurs à la case en position l,c
-            batisseurEnCours = position;
-            return true;
-        }
-        return false;
+    private void notifierFinTour() {
+        MAJObservateur();
+        if (!moteur.estJeufini()) iaEssayeJouer();
     }
 
     /**
-     * Construit aux coordonnées l et c une hauteur de bâtiment si c'est possible.
-     *
-     * @param batisseur position (x;y) d'un batisseur
-     * @return vrai si la construction a bien eu lieu
-     * @see Plateau#peutConstruire(Point, Point batisseur)
-     * @see Plateau#ameliorerBatiment(Point)
+     * Vérifie si le batisseur du joueur en cours est sur un bâtiment d'hauteur 3.
+     * Si c'est le cas, le jeu s'arrête et l'observateur est notifié de la victoire.
      */
-    private boolean construire(Point position, Point batisseur) {
-        if (plateau.peutConstruire(position, batisseur)) {
-            plateau.ameliorerBatiment(position);
-            return true;
-        }
-        return false;
+    public void victoireJoueur() {
+        if (moteur.victoireJoueur()) MAJObservateur();
     }
 
     /**
-     * Vérifie si le batisseur du joueur en cours est sur un bâtiment d'hauteur 3.
-     * Si c'est le cas, le jeu s'arrête et l'observateur est notifié de la victoire.
+     * Vérifie si le joueur en cours est bloqué, ce qui le fait perdre.
+     * Si c'est le cas, le jeu s'arrête et l'observateur est notifié de la victoire de l'autre joueur.
      */
-    public void victoireJoueur() {
-        if (batisseurEnCours != null && plateau.getTypeBatiments(batisseurEnCours) == TOIT) {
-            gagnant = getJoueurEnCours();
-            jeuFini = true;
-            MAJObservateur();
-        }
+    public void checkPerdu() {
+        if (moteur.checkPerdu()) MAJObservateur();
     }
 
     /**
@@ -332,35 +259,83 @@ public class Jeu {
     /**
      * Charge grâce à l'historique une partie depuis un fichier.
      */
-    public void charger(Scanner lecteur) {
-        histo.charger(lecteur);
+    public void charger(Sauvegarde sauvegarde) {
+        histo.charger(sauvegarde);
+        suivreJournal();
     }
 
     public void charger(String filename) {
         histo.charger(filename);
+        suivreJournal();
+    }
+
+    /**
+     * Écrit la partie dans un nouveau journal, pour pouvoir la reprendre si le programme s'arrête avant qu'elle ne
+     * soit quittée ou finie. Le journal précédent est supprimé.
+     * @see Journal
+     */
+    public void ouvrirJournal() {
+        fermerJournal();
+        journalisee = true;
+        suivreJournal();
+    }
+
+    /**
+     * Arrête d'écrire le journal de la partie et le supprime : la partie n'aura pas à être reprise.
+     */
+    public void fermerJournal() {
+        fermerJournal(false);
+    }
+
+    /**
+     * Arrête d'écrire le journal de la partie et le supprime.
+     *
+     * @param attendre attend que le fichier soit supprimé, avant l'arrêt du programme
+     */
+    public void fermerJournal(boolean attendre) {
+        journalisee = false;
+        arreterJournal(attendre);
+    }
+
+    /**
+     * Supprime le journal quand la partie est finie, et en recrée un si des coups annulés la font reprendre.
+     */
+    private void suivreJournal() {
+        if (!journalisee) return;
+        if (moteur.estJeufini()) {
+            arreterJournal(false);
+        } else if (histo.getJournal() == null) {
+            try {
+                histo.setJournal(Journal.creer(configurationPartie));
+            } catch (IOException e) {
+                journalisee = false;
+                System.err.println("Impossible de créer le journal de la partie");
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void arreterJournal(boolean attendre) {
+        Journal journal = histo.getJournal();
+        if (journal == null) return;
+        histo.setJournal(null);
+        journal.fermer(true);
+        if (attendre) {
+            try {
+                journal.attendre();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
     }
 
     /**
      * Remet à zéro une partie. C'est à dire de remettre les règles de la partie comme au départ.
      */
     public void RAZ() {
-        plateau.RAZ();
-        jeuFini = false;
-        gagnant = null;
-        situation = PLACEMENT;
-        batisseurEnCours = null;
-        nombreBatisseurs = 0;
-        iJoueurs = configurationPartie.getIndexJoueurCommence();
-        if (configurationPartie.getIaMode2() != 0) {
-            joueurs[0] = new JoueurIA(this, JOUEUR1, setIA(configurationPartie.getIaMode1(),JOUEUR1), vitesse_ia);
-            joueurs[1] = new JoueurIA(this, JOUEUR2, setIA(configurationPartie.getIaMode2(),JOUEUR2), vitesse_ia);
-        } else if (configurationPartie.getIaMode1() != 0) {
-            joueurs[0] = new JoueurHumain(this, JOUEUR1);
-            joueurs[1] = new JoueurIA(this, JOUEUR2, setIA(configurationPartie.getIaMode1(),JOUEUR2), vitesse_ia);
-        } else {
-            joueurs[0] = new JoueurHumain(this, JOUEUR1);
-            joueurs[1] = new JoueurHumain(this, JOUEUR2);
-        }
+        annulerReflexionIA();
+        moteur.RAZ(configurationPartie.getIndexJoueurCommence());
+        creerJoueurs();
         MAJObservateur();
     }
 
@@ -368,14 +343,29 @@ public class Jeu {
      * Annule le dernier coup joué.
      */
     public void annuler() {
+        annulerReflexionIA();
         if (histo.peutAnnuler()) histo.annuler();
+        suivreJournal();
     }
 
     /**
      * Refais le coup suivant de l'historique
      */
     public void refaire() {
+        annulerReflexionIA();
         if (histo.peutRefaire()) histo.refaire();
+        suivreJournal();
+    }
+
+    /**
+     * Se rend à une position de l'historique de la partie.
+     * @param position nombre de commandes effectuées à cette position
+     * @see Historique#allerA(int)
+     */
+    public void allerA(int position) {
+        annulerReflexionIA();
+        histo.allerA(position);
+        suivreJournal();
     }
 
     /**
@@ -398,65 +388,80 @@ public class Jeu {
                 ((JoueurIA) j).timerIaSet(iaStatut);
             }
         }
+        annulerReflexionIA();
+    }
 
+    /**
+     * Abandonne les recherches en cours des IA, devenues obsolètes après un changement de position.
+     */
+    private void annulerReflexionIA() {
+        for (Joueur j : joueurs) {
+            if (j != null && j.getClass() == JoueurIA.class) {
+                ((JoueurIA) j).annulerReflexion();
+            }
+        }
     }
 
     // GETTER / SETTER
 
+    public MoteurJeu getMoteur() {
+        return moteur;
+    }
+
     public boolean estJeufini() {
-        return jeuFini;
+        return moteur.estJeufini();
     }
 
     public Plateau getPlateau() {
-        return plateau;
+        return moteur.getPlateau();
     }
 
     public Point getBatisseurEnCours() {
-        return batisseurEnCours;
+        return moteur.getBatisseurEnCours();
     }
 
     public int getSituation() {
-        return situation;
+        return moteur.getSituation();
     }
 
     public Joueur getJoueurEnCours() {
-        return joueurs[iJoueurs];
+        return joueurs[moteur.getIndexJoueurEnCours()];
     }
 
     public int getNombreBatisseurs() {
-        return nombreBatisseurs;
+        return moteur.getNombreBatisseurs();
     }
 
     public void setSituation(int situation) {
-        this.situation = situation;
+        moteur.setSituation(situation);
     }
 
     public void setBatisseurEnCours(Point batisseur) {
-        this.batisseurEnCours = batisseur;
+        moteur.setBatisseurEnCours(batisseur);
     }
 
     public void setNombreBatisseurs(int nombre_batisseurs) {
-        this.nombreBatisseurs = nombre_batisseurs;
+        moteur.setNombreBatisseurs(nombre_batisseurs);
     }
 
     public void setJeuFini(boolean value) {
-        jeuFini = value;
+        moteur.setJeuFini(value);
     }
 
     public Joueur getGagnant() {
-        return gagnant;
+        return switch (moteur.getGagnant()) {
+            case JOUEUR1 -> joueurs[0];
+            case JOUEUR2 -> joueurs[1];
+            default -> null;
+        };
     }
 
     public ArrayList<Point> getBatisseurs() {
-        return getJoueurEnCours().getBatisseurs();
+        return moteur.getBatisseurs();
     }
 
     public ArrayList<Point> getBatisseursJoueur(int joueur) {
-        if (joueur == JOUEUR1) {
-            return getJ1().getBatisseurs();
-        } else {
-            return getJ2().getBatisseurs();
-        }
+        return moteur.getBatisseurs(joueur);
     }
 
     public boolean getIaStatut() {
@@ -476,7 +481,7 @@ public class Jeu {
     }
 
     public int getNbTours() {
-        return nbTours;
+        return moteur.getNbTours();
     }
 
     public void setNetUser(Reseau netUser) {
@@ -497,17 +502,11 @@ public class Jeu {
     }
 
     public Point[] getDeplacementEnCours() {
-        return deplacementEnCours;
+        return moteur.getDeplacementEnCours();
     }
 
     public void setDeplacementEnCours(Point prevPos, Point newPos) {
-        if (prevPos != null && newPos != null) {
-            deplacementEnCours = new Point[2];
-            deplacementEnCours[0] = (Point) prevPos.clone();
-            deplacementEnCours[1] = (Point) newPos.clone();
-        } else {
-            deplacementEnCours = null;
-        }
+        moteur.setDeplacementEnCours(prevPos, newPos);
     }
 
     public void setDeplacementEnCours() {
@@ -515,7 +514,7 @@ public class Jeu {
     }
 
     public static int getAutreJoueur(int joueur) {
-        return (joueur == JOUEUR2 ? JOUEUR1 : JOUEUR2);
+        return MoteurJeu.getAutreJoueur(joueur);
     }
 
 
@@ -532,10 +531,10 @@ public class Jeu {
                 getJ1().getClass() == j.getJ1().getClass() &&
                 getJ2().equals(j.getJ2()) &&
                 getJ2().getClass() == j.getJ2().getClass() &&
-                situation == j.situation &&
-                nombreBatisseurs == j.nombreBatisseurs &&
-                Objects.equals(batisseurEnCours, j.batisseurEnCours) &&
-                plateau.equals(j.plateau) &&
+                getSituation() == j.getSituation() &&
+                getNombreBatisseurs() == j.getNombreBatisseurs() &&
+                Objects.equals(getBatisseurEnCours(), j.getBatisseurEnCours()) &&
+                getPlateau().equals(j.getPlateau()) &&
                 configurationPartie.equals(j.configurationPartie);
     }
 }
\ No newline at end of file
@@ -5,17 +5,15 @@ import java.util.ArrayList;
 
 /**
  * Classe abstraite Joueur englobant JoueurHumain et JoueurIA,
- * comporte une référence à jeu, une liste de batisseur et un numéro de joueur.
+ * comporte une référence à jeu et un numéro de joueur ; ses batisseurs sont ceux du moteur de la partie.
  */
 public abstract class Joueur {
     protected int num_joueur;
     protected Jeu jeu;
-    protected ArrayList<Point> batisseurs;
 
     protected Joueur(Jeu _jeu, int _num_joueur) {
         jeu = _jeu;
         num_joueur = _num_joueur;
-        batisseurs = new ArrayList<>();
     }
 
     /**
@@ -23,7 +21,7 @@ public abstract class Joueur {
      * @param batisseur position (x, y) du batisseur
      */
     public void addBatisseur(Point batisseur) {
-        batisseurs.add(batisseur);
+        getBatisseurs().add(batisseur);
     }
 
     // GETTER
@@ -33,7 +31,7 @@ public abstract class Joueur {
     }
 
     public ArrayList<Point> getBatisseurs() {
-        return batisseurs;
+        return jeu.getBatisseursJoueur(num_joueur);
     }
 
     // OVERRIDE MÉTHODES HÉRITÉES
@@ -45,6 +43,6 @@ public abstract class Joueur {
         Joueur j = (Joueur) o;
 
         return num_joueur == j.num_joueur &&
-                batisseurs.equals(j.batisseurs);
+                getBatisseurs().equals(j.getBatisseurs());
     }
 }
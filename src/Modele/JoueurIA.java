@@ -1,13 +1,24 @@
 package Modele;
 
+import IA.Coup;
 import IA.IA;
+import IA.IAAsynchrone;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static Utile.Constante.*;
 
 /**
  * JoueurIA joue à intervalle régulier jusqu'à ce qu'elle ne soit plus le joueur en cours ou
  * s'arrête quand on lui demande.
+ * La recherche d'une {@link IAAsynchrone} est lancée sur une copie du plateau dans un fil dédié,
+ * pour ne pas bloquer l'interface ; le coup trouvé est rendu au fil de Swing puis joué action par action.
+ * Face à un joueur humain, elle peut aussi réfléchir pendant le tour de celui-ci, jusqu'à ce qu'il ait joué.
  * @see Jeu#desactiverIA()
  * @see Jeu#iaSwitch()
  */
@@ -16,6 +27,20 @@ public class JoueurIA extends Joueur {
     private final Timer timer;
     private static final int VITESSE_BASE = 1000;
 
+    /**
+     * Fil unique partagé par toutes les IA : une seule recherche à la fois, qui n'empêche pas la fermeture du programme.
+     */
+    private static final ExecutorService REFLEXION = Executors.newSingleThreadExecutor(r -> {
+        Thread fil = new Thread(r, "Reflexion IA");
+        fil.setDaemon(true);
+        return fil;
+    });
+
+    private Future<?> reflexion;
+    private Future<?> reflexion_anticipee;
+    private int generation;
+    private boolean coup_recu;
+
     public JoueurIA(Jeu _jeu, int _num_joueur, IA _ia, int vitesse_ia) {
         super(_jeu, _num_joueur);
         ia = _ia;
@@ -27,12 +52,96 @@ public class JoueurIA extends Joueur {
      * Demande à l'IA une position pour jouer une action.
      * Mets à jour les observateurs pour voir les actions pas à pas de l'IA.
      * Arrête de jouer si après une action, le joueur change.
+     * Tant que la recherche d'une IA asynchrone n'a pas abouti, n'effectue aucune action.
      */
     public void joue() {
+        if (ia instanceof IAAsynchrone && jeu.getSituation() == SELECTION) {
+            if (reflexion != null) return;
+            if (!coup_recu) {
+                lancerReflexion((IAAsynchrone) ia);
+                return;
+            }
+            coup_recu = false;
+        }
         Point jeu_ia = ia.joue();
         jeu.jouer(jeu_ia);
         jeu.MAJObservateur();
-        if(jeu.getJoueurEnCours().getNum_joueur() != num_joueur) timer.stop();
+        if(jeu.getJoueurEnCours().getNum_joueur() != num_joueur) {
+            timer.stop();
+            lancerReflexionAnticipee();
+        }
+    }
+
+    /**
+     * Lance, si l'IA le permet, la réflexion pendant le tour de l'adversaire humain.
+     * Deux IA ne réfléchissent jamais pendant le tour l'une de l'autre : elles partagent le même fil.
+     */
+    private void lancerReflexionAnticipee() {
+        if (!(ia instanceof IAAsynchrone) || jeu.getSituation() != SELECTION || jeu.estJeufini()) return;
+        Joueur adversaire = jeu.getJoueurEnCours();
+        if (adversaire instanceof JoueurIA) return;
+        PlateauBinaire copie = new PlateauBinaire(jeu.getPlateau(), jeu.getBatisseursJoueur(JOUEUR1), jeu.getBatisseursJoueur(JOUEUR2));
+        Runnable tache = ((IAAsynchrone) ia).preparerReflexion(copie, adversaire.getNum_joueur());
+        if (tache != null) {
+            reflexion_anticipee = REFLEXION.submit(tache);
+        }
+    }
+
+    /**
+     * Arrête la réflexion pendant le tour de l'adversaire, qui libère alors le fil de recherche.
+     */
+    private void arreterReflexionAnticipee() {
+        if (reflexion_anticipee != null) {
+            reflexion_anticipee.cancel(false);
+            ((IAAsynchrone) ia).arreter();
+            reflexion_anticipee = null;
+        }
+    }
+
+    /**
+     * Lance la recherche du prochain tour sur une copie du plateau.
+     * Le résultat n'est retenu que si aucune annulation n'a eu lieu entre temps.
+     */
+    private void lancerReflexion(IAAsynchrone ia_async) {
+        arreterReflexionAnticipee();
+        PlateauBinaire copie = new PlateauBinaire(jeu.getPlateau(), jeu.getBatisseursJoueur(JOUEUR1), jeu.getBatisseursJoueur(JOUEUR2));
+        int generation_lancee = generation;
+        // Préparée ici et non dans le fil de recherche : un arrêt demandé avant qu'elle démarre n'est pas perdu.
+        Supplier<Coup> recherche = ia_async.preparerRecherche(copie, num_joueur);
+        reflexion = REFLEXION.submit(() -> {
+            Coup coup = recherche.get();
+            SwingUtilities.invokeLater(() -> recevoirCoup(generation_lancee, coup));
+        });
+    }
+
+    /**
+     * Reçoit, dans le fil de Swing, le coup trouvé par la recherche. Sans coup, la recherche est relancée en
+     * arrière-plan au prochain tour du minuteur.
+     */
+    private void recevoirCoup(int generation_lancee, Coup coup) {
+        if (generation_lancee != generation) return;
+        reflexion = null;
+        if (coup == null) return;
+        ((IAAsynchrone) ia).setCoupPrepare(coup);
+        coup_recu = true;
+    }
+
+    /**
+     * Abandonne la recherche en cours : son résultat sera ignoré.
+     * À appeler dès que la position de la partie ne correspond plus à celle de la recherche.
+     */
+    public void annulerReflexion() {
+        generation++;
+        arreterReflexionAnticipee();
+        if (reflexion != null) {
+            reflexion.cancel(false);
+            ((IAAsynchrone) ia).arreter();
+            reflexion = null;
+        }
+        if (coup_recu) {
+            ((IAAsynchrone) ia).setCoupPrepare(null);
+            coup_recu = false;
+        }
     }
 
     /**
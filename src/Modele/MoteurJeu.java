@@ -0,0 +1,399 @@
+package Modele;
+
+import IA.IA;
+
+import java.awt.*;
+import java.util.ArrayList;
+
+import static Modele.Voisinage.*;
+import static Utile.Constante.*;
+
+/**
+ * Règles et état d'une partie, sans interface graphique, son, observateur ni minuterie.
+ * Le moteur peut tourner dans une JVM sans affichage ({@code java.awt.headless=true}) et faire jouer
+ * des IA de façon synchrone ; {@link Jeu} s'appuie dessus pour l'application graphique.
+ *
+ * @see Jeu
+ * @see Plateau
+ */
+public class MoteurJeu {
+    /**
+     * Nombre d'actions refusées d'affilée au-delà duquel une IA est considérée comme incapable de jouer.
+     */
+    private static final int ACTIONS_REFUSEES_MAX = 1000;
+
+    private final Plateau plateau;
+    private final ArrayList<Point> batisseurs_j1;
+    private final ArrayList<Point> batisseurs_j2;
+    private int situation;
+    private int nombreBatisseurs;
+    private int nbTours;
+    private int iJoueurs;
+    private int indexJoueurCommence;
+    private boolean jeuFini;
+    private int gagnant;
+    private Point batisseurEnCours;
+    private Point[] deplacementEnCours;
+
+    /**
+     * Instancie un moteur de partie.
+     *
+     * @param index_joueur_commence 0 si le joueur 1 commence, 1 si c'est le joueur 2
+     */
+    public MoteurJeu(int index_joueur_commence) {
+        plateau = new Plateau();
+        batisseurs_j1 = new ArrayList<>();
+        batisseurs_j2 = new ArrayList<>();
+        nbTours = 0;
+        RAZ(index_joueur_commence);
+    }
+
+    public MoteurJeu() {
+        this(0);
+    }
+
+    /**
+     * Remet à zéro la partie, le joueur d'indice donné commençant.
+     */
+    public void RAZ(int index_joueur_commence) {
+        plateau.RAZ();
+        batisseurs_j1.clear();
+        batisseurs_j2.clear();
+        indexJoueurCommence = index_joueur_commence;
+        iJoueurs = index_joueur_commence;
+        situation = PLACEMENT;
+        nombreBatisseurs = 0;
+        jeuFini = false;
+        gagnant = 0;
+        batisseurEnCours = null;
+        deplacementEnCours = null;
+    }
+
+    public void RAZ() {
+        RAZ(indexJoueurCommence);
+    }
+
+    /**
+     * Joue une action selon la situation du jeu parmi placement des batisseurs, sélection de batisseur,
+     * déplacement des batisseurs et construction des bâtiments.
+     * Pendant un déplacement, désigner un autre batisseur du joueur revient à le sélectionner.
+     *
+     * @param position case désignée par le joueur en cours
+     * @return la situation de l'action jouée, AUCUNE_ACTION si elle n'était pas possible
+     */
+    public int jouer(Point position) {
+        situation = plateau.estBatisseur(position, getJoueurEnCours()) && situation == DEPLACEMENT ? SELECTION : situation;
+        return switch (situation) {
+            case PLACEMENT -> placer(position) ? PLACEMENT : AUCUNE_ACTION;
+            case SELECTION -> selectionner(position);
+            case DEPLACEMENT -> deplacer(position) ? DEPLACEMENT : AUCUNE_ACTION;
+            case CONSTRUCTION -> construire(position) ? CONSTRUCTION : AUCUNE_ACTION;
+            default -> {
+                System.err.println("Unknown situation");
+                yield AUCUNE_ACTION;
+            }
+        };
+    }
+
+    /**
+     * Place un batisseur du joueur en cours si la case est vide.
+     */
+    private boolean placer(Point position) {
+        if (!plateau.estLibre(position)) return false;
+        plateau.ajouterJoueur(position, getJoueurEnCours());
+        getBatisseurs().add(position);
+        nombreBatisseurs++;
+        verificationNbBatisseur();
+        return true;
+    }
+
+    /**
+     * Sélectionne le batisseur du joueur en cours à la position donnée, s'il y en a un.
+     * La sélection est toujours considérée comme jouée, même sans batisseur.
+     */
+    private int selectionner(Point position) {
+        batisseurEnCours = plateau.estBatisseur(position, getJoueurEnCours()) ? position : null;
+        situation = batisseurEnCours == null ? SELECTION : DEPLACEMENT;
+        return SELECTION;
+    }
+
+    /**
+     * Déplace le batisseur en cours à la position donnée si c'est possible, puis vérifie la victoire.
+     */
+    private boolean deplacer(Point position) {
+        Point prevPos = batisseurEnCours;
+        boolean deplace = plateau.deplacementPossible(position, batisseurEnCours);
+        if (deplace) {
+            plateau.enleverJoueur(prevPos);
+            plateau.ajouterJoueur(position, getJoueurEnCours());
+            batisseurEnCours = position;
+            ArrayList<Point> batisseurs_en_cours = getBatisseurs();
+            batisseurs_en_cours.set(batisseurs_en_cours.indexOf(prevPos), position);
+
+            setDeplacementEnCours(prevPos, batisseurEnCours);
+            situation = CONSTRUCTION;
+        }
+        victoireJoueur();
+        return deplace;
+    }
+
+    /**
+     * Construit un étage à la position donnée si c'est possible, ce qui termine le tour.
+     */
+    private boolean construire(Point position) {
+        if (jeuFini || !plateau.peutConstruire(position, batisseurEnCours)) return false;
+        plateau.ameliorerBatiment(position);
+        finTour();
+        situation = SELECTION;
+        return true;
+    }
+
+    /**
+     * Vérifie que le nombre de batisseur posé correspond à certaines valeurs pour changer le joueur et la situation du jeu.
+     *
+     * @return vrai si le tour a changé
+     */
+    public boolean verificationNbBatisseur() {
+        boolean fin_tour = nombreBatisseurs % NOMBRE_BATISSEUR_JOUEUR == 0;
+        if (fin_tour) {
+            finTour();
+        }
+        if (nombreBatisseurs >= (NOMBRE_BATISSEUR_JOUEUR * 2)) {
+            situation = SELECTION;
+        }
+        return fin_tour;
+    }
+
+    /**
+     * Vérifie que la case est atteignable sur la grille (selon la situation)
+     *
+     * @return vrai s'il on peut atteindre la case
+     */
+    public boolean estAtteignable(Point position) {
+        return switch (situation) {
+            case DEPLACEMENT -> (batisseurEnCours != null) && plateau.deplacementPossible(position, batisseurEnCours);
+            case CONSTRUCTION -> (batisseurEnCours != null) && plateau.peutConstruire(position, batisseurEnCours);
+            case SELECTION -> plateau.estBatisseur(position, getJoueurEnCours());
+            case PLACEMENT -> nombreBatisseurs < 4;
+            default -> false;
+        };
+    }
+
+    /**
+     * Change le joueur en cours (si l'indice du joueur en cours est 1, ça devient 0 et inversement)
+     */
+    public void changerJoueur() {
+        iJoueurs = (iJoueurs + 1) % 2;
+    }
+
+    /**
+     * Fini le tour pour le joueur en cours, puis vérifie que le nouveau joueur peut encore jouer.
+     */
+    public void finTour() {
+        nbTours++;
+        changerJoueur();
+        batisseurEnCours = null;
+        checkPerdu();
+    }
+
+    /**
+     * Vérifie que le joueur a perdu lors de ce tour, c'est à dire, qu'il n'ait plus aucun mouvement possible pour ces deux bâtisseurs
+     *
+     * @return vrai si le joueur en cours est bloqué, la partie étant alors finie
+     */
+    public boolean checkPerdu() {
+        ArrayList<Point> batisseur_joueur = getBatisseurs();
+        if (batisseur_joueur.size() < 2) return false;
+        if (plateau.getCasesAccessibles(batisseur_joueur.get(0)).isEmpty() &&
+                plateau.getCasesAccessibles(batisseur_joueur.get(1)).isEmpty()
+        ) {
+            gagnant = getAutreJoueur(getJoueurEnCours());
+            jeuFini = true;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Vérifie si le batisseur du joueur en cours est sur un bâtiment d'hauteur 3.
+     * Si c'est le cas, le jeu s'arrête.
+     *
+     * @return vrai si le joueur en cours vient de gagner
+     */
+    public boolean victoireJoueur() {
+        if (batisseurEnCours != null && plateau.getTypeBatiments(batisseurEnCours) == TOIT) {
+            gagnant = getJoueurEnCours();
+            jeuFini = true;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Fait jouer deux IA l'une contre l'autre, action par action, jusqu'à la fin de la partie.
+     * Les IA doivent avoir été créées sur ce moteur.
+     *
+     * @param ia_j1 IA du joueur 1
+     * @param ia_j2 IA du joueur 2
+     * @return le numéro du joueur gagnant
+     * @throws IllegalStateException si une IA ne propose plus aucune action valide
+     */
+    public int jouerPartie(IA ia_j1, IA ia_j2) {
+        int refusees = 0;
+        while (!jeuFini) {
+            IA ia = getJoueurEnCours() == JOUEUR1 ? ia_j1 : ia_j2;
+            Point position = ia.joue();
+            if (position != null && jouer(position) != AUCUNE_ACTION) {
+                refusees = 0;
+            } else if (++refusees > ACTIONS_REFUSEES_MAX) {
+                throw new IllegalStateException("L'IA du joueur " + getJoueurEnCours() + " ne propose aucune action valide");
+            }
+        }
+        return gagnant;
+    }
+
+    /**
+     * @return l'état complet de la partie
+     * @see #restaurer(Instantane)
+     */
+    public Instantane capturer() {
+        int[] etages = new int[COUPOLE];
+        byte[] positions = new byte[NOMBRE_BATISSEUR_JOUEUR * 2];
+        for (int c = 0; c < NB_CASES; c++) {
+            for (int h = 0; h < plateau.getTypeBatiments(point(c)); h++) {
+                etages[h] |= 1 << c;
+            }
+        }
+        for (int i = 0; i < positions.length; i++) {
+            ArrayList<Point> batisseurs = i < NOMBRE_BATISSEUR_JOUEUR ? batisseurs_j1 : batisseurs_j2;
+            int j = i % NOMBRE_BATISSEUR_JOUEUR;
+            positions[i] = (byte) (j < batisseurs.size() ? index(batisseurs.get(j)) : -1);
+        }
+        byte[] deplacement = deplacementEnCours == null ? null
+                : new byte[]{(byte) index(deplacementEnCours[0]), (byte) index(deplacementEnCours[1])};
+        return new Instantane(etages, positions, situation, nombreBatisseurs, iJoueurs, gagnant, jeuFini, nbTours,
+                batisseurEnCours == null ? -1 : index(batisseurEnCours), deplacement);
+    }
+
+    /**
+     * Remet la partie dans l'état d'un instantané pris par {@link #capturer()}.
+     */
+    public void restaurer(Instantane instantane) {
+        int[] cases = new int[NB_CASES];
+        for (int etage : instantane.etages) {
+            for (int c = 0; c < NB_CASES; c++) {
+                cases[c] += (etage >>> c) & 1;
+            }
+        }
+        batisseurs_j1.clear();
+        batisseurs_j2.clear();
+        for (int i = 0; i < instantane.batisseurs.length; i++) {
+            int c = instantane.batisseurs[i];
+            if (c == -1) continue;
+            int joueur = i < NOMBRE_BATISSEUR_JOUEUR ? JOUEUR1 : JOUEUR2;
+            cases[c] |= joueur;
+            getBatisseurs(joueur).add(point(c));
+        }
+        plateau.setCases(cases);
+
+        situation = instantane.situation;
+        nombreBatisseurs = instantane.nombreBatisseurs;
+        iJoueurs = instantane.iJoueurs;
+        gagnant = instantane.gagnant;
+        jeuFini = instantane.jeuFini;
+        nbTours = instantane.nbTours;
+        batisseurEnCours = instantane.batisseurEnCours == -1 ? null : point(instantane.batisseurEnCours);
+        byte[] deplacement = instantane.deplacementEnCours;
+        deplacementEnCours = deplacement == null ? null : new Point[]{point(deplacement[0]), point(deplacement[1])};
+    }
+
+    // GETTER / SETTER
+
+    public Plateau getPlateau() {
+        return plateau;
+    }
+
+    public boolean estJeufini() {
+        return jeuFini;
+    }
+
+    /**
+     * @param value faux pour reprendre une partie finie, qui n'a alors plus de gagnant
+     */
+    public void setJeuFini(boolean value) {
+        jeuFini = value;
+        if (!value) gagnant = 0;
+    }
+
+    /**
+     * @return le numéro du joueur gagnant, 0 si la partie n'est pas finie
+     */
+    public int getGagnant() {
+        return gagnant;
+    }
+
+    public int getSituation() {
+        return situation;
+    }
+
+    public void setSituation(int situation) {
+        this.situation = situation;
+    }
+
+    public Point getBatisseurEnCours() {
+        return batisseurEnCours;
+    }
+
+    public void setBatisseurEnCours(Point batisseur) {
+        this.batisseurEnCours = batisseur;
+    }
+
+    public int getNombreBatisseurs() {
+        return nombreBatisseurs;
+    }
+
+    public void setNombreBatisseurs(int nombre_batisseurs) {
+        this.nombreBatisseurs = nombre_batisseurs;
+    }
+
+    public int getNbTours() {
+        return nbTours;
+    }
+
+    /**
+     * @return 0 si c'est au joueur 1 de jouer, 1 si c'est au joueur 2
+     */
+    public int getIndexJoueurEnCours() {
+        return iJoueurs;
+    }
+
+    public int getJoueurEnCours() {
+        return iJoueurs == 0 ? JOUEUR1 : JOUEUR2;
+    }
+
+    public ArrayList<Point> getBatisseurs() {
+        return getBatisseurs(getJoueurEnCours());
+    }
+
+    public ArrayList<Point> getBatisseurs(int joueur) {
+        return joueur == JOUEUR1 ? batisseurs_j1 : batisseurs_j2;
+    }
+
+    public static int getAutreJoueur(int joueur) {
+        return (joueur == JOUEUR2 ? JOUEUR1 : JOUEUR2);
+    }
+
+    public Point[] getDeplacementEnCours() {
+        return deplacementEnCours;
+    }
+
+    public void setDeplacementEnCours(Point prevPos, Point newPos) {
+        if (prevPos != null && newPos != null) {
+            deplacementEnCours = new Point[2];
+            deplacementEnCours[0] = (Point) prevPos.clone();
+            deplacementEnCours[1] = (Point) newPos.clone();
+        } else {
+            deplacementEnCours = null;
+        }
+    }
+}
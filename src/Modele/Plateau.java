@@ -1,15 +1,22 @@
 package Modele;
 
+import IA.Coup;
+
 import java.awt.*;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
+import static Modele.Voisinage.*;
 import static Utile.Constante.*;
 
 /**
  * Classe gérant les cases de la grille dont les constructions de bâtiment et la pose de batisseurs.
+ * Les cases sont rangées ligne par ligne dans un tableau à une dimension indexé par {@link Voisinage#index(Point)}.
  */
 public class Plateau {
-    private int[][] cases;
+    private int[] cases;
+    private long hash;
     private final int colonnes;
     private final int lignes;
 
@@ -17,7 +24,7 @@ public class Plateau {
      * Instantie un objet Plateau.
      */
     public Plateau() {
-        cases = new int[PLATEAU_LIGNES][PLATEAU_COLONNES];
+        cases = new int[NB_CASES];
         lignes = PLATEAU_LIGNES;
         colonnes = PLATEAU_COLONNES;
     }
@@ -31,10 +38,8 @@ public class Plateau {
         lignes = plateau.lignes;
         colonnes = plateau.colonnes;
 
-        cases = new int[lignes][colonnes];
-        for (int i = 0; i < lignes; i++) {
-            System.arraycopy(plateau.cases[i], 0, cases[i], 0, colonnes);
-        }
+        cases = Arrays.copyOf(plateau.cases, plateau.cases.length);
+        hash = plateau.hash;
     }
 
     /**
@@ -179,8 +184,22 @@ public class Plateau {
      * @return si la case peut acceuillir un batisseur
      */
     public boolean deplacementPossible(Point position, Point batisseur) {
-        return estLibre(position) && atteignable(position, batisseur) &&
-                getTypeBatiments(position) - getTypeBatiments(batisseur) <= 1 && !estCoupole(position);
+        int p = index(position);
+        int b = index(batisseur);
+        return atteignable(position, batisseur) && deplacementPossible(p, b);
+    }
+
+    /**
+     * Version par indices de {@link #deplacementPossible(Point, Point)}, sans vérifier que les cases sont voisines.
+     *
+     * @param position  indice de la case visée
+     * @param batisseur indice de la case du batisseur
+     * @return si la case peut acceuillir le batisseur
+     */
+    private boolean deplacementPossible(int position, int batisseur) {
+        // Une valeur inférieure à COUPOLE signifie une case sans batisseur ni coupole.
+        int valeur = cases[position];
+        return valeur < COUPOLE && valeur - (cases[batisseur] & 7) <= 1;
     }
 
     /**
@@ -217,23 +236,13 @@ public class Plateau {
      * @return un ensemble de case accessible
      */
     public ArrayList<Point> getCasesAccessibles(Point batisseur) {
-
-        Point cases;
         ArrayList<Point> cases_voisines = new ArrayList<>();
-        int l = batisseur.x;
-        int c = batisseur.y;
-
-        for (int i = -1; i < 2; i++) {
-            if(i+l < lignes && i+l>=0){
-                for (int j = -1; j < 2; j++) {
-                    cases = new Point(i+l, j+c);
-                    if(j+c<colonnes && j+c>= 0 && deplacementPossible(cases, batisseur)){
-                        cases_voisines.add(cases);
-                    }
-                }
+        int b = index(batisseur);
+        for (int voisine : LISTES[b]) {
+            if (deplacementPossible(voisine, b)) {
+                cases_voisines.add(Voisinage.point(voisine));
             }
         }
-
         return cases_voisines;
     }
 
@@ -244,20 +253,10 @@ public class Plateau {
      * @return une ensemble de case où la construction est possible
      */
     public ArrayList<Point> getConstructionsPossible(Point batisseur) {
-
-        Point cases;
         ArrayList<Point> cases_acessibles = new ArrayList<>();
-        int l = batisseur.x;
-        int c = batisseur.y;
-
-        for (int i = -1; i < 2; i++) {
-            if(i+l < lignes && i+l>=0){
-                for (int j = -1; j < 2; j++) {
-                    cases = new Point(i+l, j+c);
-                    if(j+c<colonnes && j+c>= 0 && peutConstruire(cases, batisseur)){
-                        cases_acessibles.add(cases);
-                    }
-                }
+        for (int voisine : LISTES[index(batisseur)]) {
+            if (peutConstruire(voisine)) {
+                cases_acessibles.add(Voisinage.point(voisine));
             }
         }
         return cases_acessibles;
@@ -270,25 +269,56 @@ public class Plateau {
      * @return une ensemble de case de case voisine au batisseur
      */
     public ArrayList<Point> getCasesVoisines(Point batisseur) {
-        Point cases;
         ArrayList<Point> cases_voisines = new ArrayList<>();
-        int l = batisseur.x;
-        int c = batisseur.y;
-
-        for (int i = -1; i < 2; i++) {
-            if(i+l < lignes && i+l>=0){
-                for (int j = -1; j < 2; j++) {
-                    cases = new Point(i+l, j+c);
-                    if(j+c<colonnes && j+c>= 0){
-                        cases_voisines.add(cases);
+        for (int voisine : LISTES[index(batisseur)]) {
+            cases_voisines.add(Voisinage.point(voisine));
+        }
+        return cases_voisines;
+    }
+
+    /**
+     * Écrit tous les coups (batisseur, déplacement, construction) possibles des batisseurs donnés dans "coups",
+     * encodés par {@link Coup#encoder(int, int, int)}. Aucun objet n'est alloué : le tableau doit pouvoir contenir
+     * {@link Utile.Constante#NOMBRE_COUPS_MAX} coups par appel.
+     *
+     * @param batisseurs positions des batisseurs du joueur, dans l'ordre d'exploration voulu
+     * @param coups      tableau recevant les coups
+     * @return le nombre de coups écrits
+     */
+    public int genererCoups(List<Point> batisseurs, int[] coups) {
+        int nb_coups = 0;
+        for (int i = 0; i < batisseurs.size(); i++) {
+            nb_coups = genererCoups(index(batisseurs.get(i)), coups, nb_coups);
+        }
+        return nb_coups;
+    }
+
+    /**
+     * Écrit tous les coups possibles du batisseur en "batisseur" dans "coups" à partir de l'indice "debut".
+     * Le batisseur est déplacé temporairement pour que sa case de départ soit constructible, puis remis en place.
+     *
+     * @param batisseur indice de la case du batisseur
+     * @param coups     tableau recevant les coups
+     * @param debut     indice du premier coup à écrire
+     * @return l'indice suivant le dernier coup écrit
+     */
+    public int genererCoups(int batisseur, int[] coups, int debut) {
+        int nb_coups = debut;
+        int joueur = cases[batisseur] & ~7;
+        cases[batisseur] &= 7;
+        for (int deplacement : LISTES[batisseur]) {
+            if (deplacementPossible(deplacement, batisseur)) {
+                cases[deplacement] |= joueur;
+                for (int construction : LISTES[deplacement]) {
+                    if (peutConstruire(construction)) {
+                        coups[nb_coups++] = Coup.encoder(batisseur, deplacement, construction);
                     }
                 }
+                cases[deplacement] &= 7;
             }
         }
-
-        cases_voisines.remove(batisseur);
-
-        return cases_voisines;
+        cases[batisseur] |= joueur;
+        return nb_coups;
     }
 
     /**
@@ -299,7 +329,16 @@ public class Plateau {
      * @return vrai si le batisseur peut construire ici.
      */
     public boolean peutConstruire(Point position, Point batisseur) {
-        return (atteignable(position, batisseur) && !estCoupole(position) && estLibre(position));
+        int p = index(position);
+        return atteignable(position, batisseur) && peutConstruire(p);
+    }
+
+    /**
+     * Vérifie que la case d'indice "position" est libre et sans coupole.
+     */
+    private boolean peutConstruire(int position) {
+        // Une valeur inférieure à COUPOLE signifie une case sans batisseur ni coupole.
+        return cases[position] < COUPOLE;
     }
 
     /**
@@ -325,17 +364,36 @@ public class Plateau {
      * Remet à zéro le plateau.
      */
     public void RAZ() {
-        cases = new int[PLATEAU_LIGNES][PLATEAU_COLONNES];
+        cases = new int[NB_CASES];
+        hash = 0;
+    }
+
+    /**
+     * Remplace toutes les cases et recalcule la clé de Zobrist.
+     *
+     * @param valeurs valeur de chaque case (hauteur | numéro du joueur présent)
+     */
+    void setCases(int[] valeurs) {
+        cases = valeurs;
+        hash = 0;
+        for (int c = 0; c < NB_CASES; c++) {
+            hash ^= Zobrist.cle(c, cases[c]);
+        }
     }
 
     // GETTER / SETTER
 
+    /**
+     * Modifie une case en mettant à jour la clé de Zobrist du plateau.
+     */
     private void setCase(Point position, int valeur) {
-        cases[position.x][position.y] = valeur;
+        int c = index(position);
+        hash ^= Zobrist.cle(c, cases[c]) ^ Zobrist.cle(c, valeur);
+        cases[c] = valeur;
     }
 
     public void setBatiments(Point position, int valeur) {
-        cases[position.x][position.y] = getTypeBatisseurs(position)+valeur;
+        setCase(position, getTypeBatisseurs(position)+valeur);
     }
 
     public int getLignes() {
@@ -346,8 +404,16 @@ public class Plateau {
         return colonnes;
     }
 
+    /**
+     * @return la clé de Zobrist des cases du plateau, mise à jour à chaque modification
+     * @see Zobrist
+     */
+    public long getHash() {
+        return hash;
+    }
+
     public int getCase(Point position) {
-        return cases[position.x][position.y];
+        return cases[index(position)];
     }
 
     public int getTypeBatiments(Point position) {
@@ -378,13 +444,6 @@ public class Plateau {
         if (!(o instanceof Plateau)) return false;
 
         Plateau pl = (Plateau) o;
-        for (int i = 0; i < PLATEAU_LIGNES; i++) {
-            for (int j = 0; j < PLATEAU_COLONNES; j++) {
-                Point p = new Point(i, j);
-                if (this.getCase(p) != pl.getCase(p)) return false;
-            }
-        }
-
-        return true;
+        return Arrays.equals(cases, pl.cases);
     }
 }
\ No newline at end of file
@@ -0,0 +1,426 @@
+package Modele;
+
+import IA.Coup;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.List;
+
+import static Modele.Voisinage.*;
+import static Utile.Constante.*;
+
+/**
+ * Représentation compacte du plateau sous forme de masques binaires de 25 bits (un bit par case),
+ * utilisée par les IA pour explorer les coups sans allouer de {@link Point} ni de liste.
+ * Elle applique les mêmes règles que {@link Plateau} et s'obtient depuis (ou se convertit vers) un Plateau.
+ * <p>
+ * Les batisseurs sont rangés dans l'ordre des listes des joueurs : les indices 0 et 1 pour le joueur 1,
+ * 2 et 3 pour le joueur 2. Une position de -1 indique un batisseur non encore placé.
+ *
+ * @see Voisinage
+ */
+public class PlateauBinaire {
+    private final int[] niveaux;
+    private final int[] hauteurs;
+    private final int[] batisseurs;
+    private final int[] positions;
+    private long hash;
+
+    /**
+     * Instantie un plateau binaire vide.
+     */
+    public PlateauBinaire() {
+        niveaux = new int[COUPOLE + 1];
+        hauteurs = new int[NB_CASES];
+        batisseurs = new int[2];
+        positions = new int[NOMBRE_BATISSEUR_JOUEUR * 2];
+        niveaux[VIDE] = MASQUE_GRILLE;
+        Arrays.fill(positions, -1);
+    }
+
+    /**
+     * Instantie un plateau binaire depuis une copie d'un plateau binaire.
+     *
+     * @param plateau plateau binaire à copier
+     */
+    public PlateauBinaire(PlateauBinaire plateau) {
+        this();
+        copier(plateau);
+    }
+
+    /**
+     * Instantie un plateau binaire depuis un plateau et les listes de batisseurs des joueurs.
+     * L'ordre des listes est conservé, ce qui garantit le même ordre d'exploration que sur le Plateau.
+     *
+     * @param plateau       plateau de jeu
+     * @param batisseurs_j1 batisseurs du joueur 1
+     * @param batisseurs_j2 batisseurs du joueur 2
+     */
+    public PlateauBinaire(Plateau plateau, List<Point> batisseurs_j1, List<Point> batisseurs_j2) {
+        this();
+        for (int c = 0; c < NB_CASES; c++) {
+            int hauteur = plateau.getTypeBatiments(Voisinage.point(c));
+            if (hauteur != VIDE) {
+                niveaux[VIDE] &= ~(1 << c);
+                niveaux[hauteur] |= 1 << c;
+                hauteurs[c] = hauteur;
+            }
+        }
+        for (Point batisseur : batisseurs_j1) {
+            ajouterBatisseur(JOUEUR1, index(batisseur));
+        }
+        for (Point batisseur : batisseurs_j2) {
+            ajouterBatisseur(JOUEUR2, index(batisseur));
+        }
+        hash = calculerHash();
+    }
+
+    /**
+     * Instantie un plateau binaire depuis un plateau, les batisseurs étant rangés dans l'ordre de parcours de la grille.
+     *
+     * @param plateau plateau de jeu
+     */
+    public PlateauBinaire(Plateau plateau) {
+        this(plateau, List.of(), List.of());
+        for (int c = 0; c < NB_CASES; c++) {
+            int joueur = plateau.getTypeBatisseurs(Voisinage.point(c));
+            if (joueur != 0) {
+                ajouterBatisseur(joueur, c);
+            }
+        }
+    }
+
+    /**
+     * Calcule entièrement la clé de Zobrist du plateau (sans le joueur qui doit jouer).
+     *
+     * @return la clé, égale à celle du {@link Plateau} équivalent
+     */
+    public long calculerHash() {
+        long cle = 0;
+        for (int c = 0; c < NB_CASES; c++) {
+            cle ^= Zobrist.cle(c, getValeurCase(c));
+        }
+        return cle;
+    }
+
+    /**
+     * Valeur de la case comme dans {@link Plateau#getCase(Point)} : hauteur combinée au numéro du joueur présent.
+     */
+    public int getValeurCase(int position) {
+        int bit = 1 << position;
+        int joueur = (batisseurs[0] & bit) != 0 ? JOUEUR1 : ((batisseurs[1] & bit) != 0 ? JOUEUR2 : 0);
+        return hauteurs[position] | joueur;
+    }
+
+    /**
+     * Recopie l'état d'un autre plateau binaire, sans allocation.
+     *
+     * @param plateau plateau binaire à copier
+     */
+    public void copier(PlateauBinaire plateau) {
+        System.arraycopy(plateau.niveaux, 0, niveaux, 0, niveaux.length);
+        System.arraycopy(plateau.hauteurs, 0, hauteurs, 0, hauteurs.length);
+        System.arraycopy(plateau.batisseurs, 0, batisseurs, 0, batisseurs.length);
+        System.arraycopy(plateau.positions, 0, positions, 0, positions.length);
+        hash = plateau.hash;
+    }
+
+    /**
+     * Convertit le plateau binaire en Plateau.
+     *
+     * @return un nouveau plateau équivalent
+     */
+    public Plateau versPlateau() {
+        Plateau plateau = new Plateau();
+        for (int c = 0; c < NB_CASES; c++) {
+            Point position = Voisinage.point(c);
+            plateau.setBatiments(position, hauteurs[c]);
+            if ((batisseurs[0] & (1 << c)) != 0) {
+                plateau.ajouterJoueur(position, JOUEUR1);
+            } else if ((batisseurs[1] & (1 << c)) != 0) {
+                plateau.ajouterJoueur(position, JOUEUR2);
+            }
+        }
+        return plateau;
+    }
+
+    /**
+     * Indice (0 ou 1) d'un joueur dans les tableaux internes.
+     *
+     * @param numJoueur JOUEUR1 ou JOUEUR2
+     * @return l'indice du joueur
+     */
+    private static int indiceJoueur(int numJoueur) {
+        return numJoueur == JOUEUR1 ? 0 : 1;
+    }
+
+    /**
+     * Masque des cases dont la hauteur est au plus "hauteur" (coupoles exclues).
+     *
+     * @param hauteur hauteur maximale
+     * @return le masque des cases
+     */
+    private int masqueHauteurMax(int hauteur) {
+        int masque = 0;
+        for (int h = VIDE; h <= Math.min(hauteur, TOIT); h++) {
+            masque |= niveaux[h];
+        }
+        return masque;
+    }
+
+    /**
+     * Masque des cases où le batisseur en "batisseur" peut se déplacer.
+     *
+     * @param batisseur indice de la case du batisseur
+     * @return masque des cases accessibles
+     * @see Plateau#getCasesAccessibles(Point)
+     */
+    public int casesAccessibles(int batisseur) {
+        return MASQUES[batisseur] & ~getOccupees() & masqueHauteurMax(hauteurs[batisseur] + 1);
+    }
+
+    /**
+     * Masque des cases où le batisseur en "batisseur" peut construire.
+     *
+     * @param batisseur indice de la case du batisseur
+     * @return masque des cases constructibles
+     * @see Plateau#getConstructionsPossible(Point)
+     */
+    public int constructionsPossibles(int batisseur) {
+        return MASQUES[batisseur] & ~getOccupees() & ~niveaux[COUPOLE];
+    }
+
+    /**
+     * Vérifie que la case "position" peut accueillir le batisseur en "batisseur".
+     *
+     * @see Plateau#deplacementPossible(Point, Point)
+     */
+    public boolean deplacementPossible(int position, int batisseur) {
+        return (casesAccessibles(batisseur) & (1 << position)) != 0;
+    }
+
+    /**
+     * Vérifie que le batisseur en "batisseur" peut construire sur la case "position".
+     *
+     * @see Plateau#peutConstruire(Point, Point)
+     */
+    public boolean peutConstruire(int position, int batisseur) {
+        return (constructionsPossibles(batisseur) & (1 << position)) != 0;
+    }
+
+    /**
+     * Écrit tous les coups (batisseur, déplacement, construction) du joueur dans "coups" à partir de l'indice "debut",
+     * encodés par {@link Coup#encoder(int, int, int)}, dans l'ordre d'exploration de l'IA : batisseurs dans l'ordre
+     * de la liste du joueur, puis cases dans l'ordre de parcours de la grille.
+     *
+     * @param numJoueur JOUEUR1 ou JOUEUR2
+     * @param coups     tableau recevant les coups, d'au moins {@link Utile.Constante#NOMBRE_COUPS_MAX} cases libres
+     * @param debut     indice du premier coup à écrire
+     * @return l'indice suivant le dernier coup écrit
+     */
+    public int genererCoups(int numJoueur, int[] coups, int debut) {
+        int nb_coups = debut;
+        int joueur = indiceJoueur(numJoueur);
+        for (int i = joueur * NOMBRE_BATISSEUR_JOUEUR; i < (joueur + 1) * NOMBRE_BATISSEUR_JOUEUR; i++) {
+            int batisseur = positions[i];
+            if (batisseur == -1) continue;
+            int deplacements = casesAccessibles(batisseur);
+            int libres = ~(getOccupees() ^ (1 << batisseur)) & ~niveaux[COUPOLE];
+            while (deplacements != 0) {
+                int deplacement = Integer.numberOfTrailingZeros(deplacements);
+                deplacements &= deplacements - 1;
+                int constructions = MASQUES[deplacement] & libres;
+                while (constructions != 0) {
+                    coups[nb_coups++] = Coup.encoder(batisseur, deplacement, Integer.numberOfTrailingZeros(constructions));
+                    constructions &= constructions - 1;
+                }
+            }
+        }
+        return nb_coups;
+    }
+
+    /**
+     * Vérifie qu'un batisseur du joueur est sur un toit.
+     *
+     * @param numJoueur JOUEUR1 ou JOUEUR2
+     * @return vrai si le joueur a gagné
+     */
+    public boolean aGagne(int numJoueur) {
+        return (batisseurs[indiceJoueur(numJoueur)] & niveaux[TOIT]) != 0;
+    }
+
+    /**
+     * Vérifie qu'aucun des deux batisseurs du joueur ne peut se déplacer.
+     *
+     * @param numJoueur JOUEUR1 ou JOUEUR2
+     * @return vrai si le joueur ne peut plus jouer
+     */
+    public boolean estBloque(int numJoueur) {
+        int masque = batisseurs[indiceJoueur(numJoueur)];
+        while (masque != 0) {
+            if (casesAccessibles(Integer.numberOfTrailingZeros(masque)) != 0) {
+                return false;
+            }
+            masque &= masque - 1;
+        }
+        return true;
+    }
+
+    /**
+     * Cases de niveau 3 sur lesquelles un batisseur du joueur peut monter, ce qui lui fait gagner la partie.
+     *
+     * @param numJoueur JOUEUR1 ou JOUEUR2
+     * @return masque des cases gagnantes
+     */
+    public int casesGagnantes(int numJoueur) {
+        int masque = batisseurs[indiceJoueur(numJoueur)] & niveaux[ETAGE];
+        int gagnantes = 0;
+        while (masque != 0) {
+            gagnantes |= casesAccessibles(Integer.numberOfTrailingZeros(masque));
+            masque &= masque - 1;
+        }
+        return gagnantes & niveaux[TOIT];
+    }
+
+    /**
+     * Pose un batisseur du joueur sur la case "position" (phase de placement).
+     *
+     * @param numJoueur JOUEUR1 ou JOUEUR2
+     * @param position  indice de la case
+     */
+    public void ajouterBatisseur(int numJoueur, int position) {
+        int joueur = indiceJoueur(numJoueur);
+        int debut = joueur * NOMBRE_BATISSEUR_JOUEUR;
+        for (int i = debut; i < debut + NOMBRE_BATISSEUR_JOUEUR; i++) {
+            if (positions[i] == -1) {
+                positions[i] = position;
+                batisseurs[joueur] |= 1 << position;
+                hash ^= Zobrist.cle(position, hauteurs[position]) ^ Zobrist.cle(position, hauteurs[position] | numJoueur);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Retire le batisseur situé sur la case "position" (annulation d'un placement).
+     *
+     * @param position indice de la case
+     */
+    public void enleverBatisseur(int position) {
+        for (int i = 0; i < positions.length; i++) {
+            if (positions[i] == position) {
+                hash ^= Zobrist.cle(position, getValeurCase(position)) ^ Zobrist.cle(position, hauteurs[position]);
+                positions[i] = -1;
+                batisseurs[i / NOMBRE_BATISSEUR_JOUEUR] &= ~(1 << position);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Déplace le batisseur de la case "depart" vers la case "arrivee", sans vérifier les règles.
+     *
+     * @param depart  indice de la case du batisseur
+     * @param arrivee indice de la case d'arrivée
+     */
+    public void deplacer(int depart, int arrivee) {
+        for (int i = 0; i < positions.length; i++) {
+            if (positions[i] == depart) {
+                int joueur = i < NOMBRE_BATISSEUR_JOUEUR ? JOUEUR1 : JOUEUR2;
+                hash ^= Zobrist.cle(depart, hauteurs[depart] | joueur) ^ Zobrist.cle(depart, hauteurs[depart]) ^
+                        Zobrist.cle(arrivee, hauteurs[arrivee]) ^ Zobrist.cle(arrivee, hauteurs[arrivee] | joueur);
+                positions[i] = arrivee;
+                batisseurs[i / NOMBRE_BATISSEUR_JOUEUR] ^= (1 << depart) | (1 << arrivee);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Ajoute un étage sur la case "position".
+     *
+     * @param position indice de la case
+     */
+    public void construire(int position) {
+        int bit = 1 << position;
+        int valeur = getValeurCase(position);
+        hash ^= Zobrist.cle(position, valeur) ^ Zobrist.cle(position, valeur + 1);
+        niveaux[hauteurs[position]] &= ~bit;
+        hauteurs[position]++;
+        niveaux[hauteurs[position]] |= bit;
+    }
+
+    /**
+     * Retire un étage sur la case "position".
+     *
+     * @param position indice de la case
+     */
+    public void deconstruire(int position) {
+        int bit = 1 << position;
+        int valeur = getValeurCase(position);
+        hash ^= Zobrist.cle(position, valeur) ^ Zobrist.cle(position, valeur - 1);
+        niveaux[hauteurs[position]] &= ~bit;
+        hauteurs[position]--;
+        niveaux[hauteurs[position]] |= bit;
+    }
+
+    // GETTER
+
+    /**
+     * @return la clé de Zobrist du plateau, mise à jour à chaque modification
+     * @see Zobrist
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    public int getHauteur(int position) {
+        return hauteurs[position];
+    }
+
+    /**
+     * @param hauteur hauteur de VIDE à COUPOLE
+     * @return masque des cases de cette hauteur exacte
+     */
+    public int getNiveau(int hauteur) {
+        return niveaux[hauteur];
+    }
+
+    public int getBatisseurs(int numJoueur) {
+        return batisseurs[indiceJoueur(numJoueur)];
+    }
+
+    public int getOccupees() {
+        return batisseurs[0] | batisseurs[1];
+    }
+
+    /**
+     * @param numJoueur JOUEUR1 ou JOUEUR2
+     * @param i         0 ou 1, l'ordre du batisseur dans la liste du joueur
+     * @return indice de la case du batisseur, -1 s'il n'est pas placé
+     */
+    public int getPosition(int numJoueur, int i) {
+        return positions[indiceJoueur(numJoueur) * NOMBRE_BATISSEUR_JOUEUR + i];
+    }
+
+    // OVERRIDE MÉTHODES HÉRITÉES
+
+    @Override
+    public String toString() {
+        return versPlateau().toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof PlateauBinaire)) return false;
+
+        PlateauBinaire pl = (PlateauBinaire) o;
+        return Arrays.equals(hauteurs, pl.hauteurs) &&
+                Arrays.equals(positions, pl.positions);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Arrays.hashCode(hauteurs) + Arrays.hashCode(positions);
+    }
+}
@@ -0,0 +1,157 @@
+package Modele;
+
+import IA.Coup;
+
+import java.util.Arrays;
+
+import static Modele.Voisinage.NB_CASES;
+import static Utile.Constante.*;
+
+/**
+ * Les 8 symétries de la grille carrée (rotations et réflexions), sous forme de permutations des indices de case.
+ * La symétrie s retourne les lignes si son bit 0 est à 1, les colonnes si son bit 1 est à 1, puis échange lignes et
+ * colonnes si son bit 2 est à 1 ; la symétrie 0 est l'identité.
+ *
+ * @see Voisinage
+ */
+public class Symetries {
+    private Symetries() { /* Non utilisé car utilisation des attributs statiques */ }
+
+    public static final int NB_SYMETRIES = 8;
+
+    /**
+     * Image de chaque case par chaque symétrie.
+     */
+    public static final int[][] PERMUTATIONS = new int[NB_SYMETRIES][NB_CASES];
+
+    /**
+     * Antécédent de chaque case par chaque symétrie.
+     */
+    public static final int[][] INVERSES = new int[NB_SYMETRIES][NB_CASES];
+
+    private static final int NB_VALEURS = JOUEUR2 + COUPOLE + 1;
+
+    /**
+     * Clé de Zobrist de l'image de chaque case par chaque symétrie, pour chaque valeur de case : la clé de l'image
+     * d'un plateau se calcule sans permuter ses cases.
+     */
+    private static final long[][] CLES = new long[NB_SYMETRIES][NB_CASES * NB_VALEURS];
+
+    static {
+        for (int s = 0; s < NB_SYMETRIES; s++) {
+            for (int x = 0; x < PLATEAU_LIGNES; x++) {
+                for (int y = 0; y < PLATEAU_COLONNES; y++) {
+                    int i = (s & 1) != 0 ? PLATEAU_LIGNES - 1 - x : x;
+                    int j = (s & 2) != 0 ? PLATEAU_COLONNES - 1 - y : y;
+                    PERMUTATIONS[s][Voisinage.index(x, y)] = (s & 4) != 0 ? Voisinage.index(j, i) : Voisinage.index(i, j);
+                }
+            }
+            for (int c = 0; c < NB_CASES; c++) {
+                INVERSES[s][PERMUTATIONS[s][c]] = c;
+                for (int valeur = 0; valeur < NB_VALEURS; valeur++) {
+                    CLES[s][c * NB_VALEURS + valeur] = Zobrist.cle(PERMUTATIONS[s][c], valeur);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param s    symétrie de 0 à 7
+     * @param c    indice de case
+     * @return l'indice de l'image de la case par la symétrie
+     */
+    public static int appliquer(int s, int c) {
+        return PERMUTATIONS[s][c];
+    }
+
+    /**
+     * Clé de Zobrist de l'image du plateau par une symétrie, sans le joueur qui doit jouer.
+     *
+     * @see PlateauBinaire#getHash()
+     */
+    public static long hash(PlateauBinaire plateau, int s) {
+        long[] cles = CLES[s];
+        long cle = 0;
+        for (int c = 0; c < NB_CASES; c++) {
+            cle ^= cles[c * NB_VALEURS + plateau.getValeurCase(c)];
+        }
+        return cle;
+    }
+
+    /**
+     * Calcule en un passage les clés de Zobrist des images du plateau par les 8 symétries.
+     *
+     * @param hashs tableau de NB_SYMETRIES clés, rempli
+     */
+    public static void hashs(PlateauBinaire plateau, long[] hashs) {
+        Arrays.fill(hashs, 0);
+        for (int c = 0; c < NB_CASES; c++) {
+            int valeur = plateau.getValeurCase(c);
+            if (valeur == VIDE) continue;
+            for (int s = 0; s < NB_SYMETRIES; s++) {
+                hashs[s] ^= CLES[s][c * NB_VALEURS + valeur];
+            }
+        }
+    }
+
+    /**
+     * @param hashs clés des images d'un plateau par les 8 symétries
+     * @return la première symétrie de plus petite clé
+     */
+    public static int canonique(long[] hashs) {
+        int meilleure = 0;
+        for (int s = 1; s < NB_SYMETRIES; s++) {
+            if (hashs[s] < hashs[meilleure]) meilleure = s;
+        }
+        return meilleure;
+    }
+
+    /**
+     * Symétrie qui amène le plateau sur sa forme canonique : celle dont l'image a la plus petite clé de Zobrist,
+     * batisseurs de chaque joueur compris. Deux plateaux symétriques l'un de l'autre ont la même forme canonique.
+     *
+     * @return la première symétrie de plus petite clé
+     */
+    public static int canonique(PlateauBinaire plateau) {
+        long[] cles = new long[NB_SYMETRIES];
+        hashs(plateau, cles);
+        return canonique(cles);
+    }
+
+    /**
+     * @return l'image du plateau par la symétrie, les batisseurs de chaque joueur gardant leur ordre
+     */
+    public static PlateauBinaire appliquer(int s, PlateauBinaire plateau) {
+        PlateauBinaire image = new PlateauBinaire();
+        for (int c = 0; c < NB_CASES; c++) {
+            for (int h = 0; h < plateau.getHauteur(c); h++) {
+                image.construire(PERMUTATIONS[s][c]);
+            }
+        }
+        for (int joueur : new int[]{JOUEUR1, JOUEUR2}) {
+            for (int i = 0; i < NOMBRE_BATISSEUR_JOUEUR; i++) {
+                int position = plateau.getPosition(joueur, i);
+                if (position != -1) image.ajouterBatisseur(joueur, PERMUTATIONS[s][position]);
+            }
+        }
+        return image;
+    }
+
+    /**
+     * @param coup coup encodé (batisseur, déplacement, construction)
+     * @return l'image du coup par la symétrie
+     */
+    public static int appliquerCoup(int s, int coup) {
+        int[] p = PERMUTATIONS[s];
+        return Coup.encoder(p[Coup.getBatisseur(coup)], p[Coup.getDeplacement(coup)], p[Coup.getConstruction(coup)]);
+    }
+
+    /**
+     * @param coup image d'un coup par la symétrie
+     * @return le coup d'origine
+     */
+    public static int inverserCoup(int s, int coup) {
+        int[] p = INVERSES[s];
+        return Coup.encoder(p[Coup.getBatisseur(coup)], p[Coup.getDeplacement(coup)], p[Coup.getConstruction(coup)]);
+    }
+}
@@ -0,0 +1,96 @@
+package Modele;
+
+import java.awt.*;
+
+import static Utile.Constante.*;
+
+/**
+ * Tables précalculées de la grille 5x5 : conversion entre positions (x, y) et indices de case (0 à 24),
+ * et voisinage de chaque case sous forme de masque binaire et de liste d'indices.
+ * L'indice d'une case est {@code x * PLATEAU_COLONNES + y}, ce qui correspond à l'ordre de parcours
+ * ligne par ligne utilisé dans {@link Plateau}.
+ *
+ * @see PlateauBinaire
+ */
+public class Voisinage {
+    private Voisinage() { /* Non utilisé car utilisation des attributs statiques */ }
+
+    /**
+     * Nombre de cases de la grille.
+     */
+    public static final int NB_CASES = PLATEAU_LIGNES * PLATEAU_COLONNES;
+
+    /**
+     * Masque de toutes les cases de la grille.
+     */
+    public static final int MASQUE_GRILLE = (1 << NB_CASES) - 1;
+
+    /**
+     * Masque des (au plus 8) cases voisines de chaque case, la case elle-même exclue.
+     */
+    public static final int[] MASQUES = new int[NB_CASES];
+
+    /**
+     * Indices des cases voisines de chaque case, dans l'ordre de parcours de la grille.
+     */
+    public static final int[][] LISTES = new int[NB_CASES][];
+
+    static {
+        for (int x = 0; x < PLATEAU_LIGNES; x++) {
+            for (int y = 0; y < PLATEAU_COLONNES; y++) {
+                int masque = 0;
+                for (int i = Math.max(0, x - 1); i <= Math.min(PLATEAU_LIGNES - 1, x + 1); i++) {
+                    for (int j = Math.max(0, y - 1); j <= Math.min(PLATEAU_COLONNES - 1, y + 1); j++) {
+                        if (i != x || j != y) {
+                            masque |= 1 << index(i, j);
+                        }
+                    }
+                }
+                MASQUES[index(x, y)] = masque;
+            }
+        }
+        for (int c = 0; c < NB_CASES; c++) {
+            LISTES[c] = new int[Integer.bitCount(MASQUES[c])];
+            int masque = MASQUES[c];
+            for (int i = 0; masque != 0; i++) {
+                LISTES[c][i] = Integer.numberOfTrailingZeros(masque);
+                masque &= masque - 1;
+            }
+        }
+    }
+
+    /**
+     * Indice de la case (x, y).
+     *
+     * @param x ligne de la case
+     * @param y colonne de la case
+     * @return indice de la case entre 0 et 24
+     */
+    public static int index(int x, int y) {
+        return x * PLATEAU_COLONNES + y;
+    }
+
+    /**
+     * Indice de la case à la position donnée.
+     *
+     * @param position la position sur la grille
+     * @return indice de la case entre 0 et 24
+     * @throws ArrayIndexOutOfBoundsException si la position est hors de la grille
+     */
+    public static int index(Point position) {
+        if (position.x < 0 || position.x >= PLATEAU_LIGNES || position.y < 0 || position.y >= PLATEAU_COLONNES) {
+            throw new ArrayIndexOutOfBoundsException("Case hors de la grille : " + position.x + " " + position.y);
+        }
+        return index(position.x, position.y);
+    }
+
+    /**
+     * Construit la position (x, y) d'un indice de case.
+     *
+     * @param index indice de la case
+     * @return une nouvelle position
+     */
+    public static Point point(int index) {
+        return new Point(index / PLATEAU_COLONNES, index % PLATEAU_COLONNES);
+    }
+}
@@ -0,0 +1,54 @@
+package Modele;
+
+import java.util.Random;
+
+import static Modele.Voisinage.NB_CASES;
+import static Utile.Constante.*;
+
+/**
+ * Clés de hachage de Zobrist des positions : une valeur aléatoire de 64 bits par case et par valeur de case
+ * (hauteur du bâtiment combinée au numéro du joueur présent). La clé d'une position est le ou exclusif des valeurs
+ * de ses cases, ce qui permet de la mettre à jour en deux opérations à chaque modification d'une case.
+ * Les valeurs sont tirées avec une graine fixe pour que les clés restent les mêmes d'une exécution à l'autre.
+ *
+ * @see Plateau#getHash()
+ * @see PlateauBinaire#getHash()
+ */
+public class Zobrist {
+    private Zobrist() { /* Non utilisé car utilisation des attributs statiques */ }
+
+    private static final long[][] CLES = new long[NB_CASES][JOUEUR2 + COUPOLE + 1];
+
+    /**
+     * Valeur à combiner à la clé d'une position lorsque c'est au joueur 2 de jouer.
+     */
+    public static final long TRAIT_JOUEUR2;
+
+    static {
+        Random random = new Random(0x53414E544F52494EL);
+        for (int c = 0; c < NB_CASES; c++) {
+            // Une case vide sans batisseur ne modifie pas la clé : un plateau vide a la clé 0.
+            for (int valeur = 1; valeur < CLES[c].length; valeur++) {
+                CLES[c][valeur] = random.nextLong();
+            }
+        }
+        TRAIT_JOUEUR2 = random.nextLong();
+    }
+
+    /**
+     * @param position indice de la case
+     * @param valeur   valeur de la case (hauteur | numéro du joueur présent)
+     * @return la clé de la case pour cette valeur
+     */
+    public static long cle(int position, int valeur) {
+        return CLES[position][valeur];
+    }
+
+    /**
+     * @param numJoueur joueur qui doit jouer
+     * @return la valeur à combiner à la clé d'une position pour ce joueur
+     */
+    public static long trait(int numJoueur) {
+        return numJoueur == JOUEUR2 ? TRAIT_JOUEUR2 : 0;
+    }
+}
@@ -0,0 +1,313 @@
+package Outils;
+
+import IA.Coup;
+import IA.EvaluationIncrementale;
+import IA.IADifficile;
+import IA.Poids;
+import Modele.MoteurJeu;
+import Modele.PlateauBinaire;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static Modele.Voisinage.NB_CASES;
+import static Utile.Constante.*;
+
+/**
+ * Accorde les poids de l'heuristique de l'IA difficile par régression sur des parties jouées contre elle-même
+ * (méthode de Texel), puis écrit le fichier de poids lu au démarrage.
+ * <p>
+ * Les parties sont jouées sur tous les cœurs par {@link IADifficile} à profondeur fixe, avec un placement et une part
+ * de coups aléatoires pour varier les positions. Chaque position calme (aucun joueur ne peut monter sur un toit)
+ * est étiquetée par le résultat de sa partie. L'heuristique étant linéaire en ses poids, chaque position est
+ * réduite aux valeurs de ses quatre termes ; l'erreur à minimiser est l'écart quadratique moyen entre le résultat
+ * et sigmoïde(K * score), K étant d'abord ajusté aux poids de départ. Les poids sont ensuite modifiés un à un par
+ * pas décroissants tant que l'erreur baisse. Enfin, un match entre les nouveaux poids et ceux de départ mesure
+ * le gain.
+ * <p>
+ * Usage : {@code java Outils.AccordeurPoids [parties] [profondeur] [graine] [fils] [fichier] [depart]}
+ * <p>
+ * La profondeur vaut 3 par défaut, celle des poids livrés. Les poids de départ sont ceux choisis à la main
+ * ({@link Poids#DEFAUT}) ou ceux du fichier "depart" : partir du fichier écrit par un accordage précédent
+ * le ferait dériver d'une exécution à l'autre.
+ *
+ * @see Poids
+ */
+public class AccordeurPoids {
+    /**
+     * Probabilité de jouer un coup aléatoire plutôt que celui de la recherche, pendant les premiers tours.
+     */
+    private static final double PART_ALEATOIRE = 0.15;
+    private static final int TOURS_ALEATOIRES = 12;
+    private static final int PAS_INITIAL = 8;
+
+    private final int profondeur;
+    private final long graine;
+    private final ForkJoinPool pool;
+    private final ThreadLocal<IADifficile> ia_fil;
+    /**
+     * Seconde IA de chaque fil, adversaire de la première dans les matchs.
+     */
+    private final ThreadLocal<IADifficile> adversaire_fil;
+
+    /**
+     * Valeurs des termes de l'heuristique, du point de vue du joueur 1, et résultat (1 victoire du joueur 1, 0 sinon)
+     * de chaque position.
+     */
+    private int[][] termes;
+    private double[] resultats;
+
+    public AccordeurPoids(int profondeur, long graine, int nbFils) {
+        this.profondeur = profondeur;
+        this.graine = graine;
+        pool = new ForkJoinPool(nbFils);
+        ia_fil = ThreadLocal.withInitial(this::nouvelleIA);
+        adversaire_fil = ThreadLocal.withInitial(this::nouvelleIA);
+    }
+
+    /**
+     * @return une IA à profondeur fixe, sans livre d'ouvertures ni résolution des fins de partie : seule
+     * l'heuristique départage les coups
+     */
+    private IADifficile nouvelleIA() {
+        IADifficile ia = new IADifficile(new MoteurJeu(), Long.MAX_VALUE, profondeur);
+        ia.setLivre(null);
+        ia.setSeuilFinale(0);
+        return ia;
+    }
+
+    /**
+     * Joue les parties et étiquette leurs positions calmes.
+     */
+    public void genererPositions(int nbParties) throws InterruptedException {
+        List<List<PlateauBinaire>> positions = new ArrayList<>();
+        int[] gagnants = new int[nbParties];
+        for (int i = 0; i < nbParties; i++) positions.add(new ArrayList<>());
+        executer(() -> IntStream.range(0, nbParties).parallel().forEach(i -> gagnants[i] = jouerPartie(i, positions.get(i))));
+
+        List<int[]> liste_termes = new ArrayList<>();
+        List<Double> liste_resultats = new ArrayList<>();
+        EvaluationIncrementale[] unitaires = new EvaluationIncrementale[Poids.NB_POIDS];
+        for (int p = 0; p < Poids.NB_POIDS; p++) {
+            unitaires[p] = new Poids(0, 0, 0, 0).avec(p, 1).nouvelleEvaluation(1);
+        }
+        for (int i = 0; i < nbParties; i++) {
+            if (gagnants[i] == 0) continue;
+            for (PlateauBinaire plateau : positions.get(i)) {
+                int[] t = new int[Poids.NB_POIDS];
+                for (int p = 0; p < Poids.NB_POIDS; p++) {
+                    unitaires[p].initialiser(plateau);
+                    t[p] = unitaires[p].getScore(JOUEUR1);
+                }
+                liste_termes.add(t);
+                liste_resultats.add(gagnants[i] == JOUEUR1 ? 1.0 : 0.0);
+            }
+        }
+        termes = liste_termes.toArray(new int[0][]);
+        resultats = liste_resultats.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    /**
+     * Joue une partie de l'IA contre elle-même.
+     *
+     * @param positions reçoit les positions calmes de la partie
+     * @return le gagnant, 0 si la partie n'a pas pu être finie
+     */
+    private int jouerPartie(int index, List<PlateauBinaire> positions) {
+        SplittableRandom random = new SplittableRandom(graine + index);
+        IADifficile ia = ia_fil.get();
+
+        PlateauBinaire plateau = new PlateauBinaire();
+        for (int i = 0; i < 4; i++) {
+            int c;
+            do c = random.nextInt(NB_CASES); while ((plateau.getOccupees() & (1 << c)) != 0);
+            plateau.ajouterBatisseur(i < 2 ? JOUEUR1 : JOUEUR2, c);
+        }
+        int joueur = index % 2 == 0 ? JOUEUR1 : JOUEUR2;
+        int[] coups = new int[NOMBRE_COUPS_MAX];
+        for (int tour = 0; tour < NB_CASES * 4 + 2; tour++) {
+            int autre = MoteurJeu.getAutreJoueur(joueur);
+            int nb_coups = plateau.genererCoups(joueur, coups, 0);
+            if (nb_coups == 0) return autre;
+            if (plateau.casesGagnantes(joueur) == 0 && plateau.casesGagnantes(autre) == 0) {
+                positions.add(new PlateauBinaire(plateau));
+            }
+            int coup;
+            if (tour < TOURS_ALEATOIRES && random.nextDouble() < PART_ALEATOIRE) {
+                coup = coups[random.nextInt(nb_coups)];
+            } else {
+                Coup choisi = ia.chercherCoup(plateau, joueur);
+                // Sans recherche quand l'adversaire est déjà bloqué : n'importe quel coup convient.
+                coup = choisi == null ? coups[0] : choisi.encoder();
+            }
+            plateau.deplacer(Coup.getBatisseur(coup), Coup.getDeplacement(coup));
+            if (plateau.getHauteur(Coup.getDeplacement(coup)) == TOIT) return joueur;
+            plateau.construire(Coup.getConstruction(coup));
+            joueur = autre;
+        }
+        return 0;
+    }
+
+    /**
+     * @return l'écart quadratique moyen entre les résultats et les prédictions des poids
+     */
+    public double erreur(Poids poids, double k) throws InterruptedException {
+        double[] somme = new double[1];
+        executer(() -> somme[0] = IntStream.range(0, termes.length).parallel().mapToDouble(i -> {
+            long score = 0;
+            for (int p = 0; p < Poids.NB_POIDS; p++) score += (long) poids.get(p) * termes[i][p];
+            double ecart = resultats[i] - 1 / (1 + Math.exp(-k * score));
+            return ecart * ecart;
+        }).sum());
+        return somme[0] / Math.max(1, termes.length);
+    }
+
+    /**
+     * @return la constante K qui minimise l'erreur des poids, cherchée par dichotomie sur son logarithme
+     */
+    public double ajusterK(Poids poids) throws InterruptedException {
+        double bas = Math.log(1e-6);
+        double haut = Math.log(1e-1);
+        for (int i = 0; i < 40; i++) {
+            double m1 = bas + (haut - bas) / 3;
+            double m2 = haut - (haut - bas) / 3;
+            if (erreur(poids, Math.exp(m1)) < erreur(poids, Math.exp(m2))) {
+                haut = m2;
+            } else {
+                bas = m1;
+            }
+        }
+        return Math.exp((bas + haut) / 2);
+    }
+
+    /**
+     * Recherche locale : chaque poids est augmenté ou diminué du pas tant que l'erreur baisse, le pas étant divisé
+     * par deux quand plus aucun poids ne bouge. Les poids restent positifs.
+     */
+    public Poids accorder(Poids depart, double k) throws InterruptedException {
+        Poids meilleurs = depart;
+        double meilleure_erreur = erreur(meilleurs, k);
+        for (int pas = PAS_INITIAL; pas >= 1; pas /= 2) {
+            boolean ameliore = true;
+            while (ameliore) {
+                ameliore = false;
+                for (int p = 0; p < Poids.NB_POIDS; p++) {
+                    for (int sens : new int[]{pas, -pas}) {
+                        int valeur = meilleurs.get(p) + sens;
+                        if (valeur < 0) continue;
+                        Poids essai = meilleurs.avec(p, valeur);
+                        double e = erreur(essai, k);
+                        if (e < meilleure_erreur) {
+                            meilleurs = essai;
+                            meilleure_erreur = e;
+                            ameliore = true;
+                            break;
+                        }
+                    }
+                }
+            }
+            System.out.printf("  pas %d : %s, erreur %.5f%n", pas, meilleurs, meilleure_erreur);
+        }
+        return meilleurs;
+    }
+
+    /**
+     * Match entre deux jeux de poids, chacun commençant la moitié des parties.
+     *
+     * @return le nombre de victoires des poids "a"
+     */
+    public int comparer(Poids a, Poids b, int nbParties) throws InterruptedException {
+        int[] victoires = new int[nbParties];
+        executer(() -> IntStream.range(0, nbParties).parallel().forEach(i -> victoires[i] = jouerMatch(a, b, i) ? 1 : 0));
+        return IntStream.of(victoires).sum();
+    }
+
+    private boolean jouerMatch(Poids a, Poids b, int index) {
+        SplittableRandom random = new SplittableRandom((graine ^ 0x5A5A5A5AL) + index / 2);
+        IADifficile ia_a = ia_fil.get();
+        IADifficile ia_b = adversaire_fil.get();
+        // Changer les poids vide la table de transposition : les IA du fil ne les changent qu'au premier match.
+        if (!a.equals(ia_a.getPoids())) ia_a.setPoids(a);
+        if (!b.equals(ia_b.getPoids())) ia_b.setPoids(b);
+        // Les deux parties d'une paire partent du même placement, les couleurs étant échangées.
+        int joueur_a = index % 2 == 0 ? JOUEUR1 : JOUEUR2;
+        PlateauBinaire plateau = new PlateauBinaire();
+        for (int i = 0; i < 4; i++) {
+            int c;
+            do c = random.nextInt(NB_CASES); while ((plateau.getOccupees() & (1 << c)) != 0);
+            plateau.ajouterBatisseur(i < 2 ? JOUEUR1 : JOUEUR2, c);
+        }
+        int joueur = JOUEUR1;
+        int[] coups = new int[NOMBRE_COUPS_MAX];
+        for (int tour = 0; tour < NB_CASES * 4 + 2; tour++) {
+            int nb_coups = plateau.genererCoups(joueur, coups, 0);
+            if (nb_coups == 0) return joueur != joueur_a;
+            IADifficile ia = joueur == joueur_a ? ia_a : ia_b;
+            Coup coup = ia.chercherCoup(plateau, joueur);
+            int c = coup == null ? coups[0] : coup.encoder();
+            plateau.deplacer(Coup.getBatisseur(c), Coup.getDeplacement(c));
+            if (plateau.getHauteur(Coup.getDeplacement(c)) == TOIT) return joueur == joueur_a;
+            plateau.construire(Coup.getConstruction(c));
+            joueur = MoteurJeu.getAutreJoueur(joueur);
+        }
+        return false;
+    }
+
+    private void executer(Runnable tache) throws InterruptedException {
+        try {
+            pool.submit(tache).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public int getNbPositions() {
+        return termes.length;
+    }
+
+    public void fermer() {
+        pool.shutdown();
+    }
+
+    public static void main(String[] args) throws InterruptedException, IOException {
+        System.setProperty("java.awt.headless", "true");
+        int nb_parties = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int profondeur = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        long graine = args.length > 2 ? Long.parseLong(args[2]) : 0;
+        int nb_fils = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        File fichier = new File(args.length > 4 ? args[4] : FICHIER_POIDS);
+        Poids depart = args.length > 5 ? Poids.lire(new File(args[5])) : Poids.DEFAUT;
+
+        AccordeurPoids accordeur = new AccordeurPoids(profondeur, graine, nb_fils);
+        try {
+            long debut = System.nanoTime();
+            accordeur.genererPositions(nb_parties);
+            System.out.printf("%d positions tirées de %d parties à la profondeur %d en %.1f s%n",
+                    accordeur.getNbPositions(), nb_parties, profondeur, (System.nanoTime() - debut) / 1e9);
+
+            double k = accordeur.ajusterK(depart);
+            System.out.printf("K = %.3g, erreur de départ %.5f (%s)%n", k, accordeur.erreur(depart, k), depart);
+            Poids accordes = accordeur.accorder(depart, k);
+
+            int nb_matchs = nb_parties / 4 * 2;
+            int victoires = accordeur.comparer(accordes, depart, nb_matchs);
+            double[] intervalle = Tournoi.intervalleWilson(victoires, nb_matchs);
+            System.out.printf("Match : %d victoires sur %d pour les nouveaux poids, %.1f%% IC95 [%.1f%%, %.1f%%]%n",
+                    victoires, nb_matchs, 100.0 * victoires / Math.max(1, nb_matchs), 100 * intervalle[0], 100 * intervalle[1]);
+
+            File dossier = fichier.getAbsoluteFile().getParentFile();
+            if (!dossier.exists() && !dossier.mkdirs()) throw new IOException("Impossible de créer " + dossier);
+            accordes.ecrire(fichier, String.format("Poids accordés par Outils.AccordeurPoids sur %d positions (%d parties, profondeur %d, graine %d)\n" +
+                    "Match contre les poids de départ (%s) : %d victoires sur %d", accordeur.getNbPositions(), nb_parties, profondeur, graine, depart, victoires, nb_matchs));
+            System.out.println("Poids écrits dans " + fichier);
+        } finally {
+            accordeur.fermer();
+        }
+    }
+}
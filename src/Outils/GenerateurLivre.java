@@ -0,0 +1,170 @@
+package Outils;
+
+import IA.Coup;
+import IA.IADifficile;
+import IA.LivreOuvertures;
+import IA.Placement;
+import Modele.MoteurJeu;
+import Modele.PlateauBinaire;
+import Modele.Symetries;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+import static Modele.Voisinage.NB_CASES;
+import static Utile.Constante.*;
+
+/**
+ * Calcule le livre d'ouvertures de l'IA difficile et l'écrit dans le fichier lu au démarrage.
+ * <p>
+ * Les positions de départ sont les meilleurs placements de la table de placement : les paires du premier joueur qui
+ * lui garantissent la meilleure note, et pour chacune les meilleures réponses du second. Depuis chaque position, les
+ * premiers tours sont déroulés en suivant le coup de la recherche profonde et les meilleurs coups selon une recherche
+ * courte. Chaque position est cherchée une seule fois à profondeur fixe (les positions symétriques étant confondues)
+ * et stockée aussi avec les couleurs des joueurs échangées, pour servir quel que soit le joueur qui commence.
+ * <p>
+ * Usage : {@code java Outils.GenerateurLivre [profondeur] [demi-coups] [largeur] [placements] [fichier]}
+ *
+ * @see LivreOuvertures
+ */
+public class GenerateurLivre {
+    private static final int PROFONDEUR_TRI = 2;
+
+    public static void main(String[] args) throws IOException {
+        int profondeur = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        int demi_coups = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+        int largeur = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        int placements = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+        File fichier = new File(args.length > 4 ? args[4] : FICHIER_LIVRE);
+
+        long debut = System.nanoTime();
+        IADifficile profonde = new IADifficile(new MoteurJeu(), Long.MAX_VALUE, profondeur);
+        IADifficile courte = new IADifficile(new MoteurJeu(), Long.MAX_VALUE, PROFONDEUR_TRI);
+        profonde.setLivre(null);
+        courte.setLivre(null);
+
+        List<LivreOuvertures.Entree> entrees = new ArrayList<>();
+        Set<Long> vues = new HashSet<>();
+        Deque<PlateauBinaire> positions = new ArrayDeque<>(placementsDeDepart(Placement.getTable(), placements));
+        Deque<Integer> joueurs = new ArrayDeque<>();
+        Deque<Integer> tours = new ArrayDeque<>();
+        for (int i = 0; i < positions.size(); i++) {
+            joueurs.add(JOUEUR1);
+            tours.add(0);
+        }
+        int[] coups = new int[NOMBRE_COUPS_MAX];
+        while (!positions.isEmpty()) {
+            PlateauBinaire plateau = positions.poll();
+            int joueur = joueurs.poll();
+            int tour = tours.poll();
+
+            if (!vues.add(LivreOuvertures.cle(plateau, joueur))) continue;
+            Coup meilleur = profonde.chercherCoup(plateau, joueur);
+            if (meilleur == null) continue;
+            entrees.add(new LivreOuvertures.Entree(plateau, joueur, meilleur.encoder(), profonde.getValeur(), profondeur));
+            entrees.add(new LivreOuvertures.Entree(echangerJoueurs(plateau), MoteurJeu.getAutreJoueur(joueur), meilleur.encoder(), profonde.getValeur(), profondeur));
+            if (tour + 1 >= demi_coups || Math.abs(profonde.getValeur()) >= Short.MAX_VALUE) continue;
+
+            // Suites : le coup de la recherche profonde puis les meilleurs coups de la recherche courte.
+            int nb_coups = plateau.genererCoups(joueur, coups, 0);
+            int[] notes = new int[nb_coups];
+            Integer[] ordre = new Integer[nb_coups];
+            for (int k = 0; k < nb_coups; k++) {
+                ordre[k] = k;
+                if (coups[k] == meilleur.encoder()) {
+                    notes[k] = Integer.MAX_VALUE;
+                    continue;
+                }
+                PlateauBinaire suite = jouer(plateau, coups[k]);
+                courte.chercherCoup(suite, MoteurJeu.getAutreJoueur(joueur));
+                notes[k] = -courte.getValeur();
+            }
+            Arrays.sort(ordre, (i, j) -> Integer.compare(notes[j], notes[i]));
+            for (int k = 0; k < Math.min(largeur, nb_coups); k++) {
+                positions.add(jouer(plateau, coups[ordre[k]]));
+                joueurs.add(MoteurJeu.getAutreJoueur(joueur));
+                tours.add(tour + 1);
+            }
+        }
+
+        File dossier = fichier.getAbsoluteFile().getParentFile();
+        if (!dossier.exists() && !dossier.mkdirs()) throw new IOException("Impossible de créer " + dossier);
+        LivreOuvertures.ecrire(fichier, profonde.getPoids(), entrees);
+        System.out.printf("%d positions cherchées à la profondeur %d en %.1f s, écrites dans %s%n",
+                entrees.size() / 2, profondeur, (System.nanoTime() - debut) / 1e9, fichier);
+    }
+
+    /**
+     * @return les placements complets formés des meilleures paires du premier joueur et des meilleures réponses du
+     * second, le premier joueur étant JOUEUR1
+     */
+    private static List<PlateauBinaire> placementsDeDepart(Placement table, int nombre) {
+        List<int[]> paires = new ArrayList<>();
+        Set<Integer> classes = new HashSet<>();
+        for (int a = 0; a < NB_CASES; a++) {
+            for (int b = a + 1; b < NB_CASES; b++) {
+                // Une seule paire par classe de symétrie.
+                if (classes.add(classePaire(a, b))) paires.add(new int[]{a, b});
+            }
+        }
+        paires.sort((p, q) -> Integer.compare(table.getGarantie(q[0], q[1]), table.getGarantie(p[0], p[1])));
+
+        List<PlateauBinaire> placements = new ArrayList<>();
+        for (int[] paire : paires.subList(0, Math.min(nombre, paires.size()))) {
+            List<int[]> reponses = new ArrayList<>();
+            Set<Integer> vues = new HashSet<>();
+            for (int c = 0; c < NB_CASES; c++) {
+                for (int d = c + 1; d < NB_CASES; d++) {
+                    if (c == paire[0] || c == paire[1] || d == paire[0] || d == paire[1]) continue;
+                    if (vues.add(Placement.canonique(paire[0], paire[1], c, d))) reponses.add(new int[]{c, d});
+                }
+            }
+            reponses.sort(Comparator.comparingInt(r -> table.getNote(paire[0], paire[1], r[0], r[1])));
+            for (int[] reponse : reponses.subList(0, Math.min(nombre, reponses.size()))) {
+                PlateauBinaire plateau = new PlateauBinaire();
+                plateau.ajouterBatisseur(JOUEUR1, paire[0]);
+                plateau.ajouterBatisseur(JOUEUR1, paire[1]);
+                plateau.ajouterBatisseur(JOUEUR2, reponse[0]);
+                plateau.ajouterBatisseur(JOUEUR2, reponse[1]);
+                placements.add(plateau);
+            }
+        }
+        return placements;
+    }
+
+    /**
+     * @return un identifiant commun aux paires de cases symétriques l'une de l'autre
+     */
+    private static int classePaire(int a, int b) {
+        int minimum = Integer.MAX_VALUE;
+        for (int[] s : Symetries.PERMUTATIONS) {
+            minimum = Math.min(minimum, Math.min(s[a], s[b]) * NB_CASES + Math.max(s[a], s[b]));
+        }
+        return minimum;
+    }
+
+    private static PlateauBinaire jouer(PlateauBinaire plateau, int coup) {
+        PlateauBinaire suite = new PlateauBinaire(plateau);
+        suite.deplacer(Coup.getBatisseur(coup), Coup.getDeplacement(coup));
+        if (suite.getHauteur(Coup.getDeplacement(coup)) != TOIT) suite.construire(Coup.getConstruction(coup));
+        return suite;
+    }
+
+    /**
+     * @return la même position, les batisseurs de JOUEUR1 passant à JOUEUR2 et inversement
+     */
+    private static PlateauBinaire echangerJoueurs(PlateauBinaire plateau) {
+        PlateauBinaire echange = new PlateauBinaire();
+        for (int c = 0; c < NB_CASES; c++) {
+            for (int h = 0; h < plateau.getHauteur(c); h++) {
+                echange.construire(c);
+            }
+        }
+        for (int i = 0; i < NOMBRE_BATISSEUR_JOUEUR; i++) {
+            echange.ajouterBatisseur(JOUEUR1, plateau.getPosition(JOUEUR2, i));
+            echange.ajouterBatisseur(JOUEUR2, plateau.getPosition(JOUEUR1, i));
+        }
+        return echange;
+    }
+}
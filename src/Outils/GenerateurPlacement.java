@@ -0,0 +1,30 @@
+package Outils;
+
+import IA.Placement;
+
+import java.io.File;
+import java.io.IOException;
+
+import static Utile.Constante.FICHIER_PLACEMENT;
+
+/**
+ * Calcule la table des placements de départ de l'IA difficile et l'écrit dans le fichier lu au démarrage.
+ * <p>
+ * Usage : {@code java Outils.GenerateurPlacement [profondeur] [fichier]}
+ *
+ * @see Placement
+ */
+public class GenerateurPlacement {
+    public static void main(String[] args) throws IOException {
+        int profondeur = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        File fichier = new File(args.length > 1 ? args[1] : FICHIER_PLACEMENT);
+
+        long debut = System.nanoTime();
+        Placement placement = Placement.calculer(profondeur);
+        File dossier = fichier.getAbsoluteFile().getParentFile();
+        if (!dossier.exists() && !dossier.mkdirs()) throw new IOException("Impossible de créer " + dossier);
+        placement.ecrire(fichier);
+        System.out.printf("%d placements notés à la profondeur %d en %.1f s, écrits dans %s%n",
+                placement.getNbPlacements(), profondeur, (System.nanoTime() - debut) / 1e9, fichier);
+    }
+}
@@ -0,0 +1,334 @@
+package Outils;
+
+import IA.Coup;
+import Modele.MoteurJeu;
+import Modele.Plateau;
+import Modele.PlateauBinaire;
+import Modele.Voisinage;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static Modele.Voisinage.*;
+import static Utile.Constante.*;
+
+/**
+ * Compte les suites d'actions légales à partir d'une position, pour vérifier la génération des coups et mesurer sa
+ * vitesse.
+ * <p>
+ * Une action est soit la pose d'un batisseur pendant le placement, soit un tour complet (batisseur, déplacement,
+ * construction). Un déplacement sur un toit gagne la partie : il compte pour une seule action, sans construction,
+ * et rien n'est joué après. Un joueur bloqué n'a aucune action.
+ * <p>
+ * Une position s'écrit {@code hauteurs batisseurs_j1 batisseurs_j2 trait} : les 25 hauteurs (0 à 4) ligne par
+ * ligne, les indices de case des batisseurs de chaque joueur séparés par des virgules ({@code -} si aucun), puis
+ * {@code 1} ou {@code 2} pour le joueur qui doit jouer.
+ * <p>
+ * Usage : {@code java Outils.Perft profondeur ["position"] [-verifier] [-diviser]}
+ */
+public class Perft {
+    /**
+     * Position de départ : plateau vide, le joueur 1 place ses batisseurs.
+     */
+    public static final String DEPART = "0000000000000000000000000 - - 1";
+
+    private final PlateauBinaire plateau;
+    private final int joueur;
+    private final int[][] coups;
+
+    /**
+     * @param position position écrite comme décrit dans {@link Perft}
+     * @throws IllegalArgumentException si la position est mal écrite
+     */
+    public Perft(String position) {
+        String[] champs = position.trim().split("\\s+");
+        if (champs.length != 4 || champs[0].length() != NB_CASES) {
+            throw new IllegalArgumentException("Position mal écrite : " + position);
+        }
+        Plateau grille = new Plateau();
+        for (int c = 0; c < NB_CASES; c++) {
+            grille.setBatiments(Voisinage.point(c), champs[0].charAt(c) - '0');
+        }
+        plateau = new PlateauBinaire(grille, lireBatisseurs(champs[1]), lireBatisseurs(champs[2]));
+        joueur = champs[3].equals("2") ? JOUEUR2 : JOUEUR1;
+        coups = new int[0][];
+    }
+
+    private Perft(PlateauBinaire plateau, int joueur, int profondeur) {
+        this.plateau = plateau;
+        this.joueur = joueur;
+        coups = new int[profondeur + 1][NOMBRE_COUPS_MAX];
+    }
+
+    private static List<Point> lireBatisseurs(String champ) {
+        List<Point> batisseurs = new ArrayList<>();
+        if (champ.equals("-")) return batisseurs;
+        for (String index : champ.split(",")) {
+            batisseurs.add(Voisinage.point(Integer.parseInt(index)));
+        }
+        return batisseurs;
+    }
+
+    /**
+     * Écrit une position dans le format lu par {@link #Perft(String)}.
+     */
+    public static String ecrire(PlateauBinaire plateau, int joueur) {
+        StringBuilder position = new StringBuilder();
+        for (int c = 0; c < NB_CASES; c++) position.append(plateau.getHauteur(c));
+        for (int j : new int[]{JOUEUR1, JOUEUR2}) {
+            StringBuilder batisseurs = new StringBuilder();
+            for (int i = 0; i < NOMBRE_BATISSEUR_JOUEUR; i++) {
+                if (plateau.getPosition(j, i) == -1) continue;
+                if (batisseurs.length() > 0) batisseurs.append(',');
+                batisseurs.append(plateau.getPosition(j, i));
+            }
+            position.append(' ').append(batisseurs.length() == 0 ? "-" : batisseurs);
+        }
+        return position.append(' ').append(joueur == JOUEUR1 ? 1 : 2).toString();
+    }
+
+    /**
+     * Compte les suites d'actions avec les générateurs du {@link PlateauBinaire}.
+     *
+     * @param profondeur nombre d'actions
+     * @return le nombre de suites
+     */
+    public long compter(int profondeur) {
+        return new Perft(new PlateauBinaire(plateau), joueur, profondeur).perft(joueur, profondeur);
+    }
+
+    /**
+     * Compte les suites d'actions avec les listes de {@link Plateau#getCasesAccessibles(Point)} et
+     * {@link Plateau#getConstructionsPossible(Point)}. Avec "verifier", chaque position visitée vérifie de plus que
+     * {@link Plateau#genererCoups(List, int[])} et {@link PlateauBinaire#genererCoups(int, int[], int)} donnent
+     * exactement les coups des listes, dans le même ordre.
+     *
+     * @param profondeur nombre d'actions
+     * @param verifier   vrai pour comparer les générateurs à chaque position
+     * @return le nombre de suites
+     * @throws IllegalStateException à la première position où les générateurs diffèrent
+     */
+    public long compterListes(int profondeur, boolean verifier) {
+        Plateau grille = plateau.versPlateau();
+        List<ArrayList<Point>> batisseurs = List.of(listeBatisseurs(JOUEUR1), listeBatisseurs(JOUEUR2));
+        return perftListes(grille, batisseurs, joueur, profondeur, verifier);
+    }
+
+    /**
+     * Compte les suites d'actions de chaque action possible depuis la position.
+     *
+     * @param profondeur nombre d'actions, au moins 1
+     * @return pour chaque action, sa description et le nombre de suites qui commencent par elle
+     */
+    public List<String> diviser(int profondeur) {
+        List<String> lignes = new ArrayList<>();
+        Perft perft = new Perft(new PlateauBinaire(plateau), joueur, profondeur);
+        PlateauBinaire p = perft.plateau;
+        if (placementEnCours(p)) {
+            int placeur = placeur(p, joueur);
+            int libres = MASQUE_GRILLE & ~p.getOccupees();
+            while (libres != 0) {
+                int c = Integer.numberOfTrailingZeros(libres);
+                libres &= libres - 1;
+                p.ajouterBatisseur(placeur, c);
+                lignes.add("pose " + c + " : " + perft.perft(suivant(p, placeur), profondeur - 1));
+                p.enleverBatisseur(c);
+            }
+            return lignes;
+        }
+        int[] racine = new int[NOMBRE_COUPS_MAX];
+        int nb_coups = p.genererCoups(joueur, racine, 0);
+        int dernier = -1;
+        for (int i = 0; i < nb_coups; i++) {
+            int b = Coup.getBatisseur(racine[i]);
+            int d = Coup.getDeplacement(racine[i]);
+            int c = Coup.getConstruction(racine[i]);
+            if (p.getHauteur(d) == TOIT) {
+                if ((racine[i] & 0x3FF) != dernier) lignes.add(b + "-" + d + " : " + (profondeur == 1 ? 1 : 0));
+                dernier = racine[i] & 0x3FF;
+                continue;
+            }
+            p.deplacer(b, d);
+            p.construire(c);
+            lignes.add(b + "-" + d + "/" + c + " : " + perft.perft(MoteurJeu.getAutreJoueur(joueur), profondeur - 1));
+            p.deconstruire(c);
+            p.deplacer(d, b);
+        }
+        return lignes;
+    }
+
+    private ArrayList<Point> listeBatisseurs(int numJoueur) {
+        ArrayList<Point> batisseurs = new ArrayList<>();
+        for (int i = 0; i < NOMBRE_BATISSEUR_JOUEUR; i++) {
+            if (plateau.getPosition(numJoueur, i) != -1) batisseurs.add(Voisinage.point(plateau.getPosition(numJoueur, i)));
+        }
+        return batisseurs;
+    }
+
+    private static boolean placementEnCours(PlateauBinaire p) {
+        return Integer.bitCount(p.getOccupees()) < NOMBRE_BATISSEUR_JOUEUR * 2;
+    }
+
+    /**
+     * Joueur qui pose le prochain batisseur : celui qui doit jouer, sauf s'il a déjà posé tous les siens.
+     */
+    private static int placeur(PlateauBinaire p, int numJoueur) {
+        return Integer.bitCount(p.getBatisseurs(numJoueur)) < NOMBRE_BATISSEUR_JOUEUR ? numJoueur : MoteurJeu.getAutreJoueur(numJoueur);
+    }
+
+    /**
+     * Joueur qui doit jouer après une pose : la main passe quand un joueur a posé tous ses batisseurs.
+     */
+    private static int suivant(PlateauBinaire p, int placeur) {
+        return Integer.bitCount(p.getBatisseurs(placeur)) == NOMBRE_BATISSEUR_JOUEUR ? MoteurJeu.getAutreJoueur(placeur) : placeur;
+    }
+
+    private long perft(int numJoueur, int profondeur) {
+        if (profondeur == 0) return 1;
+        long total = 0;
+        if (placementEnCours(plateau)) {
+            int placeur = placeur(plateau, numJoueur);
+            int libres = MASQUE_GRILLE & ~plateau.getOccupees();
+            if (profondeur == 1) return Integer.bitCount(libres);
+            while (libres != 0) {
+                int c = Integer.numberOfTrailingZeros(libres);
+                libres &= libres - 1;
+                plateau.ajouterBatisseur(placeur, c);
+                total += perft(suivant(plateau, placeur), profondeur - 1);
+                plateau.enleverBatisseur(c);
+            }
+            return total;
+        }
+
+        int[] liste = coups[profondeur];
+        int nb_coups = plateau.genererCoups(numJoueur, liste, 0);
+        int autre = MoteurJeu.getAutreJoueur(numJoueur);
+        int dernier = -1;
+        for (int i = 0; i < nb_coups; i++) {
+            int d = Coup.getDeplacement(liste[i]);
+            if (plateau.getHauteur(d) == TOIT) {
+                // Un seul coup gagnant par déplacement, sans suite
+                if (profondeur == 1 && (liste[i] & 0x3FF) != dernier) total++;
+                dernier = liste[i] & 0x3FF;
+            } else if (profondeur == 1) {
+                total++;
+            } else {
+                int b = Coup.getBatisseur(liste[i]);
+                int c = Coup.getConstruction(liste[i]);
+                plateau.deplacer(b, d);
+                plateau.construire(c);
+                total += perft(autre, profondeur - 1);
+                plateau.deconstruire(c);
+                plateau.deplacer(d, b);
+            }
+        }
+        return total;
+    }
+
+    private static long perftListes(Plateau grille, List<ArrayList<Point>> batisseurs, int numJoueur, int profondeur, boolean verifier) {
+        if (profondeur == 0) return 1;
+        ArrayList<Point> b1 = batisseurs.get(0);
+        ArrayList<Point> b2 = batisseurs.get(1);
+        long total = 0;
+        if (b1.size() + b2.size() < NOMBRE_BATISSEUR_JOUEUR * 2) {
+            ArrayList<Point> a_poser = (numJoueur == JOUEUR1 ? b1 : b2).size() < NOMBRE_BATISSEUR_JOUEUR ? (numJoueur == JOUEUR1 ? b1 : b2) : (numJoueur == JOUEUR1 ? b2 : b1);
+            int placeur = a_poser == b1 ? JOUEUR1 : JOUEUR2;
+            for (int c = 0; c < NB_CASES; c++) {
+                Point position = Voisinage.point(c);
+                if (!grille.estLibre(position)) continue;
+                grille.ajouterJoueur(position, placeur);
+                a_poser.add(position);
+                int suivant = a_poser.size() == NOMBRE_BATISSEUR_JOUEUR ? MoteurJeu.getAutreJoueur(placeur) : placeur;
+                total += perftListes(grille, batisseurs, suivant, profondeur - 1, verifier);
+                a_poser.remove(a_poser.size() - 1);
+                grille.enleverJoueur(position);
+            }
+            return total;
+        }
+
+        ArrayList<Point> mes_batisseurs = numJoueur == JOUEUR1 ? b1 : b2;
+        ArrayList<Integer> enumeres = verifier ? new ArrayList<>() : null;
+        int autre = MoteurJeu.getAutreJoueur(numJoueur);
+        for (int i = 0; i < mes_batisseurs.size(); i++) {
+            Point batisseur = mes_batisseurs.get(i);
+            for (Point deplacement : grille.getCasesAccessibles(batisseur)) {
+                boolean gagnant = grille.getTypeBatiments(deplacement) == TOIT;
+                if (gagnant && profondeur == 1) total++;
+                grille.enleverJoueur(batisseur);
+                grille.ajouterJoueur(deplacement, numJoueur);
+                mes_batisseurs.set(i, deplacement);
+                for (Point construction : grille.getConstructionsPossible(deplacement)) {
+                    if (verifier) enumeres.add(Coup.encoder(index(batisseur), index(deplacement), index(construction)));
+                    if (gagnant) continue;
+                    if (profondeur == 1) {
+                        total++;
+                    } else {
+                        grille.ameliorerBatiment(construction);
+                        total += perftListes(grille, batisseurs, autre, profondeur - 1, verifier);
+                        grille.MAJEtage(construction, -1);
+                    }
+                }
+                mes_batisseurs.set(i, batisseur);
+                grille.enleverJoueur(deplacement);
+                grille.ajouterJoueur(batisseur, numJoueur);
+            }
+        }
+        if (verifier) verifierGenerateurs(grille, b1, b2, mes_batisseurs, numJoueur, enumeres);
+        return total;
+    }
+
+    private static void verifierGenerateurs(Plateau grille, ArrayList<Point> b1, ArrayList<Point> b2, ArrayList<Point> mes_batisseurs, int numJoueur, List<Integer> enumeres) {
+        int[] attendus = enumeres.stream().mapToInt(Integer::intValue).toArray();
+        int[] coups = new int[NOMBRE_COUPS_MAX];
+        int nb_plateau = grille.genererCoups(mes_batisseurs, coups);
+        boolean identiques = Arrays.equals(attendus, Arrays.copyOf(coups, nb_plateau));
+        PlateauBinaire binaire = new PlateauBinaire(grille, b1, b2);
+        int nb_binaire = binaire.genererCoups(numJoueur, coups, 0);
+        identiques &= Arrays.equals(attendus, Arrays.copyOf(coups, nb_binaire));
+        identiques &= binaire.getHash() == grille.getHash();
+        if (!identiques) {
+            throw new IllegalStateException("Générateurs différents en " + ecrire(binaire, numJoueur) + " :\n" + grille);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return ecrire(plateau, joueur);
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 1) {
+            System.err.println("Usage : Perft profondeur [\"position\"] [-verifier] [-diviser]");
+            System.exit(1);
+        }
+        int profondeur = Integer.parseInt(args[0]);
+        String position = DEPART;
+        boolean verifier = false;
+        boolean diviser = false;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "-verifier" -> verifier = true;
+                case "-diviser" -> diviser = true;
+                default -> position = args[i];
+            }
+        }
+
+        Perft perft = new Perft(position);
+        System.out.println("Position " + perft);
+        if (diviser) {
+            perft.diviser(profondeur).forEach(System.out::println);
+        }
+        for (int p = 1; p <= profondeur; p++) {
+            long debut = System.nanoTime();
+            long feuilles = perft.compter(p);
+            double secondes = (System.nanoTime() - debut) / 1e9;
+            System.out.printf("perft %d : %d  (%.3f s, %.0f feuilles/s)%n", p, feuilles, secondes, feuilles / Math.max(secondes, 1e-9));
+            if (verifier) {
+                long listes = perft.compterListes(p, true);
+                System.out.println(listes == feuilles ? "  listes de Plateau : identique" : "  listes de Plateau : " + listes + " DIFFÉRENT");
+            }
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package Outils;
+
+import IA.IA;
+import IA.IADifficile;
+import IA.IAFacile;
+import IA.IAMonteCarlo;
+import IA.IANormale;
+import IA.Niveau;
+import Modele.MoteurJeu;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import static Utile.Constante.*;
+
+/**
+ * Tournoi en ligne de commande entre deux IA, sans interface graphique : les parties sont jouées par le
+ * {@link MoteurJeu} sur tous les cœurs, puis les taux de victoire, leurs intervalles de confiance, la
+ * distribution de la longueur des parties et le nombre de parties par seconde sont affichés.
+ * <p>
+ * Une IA est décrite par {@code facile}, {@code normale}, {@code difficile[:temps_ms[:profondeur[:noeuds[:bruit]]]]},
+ * {@code niveau:n} ou {@code montecarlo[:temps_ms[:simulations[:fils[:aleatoire]]]]}.
+ * La partie d'indice i est commencée par le joueur 1 si i est pair, par le joueur 2 sinon, et les graines des
+ * deux IA ne dépendent que de la graine du tournoi et de i : à temps de réflexion illimité, un tournoi
+ * rejoue les mêmes parties quel que soit le nombre de fils.
+ * <p>
+ * Usage : {@code java -Djava.awt.headless=true Outils.Tournoi ia1 ia2 [parties] [graine] [fils]}
+ */
+public class Tournoi {
+    /**
+     * Quantile de la loi normale pour un intervalle de confiance à 95%.
+     */
+    private static final double Z_95 = 1.96;
+
+    /**
+     * Largeur, en tours, des classes de l'histogramme de longueur des parties.
+     */
+    private static final int CLASSE_LONGUEUR = 5;
+
+    private final String ia1;
+    private final String ia2;
+    private final long graine;
+    private final int[] gagnants;
+    private final int[] longueurs;
+    private long duree;
+
+    /**
+     * @param ia1        description de l'IA du joueur 1
+     * @param ia2        description de l'IA du joueur 2
+     * @param nbParties  nombre de parties à jouer
+     * @param graine     graine du tournoi
+     */
+    public Tournoi(String ia1, String ia2, int nbParties, long graine) {
+        this.ia1 = ia1;
+        this.ia2 = ia2;
+        this.graine = graine;
+        gagnants = new int[nbParties];
+        longueurs = new int[nbParties];
+    }
+
+    /**
+     * Crée une IA à partir de sa description.
+     *
+     * @param description {@code facile}, {@code normale}, {@code difficile[:temps_ms[:profondeur[:noeuds[:bruit]]]]},
+     *                    {@code niveau:n} (voir {@link Niveau}) ou
+     *                    {@code montecarlo[:temps_ms[:simulations[:fils[:aleatoire]]]]}
+     * @param moteur      moteur de la partie
+     * @param joueur      numéro du joueur de l'IA
+     * @return une nouvelle IA
+     * @throws IllegalArgumentException si la description n'est pas reconnue
+     */
+    public static IA creerIA(String description, MoteurJeu moteur, int joueur) {
+        String[] param = description.split(":");
+        switch (param[0]) {
+            case "facile":
+                return new IAFacile(moteur, joueur);
+            case "normale":
+                return new IANormale(moteur, joueur);
+            case "difficile":
+                long temps = param.length > 1 ? Long.parseLong(param[1]) : IA_TEMPS_REFLEXION;
+                int profondeur = param.length > 2 ? Integer.parseInt(param[2]) : IA_PROFONDEUR_MAX;
+                long noeuds = param.length > 3 ? Long.parseLong(param[3]) : 0;
+                int bruit = param.length > 4 ? Integer.parseInt(param[4]) : 0;
+                return new IADifficile(moteur, temps, profondeur, noeuds, bruit, 1);
+            case "niveau":
+                return new IADifficile(moteur, Niveau.getNiveau(Integer.parseInt(param[1])));
+            case "montecarlo":
+                long temps_mc = param.length > 1 ? Long.parseLong(param[1]) : IA_TEMPS_REFLEXION;
+                long simulations = param.length > 2 ? Long.parseLong(param[2]) : Long.MAX_VALUE;
+                int nb_fils = param.length > 3 ? Integer.parseInt(param[3]) : 1;
+                boolean guidee = param.length <= 4 || !param[4].equals("aleatoire");
+                return new IAMonteCarlo(moteur, joueur, temps_mc, simulations, nb_fils, guidee);
+            default:
+                throw new IllegalArgumentException("IA inconnue : " + description);
+        }
+    }
+
+    /**
+     * Joue la partie d'indice donné et enregistre son gagnant (0 si une IA n'a pas pu jouer) et son nombre de tours.
+     */
+    private void jouerPartie(int index) {
+        SplittableRandom graines = new SplittableRandom(graine + index);
+        MoteurJeu moteur = new MoteurJeu(index % 2);
+        IA joueur1 = creerIA(ia1, moteur, JOUEUR1);
+        IA joueur2 = creerIA(ia2, moteur, JOUEUR2);
+        joueur1.setGraine(graines.nextLong());
+        joueur2.setGraine(graines.nextLong());
+        try {
+            gagnants[index] = moteur.jouerPartie(joueur1, joueur2);
+        } catch (IllegalStateException e) {
+            gagnants[index] = 0;
+        } finally {
+            fermer(joueur1);
+            fermer(joueur2);
+        }
+        longueurs[index] = moteur.getNbTours();
+    }
+
+    private static void fermer(IA ia) {
+        if (ia instanceof IADifficile) ((IADifficile) ia).fermer();
+        if (ia instanceof IAMonteCarlo) ((IAMonteCarlo) ia).fermer();
+    }
+
+    /**
+     * Joue toutes les parties du tournoi.
+     *
+     * @param nbFils nombre de parties jouées en parallèle
+     */
+    public void executer(int nbFils) throws InterruptedException {
+        ForkJoinPool pool = new ForkJoinPool(nbFils);
+        long debut = System.nanoTime();
+        try {
+            pool.submit(() -> IntStream.range(0, gagnants.length).parallel().forEach(this::jouerPartie)).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        duree = System.nanoTime() - debut;
+    }
+
+    /**
+     * Intervalle de confiance de Wilson d'une proportion.
+     *
+     * @param succes nombre de succès
+     * @param total  nombre d'essais
+     * @return les bornes inférieure et supérieure de l'intervalle à 95%
+     */
+    public static double[] intervalleWilson(int succes, int total) {
+        if (total == 0) return new double[]{0, 1};
+        double p = (double) succes / total;
+        double z2 = Z_95 * Z_95;
+        double centre = (p + z2 / (2 * total)) / (1 + z2 / total);
+        double marge = Z_95 * Math.sqrt(p * (1 - p) / total + z2 / (4.0 * total * total)) / (1 + z2 / total);
+        return new double[]{Math.max(0, centre - marge), Math.min(1, centre + marge)};
+    }
+
+    public int getVictoires(int joueur) {
+        int victoires = 0;
+        for (int gagnant : gagnants) {
+            if (gagnant == joueur) victoires++;
+        }
+        return victoires;
+    }
+
+    public int[] getGagnants() {
+        return gagnants;
+    }
+
+    public int[] getLongueurs() {
+        return longueurs;
+    }
+
+    /**
+     * Affiche les résultats du tournoi.
+     */
+    public void afficher() {
+        int n = gagnants.length;
+        System.out.println(n + " parties " + ia1 + " (joueur 1) contre " + ia2 + " (joueur 2), graine " + graine);
+        afficherTaux(ia1, getVictoires(JOUEUR1), n);
+        afficherTaux(ia2, getVictoires(JOUEUR2), n);
+        int abandons = n - getVictoires(JOUEUR1) - getVictoires(JOUEUR2);
+        if (abandons > 0) System.out.println("  parties interrompues : " + abandons);
+
+        int[] tries = longueurs.clone();
+        Arrays.sort(tries);
+        if (n > 0) {
+            System.out.printf("Longueur (tours) : moyenne %.1f, min %d, q1 %d, médiane %d, q3 %d, max %d%n",
+                    Arrays.stream(tries).average().orElse(0), tries[0], tries[n / 4], tries[n / 2], tries[3 * n / 4], tries[n - 1]);
+            int[] classes = new int[tries[n - 1] / CLASSE_LONGUEUR + 1];
+            for (int longueur : tries) classes[longueur / CLASSE_LONGUEUR]++;
+            for (int c = tries[0] / CLASSE_LONGUEUR; c < classes.length; c++) {
+                System.out.printf("  %3d-%-3d %5d %s%n", c * CLASSE_LONGUEUR, (c + 1) * CLASSE_LONGUEUR - 1, classes[c],
+                        "#".repeat((int) Math.ceil(60.0 * classes[c] / n)));
+            }
+        }
+        double secondes = duree / 1e9;
+        System.out.printf("%.2f s, %.1f parties/s%n", secondes, n / secondes);
+    }
+
+    private static void afficherTaux(String ia, int victoires, int total) {
+        double[] intervalle = intervalleWilson(victoires, total);
+        System.out.printf("  %-20s %5d victoires  %.1f%%  IC95 [%.1f%%, %.1f%%]%n", ia, victoires,
+                100.0 * victoires / Math.max(1, total), 100 * intervalle[0], 100 * intervalle[1]);
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        if (args.length < 2) {
+            System.err.println("Usage : Tournoi ia1 ia2 [parties] [graine] [fils]");
+            System.err.println("  ia : facile | normale | difficile[:temps_ms[:profondeur[:noeuds[:bruit]]]] | niveau:n | montecarlo[:temps_ms[:simulations[:fils[:aleatoire]]]]");
+            System.exit(1);
+        }
+        System.setProperty("java.awt.headless", "true");
+        int nb_parties = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        long graine = args.length > 3 ? Long.parseLong(args[3]) : 0;
+        int nb_fils = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+        Tournoi tournoi = new Tournoi(args[0], args[1], nb_parties, graine);
+        tournoi.executer(nb_fils);
+        tournoi.afficher();
+    }
+}
@@ -12,9 +12,9 @@ public class Message implements Serializable {
     static final int DECO = -1;
 
     /**
-     * Code de coup à envoyer
+     * Code de coup à envoyer, public pour les mesures de performance des messages
      */
-    static final int MOVE = 1;
+    public static final int MOVE = 1;
 
     /**
      * Code de jeu à démarrer
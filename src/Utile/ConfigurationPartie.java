@@ -1,10 +1,17 @@
 package Utile;
 
+import IA.Niveau;
 import Vue.PanelPartie.PanelPlateau.PanelPlateau;
 
+import java.util.Objects;
+
+import static Utile.Constante.IA_REFLEXION_ANTICIPEE;
+
 /**
  * Classe de configuration partie pour pouvoir garder des données en une seule classe entre différentes vues et modèles
  * et ainsi alléger les constructeurs.
+ * Le mode de chaque IA (0 pour un joueur humain, 1 à 3 pour facile, normale, difficile) donne son {@link Niveau} par
+ * défaut, qui peut être remplacé par n'importe quel autre.
  * @see Vue.PanelOptions
  * @see Vue.PanelChoix
  * @see PanelPlateau
@@ -13,14 +20,20 @@ import Vue.PanelPartie.PanelPlateau.PanelPlateau;
 public class ConfigurationPartie {
     private final int iaMode1;
     private final int iaMode2;
+    private Niveau niveau1;
+    private Niveau niveau2;
     private int indexJoueurCommence;
     private boolean joueur1Bleu;
+    private boolean reflexionAnticipee;
 
     public ConfigurationPartie(int iaMode1, int iaMode2) {
         this.iaMode1 = iaMode1;
         this.iaMode2 = iaMode2;
+        this.niveau1 = Niveau.depuisMode(iaMode1);
+        this.niveau2 = Niveau.depuisMode(iaMode2);
         this.indexJoueurCommence = 0;
         this.joueur1Bleu = true;
+        this.reflexionAnticipee = IA_REFLEXION_ANTICIPEE;
     }
 
     // GETTER / SETTER
@@ -45,10 +58,40 @@ public class ConfigurationPartie {
         return iaMode2;
     }
 
+    /**
+     * @return le niveau de la première IA, null si le mode 1 est un joueur humain
+     */
+    public Niveau getNiveau1() {
+        return niveau1;
+    }
+
+    public void setNiveau1(Niveau niveau1) {
+        this.niveau1 = niveau1;
+    }
+
+    /**
+     * @return le niveau de la seconde IA, null si le mode 2 est un joueur humain
+     */
+    public Niveau getNiveau2() {
+        return niveau2;
+    }
+
+    public void setNiveau2(Niveau niveau2) {
+        this.niveau2 = niveau2;
+    }
+
     public int getIndexJoueurCommence() {
         return indexJoueurCommence;
     }
 
+    public boolean isReflexionAnticipee() {
+        return reflexionAnticipee;
+    }
+
+    public void setReflexionAnticipee(boolean reflexionAnticipee) {
+        this.reflexionAnticipee = reflexionAnticipee;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (!(o instanceof ConfigurationPartie)) return false;
@@ -57,7 +100,10 @@ public class ConfigurationPartie {
 
         return iaMode1 == c.iaMode1 &&
                 iaMode2 == c.iaMode2 &&
+                Objects.equals(niveau1, c.niveau1) &&
+                Objects.equals(niveau2, c.niveau2) &&
                 indexJoueurCommence == c.indexJoueurCommence &&
-                joueur1Bleu == c.joueur1Bleu;
+                joueur1Bleu == c.joueur1Bleu &&
+                reflexionAnticipee == c.reflexionAnticipee;
     }
 }
@@ -14,10 +14,34 @@ public class Constante {
     public static final String CHEMIN_RESSOURCE = "./ressources";
 
     /**
-     * Chemin d'accès au dossier de sauvegardes
+     * Chemin d'accès au dossier de sauvegardes par défaut
+     * @see Historique.Sauvegarde#getDossier()
      */
     public static final String SAVES_PATH = "./saves/";
 
+    /**
+     * Nom du fichier du catalogue, dans le dossier des sauvegardes
+     * @see Historique.Catalogue
+     */
+    public static final String FICHIER_CATALOGUE = "catalogue.idx";
+
+    /**
+     * Nom du dossier des journaux des parties en cours, dans le dossier des sauvegardes
+     * @see Historique.Journal
+     */
+    public static final String DOSSIER_JOURNAUX = "journaux";
+
+    /**
+     * Synchronisation sur le disque du journal de la partie en cours : {@link Historique.Journal#SYNCHRONISATION_AUCUNE},
+     * {@link Historique.Journal#SYNCHRONISATION_LOT} ou {@link Historique.Journal#SYNCHRONISATION_PERIODIQUE}.
+     */
+    public static final int JOURNAL_SYNCHRONISATION = 2;
+
+    /**
+     * Délai maximal en millisecondes entre deux synchronisations périodiques du journal.
+     */
+    public static final long JOURNAL_DELAI_SYNCHRONISATION = 1000;
+
     public static final Dimension FENETRE_1600x900 = new Dimension(1600, 900);
     public static final Dimension DEFAULT_FENETRE_TAILLE = FENETRE_1600x900;
 
@@ -41,6 +65,11 @@ public class Constante {
      */
     public static final int PLACEMENT = 3;
 
+    /**
+     * Code renvoyé par le moteur quand l'action demandée n'a pas pu être jouée
+     */
+    public static final int AUCUNE_ACTION = -1;
+
     /**
      * Numéro du joueur 1.
      */
@@ -61,13 +90,91 @@ public class Constante {
      */
     public static final int NOMBRE_BATISSEUR_JOUEUR = 2;
 
+    /**
+     * Nombre maximal de coups (batisseur, déplacement, construction) d'un joueur : 2 batisseurs, 8 déplacements,
+     * 8 constructions.
+     */
+    public static final int NOMBRE_COUPS_MAX = NOMBRE_BATISSEUR_JOUEUR * 8 * 8;
+
     public static final int UNDO = 1;
     public static final int REDO = 0;
 
+    /**
+     * Nombre de commandes entre deux instantanés de la partie gardés par l'historique.
+     * @see Historique.Historique#allerA(int)
+     */
+    public static final int PERIODE_INSTANTANES = 16;
+
     public static final int IA_FACILE = 1;
     public static final int IA_NORMAL = 2;
     public static final int IA_DIFFICILE = 3;
 
+    /**
+     * Temps de réflexion par défaut de l'IA difficile pour un coup, en millisecondes.
+     * @see IA.IADifficile
+     */
+    public static final long IA_TEMPS_REFLEXION = 1000;
+
+    /**
+     * Profondeur maximale par défaut de l'approfondissement itératif de l'IA difficile.
+     * @see IA.IADifficile
+     */
+    public static final int IA_PROFONDEUR_MAX = 16;
+
+    /**
+     * Nombre d'entrées de la table de transposition de l'IA difficile (deux longs par entrée).
+     * @see IA.TableTransposition
+     */
+    public static final int IA_TAILLE_TABLE = 1 << 20;
+
+    /**
+     * Nombre de fils d'exécution par défaut de la recherche de l'IA difficile.
+     * @see IA.IADifficile
+     */
+    public static final int IA_NOMBRE_FILS = 1;
+
+    /**
+     * Réflexion de l'IA difficile pendant le tour du joueur humain, désactivée par défaut.
+     * @see IA.IADifficile#setReflexionAnticipee(boolean)
+     */
+    public static final boolean IA_REFLEXION_ANTICIPEE = false;
+
+    /**
+     * Nombre de nœuds de chaque arbre de l'IA Monte-Carlo (vingt octets par nœud).
+     * @see IA.ArbreMonteCarlo
+     */
+    public static final int IA_MCTS_TAILLE_ARBRE = 1 << 19;
+
+    /**
+     * Nombre de cases sans coupole ni batisseur en dessous duquel l'IA difficile résout la fin de partie
+     * exactement.
+     * @see IA.SolveurFinale
+     */
+    public static final int IA_SEUIL_FINALE = 14;
+
+    /**
+     * Nombre d'entrées de la table des positions résolues par le solveur de fin de partie.
+     */
+    public static final int IA_TAILLE_TABLE_FINALE = 1 << 18;
+
+    /**
+     * Table des placements de départ de l'IA difficile.
+     * @see IA.Placement
+     */
+    public static final String FICHIER_PLACEMENT = CHEMIN_RESSOURCE + "/ia/placement.bin";
+
+    /**
+     * Poids de l'heuristique de l'IA difficile.
+     * @see IA.Poids
+     */
+    public static final String FICHIER_POIDS = CHEMIN_RESSOURCE + "/ia/poids.properties";
+
+    /**
+     * Livre d'ouvertures de l'IA difficile.
+     * @see IA.LivreOuvertures
+     */
+    public static final String FICHIER_LIVRE = CHEMIN_RESSOURCE + "/ia/ouvertures.bin";
+
     /**
      * Valeur d'une case vide sur la grille
      */
@@ -0,0 +1,137 @@
+package Vue;
+
+import Historique.Catalogue;
+import Historique.Sauvegarde;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.function.IntPredicate;
+
+import static Utile.Constante.*;
+
+/**
+ * Fenêtre de choix d'une sauvegarde à charger, listée depuis le {@link Catalogue} : les parties peuvent être filtrées
+ * par type et triées par date ou par longueur sans ouvrir leurs fichiers.
+ */
+public class ChoixSauvegarde extends JPanel {
+    private static final String[] FILTRES = {"Toutes les parties", "Joueur contre joueur", "Joueur contre IA",
+            "IA contre IA", "Parties terminées"};
+    private static final String[] TRIS = {"Plus récentes", "Plus anciennes", "Plus longues", "Plus courtes"};
+    private static final String[] COLONNES = {"Date", "Partie", "Gagnant", "Cases"};
+
+    private final Catalogue catalogue;
+    private final JComboBox<String> filtre;
+    private final JComboBox<String> tri;
+    private final JTable table;
+    private int[] indices;
+
+    private ChoixSauvegarde(Catalogue catalogue) {
+        this.catalogue = catalogue;
+        setLayout(new BorderLayout(0, 10));
+
+        filtre = new JComboBox<>(FILTRES);
+        tri = new JComboBox<>(TRIS);
+        filtre.addActionListener(e -> lister());
+        tri.addActionListener(e -> lister());
+        JPanel options = new JPanel(new GridLayout(1, 2, 10, 0));
+        options.add(filtre);
+        options.add(tri);
+        add(options, BorderLayout.NORTH);
+
+        indices = new int[0];
+        table = new JTable(new Lignes());
+        table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        JScrollPane defilement = new JScrollPane(table);
+        defilement.setPreferredSize(new Dimension(600, 400));
+        add(defilement, BorderLayout.CENTER);
+        lister();
+    }
+
+    /**
+     * Affiche le catalogue et demande de choisir une sauvegarde.
+     *
+     * @return le nom du fichier choisi dans {@link Sauvegarde#getDossier()}, null si aucun ne l'est
+     */
+    public static String choisir(Component parent) {
+        Catalogue catalogue;
+        try {
+            catalogue = Catalogue.getCatalogue();
+        } catch (IOException e) {
+            System.err.println("Le catalogue des sauvegardes n'a pas pu être ouvert");
+            e.printStackTrace();
+            return null;
+        }
+        ChoixSauvegarde choix = new ChoixSauvegarde(catalogue);
+        int reponse = JOptionPane.showConfirmDialog(parent, choix, "Charger une partie", JOptionPane.OK_CANCEL_OPTION,
+                JOptionPane.PLAIN_MESSAGE);
+        int ligne = choix.table.getSelectedRow();
+        if (reponse != JOptionPane.OK_OPTION || ligne < 0) return null;
+        return catalogue.getNom(choix.indices[ligne]);
+    }
+
+    /**
+     * Remplit la table avec les parties du filtre choisi, dans l'ordre choisi.
+     */
+    private void lister() {
+        IntPredicate f = switch (filtre.getSelectedIndex()) {
+            case 1 -> i -> catalogue.getIaMode1(i) == 0 && catalogue.getIaMode2(i) == 0;
+            case 2 -> i -> (catalogue.getIaMode1(i) == 0) != (catalogue.getIaMode2(i) == 0);
+            case 3 -> i -> catalogue.getIaMode1(i) > 0 && catalogue.getIaMode2(i) > 0;
+            case 4 -> i -> catalogue.getGagnant(i) != 0;
+            default -> null;
+        };
+        int t = tri.getSelectedIndex();
+        indices = catalogue.lister(f, t < 2 ? Catalogue.TRI_DATE : Catalogue.TRI_LONGUEUR, t % 2 == 0);
+        ((AbstractTableModel) table.getModel()).fireTableDataChanged();
+    }
+
+    /**
+     * Lignes de la table, lues dans le catalogue seulement quand elles sont affichées.
+     */
+    private class Lignes extends AbstractTableModel {
+        private final SimpleDateFormat format = new SimpleDateFormat("dd/MM/yyyy HH:mm:ss");
+
+        @Override
+        public int getRowCount() {
+            return indices.length;
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLONNES.length;
+        }
+
+        @Override
+        public String getColumnName(int colonne) {
+            return COLONNES[colonne];
+        }
+
+        @Override
+        public Object getValueAt(int ligne, int colonne) {
+            int i = indices[ligne];
+            return switch (colonne) {
+                case 0 -> format.format(new Date(catalogue.getDate(i)));
+                case 1 -> joueur(catalogue.getIaMode1(i)) + " contre " + joueur(catalogue.getIaMode2(i));
+                case 2 -> switch (catalogue.getGagnant(i)) {
+                    case JOUEUR1 -> "Joueur 1";
+                    case JOUEUR2 -> "Joueur 2";
+                    default -> "";
+                };
+                default -> catalogue.getLongueur(i);
+            };
+        }
+
+        @Override
+        public boolean isCellEditable(int ligne, int colonne) {
+            return false;
+        }
+
+        private String joueur(int iaMode) {
+            return iaMode > 0 ? "IA" : "joueur";
+        }
+    }
+}
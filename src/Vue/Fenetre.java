@@ -1,13 +1,24 @@
 package Vue;
 
+import Historique.Catalogue;
+import Historique.Journal;
+import Historique.Sauvegarde;
 import Listener.EcouteurDeMouvementDeSouris;
+import Modele.Jeu;
 import Utile.*;
+import Vue.PanelPartie.PanelPartie;
+import Vue.PanelPartie.PanelPlateau.PanelPlateau;
 import Vue.PanelPartie.PanelTutoriel.PanelTutoriel;
 
 import static Utile.Constante.*;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 
 /**
  * Crée une fenêtre pour le menu principal du jeu.
@@ -47,6 +58,12 @@ public class Fenetre extends JFrame {
         add(panelPrincipal);
         pileCarte.show(panelPrincipal, "menu");
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosing(WindowEvent e) {
+                fermerPartie();
+            }
+        });
 
         // Change le curseur de la fenêtre
         setCursor(EcouteurDeMouvementDeSouris.creerCurseurGenerique("defaut_gris", new Point(0, 0)));
@@ -58,6 +75,47 @@ public class Fenetre extends JFrame {
         setVisible(true);
 
         musique.joueSon(true);
+        reprendrePartieInterrompue();
+    }
+
+    /**
+     * Supprime le journal de la partie affichée quand la fenêtre est fermée : la partie a été quittée.
+     */
+    private void fermerPartie() {
+        if (!(shown instanceof PanelPartie)) return;
+        Jeu jeu = ((PanelPartie) shown).getJeu();
+        if (jeu != null) jeu.fermerJournal(true);
+    }
+
+    /**
+     * Propose de reprendre la dernière partie interrompue par un arrêt du programme, d'après son journal. Les
+     * parties qui ne sont pas reprises sont gardées dans les sauvegardes ; les journaux de parties déjà finies sont
+     * seulement supprimés.
+     * @see Historique.Journal
+     */
+    private void reprendrePartieInterrompue() {
+        File[] journaux = Journal.getJournaux();
+        for (int i = 0; i < journaux.length; i++) {
+            try {
+                Sauvegarde sauvegarde = Journal.lire(journaux[i]);
+                if (sauvegarde.getNbCases() > 0 && !sauvegarde.rejouer().estJeufini()) {
+                    boolean reprendre = i == journaux.length - 1 && JOptionPane.showConfirmDialog(this,
+                            "La dernière partie a été interrompue. Voulez-vous la reprendre ?", NOM_JEU,
+                            JOptionPane.YES_NO_OPTION) == JOptionPane.YES_OPTION;
+                    if (reprendre) {
+                        setPanel(new PanelPlateau(getSize(), sauvegarde));
+                    } else {
+                        String nom = journaux[i].getName();
+                        File fichier = Sauvegarde.fichier(nom.substring(0, nom.length() - Journal.EXTENSION.length()) + ".sav");
+                        Catalogue.enregistrer(fichier, sauvegarde);
+                    }
+                }
+                Files.delete(journaux[i].toPath());
+            } catch (IOException | IllegalArgumentException ex) {
+                System.err.println("Le journal " + journaux[i].getName() + " n'a pas pu être repris");
+                ex.printStackTrace();
+            }
+        }
     }
 
     /**
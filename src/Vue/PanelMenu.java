@@ -1,5 +1,6 @@
 package Vue;
 
+import Historique.Sauvegarde;
 import Utile.*;
 import Vue.PanelPartie.PanelPlateau.PanelPlateau;
 
@@ -7,12 +8,10 @@ import static Utile.Constante.*;
 
 import javax.sound.sampled.*;
 import javax.swing.*;
-import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.io.File;
-import java.io.FileNotFoundException;
-import java.util.Scanner;
+import java.nio.file.NoSuchFileException;
 
 /**
  * JPanel personnalisé qui affiche le menu principal du jeu.
@@ -155,24 +154,18 @@ class PanelMenu extends JPanel {
     }
 
     /**
-     * Affiche un interface pour choisir un fichier, et charge une partie si un ficheir est choisi.
+     * Affiche le catalogue des sauvegardes, et charge une partie si une sauvegarde est choisie.
      */
     private void actionCharger(ActionEvent e) {
         Fenetre f = (Fenetre) SwingUtilities.getWindowAncestor(this);
 
-        JFileChooser chooser = new JFileChooser(SAVES_PATH);
-        FileNameExtensionFilter filter = new FileNameExtensionFilter(
-                "Sauvegardes", "sav");
-        chooser.setFileFilter(filter);
-
-        int returnVal = chooser.showOpenDialog(this);
-        if (returnVal == JFileChooser.APPROVE_OPTION) {
+        String nom = ChoixSauvegarde.choisir(this);
+        if (nom != null) {
             try {
-                File fichier = new File(SAVES_PATH + chooser.getSelectedFile().getName());
-                Scanner lecteur = new Scanner(fichier);
-                f.setPanel(new PanelPlateau(getSize(), lecteur));
-            } catch (FileNotFoundException ex) {
-                System.err.println("Le fichier " + chooser.getSelectedFile().getName() + " n'existe pas");
+                File fichier = Sauvegarde.fichier(nom);
+                f.setPanel(new PanelPlateau(getSize(), Sauvegarde.lire(fichier)));
+            } catch (NoSuchFileException ex) {
+                System.err.println("Le fichier " + nom + " n'existe pas");
                 ex.printStackTrace();
             } catch (Exception ex) {
                 System.err.println("Le fichier n'a pas le bon format");
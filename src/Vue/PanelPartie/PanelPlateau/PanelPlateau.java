@@ -1,6 +1,7 @@
 package Vue.PanelPartie.PanelPlateau;
 
 import static Utile.Constante.*;
+import Historique.Sauvegarde;
 import Utile.ConfigurationPartie;
 import Reseau.Reseau;
 import Utile.Utile;
@@ -13,7 +14,6 @@ import Vue.PanelPartie.PanelPartie;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
-import java.util.Scanner;
 
 /**
  * Classe générant la fenêtre de jeu.
@@ -37,39 +37,36 @@ public class PanelPlateau extends PanelPartie {
         super(_taille_fenetre,new Font(LILY_SCRIPT, Font.PLAIN, 40));
         this.config = config;
         initialiserPanel();
+        jeu.ouvrirJournal();
     }
 
     /**
      * Constructeur de Vue.PanelPartie.PanelPlateau.PanelPlateau chargeant une partie déjà existante.
      *
      * @param _taille_fenetre taille de la fenêtre
-     * @param lecteur        nom du fichier à charger
+     * @param sauvegarde     partie à charger
      */
-    public PanelPlateau(Dimension _taille_fenetre, Scanner lecteur) {
+    public PanelPlateau(Dimension _taille_fenetre, Sauvegarde sauvegarde) {
         super(_taille_fenetre,new Font(LILY_SCRIPT, Font.PLAIN, 40));
-        String[] param = lecteur.nextLine().split(" ");
-        int ia1_mode = Integer.parseInt(param[0]);
-        int ia2_mode = Integer.parseInt(param[1]);
-        int index_start = Integer.parseInt(param[2]);
-        boolean j1_blue = Boolean.parseBoolean(param[3]);
-
-        this.config = new ConfigurationPartie(ia1_mode, ia2_mode);
-        this.config.setIndexJoueurCommence(index_start);
-        this.config.setJoueur1Bleu(j1_blue);
+        this.config = sauvegarde.getConfiguration();
 
         initialiserPanel();
 
-        jeu.charger(lecteur);
+        jeu.charger(sauvegarde);
+        jeu.ouvrirJournal();
     }
 
     /**
      * Constructeur de Vue.PanelPartie.PanelPlateau.PanelPlateau prenant en paramètre un netUser, donc soit un client ou un serveur.
+     * La partie n'a pas de journal : elle ne pourrait pas être reprise sans l'adversaire.
      *
      * @param _taille_fenetre taille de la fenêtre
      * @param netUser         client ou serveur
      */
     public PanelPlateau(Dimension _taille_fenetre, Reseau netUser) {
-        this(_taille_fenetre, new ConfigurationPartie(0, 0));
+        super(_taille_fenetre,new Font(LILY_SCRIPT, Font.PLAIN, 40));
+        this.config = new ConfigurationPartie(0, 0);
+        initialiserPanel();
         this.netUser = netUser;
         jeu.setNetUser(netUser);
         if (netUser.getNumJoueur() == JOUEUR1) jt.setText(AU_TOUR_DE + netUser.getNomJoueur());
@@ -121,6 +118,7 @@ public class PanelPlateau extends PanelPartie {
      */
     public void actionBoutonNouvelle(ActionEvent e) {
         Fenetre f = (Fenetre) SwingUtilities.getWindowAncestor(this);
+        jeu.fermerJournal();
         if (netUser != null) {
             f.setPanel(new PanelLobby(netUser));
         } else {
@@ -144,6 +142,7 @@ public class PanelPlateau extends PanelPartie {
     public void actionQuitter(ActionEvent e) {
         Fenetre f = (Fenetre) SwingUtilities.getWindowAncestor(this);
         jeu.desactiverIA();
+        jeu.fermerJournal();
         if (netUser != null) {
             netUser.deconnexion();
         }
@@ -3,9 +3,9 @@ package Vue.PanelPartie.PanelPlateau;
 import Vue.PanelPartie.ActionEchap;
 import Vue.PanelPartie.BackgroundPanel;
 import Vue.Bouton;
+import Vue.ChoixSauvegarde;
 
 import javax.swing.*;
-import javax.swing.filechooser.FileNameExtensionFilter;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.KeyEvent;
@@ -109,13 +109,9 @@ public class ParametrePanel extends JPanel {
     }
 
     private void actionCharger(ActionEvent e) {
-        JFileChooser chooser = new JFileChooser(SAVES_PATH);
-        FileNameExtensionFilter filter = new FileNameExtensionFilter(
-                "Sauvegardes", "sav");
-        chooser.setFileFilter(filter);
-        int returnVal = chooser.showOpenDialog(this);
-        if (returnVal == JFileChooser.APPROVE_OPTION) {
-            panel_plateau.getJeu().charger(chooser.getSelectedFile().getName());
+        String nom = ChoixSauvegarde.choisir(this);
+        if (nom != null) {
+            panel_plateau.getJeu().charger(nom);
             this.setVisible(false);
         }
     }
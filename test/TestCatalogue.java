@@ -0,0 +1,180 @@
+import Historique.Catalogue;
+import Historique.Sauvegarde;
+import Modele.Jeu;
+import Patterns.Observateur;
+
+import Utile.ConfigurationPartie;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static Utile.Constante.IA_FACILE;
+import static Utile.Constante.SAVES_PATH;
+
+public class TestCatalogue implements Observateur {
+    private static Point[] moves = {
+        new Point(1,2),
+        new Point(2,1),
+        new Point(2,3),
+        new Point(3,2),
+        new Point(1,2),
+        new Point(1,3),
+        new Point(0,3),
+        new Point(2,3),
+        new Point(2,4),
+        new Point(1,4),
+        new Point(2,1),
+        new Point(2,2),
+        new Point(1,2)
+    };
+
+    private static Sauvegarde partie(ConfigurationPartie config, int nb_cases) {
+        byte[] cases = new byte[nb_cases];
+        for (int i = 0; i < nb_cases; i++) cases[i] = Sauvegarde.encoder(moves[i], Sauvegarde.typeAttendu(i));
+        return new Sauvegarde(config, cases, 0);
+    }
+
+    @Test
+    public void testAjouter(@TempDir File dossier) throws IOException {
+        File fichier = new File(dossier, "catalogue.idx");
+        Catalogue catalogue = Catalogue.ouvrir(fichier);
+
+        // Plus d'entrées que la projection initiale n'en contient, pour qu'elle soit agrandie.
+        int n = 3000;
+        ConfigurationPartie ia = new ConfigurationPartie(IA_FACILE, 0);
+        for (int i = 0; i < n; i++) {
+            File sauvegarde = new File(dossier, "partie_" + i + ".sav");
+            Assertions.assertTrue(sauvegarde.createNewFile());
+            sauvegarde.setLastModified(1_000_000_000_000L + 1000L * ((i * 7) % n));
+            catalogue.ajouter(sauvegarde, partie(i % 2 == 0 ? ia : new ConfigurationPartie(0, 0), 1 + i % moves.length));
+            sauvegarde.delete();
+        }
+        // Une sauvegarde réécrite garde son entrée.
+        File reecrite = new File(dossier, "partie_5.sav");
+        Assertions.assertTrue(reecrite.createNewFile());
+        catalogue.ajouter(reecrite, partie(ia, moves.length));
+        reecrite.delete();
+        catalogue.fermer();
+
+        Catalogue relu = Catalogue.ouvrir(fichier);
+        Assertions.assertEquals(n, relu.getNbParties());
+        Assertions.assertEquals(5, relu.indice("partie_5.sav"));
+        Assertions.assertEquals(moves.length, relu.getLongueur(5));
+        Assertions.assertEquals(IA_FACILE, relu.getIaMode1(5));
+
+        // La position finale est celle de la partie jouée.
+        Jeu game = new Jeu(this);
+        for (Point move : moves) game.jouer(move);
+        Assertions.assertEquals(game.getMoteur().getPlateau().getHash(), relu.getHash(5));
+        Assertions.assertEquals(0, relu.getGagnant(5));
+
+        int[] recentes = relu.lister(null, Catalogue.TRI_DATE, true);
+        Assertions.assertEquals(n, recentes.length);
+        for (int i = 1; i < n; i++) {
+            Assertions.assertTrue(relu.getDate(recentes[i - 1]) >= relu.getDate(recentes[i]));
+        }
+        int[] contre_ia = relu.lister(i -> relu.getIaMode1(i) > 0, Catalogue.TRI_LONGUEUR, false);
+        Assertions.assertEquals(n / 2 + 1, contre_ia.length, "La partie réécrite est maintenant contre l'IA!");
+        for (int i = 1; i < contre_ia.length; i++) {
+            Assertions.assertTrue(relu.getLongueur(contre_ia[i - 1]) <= relu.getLongueur(contre_ia[i]));
+        }
+        relu.fermer();
+    }
+
+    @Test
+    public void testReconstruire(@TempDir File dossier) throws IOException {
+        Sauvegarde sauvegarde = partie(new ConfigurationPartie(0, 0), moves.length);
+        for (int i = 0; i < 3; i++) {
+            File f = new File(dossier, "partie_" + i + ".sav");
+            sauvegarde.ecrire(f);
+        }
+        File illisible = new File(dossier, "illisible.sav");
+        Files.write(illisible.toPath(), new byte[]{1, 2, 3});
+
+        File fichier = new File(dossier, "catalogue.idx");
+        Files.write(fichier.toPath(), new byte[]{1, 2, 3});
+        Assertions.assertThrows(IOException.class, () -> Catalogue.ouvrir(fichier), "Un catalogue invalide doit être refusé!");
+        Catalogue catalogue = Catalogue.reconstruire(fichier, dossier);
+        Assertions.assertEquals(3, catalogue.getNbParties());
+        Assertions.assertEquals(-1, catalogue.indice("illisible.sav"));
+        catalogue.fermer();
+    }
+
+    @Test
+    public void testSynchroniser(@TempDir File dossier) throws IOException {
+        Sauvegarde sauvegarde = partie(new ConfigurationPartie(0, 0), moves.length);
+        for (int i = 0; i < 4; i++) {
+            File f = new File(dossier, "partie_" + i + ".sav");
+            sauvegarde.ecrire(f);
+        }
+        File fichier = new File(dossier, "catalogue.idx");
+        Catalogue catalogue = Catalogue.reconstruire(fichier, dossier);
+        Assertions.assertEquals(4, catalogue.getNbParties());
+        Assertions.assertFalse(catalogue.synchroniser(dossier), "Un dossier inchangé ne doit pas être relu!");
+
+        // Une sauvegarde supprimée et une autre copiée hors du jeu.
+        Assertions.assertTrue(new File(dossier, "partie_1.sav").delete());
+        File copiee = new File(dossier, "copiee.sav");
+        partie(new ConfigurationPartie(IA_FACILE, 0), 3).ecrire(copiee);
+        Assertions.assertTrue(dossier.setLastModified(dossier.lastModified() + 2000));
+
+        Assertions.assertTrue(catalogue.synchroniser(dossier));
+        Assertions.assertEquals(4, catalogue.getNbParties());
+        Assertions.assertEquals(-1, catalogue.indice("partie_1.sav"), "Une sauvegarde supprimée doit être retirée!");
+        int i = catalogue.indice("copiee.sav");
+        Assertions.assertNotEquals(-1, i, "Une sauvegarde copiée doit être ajoutée!");
+        Assertions.assertEquals(3, catalogue.getLongueur(i));
+        Assertions.assertEquals(IA_FACILE, catalogue.getIaMode1(i));
+        for (int k : new int[]{0, 2, 3}) {
+            Assertions.assertNotEquals(-1, catalogue.indice("partie_" + k + ".sav"));
+        }
+        catalogue.fermer();
+
+        // La synchronisation est gardée dans le fichier.
+        Catalogue relu = Catalogue.ouvrir(fichier);
+        Assertions.assertFalse(relu.synchroniser(dossier));
+        Assertions.assertEquals(4, relu.getNbParties());
+        relu.fermer();
+    }
+
+    @Test
+    public void testEnregistrer(@TempDir File dossier) throws IOException {
+        Sauvegarde.setDossier(dossier);
+        try {
+            Sauvegarde sauvegarde = partie(new ConfigurationPartie(0, 0), moves.length);
+            for (int i = 0; i < 3; i++) {
+                Catalogue.enregistrer(Sauvegarde.fichier("partie_" + i + ".sav"), sauvegarde);
+                Catalogue catalogue = Catalogue.getCatalogue();
+                Assertions.assertEquals(i + 1, catalogue.getNbParties());
+                Assertions.assertFalse(catalogue.synchroniser(dossier), "Une sauvegarde du jeu ne doit pas faire relire le dossier!");
+            }
+        } finally {
+            Catalogue.fermerCatalogue();
+            Sauvegarde.setDossier(new File(SAVES_PATH));
+        }
+    }
+
+    @Test
+    public void testListerApres2038(@TempDir File dossier) throws IOException {
+        Catalogue catalogue = Catalogue.ouvrir(new File(dossier, "catalogue.idx"));
+        long[] dates = {2_200_000_000_000L, 1_000_000_000_000L, 4_000_000_000_000L};
+        for (int i = 0; i < dates.length; i++) {
+            File sauvegarde = new File(dossier, "partie_" + i + ".sav");
+            Assertions.assertTrue(sauvegarde.createNewFile());
+            Assertions.assertTrue(sauvegarde.setLastModified(dates[i]));
+            catalogue.ajouter(sauvegarde, partie(new ConfigurationPartie(0, 0), 1));
+        }
+        Assertions.assertArrayEquals(new int[]{2, 0, 1}, catalogue.lister(null, Catalogue.TRI_DATE, true));
+        Assertions.assertArrayEquals(new int[]{1, 0, 2}, catalogue.lister(null, Catalogue.TRI_DATE, false));
+        catalogue.fermer();
+    }
+
+    @Override
+    public void miseAjour() {
+    }
+}
@@ -1,18 +1,36 @@
+import Historique.Catalogue;
+import Historique.Sauvegarde;
+import IA.IAFacile;
+import IA.Niveau;
 import Modele.Jeu;
 import Patterns.Observateur;
 
 import Utile.ConfigurationPartie;
+import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import java.awt.*;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
 import java.util.Scanner;
 
+import static Utile.Constante.IA_FACILE;
 import static Utile.Constante.SAVES_PATH;
+import static Utile.Constante.JOUEUR1;
+import static Utile.Constante.JOUEUR2;
+import static Utile.Constante.PERIODE_INSTANTANES;
+import static Utile.Constante.IA_NORMAL;
 
 public class TestHistorique implements Observateur {
+    private int mises_a_jour;
+
     private static Point[] moves = {
         new Point(1,2),
         new Point(2,1),
@@ -29,6 +47,23 @@ public class TestHistorique implements Observateur {
         new Point(1,2)
     };
 
+    /**
+     * Dossier des sauvegardes des tests, pour qu'elles n'apparaissent pas dans celles du jeu.
+     */
+    @TempDir
+    static File dossier;
+
+    @BeforeAll
+    public static void dossierTemporaire() {
+        Sauvegarde.setDossier(dossier);
+    }
+
+    @AfterAll
+    public static void dossierDuJeu() throws IOException {
+        Catalogue.fermerCatalogue();
+        Sauvegarde.setDossier(new File(SAVES_PATH));
+    }
+
     @Test
     public void testHistoriqueVide() {
         Jeu game = new Jeu(this);
@@ -95,8 +130,199 @@ public class TestHistorique implements Observateur {
         Assertions.assertTrue(g1.getHistorique().equals(g2.getHistorique()));
     }
 
+    @Test
+    public void testChargerAncienneSauvegarde() throws IOException {
+        // Les sauvegardes antérieures aux niveaux ne donnent que le mode de chaque IA.
+        String filename = "test_ancienne_sauvegarde.sav";
+        try (FileWriter fichier = new FileWriter(Sauvegarde.fichier(filename))) {
+            fichier.write(IA_NORMAL + " 0 0 true\n1 2, \n0");
+        }
+        Jeu game = new Jeu(this);
+        game.charger(filename);
+        Sauvegarde.fichier(filename).delete();
+
+        Assertions.assertEquals(IA_NORMAL, game.getConfigurationPartie().getIaMode1());
+        Assertions.assertEquals(Niveau.NORMALE, game.getConfigurationPartie().getNiveau1());
+        Assertions.assertNull(game.getConfigurationPartie().getNiveau2());
+        Assertions.assertTrue(game.getHistorique().peutAnnuler());
+    }
+
+    @Test
+    public void testSaveLoadNiveau() {
+        ConfigurationPartie config = new ConfigurationPartie(IA_FACILE, 0);
+        config.setNiveau1(Niveau.getNiveau(7));
+        Jeu g1 = new Jeu(this, config);
+        Jeu g2 = new Jeu(this);
+        g1.jouer(moves[0]);
+
+        g2.charger(g1.sauvegarder());
+
+        Assertions.assertEquals(Niveau.getNiveau(7), g2.getConfigurationPartie().getNiveau1());
+        Assertions.assertTrue(g1.equals(g2));
+    }
+
+    @Test
+    public void testSauvegardeBinaire() throws IOException {
+        Jeu game = new Jeu(this);
+        for (Point move : moves) game.jouer(move);
+        game.annuler();
+        File fichier = Sauvegarde.fichier(game.sauvegarder());
+
+        // En-tête sans niveau, nombres de cases et d'annulations, un octet par case, CRC32.
+        Assertions.assertEquals(9 + 8 + moves.length + 4, fichier.length());
+        Sauvegarde sauvegarde = Sauvegarde.lire(fichier);
+        Assertions.assertEquals(game.getConfigurationPartie(), sauvegarde.getConfiguration());
+        Assertions.assertEquals(moves.length, sauvegarde.getNbCases());
+        Assertions.assertEquals(1, sauvegarde.getNbAnnuler());
+        for (int i = 0; i < moves.length; i++) {
+            Assertions.assertEquals(moves[i], sauvegarde.getCase(i));
+            Assertions.assertEquals(Sauvegarde.typeAttendu(i), sauvegarde.getType(i));
+        }
+
+        byte[] octets = Files.readAllBytes(fichier.toPath());
+        octets[20] ^= 1;
+        Files.write(fichier.toPath(), octets);
+        Assertions.assertThrows(IOException.class, () -> Sauvegarde.lire(fichier), "Une sauvegarde corrompue doit être refusée!");
+    }
+
+    @Test
+    public void testChargerTexteSansCoupJoue() throws IOException {
+        // Une partie dont tout a été annulé commence par un séparateur dans l'ancien format.
+        File fichier = File.createTempFile("sauvegarde", ".sav", dossier);
+        try (FileWriter sortie = new FileWriter(fichier)) {
+            sortie.write("0 0 0 true\n, 1 2\n1");
+        }
+        Sauvegarde sauvegarde = Sauvegarde.lire(fichier);
+        Assertions.assertEquals(1, sauvegarde.getNbCases());
+        Assertions.assertEquals(new Point(1, 2), sauvegarde.getCase(0));
+        Assertions.assertEquals(Sauvegarde.TYPE_PLACEMENT, sauvegarde.getType(0));
+        Assertions.assertEquals(1, sauvegarde.getNbAnnuler());
+    }
+
+    @Test
+    public void testBlocageRefait() {
+        // Première partie au hasard finie par le blocage d'un joueur : le dernier coup est alors une construction,
+        // et aucun batisseur n'est sélectionné.
+        Jeu game = null;
+        for (long graine = 0; graine < 1000 && game == null; graine++) {
+            Jeu g = new Jeu(this);
+            IAFacile[] ias = {new IAFacile(g.getMoteur(), JOUEUR1), new IAFacile(g.getMoteur(), JOUEUR2)};
+            ias[0].setGraine(graine);
+            ias[1].setGraine(graine + 1000);
+            while (!g.estJeufini()) g.jouer(ias[g.getMoteur().getIndexJoueurEnCours()].joue());
+            if (g.getMoteur().getBatisseurEnCours() == null) game = g;
+        }
+        Assertions.assertNotNull(game, "Aucune partie finie par un blocage!");
+        int gagnant = game.getMoteur().getGagnant();
+
+        game.annuler();
+        Assertions.assertFalse(game.estJeufini(), "Annuler le coup bloquant doit reprendre la partie!");
+        Assertions.assertEquals(0, game.getMoteur().getGagnant());
+        game.refaire();
+        Assertions.assertTrue(game.estJeufini(), "Refaire le coup bloquant doit finir la partie!");
+        Assertions.assertEquals(gagnant, game.getMoteur().getGagnant());
+    }
+
+    @Test
+    public void testChargementDirect() throws IOException {
+        // Partie complète entre deux IA jouant au hasard, dont les derniers coups sont annulés.
+        Jeu g1 = new Jeu(this);
+        IAFacile[] ias = {new IAFacile(g1.getMoteur(), JOUEUR1), new IAFacile(g1.getMoteur(), JOUEUR2)};
+        while (!g1.estJeufini()) {
+            g1.jouer(ias[g1.getMoteur().getIndexJoueurEnCours()].joue());
+        }
+        for (int i = 0; i < 4; i++) g1.annuler();
+        File fichier = Sauvegarde.fichier(g1.sauvegarder());
+
+        Jeu g2 = new Jeu(this);
+        int avant = mises_a_jour;
+        g2.charger(Sauvegarde.lire(fichier));
+        Assertions.assertEquals(1, mises_a_jour - avant, "Les observateurs ne doivent être prévenus qu'une fois!");
+        Assertions.assertTrue(g1.equals(g2));
+        Assertions.assertTrue(g1.getHistorique().equals(g2.getHistorique()));
+
+        while (g1.getHistorique().peutRefaire()) {
+            g1.refaire();
+            g2.refaire();
+        }
+        Assertions.assertTrue(g1.equals(g2));
+        Assertions.assertTrue(g2.estJeufini());
+    }
+
+    /**
+     * @return deux jeux dans la même partie entre deux IA jouant au hasard, finie et comptant plusieurs instantanés
+     */
+    private Jeu[] partiesLongues() {
+        // Graines fixées : la partie obtenue (121 commandes) dépasse largement deux périodes d'instantanés.
+        Jeu g1 = new Jeu(this);
+        Jeu g2 = new Jeu(this);
+        IAFacile[] ias = {new IAFacile(g1.getMoteur(), JOUEUR1), new IAFacile(g1.getMoteur(), JOUEUR2)};
+        ias[0].setGraine(0);
+        ias[1].setGraine(1);
+        while (!g1.estJeufini()) {
+            Point position = ias[g1.getMoteur().getIndexJoueurEnCours()].joue();
+            g1.jouer(position);
+            g2.jouer(position);
+        }
+        Assertions.assertTrue(g1.getHistorique().getNbCommandes() > 2 * PERIODE_INSTANTANES,
+                "Partie trop courte pour couvrir plusieurs instantanés!");
+        return new Jeu[]{g1, g2};
+    }
+
+    @Test
+    public void testAllerA() throws IOException {
+        Jeu[] parties = partiesLongues();
+        Jeu g1 = parties[0];
+        Jeu g2 = parties[1];
+        int nb_commandes = g1.getHistorique().getNbCommandes();
+
+        // Chaque position atteinte par instantané doit être celle atteinte en refaisant une à une les commandes depuis
+        // le début (annuler un déplacement laisse en plus son batisseur sélectionné).
+        Random random = new Random(4);
+        for (int t = 0; t < 3 * nb_commandes; t++) {
+            int position = random.nextInt(nb_commandes + 1);
+            while (g1.getHistorique().peutAnnuler()) g1.annuler();
+            while (g1.getHistorique().getPosition() < position) g1.refaire();
+            int avant = mises_a_jour;
+            g2.allerA(position);
+            Assertions.assertEquals(1, mises_a_jour - avant, "Les observateurs ne doivent être prévenus qu'une fois!");
+            Assertions.assertEquals(position, g2.getHistorique().getPosition());
+            Assertions.assertTrue(g1.equals(g2), "Position " + position + " mal restaurée!");
+            Assertions.assertTrue(g1.getHistorique().equals(g2.getHistorique()));
+        }
+
+        Assertions.assertThrows(IndexOutOfBoundsException.class, () -> g2.allerA(nb_commandes + 1));
+
+        // Une nouvelle commande efface la suite de la partie et ses instantanés, repris ensuite sur la nouvelle suite.
+        g2.allerA(PERIODE_INSTANTANES - 1);
+        while (g2.getHistorique().getPosition() < PERIODE_INSTANTANES + 1) {
+            g2.jouer(new IAFacile(g2.getMoteur(), g2.getMoteur().getJoueurEnCours()).joue());
+        }
+        Assertions.assertEquals(PERIODE_INSTANTANES + 1, g2.getHistorique().getNbCommandes());
+        File fichier = Sauvegarde.fichier(g2.sauvegarder());
+        Jeu g3 = new Jeu(this);
+        g3.charger(Sauvegarde.lire(fichier));
+        g2.allerA(0);
+        g2.allerA(PERIODE_INSTANTANES + 1);
+        Assertions.assertTrue(g3.equals(g2), "Un instantané de l'ancienne suite a été restauré!");
+    }
+
+    @Test
+    public void testChargerCoupImpossible() throws IOException {
+        // Deux placements sur la même case.
+        File fichier = File.createTempFile("sauvegarde", ".sav", dossier);
+        try (FileWriter sortie = new FileWriter(fichier)) {
+            sortie.write("0 0 0 true\n1 2, 1 2\n0");
+        }
+        Jeu game = new Jeu(this);
+        Sauvegarde sauvegarde = Sauvegarde.lire(fichier);
+        int avant = mises_a_jour;
+        Assertions.assertThrows(IllegalArgumentException.class, () -> game.charger(sauvegarde));
+        Assertions.assertEquals(1, mises_a_jour - avant, "Le chargement doit se terminer même en échec!");
+    }
+
     @Override
     public void miseAjour() {
-
+        mises_a_jour++;
     }
 }
@@ -0,0 +1,269 @@
+import IA.Coup;
+import IA.EvaluationIncrementale;
+import IA.IADifficile;
+import Modele.MoteurJeu;
+import Modele.Plateau;
+import Modele.PlateauBinaire;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static Utile.Constante.*;
+
+public class TestIADifficile {
+
+    /**
+     * Construit un plateau aléatoire avec deux batisseurs par joueur, hors coupoles et toits.
+     */
+    private PlateauBinaire plateauAleatoire(Random random) {
+        Plateau plateau = new Plateau();
+        ArrayList<Point> b1 = new ArrayList<>();
+        ArrayList<Point> b2 = new ArrayList<>();
+        int nb_constructions = random.nextInt(30);
+        for (int i = 0; i < nb_constructions; i++) {
+            Point p = new Point(random.nextInt(PLATEAU_LIGNES), random.nextInt(PLATEAU_COLONNES));
+            if (!plateau.estCoupole(p)) plateau.ameliorerBatiment(p);
+        }
+        while (b1.size() + b2.size() < 4) {
+            Point p = new Point(random.nextInt(PLATEAU_LIGNES), random.nextInt(PLATEAU_COLONNES));
+            if (plateau.estLibre(p) && plateau.getTypeBatiments(p) < TOIT) {
+                ArrayList<Point> batisseurs = b1.size() < 2 ? b1 : b2;
+                plateau.ajouterJoueur(p, batisseurs == b1 ? JOUEUR1 : JOUEUR2);
+                batisseurs.add(p);
+            }
+        }
+        return new PlateauBinaire(plateau, b1, b2);
+    }
+
+    /**
+     * @return l'IA sans livre d'ouvertures ni résolution des fins de partie, pour comparer ses recherches seules
+     */
+    private static IADifficile rechercheSeule(IADifficile ia) {
+        ia.setLivre(null);
+        ia.setSeuilFinale(0);
+        return ia;
+    }
+
+    @Test
+    public void testAlphaBetaCommeMinimax() {
+        Random random = new Random(4);
+        for (int t = 0; t < 30; t++) {
+            PlateauBinaire plateau = plateauAleatoire(random);
+            PlateauBinaire copie = new PlateauBinaire(plateau);
+            int joueur = t % 2 == 0 ? JOUEUR1 : JOUEUR2;
+            int profondeur = 1 + t % 3;
+
+            IADifficile ia = rechercheSeule(new IADifficile(new MoteurJeu(), Long.MAX_VALUE / 2_000_000L, profondeur));
+            ia.minimax(plateau, joueur, joueur, 0, profondeur);
+            Coup attendu = ia.getMeilleurCoup();
+            Coup trouve = ia.chercherCoup(plateau, joueur);
+
+            Assertions.assertTrue(plateau.equals(copie), "La recherche doit restaurer le plateau!");
+            Assertions.assertEquals(String.valueOf(attendu), String.valueOf(trouve), "Coup différent de minimax à la profondeur " + profondeur);
+        }
+    }
+
+    @Test
+    public void testEvaluationIncrementale() {
+        Random random = new Random(8);
+        IADifficile ia = new IADifficile(new MoteurJeu(), 0, 1);
+        EvaluationIncrementale evaluation = IADifficile.nouvelleEvaluation(8);
+        int[] coups = new int[NOMBRE_COUPS_MAX];
+        for (int t = 0; t < 50; t++) {
+            PlateauBinaire plateau = plateauAleatoire(random);
+            evaluation.initialiser(plateau);
+            int[] joues = new int[8];
+            int nb_joues = 0;
+            int joueur = JOUEUR1;
+            while (nb_joues < joues.length && !evaluation.estFinie()) {
+                int nb_coups = plateau.genererCoups(joueur, coups, 0);
+                int coup = coups[random.nextInt(nb_coups)];
+                int construction = plateau.getHauteur(Coup.getDeplacement(coup)) == TOIT ? -1 : Coup.getConstruction(coup);
+                plateau.deplacer(Coup.getBatisseur(coup), Coup.getDeplacement(coup));
+                if (construction != -1) plateau.construire(construction);
+                evaluation.jouer(plateau, Coup.getBatisseur(coup), Coup.getDeplacement(coup), construction);
+                joues[nb_joues++] = construction == -1 ? coup | (1 << 15) : coup;
+                joueur = MoteurJeu.getAutreJoueur(joueur);
+                verifierEvaluation(ia, evaluation, plateau);
+            }
+            while (nb_joues > 0) {
+                int coup = joues[--nb_joues];
+                evaluation.annuler();
+                if ((coup & (1 << 15)) == 0) plateau.deconstruire(Coup.getConstruction(coup));
+                plateau.deplacer(Coup.getDeplacement(coup), Coup.getBatisseur(coup));
+                verifierEvaluation(ia, evaluation, plateau);
+            }
+        }
+    }
+
+    private void verifierEvaluation(IADifficile ia, EvaluationIncrementale evaluation, PlateauBinaire plateau) {
+        boolean finie = plateau.estBloque(JOUEUR1) || plateau.estBloque(JOUEUR2) || plateau.aGagne(JOUEUR1) || plateau.aGagne(JOUEUR2);
+        Assertions.assertEquals(finie, evaluation.estFinie(), "Fin de partie différente :\n" + plateau);
+        Assertions.assertEquals(ia.evaluer(plateau, JOUEUR1), evaluation.getScore(JOUEUR1), "Score incrémental différent :\n" + plateau);
+        Assertions.assertEquals(ia.evaluer(plateau, JOUEUR2), evaluation.getScore(JOUEUR2));
+    }
+
+    @Test
+    public void testTriCoups() {
+        Random random = new Random(9);
+        IADifficile avec_tri = rechercheSeule(new IADifficile(new MoteurJeu(), Long.MAX_VALUE, 4));
+        IADifficile sans_tri = rechercheSeule(new IADifficile(new MoteurJeu(), Long.MAX_VALUE, 4));
+        sans_tri.setTriCoups(false);
+        long noeuds_avec = 0, noeuds_sans = 0;
+        for (int t = 0; t < 20; t++) {
+            PlateauBinaire plateau = plateauAleatoire(random);
+            int joueur = t % 2 == 0 ? JOUEUR1 : JOUEUR2;
+            avec_tri.viderTable();
+            sans_tri.viderTable();
+
+            Coup attendu = sans_tri.chercherCoup(plateau, joueur);
+            Coup trouve = avec_tri.chercherCoup(plateau, joueur);
+            Assertions.assertEquals(String.valueOf(attendu), String.valueOf(trouve), "Le tri des coups ne doit pas changer le coup trouvé!");
+            noeuds_avec += avec_tri.getNoeuds();
+            noeuds_sans += sans_tri.getNoeuds();
+        }
+        Assertions.assertTrue(noeuds_avec < noeuds_sans, "Le tri doit réduire le nombre de nœuds : " + noeuds_avec + " contre " + noeuds_sans);
+    }
+
+    @Test
+    public void testRechercheParallele() {
+        Random random = new Random(6);
+        IADifficile sequentielle = rechercheSeule(new IADifficile(new MoteurJeu(), Long.MAX_VALUE, 3, 1));
+        IADifficile parallele = rechercheSeule(new IADifficile(new MoteurJeu(), Long.MAX_VALUE, 3, 4));
+        for (int t = 0; t < 20; t++) {
+            PlateauBinaire plateau = plateauAleatoire(random);
+            int joueur = t % 2 == 0 ? JOUEUR1 : JOUEUR2;
+
+            Coup attendu = sequentielle.chercherCoup(plateau, joueur);
+            Coup trouve = parallele.chercherCoup(plateau, joueur);
+            Assertions.assertEquals(String.valueOf(attendu), String.valueOf(trouve), "La recherche parallèle doit trouver le même coup!");
+        }
+        parallele.fermer();
+    }
+
+    @Test
+    public void testTempsDeReflexion() {
+        PlateauBinaire plateau = plateauAleatoire(new Random(5));
+        IADifficile ia = new IADifficile(new MoteurJeu(), 0, IA_PROFONDEUR_MAX);
+
+        Assertions.assertNotNull(ia.chercherCoup(plateau, JOUEUR1), "La profondeur 1 doit toujours fournir un coup!");
+        Assertions.assertTrue(ia.getProfondeurAtteinte() >= 1);
+    }
+
+    @Test
+    public void testReflexionAnticipee() throws InterruptedException {
+        PlateauBinaire plateau = plateauAleatoire(new Random(10));
+        IADifficile ia = new IADifficile(new MoteurJeu(), 200, IA_PROFONDEUR_MAX);
+        Assertions.assertNull(ia.preparerReflexion(plateau, JOUEUR2), "La réflexion anticipée doit être désactivée par défaut!");
+        ia.setReflexionAnticipee(true);
+
+        // Un arrêt demandé avant le début de la réflexion l'empêche de démarrer.
+        Runnable reflexion = ia.preparerReflexion(plateau, JOUEUR2);
+        ia.arreter();
+        Thread fil = new Thread(reflexion);
+        fil.start();
+        fil.join(5000);
+        Assertions.assertFalse(fil.isAlive(), "Une réflexion arrêtée ne doit pas démarrer!");
+
+        fil = new Thread(ia.preparerReflexion(plateau, JOUEUR2));
+        fil.start();
+        Thread.sleep(1000);
+        ia.arreter();
+        fil.join(5000);
+        Assertions.assertFalse(fil.isAlive(), "La réflexion doit s'arrêter quand on lui demande!");
+
+        Coup prevu = ia.getCoupAdversePrevu();
+        Assertions.assertNotNull(prevu);
+        PlateauBinaire attendu = new PlateauBinaire(plateau);
+        attendu.deplacer(Coup.getBatisseur(prevu.encoder()), Coup.getDeplacement(prevu.encoder()));
+        attendu.construire(Coup.getConstruction(prevu.encoder()));
+
+        Assertions.assertNotNull(ia.chercherCoup(attendu, JOUEUR1));
+        Assertions.assertEquals(0, ia.getNoeuds(), "Le coup prévu doit être joué sans nouvelle recherche!");
+        Assertions.assertNotNull(ia.chercherCoup(attendu, JOUEUR1));
+        Assertions.assertTrue(ia.getNoeuds() > 0, "La réflexion ne sert qu'une fois!");
+    }
+
+    @Test
+    public void testArreter() throws InterruptedException {
+        PlateauBinaire plateau = plateauAleatoire(new Random(7));
+        IADifficile ia = new IADifficile(new MoteurJeu(), Long.MAX_VALUE, IA_PROFONDEUR_MAX);
+        Coup[] trouve = new Coup[1];
+        Thread recherche = new Thread(() -> trouve[0] = ia.chercherCoup(plateau, JOUEUR1));
+
+        recherche.start();
+        Thread.sleep(200);
+        ia.arreter();
+        recherche.join(5000);
+        Assertions.assertFalse(recherche.isAlive(), "La recherche doit s'arrêter quand on lui demande!");
+        Assertions.assertNotNull(trouve[0], "Le meilleur coup déjà trouvé doit être renvoyé!");
+    }
+
+    @Test
+    public void testArreterAvantRecherche() {
+        PlateauBinaire plateau = plateauAleatoire(new Random(7));
+        IADifficile ia = rechercheSeule(new IADifficile(new MoteurJeu(), Long.MAX_VALUE, IA_PROFONDEUR_MAX));
+        Supplier<Coup> recherche = ia.preparerRecherche(plateau, JOUEUR1);
+        ia.arreter();
+        Assertions.assertNull(recherche.get(), "Un arrêt demandé avant le début de la recherche ne doit pas être perdu!");
+
+        // Une recherche préparée après l'arrêt n'en tient pas compte.
+        ia = new IADifficile(new MoteurJeu(), Long.MAX_VALUE, 2);
+        ia.arreter();
+        Assertions.assertNotNull(ia.preparerRecherche(plateau, JOUEUR1).get());
+    }
+
+    @Test
+    public void testLimiteNoeuds() {
+        Random random = new Random(11);
+        IADifficile ia = new IADifficile(new MoteurJeu(), Long.MAX_VALUE, IA_PROFONDEUR_MAX, 20_000, 0, 1);
+        ia.setLivre(null);
+        for (int t = 0; t < 10; t++) {
+            PlateauBinaire plateau = plateauAleatoire(random);
+            Assertions.assertNotNull(ia.chercherCoup(plateau, JOUEUR1));
+            // La limite est vérifiée toutes les 1024 positions.
+            Assertions.assertTrue(ia.getNoeuds() <= 20_000 + 1024, "Trop de positions explorées : " + ia.getNoeuds());
+            Assertions.assertTrue(ia.getProfondeurAtteinte() >= 1);
+        }
+    }
+
+    @Test
+    public void testBruit() {
+        Random random = new Random(12);
+        IADifficile sans_bruit = new IADifficile(new MoteurJeu(), Long.MAX_VALUE, 2, 0, 0, 1);
+        IADifficile bruitee = new IADifficile(new MoteurJeu(), Long.MAX_VALUE, 2, 0, 5000, 1);
+        IADifficile meme_graine = new IADifficile(new MoteurJeu(), Long.MAX_VALUE, 2, 0, 5000, 1);
+        bruitee.setGraine(3);
+        meme_graine.setGraine(3);
+        int differents = 0;
+        for (int t = 0; t < 20; t++) {
+            PlateauBinaire plateau = plateauAleatoire(random);
+            Coup attendu = bruitee.chercherCoup(plateau, JOUEUR1);
+            Assertions.assertEquals(String.valueOf(attendu), String.valueOf(meme_graine.chercherCoup(plateau, JOUEUR1)), "La graine doit fixer le bruit!");
+            if (!String.valueOf(attendu).equals(String.valueOf(sans_bruit.chercherCoup(plateau, JOUEUR1)))) differents++;
+        }
+        Assertions.assertTrue(differents > 0, "Le bruit doit changer des coups!");
+    }
+
+    @Test
+    public void testAdversaireBloque() {
+        // Le joueur 2 est enfermé dans deux coins par des coupoles, mais le joueur 1 doit encore jouer.
+        PlateauBinaire plateau = new PlateauBinaire();
+        for (int c : new int[]{1, 5, 6, 18, 19, 23}) {
+            for (int i = 0; i < 4; i++) plateau.construire(c);
+        }
+        plateau.ajouterBatisseur(JOUEUR1, 12);
+        plateau.ajouterBatisseur(JOUEUR1, 13);
+        plateau.ajouterBatisseur(JOUEUR2, 0);
+        plateau.ajouterBatisseur(JOUEUR2, 24);
+        Assertions.assertTrue(plateau.estBloque(JOUEUR2));
+
+        IADifficile ia = new IADifficile(new MoteurJeu(), Long.MAX_VALUE, 3);
+        Assertions.assertNotNull(ia.chercherCoup(plateau, JOUEUR1), "Un adversaire bloqué ne dispense pas de jouer!");
+    }
+}
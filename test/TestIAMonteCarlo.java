@@ -0,0 +1,92 @@
+import IA.Coup;
+import IA.IAMonteCarlo;
+import Modele.MoteurJeu;
+import Modele.PlateauBinaire;
+import Outils.Tournoi;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static Utile.Constante.*;
+
+public class TestIAMonteCarlo {
+
+    /**
+     * Construit un plateau à partir des hauteurs des 25 cases et des cases des batisseurs.
+     */
+    private PlateauBinaire plateau(int[] hauteurs, int j1a, int j1b, int j2a, int j2b) {
+        PlateauBinaire plateau = new PlateauBinaire();
+        for (int c = 0; c < hauteurs.length; c++) {
+            for (int h = 0; h < hauteurs[c]; h++) plateau.construire(c);
+        }
+        plateau.ajouterBatisseur(JOUEUR1, j1a);
+        plateau.ajouterBatisseur(JOUEUR1, j1b);
+        plateau.ajouterBatisseur(JOUEUR2, j2a);
+        plateau.ajouterBatisseur(JOUEUR2, j2b);
+        return plateau;
+    }
+
+    private IAMonteCarlo creerIA(int nbFils, long graine) {
+        IAMonteCarlo ia = new IAMonteCarlo(new MoteurJeu(), JOUEUR1, Long.MAX_VALUE, 4000, nbFils, true);
+        ia.setGraine(graine);
+        return ia;
+    }
+
+    @Test
+    public void testMonteeGagnante() {
+        int[] hauteurs = new int[25];
+        hauteurs[0] = ETAGE;
+        hauteurs[1] = TOIT;
+        Coup coup = creerIA(1, 1).chercherCoup(plateau(hauteurs, 0, 24, 12, 20), JOUEUR1);
+        Assertions.assertEquals(1, Coup.getDeplacement(coup.encoder()), "L'IA doit monter sur le toit!");
+    }
+
+    @Test
+    public void testContre() {
+        int[] hauteurs = new int[25];
+        hauteurs[12] = ETAGE;
+        hauteurs[13] = TOIT;
+        Coup coup = creerIA(1, 2).chercherCoup(plateau(hauteurs, 7, 0, 12, 24), JOUEUR1);
+        Assertions.assertEquals(13, Coup.getConstruction(coup.encoder()), "L'IA doit poser une coupole sur la case menacée!");
+    }
+
+    @Test
+    public void testReproductible() {
+        int[] hauteurs = {0, 1, 0, 2, 0, 1, 0, 0, 1, 0, 0, 2, 1, 0, 0, 0, 0, 1, 0, 0, 3, 0, 0, 1, 0};
+        PlateauBinaire plateau = plateau(hauteurs, 6, 18, 8, 16);
+        String premier = String.valueOf(creerIA(1, 3).chercherCoup(plateau, JOUEUR1));
+        Assertions.assertEquals(premier, String.valueOf(creerIA(1, 3).chercherCoup(plateau, JOUEUR1)), "Même graine, même coup!");
+
+        IAMonteCarlo parallele = creerIA(2, 3);
+        Assertions.assertNotNull(parallele.chercherCoup(plateau, JOUEUR1));
+        Assertions.assertEquals(4000, parallele.getSimulations());
+        parallele.fermer();
+    }
+
+    @Test
+    public void testReutilisationArbre() {
+        int[] hauteurs = {0, 1, 0, 2, 0, 1, 0, 0, 1, 0, 0, 2, 1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 0, 1, 0};
+        PlateauBinaire plateau = plateau(hauteurs, 6, 18, 8, 16);
+        IAMonteCarlo ia = creerIA(1, 4);
+        Coup coup = ia.chercherCoup(plateau, JOUEUR1);
+        Assertions.assertEquals(0, ia.getVisitesReutilisees());
+
+        int c = coup.encoder();
+        plateau.deplacer(Coup.getBatisseur(c), Coup.getDeplacement(c));
+        plateau.construire(Coup.getConstruction(c));
+        int[] reponses = new int[NOMBRE_COUPS_MAX];
+        plateau.genererCoups(JOUEUR2, reponses, 0);
+        plateau.deplacer(Coup.getBatisseur(reponses[0]), Coup.getDeplacement(reponses[0]));
+        plateau.construire(Coup.getConstruction(reponses[0]));
+
+        Assertions.assertNotNull(ia.chercherCoup(plateau, JOUEUR1));
+        Assertions.assertTrue(ia.getVisitesReutilisees() > 0, "Le sous-arbre de la position jouée doit être réutilisé!");
+    }
+
+    @Test
+    public void testContreIAFacile() throws InterruptedException {
+        Tournoi tournoi = new Tournoi("montecarlo:100000:300", "facile", 10, 5);
+        tournoi.executer(1);
+        Assertions.assertTrue(tournoi.getVictoires(JOUEUR1) >= 8, "Monte-Carlo doit battre l'IA facile : " + tournoi.getVictoires(JOUEUR1) + "/10");
+    }
+}
@@ -0,0 +1,153 @@
+import Historique.Catalogue;
+import Historique.Journal;
+import Historique.Sauvegarde;
+import Modele.Jeu;
+import Modele.MoteurJeu;
+import Patterns.Observateur;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Random;
+
+import static Utile.Constante.*;
+
+public class TestJournal implements Observateur {
+    private static Point[] moves = {
+        new Point(1,2),
+        new Point(2,1),
+        new Point(2,3),
+        new Point(3,2),
+        new Point(1,2),
+        new Point(1,3),
+        new Point(0,3),
+        new Point(2,3),
+        new Point(2,4),
+        new Point(1,4),
+        new Point(2,1),
+        new Point(2,2),
+        new Point(1,2)
+    };
+
+    /**
+     * Dossier des sauvegardes des tests, pour qu'elles n'apparaissent pas dans celles du jeu.
+     */
+    @TempDir
+    static File dossier;
+
+    @BeforeAll
+    public static void dossierTemporaire() {
+        Sauvegarde.setDossier(dossier);
+    }
+
+    @AfterAll
+    public static void dossierDuJeu() throws IOException {
+        Catalogue.fermerCatalogue();
+        Sauvegarde.setDossier(new File(SAVES_PATH));
+    }
+
+    /**
+     * Joue une partie journalisée dont le dernier tour est annulé puis remplacé, et ferme son journal.
+     * @param reference partie jouée sans journal, dans le même état
+     */
+    private File jouerPartie(Jeu reference) throws IOException, InterruptedException {
+        File fichier = File.createTempFile("partie", Journal.EXTENSION, dossier);
+        Jeu game = new Jeu(this);
+        game.jouer(moves[0]);
+        game.getHistorique().setJournal(new Journal(fichier, Journal.SYNCHRONISATION_LOT, 0));
+        for (int i = 1; i < moves.length; i++) game.jouer(moves[i]);
+        game.annuler();
+        game.annuler();
+        game.jouer(moves[moves.length - 3]);
+        game.jouer(new Point(3, 1));
+        game.jouer(new Point(4, 1));
+
+        for (int i = 0; i < moves.length - 2; i++) reference.jouer(moves[i]);
+        reference.jouer(new Point(3, 1));
+        reference.jouer(new Point(4, 1));
+        Assertions.assertTrue(game.equals(reference));
+
+        Journal journal = game.getHistorique().getJournal();
+        journal.fermer(false);
+        journal.attendre();
+        Assertions.assertFalse(journal.estArrete());
+        return fichier;
+    }
+
+    @Test
+    public void testReprise() throws IOException, InterruptedException {
+        Jeu reference = new Jeu(this);
+        File fichier = jouerPartie(reference);
+
+        Jeu game = new Jeu(this);
+        game.charger(Journal.lire(fichier));
+        Assertions.assertTrue(game.equals(reference));
+        Assertions.assertFalse(game.getHistorique().peutRefaire());
+    }
+
+    @Test
+    public void testEnregistrementIncomplet() throws IOException, InterruptedException {
+        File fichier = jouerPartie(new Jeu(this));
+        int nb_cases = Journal.lire(fichier).getNbCases();
+
+        // Un enregistrement au code faux, puis un autre interrompu par l'arrêt du programme.
+        Files.write(fichier.toPath(), new byte[]{0, 0, 0, 12, 0x53, -1, 0, 0, 0, 0, 0}, StandardOpenOption.APPEND);
+        Sauvegarde sauvegarde = Journal.lire(fichier);
+        Assertions.assertEquals(nb_cases, sauvegarde.getNbCases());
+        Assertions.assertEquals(0, sauvegarde.getNbAnnuler());
+    }
+
+    @Test
+    public void testFermeture() throws IOException, InterruptedException {
+        File fichier = File.createTempFile("partie", Journal.EXTENSION, dossier);
+        Jeu game = new Jeu(this);
+        Journal journal = new Journal(fichier, Journal.SYNCHRONISATION_AUCUNE, 0);
+        game.getHistorique().setJournal(journal);
+        game.jouer(moves[0]);
+        journal.fermer(true);
+        journal.attendre();
+        Assertions.assertFalse(fichier.exists(), "Le journal d'une partie terminée doit être supprimé!");
+    }
+
+    @Test
+    public void testFinDePartie() throws InterruptedException {
+        // Partie jouée au hasard jusqu'à la victoire d'un joueur.
+        Random random = new Random(4);
+        MoteurJeu moteur = new MoteurJeu();
+        ArrayList<Point> cases = new ArrayList<>();
+        while (!moteur.estJeufini()) {
+            Point p = new Point(random.nextInt(5), random.nextInt(5));
+            if (moteur.jouer(p) != AUCUNE_ACTION) cases.add(p);
+        }
+
+        Jeu game = new Jeu(this);
+        game.ouvrirJournal();
+        Journal journal = game.getHistorique().getJournal();
+        for (int i = 0; i < cases.size() - 1; i++) game.jouer(cases.get(i));
+        Assertions.assertSame(journal, game.getHistorique().getJournal());
+        game.jouer(cases.get(cases.size() - 1));
+        Assertions.assertTrue(game.estJeufini());
+        Assertions.assertNull(game.getHistorique().getJournal());
+        journal.attendre();
+        Assertions.assertFalse(journal.getFichier().exists(), "Le journal d'une partie finie doit être supprimé!");
+
+        // Le dernier coup annulé, la partie reprend avec un nouveau journal.
+        game.annuler();
+        Assertions.assertNotNull(game.getHistorique().getJournal());
+        game.fermerJournal(true);
+        Assertions.assertNull(game.getHistorique().getJournal());
+    }
+
+    @Override
+    public void miseAjour() {
+    }
+}
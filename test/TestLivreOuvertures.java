@@ -0,0 +1,150 @@
+import IA.Coup;
+import IA.IADifficile;
+import IA.LivreOuvertures;
+import IA.Poids;
+import Modele.MoteurJeu;
+import Modele.PlateauBinaire;
+import Modele.Symetries;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static Modele.Symetries.NB_SYMETRIES;
+import static Utile.Constante.*;
+
+public class TestLivreOuvertures {
+
+    /**
+     * Plateau aléatoire sans symétrie propre : deux batisseurs par joueur et quelques constructions.
+     */
+    private PlateauBinaire plateauAleatoire(Random random) {
+        PlateauBinaire plateau;
+        do {
+            plateau = new PlateauBinaire();
+            for (int i = 0; i < 6; i++) {
+                int c = random.nextInt(25);
+                if (plateau.getHauteur(c) < TOIT) plateau.construire(c);
+            }
+            while (plateau.getPosition(JOUEUR2, 1) == -1) {
+                int c = random.nextInt(25);
+                if (plateau.getHauteur(c) < TOIT && (plateau.getOccupees() & (1 << c)) == 0) {
+                    plateau.ajouterBatisseur(plateau.getPosition(JOUEUR1, 1) == -1 ? JOUEUR1 : JOUEUR2, c);
+                }
+            }
+        } while (estSymetrique(plateau));
+        return plateau;
+    }
+
+    private boolean estSymetrique(PlateauBinaire plateau) {
+        for (int s = 1; s < NB_SYMETRIES; s++) {
+            if (Symetries.hash(plateau, s) == plateau.getHash()) return true;
+        }
+        return false;
+    }
+
+    @Test
+    public void testFormeCanonique() {
+        Random random = new Random(1);
+        for (int t = 0; t < 100; t++) {
+            PlateauBinaire plateau = plateauAleatoire(random);
+            Assertions.assertEquals(plateau.getHash(), Symetries.hash(plateau, 0));
+            long cle = LivreOuvertures.cle(plateau, JOUEUR1);
+            Assertions.assertNotEquals(cle, LivreOuvertures.cle(plateau, JOUEUR2), "Le trait doit faire partie de la clé!");
+            long[] hashs = new long[NB_SYMETRIES];
+            Symetries.hashs(plateau, hashs);
+            for (int s = 0; s < NB_SYMETRIES; s++) {
+                PlateauBinaire image = Symetries.appliquer(s, plateau);
+                Assertions.assertEquals(Symetries.hash(plateau, s), image.getHash());
+                Assertions.assertEquals(hashs[s], image.getHash());
+                Assertions.assertEquals(cle, LivreOuvertures.cle(image, JOUEUR1), "Une position symétrique doit avoir la même clé!");
+            }
+        }
+    }
+
+    @Test
+    public void testEcrireOuvrir() throws IOException {
+        Random random = new Random(2);
+        int[] coups = new int[NOMBRE_COUPS_MAX];
+        List<PlateauBinaire> plateaux = new ArrayList<>();
+        List<Integer> coups_livre = new ArrayList<>();
+        List<LivreOuvertures.Entree> entrees = new ArrayList<>();
+        for (int t = 0; t < 50; t++) {
+            PlateauBinaire plateau = plateauAleatoire(random);
+            int nb_coups = plateau.genererCoups(JOUEUR1, coups, 0);
+            if (nb_coups == 0) continue;
+            int coup = coups[random.nextInt(nb_coups)];
+            plateaux.add(plateau);
+            coups_livre.add(coup);
+            entrees.add(new LivreOuvertures.Entree(plateau, JOUEUR1, coup, t, 6));
+        }
+        File fichier = File.createTempFile("livre", ".bin");
+        fichier.deleteOnExit();
+        Poids poids = new Poids(1, 2, 3, 4);
+        LivreOuvertures.ecrire(fichier, poids, entrees);
+        LivreOuvertures livre = LivreOuvertures.ouvrir(fichier);
+        Assertions.assertEquals(entrees.size(), livre.getNbPositions());
+        Assertions.assertEquals(poids, livre.getPoids(), "Les poids de la recherche doivent être relus!");
+
+        for (int i = 0; i < plateaux.size(); i++) {
+            Assertions.assertEquals(-1, livre.chercher(plateaux.get(i), JOUEUR2), "Le trait doit compter!");
+            for (int s = 0; s < NB_SYMETRIES; s++) {
+                PlateauBinaire image = Symetries.appliquer(s, plateaux.get(i));
+                int indice = livre.chercher(image, JOUEUR1);
+                Assertions.assertNotEquals(-1, indice, "Une position symétrique doit être trouvée!");
+                Assertions.assertEquals(Symetries.appliquerCoup(s, coups_livre.get(i)), livre.getCoup(indice, image), "Le coup doit suivre la symétrie!");
+                Assertions.assertEquals(6, livre.getProfondeur(indice));
+            }
+        }
+    }
+
+    @Test
+    public void testLivreFourni() throws IOException {
+        LivreOuvertures livre = LivreOuvertures.ouvrir(new File(FICHIER_LIVRE));
+        Assertions.assertTrue(livre.getNbPositions() > 0);
+        Assertions.assertEquals(Poids.getPoids(), livre.getPoids(), "Le livre fourni doit suivre les poids de l'heuristique!");
+
+        IADifficile ia = new IADifficile(new MoteurJeu(), Long.MAX_VALUE, 2);
+        ia.setLivre(livre);
+        Random random = new Random(3);
+        int trouvees = 0;
+        int[] coups = new int[NOMBRE_COUPS_MAX];
+        for (int a = 0; a < 25 && trouvees == 0; a++) {
+            for (int b = a + 1; b < 25; b++) {
+                for (int c = 0; c < 25; c++) {
+                    for (int d = c + 1; d < 25; d++) {
+                        if (c == a || c == b || d == a || d == b) continue;
+                        PlateauBinaire plateau = new PlateauBinaire();
+                        plateau.ajouterBatisseur(JOUEUR1, a);
+                        plateau.ajouterBatisseur(JOUEUR1, b);
+                        plateau.ajouterBatisseur(JOUEUR2, c);
+                        plateau.ajouterBatisseur(JOUEUR2, d);
+                        if (livre.chercher(plateau, JOUEUR1) == -1) continue;
+                        trouvees++;
+
+                        Coup coup = ia.chercherCoup(plateau, JOUEUR1);
+                        Assertions.assertEquals(0, ia.getNoeuds(), "Une position du livre doit être jouée sans recherche!");
+                        Assertions.assertEquals(6, ia.getProfondeurAtteinte());
+                        boolean legal = false;
+                        int nb_coups = plateau.genererCoups(JOUEUR1, coups, 0);
+                        for (int k = 0; k < nb_coups; k++) {
+                            legal |= coups[k] == coup.encoder();
+                        }
+                        Assertions.assertTrue(legal, "Le coup du livre doit être légal!");
+                    }
+                }
+            }
+        }
+        Assertions.assertTrue(trouvees > 0, "Des placements de départ doivent être dans le livre!");
+
+        ia.setLivre(null);
+        PlateauBinaire plateau = plateauAleatoire(random);
+        ia.chercherCoup(plateau, JOUEUR1);
+        Assertions.assertTrue(ia.getNoeuds() > 0, "Sans livre, l'IA doit chercher!");
+    }
+}
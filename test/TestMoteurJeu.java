@@ -0,0 +1,92 @@
+import IA.IADifficile;
+import IA.IAFacile;
+import IA.IANormale;
+import Modele.Instantane;
+import Modele.MoteurJeu;
+import Modele.Plateau;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+
+import static Utile.Constante.*;
+
+public class TestMoteurJeu {
+
+    /**
+     * Vérifie que les batisseurs connus du moteur sont bien ceux posés sur le plateau.
+     */
+    private void verifierBatisseurs(MoteurJeu moteur) {
+        Plateau plateau = moteur.getPlateau();
+        for (int joueur : new int[]{JOUEUR1, JOUEUR2}) {
+            Assertions.assertEquals(NOMBRE_BATISSEUR_JOUEUR, moteur.getBatisseurs(joueur).size());
+            for (Point batisseur : moteur.getBatisseurs(joueur)) {
+                Assertions.assertTrue(plateau.estBatisseur(batisseur, joueur), "Batisseur absent du plateau en " + batisseur);
+            }
+        }
+    }
+
+    @Test
+    public void testPartiesSansInterface() {
+        System.setProperty("java.awt.headless", "true");
+        for (int t = 0; t < 20; t++) {
+            MoteurJeu moteur = new MoteurJeu(t % 2);
+            int gagnant = moteur.jouerPartie(new IAFacile(moteur, JOUEUR1), new IANormale(moteur, JOUEUR2));
+
+            Assertions.assertTrue(moteur.estJeufini());
+            Assertions.assertTrue(gagnant == JOUEUR1 || gagnant == JOUEUR2, "La partie doit avoir un gagnant!");
+            verifierBatisseurs(moteur);
+        }
+    }
+
+    @Test
+    public void testPartieIADifficile() {
+        MoteurJeu moteur = new MoteurJeu();
+        int gagnant = moteur.jouerPartie(new IADifficile(moteur, 50, 2), new IAFacile(moteur, JOUEUR2));
+
+        Assertions.assertEquals(JOUEUR1, gagnant, "L'IA difficile doit battre l'IA facile!");
+        verifierBatisseurs(moteur);
+    }
+
+    @Test
+    public void testInstantane() {
+        for (int t = 0; t < 10; t++) {
+            MoteurJeu moteur = new MoteurJeu(t % 2);
+            IAFacile[] ias = {new IAFacile(moteur, JOUEUR1), new IAFacile(moteur, JOUEUR2)};
+            // Un instantané à chaque action, jusqu'à la fin de la partie.
+            while (true) {
+                Instantane instantane = moteur.capturer();
+                MoteurJeu copie = new MoteurJeu(1 - t % 2);
+                copie.jouer(new Point(2, 2));
+                copie.restaurer(instantane);
+
+                Assertions.assertEquals(moteur.getPlateau(), copie.getPlateau());
+                Assertions.assertEquals(moteur.getPlateau().getHash(), copie.getPlateau().getHash());
+                Assertions.assertEquals(moteur.getBatisseurs(JOUEUR1), copie.getBatisseurs(JOUEUR1));
+                Assertions.assertEquals(moteur.getBatisseurs(JOUEUR2), copie.getBatisseurs(JOUEUR2));
+                Assertions.assertEquals(moteur.getSituation(), copie.getSituation());
+                Assertions.assertEquals(moteur.getJoueurEnCours(), copie.getJoueurEnCours());
+                Assertions.assertEquals(moteur.getNombreBatisseurs(), copie.getNombreBatisseurs());
+                Assertions.assertEquals(moteur.getNbTours(), copie.getNbTours());
+                Assertions.assertEquals(moteur.getBatisseurEnCours(), copie.getBatisseurEnCours());
+                Assertions.assertArrayEquals(moteur.getDeplacementEnCours(), copie.getDeplacementEnCours());
+                Assertions.assertEquals(moteur.estJeufini(), copie.estJeufini());
+                Assertions.assertEquals(moteur.getGagnant(), copie.getGagnant());
+                if (moteur.estJeufini()) break;
+                moteur.jouer(ias[moteur.getIndexJoueurEnCours()].joue());
+            }
+        }
+    }
+
+    @Test
+    public void testActionsRefusees() {
+        MoteurJeu moteur = new MoteurJeu();
+        Assertions.assertEquals(PLACEMENT, moteur.jouer(new Point(0, 0)));
+        Assertions.assertEquals(AUCUNE_ACTION, moteur.jouer(new Point(0, 0)), "La case est déjà occupée!");
+        Assertions.assertEquals(JOUEUR1, moteur.getJoueurEnCours());
+        Assertions.assertEquals(PLACEMENT, moteur.jouer(new Point(4, 4)));
+        Assertions.assertEquals(JOUEUR2, moteur.getJoueurEnCours());
+        Assertions.assertEquals(1, moteur.getNbTours());
+    }
+}
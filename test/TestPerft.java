@@ -0,0 +1,64 @@
+import Outils.Perft;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestPerft {
+    /**
+     * Profondeur jusqu'à laquelle les listes de Plateau sont aussi comparées aux générateurs.
+     */
+    private static final int PROFONDEUR_LISTES = 3;
+
+    /**
+     * @return les lignes "position ; nombres" du corpus de référence
+     */
+    private List<String[]> lireReferences() throws IOException {
+        List<String[]> references = new ArrayList<>();
+        for (String ligne : Files.readAllLines(Path.of("test", "perft.txt"))) {
+            if (ligne.isBlank() || ligne.startsWith("#")) continue;
+            references.add(ligne.split(";"));
+        }
+        return references;
+    }
+
+    @Test
+    public void testReferences() throws IOException {
+        for (String[] reference : lireReferences()) {
+            Perft perft = new Perft(reference[0]);
+            String[] nombres = reference[1].trim().split("\\s+");
+            for (int p = 1; p <= nombres.length; p++) {
+                Assertions.assertEquals(Long.parseLong(nombres[p - 1]), perft.compter(p), "perft " + p + " de " + reference[0]);
+            }
+        }
+    }
+
+    @Test
+    public void testListesDePlateau() throws IOException {
+        for (String[] reference : lireReferences()) {
+            Perft perft = new Perft(reference[0]);
+            String[] nombres = reference[1].trim().split("\\s+");
+            for (int p = 1; p <= Math.min(PROFONDEUR_LISTES, nombres.length); p++) {
+                Assertions.assertEquals(Long.parseLong(nombres[p - 1]), perft.compterListes(p, true), "perft " + p + " de " + reference[0]);
+            }
+        }
+    }
+
+    @Test
+    public void testEcritureEtDivision() {
+        String position = "1202010112041212014013000 13,8 10,23 1";
+        Perft perft = new Perft(position);
+        Assertions.assertEquals(position, perft.toString());
+
+        long total = 0;
+        for (String ligne : perft.diviser(3)) {
+            total += Long.parseLong(ligne.substring(ligne.lastIndexOf(' ') + 1));
+        }
+        Assertions.assertEquals(perft.compter(3), total, "La division doit couvrir toutes les suites!");
+    }
+}
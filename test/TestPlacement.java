@@ -0,0 +1,73 @@
+import IA.IADifficile;
+import IA.Placement;
+import IA.Poids;
+import Modele.MoteurJeu;
+import Modele.PlateauBinaire;
+import Modele.Symetries;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import static Utile.Constante.*;
+
+public class TestPlacement {
+
+    @Test
+    public void testSymetries() {
+        Random random = new Random(1);
+        for (int t = 0; t < 200; t++) {
+            int a = random.nextInt(25), b, c, d;
+            do b = random.nextInt(25); while (b == a);
+            do c = random.nextInt(25); while (c == a || c == b);
+            do d = random.nextInt(25); while (d == a || d == b || d == c);
+            int cle = Placement.canonique(a, b, c, d);
+            for (int[] s : Symetries.PERMUTATIONS) {
+                Assertions.assertEquals(cle, Placement.canonique(s[b], s[a], s[d], s[c]), "Un placement symétrique doit avoir la même clé!");
+            }
+        }
+    }
+
+    @Test
+    public void testTableFournie() throws IOException {
+        Placement placement = Placement.lire(new File(FICHIER_PLACEMENT));
+        Assertions.assertEquals(9664, placement.getNbPlacements());
+        Assertions.assertTrue(placement.getProfondeur() > 0);
+        Assertions.assertEquals(Poids.getPoids(), placement.getPoids(), "La table fournie doit suivre les poids de l'heuristique!");
+
+        // Le second joueur choisit la paire de note minimale.
+        Random random = new Random(2);
+        PlateauBinaire plateau = new PlateauBinaire();
+        plateau.ajouterBatisseur(JOUEUR1, 6);
+        plateau.ajouterBatisseur(JOUEUR1, 18);
+        int c = placement.choisir(plateau, JOUEUR2, random);
+        plateau.ajouterBatisseur(JOUEUR2, c);
+        int d = placement.choisir(plateau, JOUEUR2, random);
+        int note = placement.getNote(6, 18, c, d);
+        for (int x = 0; x < 25; x++) {
+            for (int y = x + 1; y < 25; y++) {
+                if (x == 6 || x == 18 || y == 6 || y == 18) continue;
+                Assertions.assertTrue(placement.getNote(6, 18, x, y) >= note, "Le second joueur doit minimiser la note!");
+            }
+        }
+    }
+
+    @Test
+    public void testPlacementIADifficile() {
+        MoteurJeu moteur = new MoteurJeu();
+        IADifficile ia1 = new IADifficile(moteur, 0, 1);
+        IADifficile ia2 = new IADifficile(moteur, 0, 1);
+        while (moteur.getSituation() == PLACEMENT) {
+            IADifficile ia = moteur.getJoueurEnCours() == JOUEUR1 ? ia1 : ia2;
+            Point p = ia.joue();
+            Assertions.assertTrue(moteur.getPlateau().estLibre(p), "Le batisseur doit être posé sur une case libre!");
+            moteur.jouer(p);
+        }
+        Assertions.assertEquals(2, moteur.getBatisseurs(JOUEUR1).size());
+        Assertions.assertEquals(2, moteur.getBatisseurs(JOUEUR2).size());
+    }
+}
@@ -130,4 +130,15 @@ public class TestPlateau {
             }
         }
     }
+
+    @Test
+    public void testHorsGrille() {
+        Plateau plateau = new Plateau();
+        Point batisseur = new Point(0, 4);
+
+        // (0, 5) ne doit pas être confondue avec la case (1, 0), de même indice.
+        Assertions.assertThrows(ArrayIndexOutOfBoundsException.class, () -> plateau.deplacementPossible(new Point(0, 5), batisseur));
+        Assertions.assertThrows(ArrayIndexOutOfBoundsException.class, () -> plateau.peutConstruire(new Point(0, 5), batisseur));
+        Assertions.assertThrows(ArrayIndexOutOfBoundsException.class, () -> plateau.peutConstruire(new Point(-1, 4), batisseur));
+    }
 }
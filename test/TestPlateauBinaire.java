@@ -0,0 +1,140 @@
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import IA.Coup;
+import Modele.Plateau;
+import Modele.PlateauBinaire;
+import Modele.Voisinage;
+import static Utile.Constante.*;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class TestPlateauBinaire {
+
+    /**
+     * Construit un plateau aléatoire avec deux batisseurs par joueur.
+     */
+    private Plateau plateauAleatoire(Random random, ArrayList<Point> batisseurs_j1, ArrayList<Point> batisseurs_j2) {
+        Plateau plateau = new Plateau();
+        int nb_constructions = random.nextInt(40);
+        for (int i = 0; i < nb_constructions; i++) {
+            Point p = new Point(random.nextInt(PLATEAU_LIGNES), random.nextInt(PLATEAU_COLONNES));
+            if (!plateau.estCoupole(p)) plateau.ameliorerBatiment(p);
+        }
+        while (batisseurs_j1.size() + batisseurs_j2.size() < 4) {
+            Point p = new Point(random.nextInt(PLATEAU_LIGNES), random.nextInt(PLATEAU_COLONNES));
+            if (plateau.estLibre(p) && !plateau.estCoupole(p)) {
+                ArrayList<Point> batisseurs = batisseurs_j1.size() < 2 ? batisseurs_j1 : batisseurs_j2;
+                plateau.ajouterJoueur(p, batisseurs == batisseurs_j1 ? JOUEUR1 : JOUEUR2);
+                batisseurs.add(p);
+            }
+        }
+        return plateau;
+    }
+
+    private int versMasque(List<Point> cases) {
+        int masque = 0;
+        for (Point p : cases) masque |= 1 << Voisinage.index(p);
+        return masque;
+    }
+
+    @Test
+    public void testConversion() {
+        Random random = new Random(1);
+        for (int t = 0; t < 100; t++) {
+            ArrayList<Point> b1 = new ArrayList<>();
+            ArrayList<Point> b2 = new ArrayList<>();
+            Plateau plateau = plateauAleatoire(random, b1, b2);
+            PlateauBinaire binaire = new PlateauBinaire(plateau, b1, b2);
+
+            Assertions.assertTrue(plateau.equals(binaire.versPlateau()), "La conversion devrait conserver le plateau!");
+            Assertions.assertEquals(Voisinage.index(b1.get(1)), binaire.getPosition(JOUEUR1, 1));
+            Assertions.assertEquals(Voisinage.index(b2.get(0)), binaire.getPosition(JOUEUR2, 0));
+        }
+    }
+
+    @Test
+    public void testMemesRegles() {
+        Random random = new Random(2);
+        for (int t = 0; t < 100; t++) {
+            ArrayList<Point> b1 = new ArrayList<>();
+            ArrayList<Point> b2 = new ArrayList<>();
+            Plateau plateau = plateauAleatoire(random, b1, b2);
+            PlateauBinaire binaire = new PlateauBinaire(plateau, b1, b2);
+
+            for (Point batisseur : b1) {
+                int b = Voisinage.index(batisseur);
+                Assertions.assertEquals(versMasque(plateau.getCasesAccessibles(batisseur)), binaire.casesAccessibles(b), "Cases accessibles différentes en " + batisseur);
+                Assertions.assertEquals(versMasque(plateau.getConstructionsPossible(batisseur)), binaire.constructionsPossibles(b), "Constructions différentes en " + batisseur);
+            }
+
+            boolean bloque = plateau.getCasesAccessibles(b2.get(0)).isEmpty() && plateau.getCasesAccessibles(b2.get(1)).isEmpty();
+            boolean gagne = plateau.estToit(b2.get(0)) || plateau.estToit(b2.get(1));
+            Assertions.assertEquals(bloque, binaire.estBloque(JOUEUR2));
+            Assertions.assertEquals(gagne, binaire.aGagne(JOUEUR2));
+        }
+    }
+
+    @Test
+    public void testGenererCoups() {
+        Random random = new Random(3);
+        int[] coups_plateau = new int[NOMBRE_COUPS_MAX];
+        int[] coups_binaire = new int[NOMBRE_COUPS_MAX];
+        for (int t = 0; t < 100; t++) {
+            ArrayList<Point> b1 = new ArrayList<>();
+            ArrayList<Point> b2 = new ArrayList<>();
+            Plateau plateau = plateauAleatoire(random, b1, b2);
+            Plateau copie = new Plateau(plateau);
+
+            // Même énumération que les listes de Plateau : déplacement puis construction depuis la case d'arrivée.
+            ArrayList<Integer> attendus = new ArrayList<>();
+            for (Point batisseur : b1) {
+                for (Point deplacement : plateau.getCasesAccessibles(batisseur)) {
+                    plateau.enleverJoueur(batisseur);
+                    plateau.ajouterJoueur(deplacement, JOUEUR1);
+                    for (Point construction : plateau.getConstructionsPossible(deplacement)) {
+                        attendus.add(Coup.encoder(Voisinage.index(batisseur), Voisinage.index(deplacement), Voisinage.index(construction)));
+                    }
+                    plateau.enleverJoueur(deplacement);
+                    plateau.ajouterJoueur(batisseur, JOUEUR1);
+                }
+            }
+
+            int nb_plateau = plateau.genererCoups(b1, coups_plateau);
+            int nb_binaire = new PlateauBinaire(plateau, b1, b2).genererCoups(JOUEUR1, coups_binaire, 0);
+            Assertions.assertEquals(attendus.size(), nb_plateau);
+            Assertions.assertEquals(attendus.size(), nb_binaire);
+            for (int i = 0; i < nb_plateau; i++) {
+                Assertions.assertEquals((int) attendus.get(i), coups_plateau[i]);
+                Assertions.assertEquals((int) attendus.get(i), coups_binaire[i]);
+            }
+            Assertions.assertTrue(plateau.equals(copie), "La génération ne doit pas modifier le plateau!");
+        }
+    }
+
+    @Test
+    public void testDeplacerConstruire() {
+        Plateau plateau = new Plateau();
+        plateau.ajouterJoueur(new Point(0, 0), JOUEUR1);
+        plateau.ajouterJoueur(new Point(4, 4), JOUEUR1);
+        plateau.ajouterJoueur(new Point(0, 4), JOUEUR2);
+        plateau.ajouterJoueur(new Point(4, 0), JOUEUR2);
+        PlateauBinaire binaire = new PlateauBinaire(plateau);
+        PlateauBinaire copie = new PlateauBinaire(binaire);
+
+        binaire.deplacer(Voisinage.index(0, 0), Voisinage.index(1, 1));
+        binaire.construire(Voisinage.index(2, 2));
+        Assertions.assertFalse(binaire.equals(copie));
+        Assertions.assertEquals(RDC, binaire.getHauteur(Voisinage.index(2, 2)));
+        Assertions.assertEquals(binaire.calculerHash(), binaire.getHash(), "La clé doit être mise à jour à chaque coup!");
+        Assertions.assertEquals(binaire.versPlateau().getHash(), binaire.getHash());
+
+        binaire.deconstruire(Voisinage.index(2, 2));
+        binaire.deplacer(Voisinage.index(1, 1), Voisinage.index(0, 0));
+        Assertions.assertTrue(binaire.equals(copie));
+        Assertions.assertEquals(plateau.getHash(), binaire.getHash());
+    }
+}
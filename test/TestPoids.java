@@ -0,0 +1,67 @@
+import IA.EvaluationIncrementale;
+import IA.IADifficile;
+import IA.Poids;
+import Modele.MoteurJeu;
+import Modele.PlateauBinaire;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+
+import static Utile.Constante.*;
+
+public class TestPoids {
+
+    @Test
+    public void testEcrireLire() throws IOException {
+        Poids poids = new Poids(7, 31, 14, 3);
+        File fichier = File.createTempFile("poids", ".properties");
+        fichier.deleteOnExit();
+        poids.ecrire(fichier, "Essai\nsur deux lignes");
+        Assertions.assertEquals(poids, Poids.lire(fichier));
+        Assertions.assertEquals(poids.avec(Poids.CASE_CENTRALE, 20), new Poids(7, 31, 20, 3));
+
+        try (PrintWriter sortie = new PrintWriter(new FileWriter(fichier))) {
+            sortie.println("difference_hauteurs=7");
+            sortie.println("mobilite_verticale=abc");
+        }
+        Assertions.assertThrows(IOException.class, () -> Poids.lire(fichier), "Un poids invalide doit être refusé!");
+        Assertions.assertThrows(IOException.class, () -> Poids.lire(new File(fichier.getPath() + ".absent")));
+    }
+
+    @Test
+    public void testPoidsFournis() throws IOException {
+        // Le fichier fourni doit être lisible, sinon l'IA se rabat sur les poids choisis à la main.
+        Poids poids = Poids.lire(new File(FICHIER_POIDS));
+        Assertions.assertEquals(poids, Poids.getPoids());
+        Assertions.assertEquals(poids, new IADifficile(new MoteurJeu(), Long.MAX_VALUE, 2).getPoids());
+    }
+
+    @Test
+    public void testSetPoids() {
+        PlateauBinaire plateau = new PlateauBinaire();
+        plateau.ajouterBatisseur(JOUEUR1, 6);
+        plateau.ajouterBatisseur(JOUEUR1, 12);
+        plateau.ajouterBatisseur(JOUEUR2, 0);
+        plateau.ajouterBatisseur(JOUEUR2, 24);
+        plateau.construire(7);
+        plateau.construire(13);
+        plateau.construire(13);
+
+        IADifficile ia = new IADifficile(new MoteurJeu(), Long.MAX_VALUE, 2);
+        Poids poids = new Poids(3, 1, 40, 7);
+        ia.setPoids(poids);
+        Assertions.assertEquals(poids, ia.getPoids());
+        EvaluationIncrementale evaluation = poids.nouvelleEvaluation(2);
+        evaluation.initialiser(plateau);
+        Assertions.assertEquals(ia.evaluer(plateau, JOUEUR1), evaluation.getScore(JOUEUR1), "L'évaluation doit suivre les nouveaux poids!");
+
+        int avant = ia.evaluer(plateau, JOUEUR1);
+        ia.setPoids(poids.avec(Poids.CASE_CENTRALE, 0));
+        Assertions.assertNotEquals(avant, ia.evaluer(plateau, JOUEUR1), "Changer un poids doit changer l'évaluation!");
+    }
+}
@@ -0,0 +1,163 @@
+import IA.Coup;
+import IA.IADifficile;
+import IA.SolveurFinale;
+import Modele.MoteurJeu;
+import Modele.PlateauBinaire;
+import Modele.Symetries;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static Utile.Constante.*;
+
+public class TestSolveurFinale {
+
+    /**
+     * Joue une partie aléatoire, sans montée gagnante ni coup laissant gagner l'adversaire, jusqu'à ce qu'il ne
+     * reste plus que "libres" cases libres.
+     *
+     * @return le plateau obtenu, JOUEUR1 devant jouer, null si la partie s'est finie avant
+     */
+    private PlateauBinaire finAleatoire(Random random, int libres) {
+        PlateauBinaire plateau = new PlateauBinaire();
+        while (plateau.getPosition(JOUEUR2, 1) == -1) {
+            int c = random.nextInt(25);
+            if ((plateau.getOccupees() & (1 << c)) == 0) {
+                plateau.ajouterBatisseur(plateau.getPosition(JOUEUR1, 1) == -1 ? JOUEUR1 : JOUEUR2, c);
+            }
+        }
+        int[] coups = new int[NOMBRE_COUPS_MAX];
+        int joueur = JOUEUR1;
+        while (SolveurFinale.casesLibres(plateau) > libres || joueur != JOUEUR1) {
+            int nb_coups = plateau.genererCoups(joueur, coups, 0);
+            int autre = MoteurJeu.getAutreJoueur(joueur);
+            int choisi = -1;
+            for (int essai = 0; essai < 20 && nb_coups > 0 && choisi == -1; essai++) {
+                int c = coups[random.nextInt(nb_coups)];
+                if (plateau.getHauteur(Coup.getDeplacement(c)) == TOIT) continue;
+                jouer(plateau, c);
+                if (plateau.casesGagnantes(autre) == 0) {
+                    choisi = c;
+                } else {
+                    annuler(plateau, c);
+                }
+            }
+            if (choisi == -1) return null;
+            joueur = autre;
+        }
+        return plateau.genererCoups(JOUEUR1, coups, 0) == 0 ? null : plateau;
+    }
+
+    private void jouer(PlateauBinaire plateau, int coup) {
+        plateau.deplacer(Coup.getBatisseur(coup), Coup.getDeplacement(coup));
+        plateau.construire(Coup.getConstruction(coup));
+    }
+
+    private void annuler(PlateauBinaire plateau, int coup) {
+        plateau.deconstruire(Coup.getConstruction(coup));
+        plateau.deplacer(Coup.getDeplacement(coup), Coup.getBatisseur(coup));
+    }
+
+    /**
+     * Minimax exhaustif, sans élagage ni table, avec la convention de valeur du solveur.
+     */
+    private int minimax(PlateauBinaire plateau, int joueur, int ply) {
+        int[] coups = new int[NOMBRE_COUPS_MAX];
+        int nb_coups = plateau.genererCoups(joueur, coups, 0);
+        if (nb_coups == 0) return -(SolveurFinale.VICTOIRE - ply);
+        int meilleur = Integer.MIN_VALUE;
+        for (int k = 0; k < nb_coups; k++) {
+            int c = coups[k];
+            if (plateau.getHauteur(Coup.getDeplacement(c)) == TOIT) return SolveurFinale.VICTOIRE - ply - 1;
+            jouer(plateau, c);
+            meilleur = Math.max(meilleur, -minimax(plateau, MoteurJeu.getAutreJoueur(joueur), ply + 1));
+            annuler(plateau, c);
+        }
+        return meilleur;
+    }
+
+    @Test
+    public void testCommeMinimax() {
+        Random random = new Random(1);
+        SolveurFinale solveur = new SolveurFinale(1 << 16);
+        int resolues = 0;
+        while (resolues < 15) {
+            PlateauBinaire plateau = finAleatoire(random, 7);
+            if (plateau == null) continue;
+            PlateauBinaire copie = new PlateauBinaire(plateau);
+            int attendu = minimax(plateau, JOUEUR1, 0);
+            int valeur = solveur.resoudre(plateau, JOUEUR1, Long.MAX_VALUE);
+            Assertions.assertTrue(plateau.equals(copie), "La résolution doit restaurer le plateau!");
+            Assertions.assertEquals(attendu, valeur, "Valeur différente de minimax :\n" + plateau);
+
+            // Le coup trouvé mène à la même valeur.
+            int coup = solveur.getMeilleurCoup();
+            if (plateau.getHauteur(Coup.getDeplacement(coup)) != TOIT) {
+                jouer(plateau, coup);
+                Assertions.assertEquals(attendu, -minimax(plateau, JOUEUR2, 1), "Le coup trouvé doit être optimal!");
+                annuler(plateau, coup);
+            }
+            resolues++;
+        }
+    }
+
+    @Test
+    public void testPositionsSymetriques() {
+        Random random = new Random(3);
+        SolveurFinale solveur = new SolveurFinale(1 << 16);
+        for (int t = 0; t < 10; t++) {
+            PlateauBinaire plateau;
+            do plateau = finAleatoire(random, 10); while (plateau == null);
+            int valeur = solveur.resoudre(plateau, JOUEUR1, Long.MAX_VALUE);
+            for (int s = 0; s < Symetries.NB_SYMETRIES; s++) {
+                PlateauBinaire image = Symetries.appliquer(s, plateau);
+                Assertions.assertEquals(valeur, solveur.resoudre(image, JOUEUR1, Long.MAX_VALUE), "Une position symétrique doit avoir la même valeur!");
+                Assertions.assertEquals(0, solveur.getNoeuds(), "Une position symétrique d'une position résolue doit être lue dans la table!");
+
+                int coup = solveur.getMeilleurCoup();
+                int[] coups = new int[NOMBRE_COUPS_MAX];
+                int nb_coups = image.genererCoups(JOUEUR1, coups, 0);
+                boolean legal = false;
+                for (int k = 0; k < nb_coups; k++) legal |= coups[k] == coup;
+                Assertions.assertTrue(legal, "Le coup lu dans la table doit être ramené dans le repère de la position!");
+            }
+        }
+    }
+
+    @Test
+    public void testLectureResultat() {
+        PlateauBinaire plateau = new PlateauBinaire();
+        for (int i = 0; i < 3; i++) plateau.construire(7);
+        for (int i = 0; i < 2; i++) plateau.construire(12);
+        plateau.ajouterBatisseur(JOUEUR1, 12);
+        plateau.ajouterBatisseur(JOUEUR1, 0);
+        plateau.ajouterBatisseur(JOUEUR2, 24);
+        plateau.ajouterBatisseur(JOUEUR2, 23);
+
+        SolveurFinale solveur = new SolveurFinale(1 << 10);
+        int valeur = solveur.resoudre(plateau, JOUEUR1, Long.MAX_VALUE);
+        Assertions.assertTrue(SolveurFinale.estVictoire(valeur));
+        Assertions.assertEquals(1, SolveurFinale.getDistance(valeur), "La montée sur le toit gagne tout de suite!");
+        Assertions.assertEquals(7, Coup.getDeplacement(solveur.getMeilleurCoup()));
+        Assertions.assertFalse(SolveurFinale.estDefaite(SolveurFinale.NON_RESOLU));
+    }
+
+    @Test
+    public void testIADifficile() {
+        Random random = new Random(2);
+        PlateauBinaire plateau;
+        do plateau = finAleatoire(random, IA_SEUIL_FINALE); while (plateau == null);
+
+        IADifficile ia = new IADifficile(new MoteurJeu(), Long.MAX_VALUE, 2);
+        Coup coup = ia.chercherCoup(plateau, JOUEUR1);
+        Assertions.assertNotNull(coup);
+        Assertions.assertNotEquals(SolveurFinale.NON_RESOLU, ia.getFinale(), "La fin de partie doit être résolue!");
+        Assertions.assertEquals(SolveurFinale.getDistance(ia.getFinale()), ia.getProfondeurAtteinte());
+
+        ia.setSeuilFinale(0);
+        Assertions.assertNotNull(ia.chercherCoup(plateau, JOUEUR1));
+        Assertions.assertEquals(SolveurFinale.NON_RESOLU, ia.getFinale(), "Le solveur doit pouvoir être désactivé!");
+    }
+}
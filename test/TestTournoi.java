@@ -0,0 +1,32 @@
+import Outils.Tournoi;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import static Utile.Constante.*;
+
+public class TestTournoi {
+
+    @Test
+    public void testMemesPartiesQuelQueSoitLeNombreDeFils() throws InterruptedException {
+        Tournoi seul = new Tournoi("facile", "normale", 40, 12);
+        Tournoi parallele = new Tournoi("facile", "normale", 40, 12);
+        seul.executer(1);
+        parallele.executer(4);
+
+        Assertions.assertArrayEquals(seul.getGagnants(), parallele.getGagnants(), "Les graines doivent fixer chaque partie!");
+        Assertions.assertArrayEquals(seul.getLongueurs(), parallele.getLongueurs());
+        Assertions.assertEquals(40, seul.getVictoires(JOUEUR1) + seul.getVictoires(JOUEUR2));
+    }
+
+    @Test
+    public void testIntervalleWilson() {
+        double[] intervalle = Tournoi.intervalleWilson(50, 100);
+        Assertions.assertEquals(0.404, intervalle[0], 1e-3);
+        Assertions.assertEquals(0.596, intervalle[1], 1e-3);
+
+        intervalle = Tournoi.intervalleWilson(0, 10);
+        Assertions.assertEquals(0, intervalle[0], 1e-9);
+        Assertions.assertTrue(intervalle[1] > 0 && intervalle[1] < 0.35);
+    }
+}